@@ -0,0 +1,251 @@
+package cn.softeng;
+
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntityLauncher;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.LinkedComponent;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import cn.softeng.processflow.SimEntity;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 整个模型的吞吐量测试:
+ * 按参数构建 DesSimTest 中的网络 (EntityGenerator/EntityLauncher -> n 级 Queue/Server -> EntitySink)，
+ * 对级数、到达间隔、仿真时长、运行模式的所有组合各运行一次，输出每次运行的
+ * 每秒执行的事件数、每秒离开系统的实体数、堆内存峰值、每个事件的平均分配字节数，结果追加到 CSV 文件
+ *
+ * 每个组合先以 1/10 的仿真时长运行一次作为 JIT 预热，再取正式运行的结果
+ * 每级服务时间为到达间隔的 0.8 倍，系统是稳定的，实体数量不会无限增长
+ * Launcher 模式在仿真开始时用 inject(double[], int[]) 一次性注入所有到达
+ * 分配字节数为所有存活线程的分配量之差(Process 线程由线程池复用)，需要 HotSpot 的 com.sun.management.ThreadMXBean
+ *
+ * 用 Maven 运行(在 dessim-benchmarks 目录下，参数都是可选的)，例如：
+ * <pre>
+ * mvn -q compile exec:exec -Dthroughput.args="stages=1,10,100,1000 interArrivals=1,10 horizons=1000,10000 label=$(git rev-parse --short HEAD)"
+ * </pre>
+ * 参数:
+ * <ul>
+ *     <li>modes: 运行模式，默认 Generator,Launcher</li>
+ *     <li>stages: Queue/Server 的级数，默认 1,10,100,1000</li>
+ *     <li>interArrivals: 到达间隔(秒)，默认 1,10</li>
+ *     <li>horizons: 仿真时长(秒)，默认 1000</li>
+ *     <li>inline: 是否以 inline 模式执行事件，默认 false</li>
+ *     <li>label: 写入每一行的标签，例如提交的哈希值，默认为空</li>
+ *     <li>out: CSV 文件，默认 target/throughput.csv，已存在时追加</li>
+ * </ul>
+ * @date: 10/19/2026 12:30 AM
+ */
+public class ModelThroughputBenchmark {
+
+    private static final String HEADER = "label,mode,inline,stages,interArrival,horizon,wallMillis,events,entities,"
+            + "eventsPerSecond,entitiesPerSecond,peakHeapMB,bytesPerEvent";
+
+    /**
+     * 服务时间与到达间隔的比值
+     */
+    private static final double UTILIZATION = 0.8d;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("modes", "Generator,Launcher");
+        options.put("stages", "1,10,100,1000");
+        options.put("interArrivals", "1,10");
+        options.put("horizons", "1000");
+        options.put("inline", "false");
+        options.put("label", "");
+        options.put("out", "target/throughput.csv");
+        for (String arg : args) {
+            // 通过 Maven 属性传入时，所有参数可能在同一个字符串中
+            for (String option : arg.trim().split("\\s+")) {
+                if (option.isEmpty()) {
+                    continue;
+                }
+                int eq = option.indexOf('=');
+                if (eq < 0 || !options.containsKey(option.substring(0, eq))) {
+                    throw new IllegalArgumentException("Unknown option: " + option + ", expected one of " + options.keySet());
+                }
+                options.put(option.substring(0, eq), option.substring(eq + 1));
+            }
+        }
+
+        Path out = Paths.get(options.get("out"));
+        boolean newFile = !Files.exists(out);
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (newFile) {
+                writer.println(HEADER);
+            }
+            System.out.println(HEADER);
+            for (String mode : split(options.get("modes"))) {
+                for (String inline : split(options.get("inline"))) {
+                    for (String stages : split(options.get("stages"))) {
+                        for (String interArrival : split(options.get("interArrivals"))) {
+                            for (String horizon : split(options.get("horizons"))) {
+                                RunConfig config = new RunConfig(DesSim.Type.valueOf(mode), Boolean.parseBoolean(inline),
+                                        Integer.parseInt(stages), Double.parseDouble(interArrival), Double.parseDouble(horizon));
+                                run(config.warmup());
+                                String line = options.get("label") + "," + run(config);
+                                writer.println(line);
+                                writer.flush();
+                                System.out.println(line);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String[] split(String list) {
+        return list.split(",");
+    }
+
+    /**
+     * 一次运行的参数
+     */
+    private static class RunConfig {
+        final DesSim.Type mode;
+        final boolean inline;
+        final int stages;
+        final double interArrival;
+        final double horizon;
+
+        RunConfig(DesSim.Type mode, boolean inline, int stages, double interArrival, double horizon) {
+            if (mode != DesSim.Type.Generator && mode != DesSim.Type.Launcher) {
+                throw new IllegalArgumentException("Unsupported mode: " + mode);
+            }
+            this.mode = mode;
+            this.inline = inline;
+            this.stages = stages;
+            this.interArrival = interArrival;
+            this.horizon = horizon;
+        }
+
+        RunConfig warmup() {
+            return new RunConfig(mode, inline, stages, interArrival, horizon / 10);
+        }
+    }
+
+    /**
+     * 构建并运行一个模型
+     * @return CSV 的一行(不含标签)
+     */
+    private static String run(RunConfig config) {
+        SimulationContext context = new SimulationContext("throughput");
+        context.getEventManager().setExecuteInline(config.inline);
+        EntitySink[] sink = new EntitySink[1];
+        context.run(() -> sink[0] = buildModel(config));
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        if (config.mode == DesSim.Type.Generator) {
+            context.initModel(DesSim.Type.Generator, 0);
+        } else {
+            context.initModel(DesSim.Type.Launcher);
+            int arrivals = (int) (config.horizon / config.interArrival);
+            double[] times = new double[arrivals];
+            int[] nums = new int[arrivals];
+            for (int i = 0; i < arrivals; i++) {
+                times[i] = (i + 1) * config.interArrival;
+                nums[i] = 1;
+            }
+            context.inject(times, nums);
+        }
+        context.resume(config.horizon);
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        long events = context.getEventManager().getExecutedEventCount();
+        long entities = sink[0].getNumberAdded();
+        double seconds = elapsed / 1e9;
+        return String.format(Locale.ROOT, "%s,%b,%d,%s,%s,%d,%d,%d,%.0f,%.0f,%.1f,%.1f",
+                config.mode, config.inline, config.stages, config.interArrival, config.horizon, elapsed / 1000000,
+                events, entities, events / seconds, entities / seconds, peakHeap / (1024.0 * 1024.0),
+                allocatedBefore < 0 || events == 0 ? Double.NaN : (double) allocated / events);
+    }
+
+    /**
+     * source -> Queue1 -> Server1 -> ... -> QueueN -> ServerN -> EntitySink
+     * @return 模型的 EntitySink
+     */
+    private static EntitySink buildModel(RunConfig config) {
+        LinkedComponent last;
+        if (config.mode == DesSim.Type.Generator) {
+            EntityGenerator generator = new EntityGenerator("EntityGenerator");
+            generator.setEntitiesPerArrival(1);
+            generator.setFirstArrivalTime(config.interArrival);
+            generator.setInterArrivalTime(config.interArrival);
+            generator.setPrototypeEntity(new SimEntity("DefaultEntity"));
+            last = generator;
+        } else {
+            last = new EntityLauncher("EntityLauncher");
+        }
+
+        for (int i = 1; i <= config.stages; i++) {
+            Queue queue = new Queue("Queue" + i);
+            Server server = new Server("Server" + i);
+            server.setWaitQueue(queue);
+            server.setServiceTime(config.interArrival * UTILIZATION);
+            last.setNextComponent(queue);
+            last = server;
+        }
+        EntitySink sink = new EntitySink("EntitySink");
+        last.setNextComponent(sink);
+        return sink;
+    }
+
+    /**
+     * @return 所有存活线程分配的字节数之和，不支持时返回-1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long sum = 0;
+        for (long bytes : hotspot.getThreadAllocatedBytes(hotspot.getAllThreadIds())) {
+            if (bytes > 0) {
+                sum += bytes;
+            }
+        }
+        return sum;
+    }
+}
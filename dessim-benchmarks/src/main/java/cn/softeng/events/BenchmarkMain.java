@@ -0,0 +1,49 @@
+package cn.softeng.events;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * benchmarks.jar 的入口，参数与 org.openjdk.jmh.Main 相同
+ * 与 JMH 默认的区别是结果总是写成 JSON：未指定 -rf/-rff 时写入 target/jmh-result-yyyyMMdd-HHmmss.json，
+ * 不同提交的结果可以直接用 JMH Visualizer 等工具比较
+ * @date: 10/18/2026 11:59 PM
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions cmd;
+        try {
+            cmd = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            // 列表和帮助由 JMH 自己处理
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            String time = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            options.result("target/jmh-result-" + time + ".json");
+        }
+        new Runner(options.build()).run();
+    }
+}
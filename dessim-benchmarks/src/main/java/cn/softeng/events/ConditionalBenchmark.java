@@ -0,0 +1,160 @@
+package cn.softeng.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 轮询条件与信号条件的性能比较:
+ * conditionals 个条件各自等待一个状态变量达到阈值，每个刻度随机修改其中一个状态变量，
+ * 条件满足后，再以更高的阈值重新开始等待，所以始终有 conditionals 个条件在等待
+ * 轮询的条件每次推进时钟前都会全部检查一遍，信号条件只检查被修改的状态变量对应的条件
+ * 结果为每个刻度(一次修改 + 推进时钟前的条件检查)的平均耗时
+ * @date: 10/18/2026 11:59 PM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConditionalBenchmark {
+
+    /**
+     * 每次调用运行的刻度数
+     */
+    private static final int TICKS = 20000;
+
+    @Param({"100", "1000"})
+    public int conditionals;
+
+    @Param({"false", "true"})
+    public boolean useSignal;
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public long evaluate() {
+        EventManager evt = new EventManager("ConditionalBenchmark");
+        evt.setExecuteInline(true);
+        Model model = new Model(conditionals, useSignal);
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                for (int i = 0; i < model.values.length; i++) {
+                    model.waitFor(i);
+                }
+                EventManager.scheduleTicks(1, 0, false, new ChangeTarget(model), null);
+            }
+
+            @Override
+            public String getDescription() {
+                return "start";
+            }
+        }, null);
+        evt.resumeAsync((long) TICKS).join();
+        return model.evaluations;
+    }
+
+    private static class Model {
+        final int[] values;
+        final int[] thresholds;
+        final StateSignal[] signals;
+        final boolean useSignal;
+        final Random rand = new Random(42L);
+        long evaluations;
+
+        Model(int n, boolean useSignal) {
+            values = new int[n];
+            thresholds = new int[n];
+            signals = new StateSignal[n];
+            for (int i = 0; i < n; i++) {
+                signals[i] = new StateSignal("value" + i);
+            }
+            this.useSignal = useSignal;
+        }
+
+        void waitFor(int i) {
+            thresholds[i] = values[i] + 1;
+            EventManager.scheduleUntil(new ReachedTarget(this, i), new ValueConditional(this, i), null);
+        }
+    }
+
+    private static class ValueConditional extends Conditional {
+        final Model model;
+        final int index;
+
+        ValueConditional(Model model, int index) {
+            this.model = model;
+            this.index = index;
+        }
+
+        @Override
+        public boolean evaluate() {
+            model.evaluations++;
+            return model.values[index] >= model.thresholds[index];
+        }
+
+        @Override
+        public StateSignal[] getDependencies() {
+            return model.useSignal ? new StateSignal[]{model.signals[index]} : null;
+        }
+    }
+
+    /**
+     * 每个刻度随机修改一个状态变量
+     */
+    private static class ChangeTarget extends ProcessTarget {
+        final Model model;
+
+        ChangeTarget(Model model) {
+            this.model = model;
+        }
+
+        @Override
+        public void process() {
+            int i = model.rand.nextInt(model.values.length);
+            model.values[i]++;
+            model.signals[i].signal();
+            EventManager.scheduleTicks(1, 0, false, this, null);
+        }
+
+        @Override
+        public String getDescription() {
+            return "change";
+        }
+    }
+
+    /**
+     * 条件满足后，以更高的阈值重新开始等待
+     */
+    private static class ReachedTarget extends ProcessTarget {
+        final Model model;
+        final int index;
+
+        ReachedTarget(Model model, int index) {
+            this.model = model;
+            this.index = index;
+        }
+
+        @Override
+        public void process() {
+            model.waitFor(index);
+        }
+
+        @Override
+        public String getDescription() {
+            return "reached" + index;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package cn.softeng.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过 EventHandle 取消(killEvent)和提前执行(interruptEvent)事件的性能测试:
+ * 未来事件列表中先放入 pending 个远期事件作为背景，然后在一个事件中反复 "用 handle 调度一个事件 -> kill/interrupt 它"，
+ * 结果为每次 调度 + kill/interrupt 的平均耗时
+ * 事件以 inline 模式执行，interruptEvent 直接在当前线程中执行被中断的 target
+ * @date: 10/18/2026 11:59 PM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventHandleBenchmark {
+
+    /**
+     * 每次调用中 kill/interrupt 的次数
+     */
+    private static final int OPERATIONS = 100000;
+
+    /**
+     * 背景事件的时刻，远大于测试中调度的事件
+     */
+    private static final long BACKGROUND_TICK = 1L << 40;
+
+    @Param({"0", "10000"})
+    public int pending;
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long killEvent() {
+        return run(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long interruptEvent() {
+        return run(false);
+    }
+
+    private long run(boolean kill) {
+        EventManager evt = new EventManager("EventHandleBenchmark");
+        evt.setExecuteInline(true);
+        NoOpTarget noOp = new NoOpTarget();
+        for (int i = 0; i < pending; i++) {
+            evt.scheduleProcessExternal(BACKGROUND_TICK + i, 0, false, noOp, null);
+        }
+        evt.scheduleProcessExternal(0, 0, false, new HandleLoopTarget(kill, noOp), null);
+        // 背景事件不需要执行，运行到循环所在的时刻即可
+        return evt.resumeAsync(0L).join() + noOp.count;
+    }
+
+    /**
+     * 反复调度并 kill/interrupt 一个事件的target
+     */
+    private static class HandleLoopTarget extends ProcessTarget {
+        final boolean kill;
+        final ProcessTarget target;
+        final EventHandle handle = new EventHandle();
+
+        HandleLoopTarget(boolean kill, ProcessTarget target) {
+            this.kill = kill;
+            this.target = target;
+        }
+
+        @Override
+        public void process() {
+            for (int i = 0; i < OPERATIONS; i++) {
+                // 不同的时刻和优先级，每次都要在未来事件列表中新建和删除结点
+                EventManager.scheduleTicks(1 + (i & 1023), i & 7, false, target, handle);
+                if (kill) {
+                    EventManager.killEvent(handle);
+                } else {
+                    EventManager.interruptEvent(handle);
+                }
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return kill ? "killLoop" : "interruptLoop";
+        }
+    }
+
+    private static class NoOpTarget extends ProcessTarget {
+        long count;
+
+        @Override
+        public void process() {
+            count++;
+        }
+
+        @Override
+        public String getDescription() {
+            return "noOp";
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package cn.softeng.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 未来事件列表的 hold 模型性能测试:
+ * 列表中始终保持 pending 个结点，每次操作为 "取出队首结点 -> 删除 -> 在其时刻之后插入一个新结点"
+ * 时间增量服从指定的分布，平均值随结点数放大，保证 (刻度, 优先级) 基本不重复
+ * 比较 RedBlackTree(EventTree)、CalendarQueue、ArrayHeap 在 10^3、10^5、10^7 个结点时的性能，
+ * 10^7 个结点需要较大的堆，fork 的 JVM 使用 -Xmx4g，可以用 -p listType=... -p pending=... 只运行其中一部分
+ * @date: 10/18/2026 11:59 PM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class EventTreeBenchmark {
+
+    /**
+     * 预先生成的时间增量个数，运行中循环使用，避免把随机数的开销计入测试结果
+     */
+    private static final int INCREMENTS = 1 << 16;
+
+    /**
+     * 平均时间增量与结点数的比值
+     */
+    private static final double INCREMENT_PER_NODE = 1000.0d;
+
+    /**
+     * 时间增量的分布
+     */
+    public enum Distribution {
+        /**
+         * 指数分布，经典的 hold 模型
+         */
+        Exponential,
+        /**
+         * [0, 2 * 平均值) 上的均匀分布
+         */
+        Uniform,
+        /**
+         * 90% 服从平均值为总平均值 0.1 倍的指数分布，10% 服从 9.1 倍的指数分布，模拟短服务时间与长到达间隔混合的模型
+         */
+        Bimodal,
+    }
+
+    @Param({"RedBlackTree", "CalendarQueue", "ArrayHeap"})
+    public EventManager.ListType listType;
+
+    @Param({"Exponential", "Uniform", "Bimodal"})
+    public Distribution distribution;
+
+    @Param({"1000", "100000", "10000000"})
+    public int pending;
+
+    private EventList list;
+    private final long[] increments = new long[INCREMENTS];
+    private final int[] priorities = new int[INCREMENTS];
+    private int pos;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rand = new Random(42L);
+        double mean = INCREMENT_PER_NODE * pending;
+        for (int i = 0; i < INCREMENTS; i++) {
+            increments[i] = increment(rand, mean);
+            priorities[i] = rand.nextInt(6);
+        }
+
+        list = EventManager.createEventList(listType);
+        for (int i = 0; i < pending; i++) {
+            list.createOrFindNode(increment(rand, mean), rand.nextInt(6));
+        }
+        pos = 0;
+    }
+
+    private long increment(Random rand, double mean) {
+        switch (distribution) {
+            case Exponential:
+                return exponential(rand, mean);
+            case Uniform:
+                return (long) (2.0d * mean * rand.nextDouble());
+            case Bimodal:
+                return exponential(rand, rand.nextDouble() < 0.9d ? 0.1d * mean : 9.1d * mean);
+            default:
+                throw new IllegalArgumentException(distribution.toString());
+        }
+    }
+
+    private static long exponential(Random rand, double mean) {
+        return (long) (-mean * Math.log(1.0d - rand.nextDouble()));
+    }
+
+    /**
+     * 一次 hold 操作
+     * @return 取出的结点的刻度，交给 JMH 防止被优化掉
+     */
+    @Benchmark
+    public long hold() {
+        EventNode next = list.getNextNode();
+        long tick = next.schedTick;
+        list.removeNode(tick, next.priority);
+        int i = pos++ & (INCREMENTS - 1);
+        list.createOrFindNode(tick + increments[i], priorities[i]);
+        return tick;
+    }
+}
@@ -0,0 +1,82 @@
+package cn.softeng.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * waitTicks 经过 Process 线程交接的往返性能测试:
+ * processes 个 Process 反复调用 waitTicks(1)，每次都要挂起当前 Process、由事件循环在到期后唤醒，
+ * 结果为每次 waitTicks 往返的平均耗时
+ * @date: 10/18/2026 11:59 PM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessWaitBenchmark {
+
+    /**
+     * 每次调用中所有 Process 的 waitTicks 调用总次数
+     */
+    private static final int WAITS = 20000;
+
+    @Param({"1", "16"})
+    public int processes;
+
+    @Benchmark
+    @OperationsPerInvocation(WAITS)
+    public long waitTicks() {
+        EventManager evt = new EventManager("ProcessWaitBenchmark");
+        int perProcess = WAITS / processes;
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                for (int i = 0; i < processes; i++) {
+                    EventManager.startProcess(new WaitLoopTarget(perProcess));
+                }
+            }
+
+            @Override
+            public String getDescription() {
+                return "startWaitLoops";
+            }
+        }, null);
+        return evt.resumeAsync(Long.MAX_VALUE).join();
+    }
+
+    /**
+     * 反复等待1个刻度的target
+     */
+    private static class WaitLoopTarget extends ProcessTarget {
+        final int count;
+
+        WaitLoopTarget(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void process() {
+            for (int i = 0; i < count; i++) {
+                EventManager.waitTicks(1, 0, false, null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "waitLoop";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package cn.softeng.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventManager.scheduleTicks 加上事件执行的性能测试:
+ * chains 个 target 各自在执行时用 scheduleTicks 把自己重新调度到未来，直到总共执行 EVENTS 个事件，
+ * 结果为每个事件(一次调度 + 一次执行)的平均耗时
+ * inline 为 true 时由调用 resume() 的线程直接执行事件，为 false 时经过 Process 线程执行
+ * @date: 10/18/2026 11:59 PM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SchedulingBenchmark {
+
+    /**
+     * 每次调用执行的事件总数
+     */
+    private static final int EVENTS = 100000;
+
+    @Param({"1", "1000"})
+    public int chains;
+
+    @Param({"true", "false"})
+    public boolean inline;
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long scheduleAndDispatch() {
+        EventManager evt = new EventManager("SchedulingBenchmark");
+        evt.setExecuteInline(inline);
+        int perChain = EVENTS / chains;
+        for (int i = 0; i < chains; i++) {
+            // 各条链错开时刻和间隔，使未来事件列表中同时有 chains 个结点
+            evt.scheduleProcessExternal(i, 0, false, new ChainTarget(perChain, chains + i), null);
+        }
+        return evt.resumeAsync(Long.MAX_VALUE).join();
+    }
+
+    /**
+     * 执行时把自己重新调度到 interval 个刻度之后，共执行 count 次
+     */
+    private static class ChainTarget extends ProcessTarget {
+        final long interval;
+        int remaining;
+
+        ChainTarget(int count, long interval) {
+            this.remaining = count;
+            this.interval = interval;
+        }
+
+        @Override
+        public void process() {
+            if (--remaining > 0) {
+                EventManager.scheduleTicks(interval, 0, false, this, null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "chain";
+        }
+    }
+}
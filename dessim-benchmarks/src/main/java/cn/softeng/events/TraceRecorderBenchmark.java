@@ -0,0 +1,102 @@
+package cn.softeng.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BinaryTraceRecorder 的开销测试：以 inline 模式执行一条事件链(每个事件调度下一个事件)，
+ * 比较不记录、记录(缓冲区满时丢弃)两种情况下每个事件的平均耗时
+ * 记录文件为固定容量的环形，运行时间再长也不会不断增长
+ * @date: 10/18/2026 11:59 PM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceRecorderBenchmark {
+
+    /**
+     * 每次调用执行的事件数
+     */
+    private static final int EVENTS = 100000;
+
+    /**
+     * 记录文件的容量(记录数)
+     */
+    private static final int FILE_RECORDS = 1 << 20;
+
+    @Param({"false", "true"})
+    public boolean traced;
+
+    private Path file;
+    private BinaryTraceRecorder recorder;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (traced) {
+            file = Files.createTempFile("dessim", ".trace");
+            recorder = new BinaryTraceRecorder(file, 1 << 16, FILE_RECORDS, 10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (recorder != null) {
+            recorder.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(BinaryTraceRecorder.namesFile(file));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long chain() {
+        EventManager evt = new EventManager("TraceRecorderBenchmark");
+        evt.setExecuteInline(true);
+        evt.setTraceListener(recorder);
+        evt.scheduleProcessExternal(0, 0, false, new ChainTarget(EVENTS), null);
+        return evt.resumeAsync(Long.MAX_VALUE).join();
+    }
+
+    /**
+     * 同一个 target 反复调度自己，与 processflow 组件重复使用 target 的方式相同
+     */
+    private static class ChainTarget extends ProcessTarget {
+        int remaining;
+
+        ChainTarget(int remaining) {
+            this.remaining = remaining;
+        }
+
+        @Override
+        public void process() {
+            if (--remaining > 0) {
+                EventManager.scheduleTicks(1, 0, false, this, null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "chain";
+        }
+    }
+}
@@ -1,37 +1,21 @@
 package cn.softeng;
 
-import cn.softeng.basicsim.ClearStatisticsTarget;
-import cn.softeng.basicsim.Entity;
-import cn.softeng.basicsim.InitModelTarget;
+import cn.softeng.basicsim.StatisticsSampling;
+import cn.softeng.basicsim.StatisticsSink;
 import cn.softeng.events.EventManager;
-import cn.softeng.events.ProcessTarget;
-import cn.softeng.processflow.*;
+import cn.softeng.processflow.LinkedComponent;
 import lombok.extern.slf4j.Slf4j;
 
-import java.security.InvalidParameterException;
-import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * DES 对外调度接口
+ * 静态门面：所有方法都委托给当前的 SimulationContext，同时运行多个模型时请直接使用 SimulationContext
  */
 @Slf4j
 public class DesSim {
 
-    /**
-     * 负责调度DES的事件管理器
-     */
-    private static EventManager eventManager = new EventManager("DesSim");
-
-    /**
-     * 选择的仿真模式
-     */
-    private static Type desType;
-
-    /**
-     * 是否是第一次注入 (desType 是 Launcher模式下有效)
-     */
-    private static boolean firstInject;
-
     /**
      * 添加到组件的实体数量
      */
@@ -45,21 +29,20 @@ public class DesSim {
      */
     public static final String NumberInProgress = "NumberInProgress";
 
-
+    /**
+     * 以下静态方法都作用于当前上下文(见 SimulationContext.current())，
+     * 没有绑定上下文时即为默认上下文，与只能运行一个模型时的行为相同
+     */
+    private static SimulationContext context() {
+        return SimulationContext.current();
+    }
 
     /**
      * 初始化模型，适用于Generator模式
      * @param type DES类型: (包括：水平，垂直，单机)
      */
     public static void initModel(Type type, double initTime) {
-        desType = type;
-        // 清空时间管理的状态
-        eventManager.clear();
-        // 向事件队列中添加初始化模型的事件
-        long waitLength = eventManager.secondsToNearestTick(initTime);
-        eventManager.scheduleProcessExternal(waitLength, 0, false, new InitModelTarget(), null);
-        // 执行initTime时刻的初始化操作
-        resume(initTime);
+        context().initModel(type, initTime);
     }
 
     /**
@@ -67,13 +50,7 @@ public class DesSim {
      * @param type DES类型: (包括：水平，垂直，单机)
      */
     public static void initModel(Type type) {
-        desType = type;
-        firstInject = true;
-        // 清空时间管理的状态
-        eventManager.clear();
-        // 向事件队列中添加初始化模型的事件
-        eventManager.scheduleProcessExternal(0, 0, false, new InitModelTarget(), null);
-        resume(0);
+        context().initModel(type);
     }
 
     /**
@@ -82,42 +59,86 @@ public class DesSim {
      * @param num
      */
     public static void inject(double scheduleTime, int num) {
-        if (desType == Type.Generator) {
-            throw new RuntimeException("自动生成实体模式下，不支持 inject !!!");
-        }
-        ProcessTarget target = null;
-        if (firstInject && (scheduleTime - 0.0) > 0.000000001) {
-            target = new ClearStatisticsTarget();
-        } else {
-            target = null;
-        }
-        firstInject = false;
-        for (Entity entity : Entity.getAll()) {
-            if (entity.getClass() == EntityLauncher.class) {
-                EntityLauncher launcher = (EntityLauncher) entity;
-                launcher.scheduleAction(eventManager, scheduleTime, num, target);
-                break;
-            }
-        }
-    }
-
-    /**
-     * 执行事件直到指定时刻
+        context().inject(scheduleTime, num);
+    }
+
+    /**
+     * Launcher批量注入实体，所有触发事件一次性加入事件队列，调用时必须确保DES调度正在运行，否则会报错
+     * @param scheduleTimes 每次注入的时间
+     * @param nums 每次注入的实体数量
+     */
+    public static void inject(double[] scheduleTimes, int[] nums) {
+        context().inject(scheduleTimes, nums);
+    }
+
+    /**
+     * 设置是否以 inline 模式执行事件：不使用 Process 线程，由调用 resume() 的线程直接执行所有事件
+     * processflow 中的组件都不会阻塞 Process，开启后可以省去线程切换的开销
+     * 必须在调度器没有运行时调用
+     * @param inline
+     */
+    public static void setExecuteInline(boolean inline) {
+        context().getEventManager().setExecuteInline(inline);
+    }
+
+    /**
+     * 设置 Process 的后备线程类型(平台线程或虚拟线程)，必须在调度器没有运行时调用
+     * @param type
+     */
+    public static void setThreadType(EventManager.ThreadType type) {
+        context().getEventManager().setThreadType(type);
+    }
+
+    /**
+     * 设置 Process 池的最小规模，initModel() 时会提前创建这么多个 Process 线程
+     * @param size
+     */
+    public static void setMinProcessPoolSize(int size) {
+        context().getEventManager().setMinProcessPoolSize(size);
+    }
+
+    /**
+     * 设置统计数据的采样策略(每次时钟推进、固定间隔、降采样或只保留最后的值)，在下次 initModel() 时生效
+     * getTimePointList() 和 getDataList() 只返回采样得到的时刻
+     * @param sampling
+     */
+    public static void setStatisticsSampling(StatisticsSampling sampling) {
+        context().setStatisticsSampling(sampling);
+    }
+
+    /**
+     * 设置接收统计数据的 StatisticsSink，例如将统计数据流式写入文件的 StatisticsRecorder
+     * 没有设置采样策略时，内存中只保留最后的值，完整的序列由 sink 保存
+     * @param sink
+     */
+    public static void setStatisticsSink(StatisticsSink sink) {
+        context().setStatisticsSink(sink);
+    }
+
+    /**
+     * 执行事件直到指定时刻，阻塞到调度器停止
      * @param time
+     * @throws RuntimeException 执行事件时出现的异常
      */
     public static void resume(double time) {
-        eventManager.resume(time);
-        while (eventManager.isRunning()) {
-            try { Thread.sleep(1); } catch (InterruptedException e) { e.printStackTrace(); }
-        }
+        context().resume(time);
+    }
+
+    /**
+     * 异步执行事件直到指定时刻，不阻塞调用线程
+     * @param time
+     * @return 调度器停止时完成的 future，值为停止时的仿真时间(秒)，出错时以该异常完成
+     */
+    public static CompletableFuture<Double> resumeAsync(double time) {
+        return context().resumeAsync(time);
     }
 
     /**
      * 获取模型的时钟序列
-     * @return
+     * @return 只读视图，只在调度器暂停期间有效，需要长期保存时请复制
      */
     public static List<Double> getTimePointList() {
-        return new ArrayList<>(eventManager.getTimePointSet());
+        return context().getTimePointList();
     }
 
     /**
@@ -135,8 +156,7 @@ public class DesSim {
      * @return
      */
     public static LinkedComponent getEntity(String identifier) {
-        Entity ret = Entity.getNamedEntity(identifier);
-        return (LinkedComponent) ret;
+        return context().getEntity(identifier);
     }
 
     /**
@@ -144,7 +164,7 @@ public class DesSim {
      * @return
      */
     public static double nextEventTime() {
-        return eventManager.getNextEventTime();
+        return context().nextEventTime();
     }
 
     /**
@@ -152,7 +172,7 @@ public class DesSim {
      * @return
      */
     public static double currentSimTime() {
-        return eventManager.getCurrentTime();
+        return context().currentSimTime();
     }
 
     /**
@@ -160,7 +180,7 @@ public class DesSim {
      * @return
      */
     public static boolean hasEvent() {
-        return eventManager.hasEvent();
+        return context().hasEvent();
     }
 
     /**
@@ -170,22 +190,14 @@ public class DesSim {
      * @return
      */
     public static long getCurrentData(int identifier, String attr) {
-        LinkedComponent linkedComponent =  getEntity(identifier);
-        if (attr.equals(NumberAdded)) {
-            return linkedComponent.getNumberAdded();
-        } else if (attr.equals(NumberInProgress)) {
-            return linkedComponent.getNumberInProgress();
-        } else if (attr.equals(NumberProcessed)) {
-            return linkedComponent.getNumberProcessed();
-        }
-        throw new InvalidParameterException("attr 不存在");
+        return context().getCurrentData(String.valueOf(identifier), attr);
     }
 
     /**
      * 选定指定组件，指定属性到目前为止的所有数据
      * @param identifier
      * @param attr
-     * @return
+     * @return 只读视图，只在调度器暂停期间有效，需要长期保存时请复制
      */
     public static List<Long> getDataList(int identifier, String attr) {
         return getDataList(String.valueOf(identifier), attr);
@@ -195,18 +207,21 @@ public class DesSim {
      * 选定指定组件，指定属性到目前为止的所有数据
      * @param identifier
      * @param attr
-     * @return
+     * @return 只读视图，只在调度器暂停期间有效，需要长期保存时请复制
      */
     public static List<Long> getDataList(String identifier, String attr) {
-        LinkedComponent linkedComponent =  getEntity(identifier);
-        if (attr.equals(NumberAdded)) {
-            return linkedComponent.getNumAddList();
-        } else if (attr.equals(NumberInProgress)) {
-            return linkedComponent.getNumInProgressList();
-        } else if (attr.equals(NumberProcessed)) {
-            return linkedComponent.getNumProcessedList();
-        }
-        throw new InvalidParameterException("attr 不存在");
+        return context().getDataList(identifier, attr);
+    }
+
+    /**
+     * 并行运行同一个模型的多次独立重复实验，每次重复实验使用独立的上下文，不影响当前上下文
+     * @param builder 模型构建函数
+     * @param replications 重复实验的次数
+     * @param horizon 每次重复实验运行到的时刻(秒)
+     * @return 各组件 NumberAdded / NumberProcessed / NumberInProgress 的均值和95%置信区间
+     */
+    public static ReplicationResult runReplications(ReplicationRunner.ModelBuilder builder, int replications, double horizon) {
+        return new ReplicationRunner(builder).run(replications, horizon);
     }
 
     /**
@@ -0,0 +1,1109 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.Entity;
+import cn.softeng.basicsim.EntityTarget;
+import cn.softeng.basicsim.TimeSeriesStore;
+import cn.softeng.events.EventHandle;
+import cn.softeng.events.EventManager;
+import cn.softeng.events.EventSnapshot;
+import cn.softeng.events.ProcessTarget;
+import cn.softeng.processflow.LinkedComponent;
+import cn.softeng.processflow.LinkedService;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 将一个模型的组件图划分到多个 SimulationContext(分区)中并行执行，支持保守同步和乐观同步(Time Warp)两种方式
+ *
+ * 划分：Server 与它的等待队列始终位于同一个分区。保守方式只在最短服务时间大于0的 Server -> nextComponent 连接处切分，
+ * 乐观方式还可以切分前瞻量为零的连接，包括 Server -> nextComponent 和 Queue -> renegeDestination(例如指回上游的违约去向)。
+ * 切分处的下游组件被替换为一个通道代理，跨分区的 addEntity() 调用因此变为带时间戳的消息，在两轮之间按时间戳投递到目标分区
+ *
+ * 保守同步(Chandy-Misra-Bryant)：每个通道的前瞻量(lookahead)为发送方 Server 的最短服务时间，每一轮开始时计算每个分区可能收到的消息的最早时刻(LBTS)：
+ * 发送方正在处理的实体在其 endAction 时刻发出，之后开始处理的实体最早在 min(发送方下一个事件时刻, 发送方的LBTS) + lookahead 时发出，
+ * 在分区图上迭代到不动点即可，不需要空消息。每个分区只执行早于自己 LBTS 的事件。
+ * 若某一轮所有分区都在等待同一时刻的消息，则按分区编号先执行该时刻的事件
+ *
+ * 乐观同步(Time Warp)：每个分区每一轮投机地执行至多 optimisticBatch 个时刻的事件，执行每个时刻之前保存一个检查点：
+ * 事件管理器的快照，以及自上一个检查点以来状态有变化的组件的状态(增量保存，Queue 的 itemSet 只记录修改日志)。
+ * 投递消息时，若消息的时间戳早于接收方最后执行的时刻(落后消息)，接收方回滚到晚于该时间戳的第一个检查点，
+ * 回滚撤销的发送通过反消息取消，已被处理的反消息会使接收方继续回滚。时间戳等于接收方最后执行时刻的消息不引起回滚，
+ * 而是排在该时刻已执行的事件之后，所以回滚总是回到晚于 GVT 的时刻，前瞻量为零的环也不会反复互相回滚。
+ * 所有消息投递完毕后，各分区下一个事件时刻的最小值即为全局虚拟时间(GVT)，早于 GVT 的检查点不会再被恢复，
+ * 此时才按检查点中的状态补记统计数据，并释放检查点(fossil collection)
+ *
+ * 同一时刻的消息排在目标分区同一时刻、同一优先级的已有事件之后(FIFO)，对于由 FIFO 队列连接的组件链，
+ * 两种方式的统计结果都与顺序执行完全相同。各分区以 inline 模式执行事件，在 ForkJoinPool 上并行执行，
+ * 统计数据在各分区的时间点上记录，查询时按所有分区时间点的并集重新对齐
+ * @date: 10/18/2026 7:10 PM
+ */
+@Slf4j
+public class PartitionedSimulation {
+
+    /**
+     * 跨分区消息的事件优先级，与 LinkedService 的 endAction 相同
+     */
+    private static final int MESSAGE_PRIORITY = 5;
+
+    /**
+     * 同步方式
+     */
+    public enum Mode {
+        /**
+         * 保守同步，只执行确定安全的事件，要求跨分区的连接有正的前瞻量
+         */
+        Conservative,
+        /**
+         * 乐观同步，投机执行，出现落后消息时回滚
+         */
+        Optimistic
+    }
+
+    public final String name;
+
+    @Getter
+    private final Mode mode;
+
+    /**
+     * 各个分区
+     */
+    private final Partition[] partitions;
+
+    /**
+     * 分区之间的通道，按创建顺序保存，消息投递顺序与之相关
+     */
+    private final ArrayList<Link> links = new ArrayList<>();
+
+    /**
+     * 执行各分区的线程池
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * 乐观同步时，每个分区每一轮最多投机执行的时刻数，限制了回滚的范围和检查点占用的内存
+     */
+    @Setter
+    private int optimisticBatch = 256;
+
+    /**
+     * 已执行的同步轮数
+     */
+    @Getter
+    private long roundCount;
+
+    /**
+     * 因所有分区都被阻塞而按分区编号强制推进的次数
+     */
+    @Getter
+    private long forcedRoundCount;
+
+    /**
+     * 反消息的数量
+     */
+    private long antiMessageCount;
+
+    /**
+     * resume() 的累计耗时(纳秒)
+     */
+    private long wallNanos;
+
+    public PartitionedSimulation(SimulationContext model, int numPartitions) {
+        this(model, numPartitions, Mode.Conservative);
+    }
+
+    public PartitionedSimulation(SimulationContext model, int numPartitions, Mode mode) {
+        this(model, numPartitions, Math.min(numPartitions, Runtime.getRuntime().availableProcessors()), mode);
+    }
+
+    public PartitionedSimulation(SimulationContext model, int numPartitions, int parallelism) {
+        this(model, numPartitions, parallelism, Mode.Conservative);
+    }
+
+    /**
+     * 划分模型，模型中的所有实体都会迁移到新创建的分区中，必须在模型运行前调用
+     * @param model 已定义好所有组件的模型
+     * @param numPartitions 分区数量的上限，实际数量不超过可切分的组件组数
+     * @param parallelism 并行执行的线程数
+     * @param mode 同步方式
+     */
+    public PartitionedSimulation(SimulationContext model, int numPartitions, int parallelism, Mode mode) {
+        if (numPartitions < 1) {
+            throw new IllegalArgumentException("number of partitions must be positive: " + numPartitions);
+        }
+        this.name = model.name;
+        this.mode = mode;
+
+        // 按实体的创建顺序收集组件
+        ArrayList<Entity> entities = new ArrayList<>(model.getEntities());
+        ArrayList<LinkedComponent> components = new ArrayList<>();
+        IdentityHashMap<LinkedComponent, Integer> index = new IdentityHashMap<>();
+        for (Entity each : entities) {
+            if (each instanceof LinkedComponent) {
+                index.put((LinkedComponent) each, components.size());
+                components.add((LinkedComponent) each);
+            }
+        }
+
+        // 合并必须位于同一分区的组件，记录可以切分的连接
+        int[] parent = new int[components.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        EventManager modelManager = model.getEventManager();
+        ArrayList<Cut> cuttable = new ArrayList<>();
+        for (LinkedComponent comp : components) {
+            int i = index.get(comp);
+            if (comp instanceof LinkedService) {
+                for (Queue queue : ((LinkedService) comp).getQueues()) {
+                    union(parent, i, indexOf(index, queue));
+                }
+            }
+            if (comp instanceof Queue && ((Queue) comp).getRenegeDestination() != null) {
+                LinkedComponent dest = ((Queue) comp).getRenegeDestination();
+                if (mode == Mode.Optimistic) {
+                    cuttable.add(new Cut(comp, indexOf(index, dest), dest, true, 0));
+                } else {
+                    union(parent, i, indexOf(index, dest));
+                }
+            }
+            LinkedComponent next = comp.getNextComponent();
+            if (next == null) {
+                continue;
+            }
+            long lookahead = comp instanceof Server
+                    ? modelManager.secondsToNearestTick(((Server) comp).getMinServiceTime()) : 0;
+            if (comp instanceof Server && (lookahead > 0 || mode == Mode.Optimistic)) {
+                cuttable.add(new Cut(comp, indexOf(index, next), next, false, lookahead));
+            } else {
+                union(parent, i, indexOf(index, next));
+            }
+        }
+
+        // 组件组按创建顺序排列，再沿可切分的连接做广度优先遍历，使相邻的组尽量分到同一个分区
+        LinkedHashMap<Integer, ArrayList<LinkedComponent>> groups = new LinkedHashMap<>();
+        for (LinkedComponent comp : components) {
+            groups.computeIfAbsent(find(parent, index.get(comp)), k -> new ArrayList<>()).add(comp);
+        }
+        LinkedHashMap<Integer, ArrayList<Integer>> successors = new LinkedHashMap<>();
+        for (Cut cut : cuttable) {
+            int from = find(parent, index.get(cut.source));
+            int to = find(parent, cut.destinationIndex);
+            if (from != to) {
+                successors.computeIfAbsent(from, k -> new ArrayList<>()).add(to);
+            }
+        }
+        ArrayList<Integer> order = new ArrayList<>();
+        HashSet<Integer> visited = new HashSet<>();
+        for (Integer root : groups.keySet()) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Integer group = queue.poll();
+                order.add(group);
+                for (Integer succ : successors.getOrDefault(group, new ArrayList<>())) {
+                    if (visited.add(succ)) {
+                        queue.add(succ);
+                    }
+                }
+            }
+        }
+
+        // 按顺序将组件组连续地分配到各分区，每个分区的组件数量大致相等
+        int num = Math.max(1, Math.min(numPartitions, order.size()));
+        partitions = new Partition[num];
+        for (int i = 0; i < num; i++) {
+            partitions[i] = new Partition(i, new SimulationContext(name + "-" + i), mode == Mode.Optimistic);
+        }
+        IdentityHashMap<LinkedComponent, Integer> partitionOf = new IdentityHashMap<>();
+        int assigned = 0;
+        int current = 0;
+        for (Integer group : order) {
+            ArrayList<LinkedComponent> members = groups.get(group);
+            if (assigned >= (long) (current + 1) * components.size() / num && current < num - 1) {
+                current++;
+            }
+            for (LinkedComponent comp : members) {
+                partitionOf.put(comp, current);
+            }
+            assigned += members.size();
+        }
+
+        // 按创建顺序迁移实体，非组件实体(例如实体原型)放在第一个分区
+        for (Entity each : entities) {
+            Integer p = each instanceof LinkedComponent ? partitionOf.get(each) : null;
+            each.moveTo(partitions[p != null ? p : 0].context);
+            if (p != null) {
+                partitions[p].components.add((LinkedComponent) each);
+            }
+        }
+
+        // 在跨分区的连接处安装通道代理
+        for (Cut cut : cuttable) {
+            int from = partitionOf.get(cut.source);
+            int to = partitionOf.get(cut.destination);
+            if (from == to) {
+                continue;
+            }
+            Link link = getLink(from, to);
+            link.lookahead = Math.min(link.lookahead, cut.lookahead);
+            LinkedComponent[] proxy = new LinkedComponent[1];
+            partitions[from].context.run(() -> proxy[0] = new ChannelProxy(link, cut.destination));
+            if (cut.renege) {
+                ((Queue) cut.source).setRenegeDestination(proxy[0]);
+            } else {
+                link.servers.add((Server) cut.source);
+                cut.source.setNextComponent(proxy[0]);
+            }
+        }
+
+        for (Partition lp : partitions) {
+            lp.prepare();
+        }
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+        log.debug("{}: {} components in {} partitions, {} channels, {} mode", name, components.size(), num, links.size(), mode);
+    }
+
+    private static int indexOf(IdentityHashMap<LinkedComponent, Integer> index, LinkedComponent comp) {
+        Integer ret = index.get(comp);
+        if (ret == null) {
+            throw new IllegalArgumentException("component " + comp.getName() + " does not belong to the model");
+        }
+        return ret;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int i, int j) {
+        int a = find(parent, i);
+        int b = find(parent, j);
+        // 以较小的下标(先创建的组件)作为根，使组的顺序与创建顺序一致
+        if (a < b) {
+            parent[b] = a;
+        } else if (b < a) {
+            parent[a] = b;
+        }
+    }
+
+    private Link getLink(int from, int to) {
+        for (Link each : links) {
+            if (each.from == from && each.to == to) {
+                return each;
+            }
+        }
+        Link ret = new Link(partitions[from], to);
+        links.add(ret);
+        return ret;
+    }
+
+    /**
+     * 一条可以切分的连接
+     */
+    private static class Cut {
+        final LinkedComponent source;
+        final int destinationIndex;
+        final LinkedComponent destination;
+        /**
+         * 为true时是 Queue 的违约去向，否则是 Server 的 nextComponent
+         */
+        final boolean renege;
+        final long lookahead;
+
+        Cut(LinkedComponent source, int destinationIndex, LinkedComponent destination, boolean renege, long lookahead) {
+            this.source = source;
+            this.destinationIndex = destinationIndex;
+            this.destination = destination;
+            this.renege = renege;
+            this.lookahead = lookahead;
+        }
+    }
+
+    // ******************
+    // 运行
+    // ******************
+
+    /**
+     * 初始化所有分区，适用于Generator模式
+     * @param initTime
+     */
+    public void initModel(double initTime) {
+        for (Link link : links) {
+            link.outbox.clear();
+        }
+        for (Partition lp : partitions) {
+            lp.reset();
+            lp.context.initModel(DesSim.Type.Generator, initTime);
+        }
+        if (mode == Mode.Optimistic) {
+            // 初始化期间发出的消息在初始时刻执行
+            deliverOptimistic();
+        }
+    }
+
+    /**
+     * 并行执行所有分区的事件直到指定时刻
+     * @param time
+     */
+    public void resume(double time) {
+        long start = System.nanoTime();
+        long target = partitions[0].em.secondsToNearestTick(time);
+        if (mode == Mode.Optimistic) {
+            resumeOptimistic(target);
+        } else {
+            resumeConservative(target);
+        }
+
+        // 将所有分区的时钟推进到目标时刻
+        ArrayList<Integer> all = new ArrayList<>();
+        long[] limit = new long[partitions.length];
+        for (int p = 0; p < partitions.length; p++) {
+            all.add(p);
+            limit[p] = target;
+        }
+        runPartitions(all, limit, true);
+        wallNanos += System.nanoTime() - start;
+    }
+
+    private void resumeConservative(long target) {
+        int num = partitions.length;
+        long[] next = new long[num];
+        long[] limit = new long[num];
+        while (true) {
+            deliverMessages();
+            for (int p = 0; p < num; p++) {
+                next[p] = partitions[p].em.getNextEventTick();
+            }
+            long[] lbts = computeLbts(next);
+
+            ArrayList<Integer> ready = new ArrayList<>();
+            long min = Long.MAX_VALUE;
+            for (int p = 0; p < num; p++) {
+                limit[p] = Math.min(target, lbts[p] == Long.MAX_VALUE ? Long.MAX_VALUE : lbts[p] - 1);
+                if (next[p] <= limit[p]) {
+                    ready.add(p);
+                }
+                min = Math.min(min, next[p]);
+            }
+            if (ready.isEmpty()) {
+                if (min > target) {
+                    break;
+                }
+                // 所有分区都在等待同一时刻的消息，按分区编号执行该时刻的事件
+                for (int p = 0; p < num; p++) {
+                    if (next[p] == min) {
+                        ready.add(p);
+                        limit[p] = min;
+                        break;
+                    }
+                }
+                forcedRoundCount++;
+            }
+            runPartitions(ready, limit, false);
+            roundCount++;
+        }
+    }
+
+    private void resumeOptimistic(long target) {
+        for (Partition lp : partitions) {
+            lp.em.setStatisticsEnabled(false);
+        }
+        try {
+            while (true) {
+                deliverOptimistic();
+                // 所有消息都已投递，各分区下一个事件时刻的最小值即为GVT
+                long gvt = Long.MAX_VALUE;
+                for (Partition lp : partitions) {
+                    gvt = Math.min(gvt, lp.em.getNextEventTick());
+                }
+                for (Partition lp : partitions) {
+                    lp.fossilCollect(gvt);
+                }
+                if (gvt > target) {
+                    break;
+                }
+
+                ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (Partition lp : partitions) {
+                    if (lp.em.getNextEventTick() <= target) {
+                        tasks.add(pool.submit(() -> lp.runSpeculative(target, optimisticBatch)));
+                    }
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+                roundCount++;
+            }
+        } finally {
+            for (Partition lp : partitions) {
+                lp.em.setStatisticsEnabled(true);
+            }
+        }
+    }
+
+    /**
+     * 计算每个分区可能收到的消息的最早时刻
+     * @param next 各分区下一个事件的时刻
+     * @return
+     */
+    private long[] computeLbts(long[] next) {
+        long[] lbts = new long[partitions.length];
+        Arrays.fill(lbts, Long.MAX_VALUE);
+        // 分区图上的最短路径，前瞻量均为正，迭代次数不超过分区数量
+        for (int i = 0; i <= partitions.length; i++) {
+            boolean changed = false;
+            for (Link link : links) {
+                long origin = Math.min(next[link.from], lbts[link.from]);
+                long send = Math.min(link.pendingTick(), saturatedAdd(origin, link.lookahead));
+                if (send < lbts[link.to]) {
+                    lbts[link.to] = send;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                break;
+            }
+        }
+        return lbts;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long ret = a + b;
+        return ret < a ? Long.MAX_VALUE : ret;
+    }
+
+    /**
+     * 并行执行各分区中不晚于 limit 的事件
+     * @param ready 要执行的分区
+     * @param limit 各分区可以执行到的时刻
+     * @param advance 为true时，执行完毕后将时钟推进到 limit
+     */
+    private void runPartitions(List<Integer> ready, long[] limit, boolean advance) {
+        if (ready.size() == 1) {
+            partitions[ready.get(0)].run(limit[ready.get(0)], advance);
+            return;
+        }
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int p : ready) {
+            long end = limit[p];
+            tasks.add(pool.submit(() -> partitions[p].run(end, advance)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * 收集各通道本轮发出的消息，按时间戳稳定排序，同一时刻的消息保持通道顺序和发送顺序
+     * @param to 目标分区，小于0时收集所有通道
+     */
+    private ArrayList<Message> collectMessages(int to) {
+        ArrayList<Message> ret = new ArrayList<>();
+        for (Link link : links) {
+            if (to < 0 || link.to == to) {
+                ret.addAll(link.outbox);
+                link.outbox.clear();
+            }
+        }
+        ret.sort((a, b) -> Long.compare(a.tick, b.tick));
+        return ret;
+    }
+
+    /**
+     * 保守同步：将各通道中的消息按时间戳批量投递到目标分区
+     */
+    private void deliverMessages() {
+        for (int p = 0; p < partitions.length; p++) {
+            ArrayList<Message> inbox = collectMessages(p);
+            if (inbox.isEmpty()) {
+                continue;
+            }
+            EventManager evt = partitions[p].em;
+            long now = evt.getTicks();
+            int num = inbox.size();
+            long[] delays = new long[num];
+            int[] priorities = new int[num];
+            ProcessTarget[] targets = new ProcessTarget[num];
+            for (int i = 0; i < num; i++) {
+                Message msg = inbox.get(i);
+                if (msg.tick < now) {
+                    throw new IllegalStateException("causality error: message at tick " + msg.tick
+                            + " delivered to partition " + p + " at tick " + now);
+                }
+                delays[i] = msg.tick - now;
+                priorities[i] = MESSAGE_PRIORITY;
+                targets[i] = new DeliverTarget(msg);
+            }
+            evt.scheduleProcessExternalBatch(delays, priorities, true, targets);
+        }
+    }
+
+    /**
+     * 乐观同步：投递本轮发出的消息，处理落后消息引起的回滚和反消息，直到没有新的消息和反消息
+     */
+    private void deliverOptimistic() {
+        ArrayDeque<Message> positives = new ArrayDeque<>(collectMessages(-1));
+        ArrayDeque<Message> antis = new ArrayDeque<>();
+        while (!positives.isEmpty() || !antis.isEmpty()) {
+            // 先处理反消息，被取消的消息不再投递
+            if (!antis.isEmpty()) {
+                Message msg = antis.poll();
+                antiMessageCount++;
+                if (!msg.delivered) {
+                    continue;
+                }
+                Partition receiver = partitions[msg.to];
+                if (msg.processed) {
+                    receiver.rollback(msg.tick, antis);
+                } else {
+                    receiver.em.killEventExternal(msg.handle);
+                }
+                continue;
+            }
+            Message msg = positives.poll();
+            if (msg.cancelled) {
+                continue;
+            }
+            Partition receiver = partitions[msg.to];
+            msg.delivered = true;
+            receiver.inputs.add(msg);
+            if (msg.tick < receiver.lastExecutedTick()) {
+                // 落后消息，回滚时会重新插入所有未处理的消息
+                receiver.rollback(msg.tick + 1, antis);
+            } else {
+                receiver.insert(msg);
+            }
+        }
+    }
+
+    /**
+     * 关闭执行分区的线程池
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // ******************
+    // 查询
+    // ******************
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    public SimulationContext getPartition(int i) {
+        return partitions[i].context;
+    }
+
+    /**
+     * 所有分区中下一个事件的最早时刻
+     * @return
+     */
+    public double nextEventTime() {
+        long ret = Long.MAX_VALUE;
+        for (Partition lp : partitions) {
+            ret = Math.min(ret, lp.em.getNextEventTick());
+        }
+        return partitions[0].em.ticksToSeconds(ret);
+    }
+
+    /**
+     * 获取模型的时钟序列，即所有分区时钟序列的并集
+     * @return
+     */
+    public List<Double> getTimePointList() {
+        TreeSet<Double> ret = new TreeSet<>();
+        for (Partition lp : partitions) {
+            ret.addAll(lp.context.getTimePoints().asList());
+        }
+        return new ArrayList<>(ret);
+    }
+
+    /**
+     * 根据实体标识获取组件
+     * @param identifier
+     * @return
+     */
+    public LinkedComponent getEntity(String identifier) {
+        for (Partition lp : partitions) {
+            LinkedComponent ret = lp.context.getEntity(identifier);
+            if (ret != null) {
+                return ret;
+            }
+        }
+        throw new InvalidParameterException("组件 " + identifier + " 不存在");
+    }
+
+    /**
+     * 选定指定组件，指定属性到目前为止的所有数据，与 getTimePointList() 一一对应
+     * @param identifier
+     * @param attr
+     * @return
+     */
+    public List<Long> getDataList(String identifier, String attr) {
+        LinkedComponent comp = getEntity(identifier);
+        List<Double> recorded = comp.getTimeList();
+        List<Long> values = comp.getContext().getDataList(identifier, attr);
+        List<Double> times = getTimePointList();
+        List<Long> ret = new ArrayList<>(times.size());
+        // 组件的状态只在其所在分区的事件中改变，其他时间点上的值为之前最后一次记录的值
+        int k = -1;
+        for (double time : times) {
+            while (k + 1 < recorded.size() && recorded.get(k + 1) <= time) {
+                k++;
+            }
+            ret.add(k < 0 ? 0L : values.get(k));
+        }
+        return ret;
+    }
+
+    /**
+     * 返回到目前为止的执行效率统计
+     * @return
+     */
+    public EfficiencyReport getEfficiencyReport() {
+        long executed = 0;
+        long rolledBack = 0;
+        long rollbacks = 0;
+        for (Partition lp : partitions) {
+            executed += lp.em.getExecutedEventCount();
+            rolledBack += lp.rolledBackEvents;
+            rollbacks += lp.rollbackCount;
+        }
+        return new EfficiencyReport(mode, partitions.length, roundCount, executed, rolledBack, rollbacks,
+                antiMessageCount, wallNanos / 1e9);
+    }
+
+    /**
+     * 并行执行的效率统计
+     */
+    @Getter
+    public static class EfficiencyReport {
+        private final Mode mode;
+        private final int partitions;
+        private final long rounds;
+        /**
+         * 执行过的事件总数，包括被回滚的事件
+         */
+        private final long executedEvents;
+        /**
+         * 被回滚的事件数
+         */
+        private final long rolledBackEvents;
+        private final long rollbacks;
+        private final long antiMessages;
+        /**
+         * resume() 的累计耗时(秒)
+         */
+        private final double wallSeconds;
+
+        EfficiencyReport(Mode mode, int partitions, long rounds, long executedEvents, long rolledBackEvents,
+                         long rollbacks, long antiMessages, double wallSeconds) {
+            this.mode = mode;
+            this.partitions = partitions;
+            this.rounds = rounds;
+            this.executedEvents = executedEvents;
+            this.rolledBackEvents = rolledBackEvents;
+            this.rollbacks = rollbacks;
+            this.antiMessages = antiMessages;
+            this.wallSeconds = wallSeconds;
+        }
+
+        /**
+         * @return 最终提交的事件数
+         */
+        public long getCommittedEvents() {
+            return executedEvents - rolledBackEvents;
+        }
+
+        /**
+         * @return 被回滚的事件占执行过的事件的比例
+         */
+        public double getRollbackRatio() {
+            return executedEvents == 0 ? 0 : (double) rolledBackEvents / executedEvents;
+        }
+
+        /**
+         * @return 每秒提交的事件数
+         */
+        public double getCommittedEventsPerSecond() {
+            return wallSeconds > 0 ? getCommittedEvents() / wallSeconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s, %d partitions, %d rounds: executed %d, committed %d, rolled back %d "
+                            + "(ratio %.4f, %d rollbacks, %d anti-messages), %.0f committed events/s",
+                    mode, partitions, rounds, executedEvents, getCommittedEvents(), rolledBackEvents,
+                    getRollbackRatio(), rollbacks, antiMessages, getCommittedEventsPerSecond());
+        }
+    }
+
+    // ******************
+    // 分区
+    // ******************
+
+    /**
+     * 一个分区(逻辑进程)，分区内的状态只由执行该分区的线程修改，检查点和消息只在两轮之间由协调线程处理
+     */
+    private static class Partition {
+        final int index;
+        final SimulationContext context;
+        final EventManager em;
+        /**
+         * 分区中的组件(不包括通道代理)
+         */
+        final ArrayList<LinkedComponent> components = new ArrayList<>();
+        /**
+         * 为true时保存检查点(乐观同步)
+         */
+        final boolean saving;
+
+        /**
+         * 尚未提交的检查点，按执行时刻排序
+         */
+        final ArrayList<Checkpoint> checkpoints = new ArrayList<>();
+        /**
+         * 各组件最近一次保存的状态及其版本号，状态未改变时检查点直接引用它
+         */
+        LinkedComponent.ComponentState[] lastStates;
+        long[] lastVersions;
+
+        /**
+         * 已投递到该分区、尚未提交的消息
+         */
+        final ArrayList<Message> inputs = new ArrayList<>();
+        /**
+         * 该分区发出的、尚未提交的消息，sentBase 为第一条消息的全局序号
+         */
+        final ArrayList<Message> sent = new ArrayList<>();
+        long sentBase;
+
+        long rolledBackEvents;
+        long rollbackCount;
+
+        Partition(int index, SimulationContext context, boolean saving) {
+            this.index = index;
+            this.context = context;
+            this.em = context.getEventManager();
+            this.saving = saving;
+            em.setExecuteInline(true);
+        }
+
+        /**
+         * 组件迁移完毕后调用
+         */
+        void prepare() {
+            lastStates = new LinkedComponent.ComponentState[components.size()];
+            lastVersions = new long[components.size()];
+            for (LinkedComponent comp : components) {
+                if (saving && comp instanceof Queue) {
+                    ((Queue) comp).setJournaling(true);
+                }
+            }
+        }
+
+        void reset() {
+            checkpoints.clear();
+            Arrays.fill(lastStates, null);
+            inputs.clear();
+            sent.clear();
+            sentBase = 0;
+        }
+
+        /**
+         * 逐个时刻执行分区中的事件，每次只推进到下一个事件的时刻，所以分区只在有事件的时刻记录统计数据
+         * @param end 可以执行到的时刻
+         * @param advance 为true时，执行完毕后将时钟推进到 end
+         */
+        void run(long end, boolean advance) {
+            context.restartSampling();
+            long tick = em.getNextEventTick();
+            while (tick <= end) {
+                em.resume(tick);
+                tick = em.getNextEventTick();
+            }
+            if (advance) {
+                em.resume(end);
+            }
+        }
+
+        /**
+         * 投机执行至多 batch 个时刻的事件，执行每个时刻之前保存检查点
+         */
+        void runSpeculative(long end, int batch) {
+            context.restartSampling();
+            long tick = em.getNextEventTick();
+            for (int i = 0; i < batch && tick <= end; i++) {
+                checkpoint(tick);
+                em.resume(tick);
+                tick = em.getNextEventTick();
+            }
+        }
+
+        void checkpoint(long tick) {
+            LinkedComponent.ComponentState[] states = new LinkedComponent.ComponentState[components.size()];
+            for (int i = 0; i < states.length; i++) {
+                LinkedComponent comp = components.get(i);
+                long version = comp.getStateVersion();
+                if (lastStates[i] == null || lastVersions[i] != version) {
+                    lastStates[i] = comp.saveState();
+                    lastVersions[i] = version;
+                }
+                states[i] = lastStates[i];
+            }
+            checkpoints.add(new Checkpoint(tick, em.captureEvents(), states, sentBase + sent.size(),
+                    em.getExecutedEventCount()));
+        }
+
+        /**
+         * @return 已执行且尚未提交的最晚时刻，没有时返回 Long.MIN_VALUE
+         */
+        long lastExecutedTick() {
+            return checkpoints.isEmpty() ? Long.MIN_VALUE : checkpoints.get(checkpoints.size() - 1).tick;
+        }
+
+        /**
+         * 将消息加入事件队列
+         */
+        void insert(Message msg) {
+            em.scheduleProcessExternal(msg.tick - em.getTicks(), MESSAGE_PRIORITY, true, new DeliverTarget(msg), msg.handle);
+        }
+
+        /**
+         * 回滚到执行指定时刻及之后的事件之前的状态
+         * @param tick 被取消消息的时间戳，或落后消息的下一个时刻
+         * @param antis 回滚撤销的发送，作为反消息加入该队列
+         */
+        void rollback(long tick, ArrayDeque<Message> antis) {
+            int k = 0;
+            while (checkpoints.get(k).tick < tick) {
+                k++;
+            }
+            Checkpoint cp = checkpoints.get(k);
+            rolledBackEvents += em.getExecutedEventCount() - cp.executedEvents;
+            rollbackCount++;
+
+            em.restoreEvents(cp.events);
+            for (int i = 0; i < components.size(); i++) {
+                components.get(i).restoreState(cp.states[i]);
+                lastStates[i] = cp.states[i];
+                lastVersions[i] = components.get(i).getStateVersion();
+            }
+            checkpoints.subList(k, checkpoints.size()).clear();
+
+            // 取消回滚撤销的发送
+            int mark = (int) (cp.sentMark - sentBase);
+            for (int i = mark; i < sent.size(); i++) {
+                Message msg = sent.get(i);
+                msg.cancelled = true;
+                antis.add(msg);
+            }
+            sent.subList(mark, sent.size()).clear();
+
+            // 检查点之后处理的消息重新变为未处理，被取消的消息从事件队列中删除，不在快照中的未处理消息重新插入
+            for (Message msg : inputs) {
+                if (msg.tick >= cp.tick) {
+                    msg.processed = false;
+                }
+                if (msg.cancelled) {
+                    em.killEventExternal(msg.handle);
+                } else if (!msg.processed && !msg.handle.isScheduled()) {
+                    insert(msg);
+                }
+            }
+        }
+
+        /**
+         * 提交执行时刻早于GVT的检查点：补记统计数据，释放检查点和已经不会被回滚的消息
+         */
+        void fossilCollect(long gvt) {
+            int num = 0;
+            while (num < checkpoints.size() && checkpoints.get(num).tick < gvt) {
+                Checkpoint cp = checkpoints.get(num);
+                double time = em.ticksToSeconds(cp.events.getTick());
+                context.getTimePoints().add(time);
+                for (int i = 0; i < components.size(); i++) {
+                    components.get(i).recordStatistics(time, cp.states[i]);
+                }
+                num++;
+            }
+            checkpoints.subList(0, num).clear();
+            for (int i = 0; i < components.size(); i++) {
+                components.get(i).commitState(checkpoints.isEmpty() ? null : checkpoints.get(0).states[i]);
+            }
+            inputs.removeIf(msg -> msg.tick < gvt);
+            int done = 0;
+            while (done < sent.size() && sent.get(done).tick < gvt) {
+                done++;
+            }
+            sent.subList(0, done).clear();
+            sentBase += done;
+        }
+    }
+
+    /**
+     * 检查点：执行某一时刻的事件之前的分区状态
+     */
+    private static class Checkpoint {
+        /**
+         * 保存检查点后执行的时刻
+         */
+        final long tick;
+        final EventSnapshot events;
+        final LinkedComponent.ComponentState[] states;
+        /**
+         * 保存检查点时已发出消息的全局序号
+         */
+        final long sentMark;
+        /**
+         * 保存检查点时已执行的事件数
+         */
+        final long executedEvents;
+
+        Checkpoint(long tick, EventSnapshot events, LinkedComponent.ComponentState[] states, long sentMark, long executedEvents) {
+            this.tick = tick;
+            this.events = events;
+            this.states = states;
+            this.sentMark = sentMark;
+            this.executedEvents = executedEvents;
+        }
+    }
+
+    // ******************
+    // 通道
+    // ******************
+
+    /**
+     * 从一个分区到另一个分区的通道
+     */
+    private static class Link {
+        final Partition source;
+        final int from;
+        final int to;
+        /**
+         * 向该通道发送消息的 Server
+         */
+        final ArrayList<Server> servers = new ArrayList<>();
+        /**
+         * 前瞻量，即这些 Server 的最短服务时间(刻度)，有违约去向时为0
+         */
+        long lookahead = Long.MAX_VALUE;
+        /**
+         * 本轮发出的消息，只由发送方分区的线程写入，在两轮之间被投递
+         */
+        final ArrayList<Message> outbox = new ArrayList<>();
+
+        Link(Partition source, int to) {
+            this.source = source;
+            this.from = source.index;
+            this.to = to;
+        }
+
+        /**
+         * @return 发送方正在处理的实体中，最早完成处理(即发出消息)的时刻
+         */
+        long pendingTick() {
+            long ret = Long.MAX_VALUE;
+            for (Server server : servers) {
+                ret = Math.min(ret, server.getEndActionTick());
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * 带时间戳的跨分区消息
+     */
+    private static class Message {
+        /**
+         * 时间戳，即发送时刻
+         */
+        final long tick;
+        final int to;
+        final LinkedComponent destination;
+        final Entity entity;
+        /**
+         * 消息在接收方事件队列中的事件
+         */
+        final EventHandle handle = new EventHandle();
+        boolean delivered;
+        boolean processed;
+        boolean cancelled;
+
+        Message(long tick, int to, LinkedComponent destination, Entity entity) {
+            this.tick = tick;
+            this.to = to;
+            this.destination = destination;
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * 替换跨分区连接处的下游组件，将 addEntity() 调用转换为消息
+     */
+    private static class ChannelProxy extends LinkedComponent {
+        private final Link link;
+        private final LinkedComponent destination;
+
+        ChannelProxy(Link link, LinkedComponent destination) {
+            this.link = link;
+            this.destination = destination;
+        }
+
+        @Override
+        public void addEntity(Entity entity) {
+            Message msg = new Message(getSimTicks(), link.to, destination, entity);
+            link.outbox.add(msg);
+            if (link.source.saving) {
+                link.source.sent.add(msg);
+            }
+        }
+
+        @Override
+        public void updateStatistics(TimeSeriesStore times, double time) {}
+
+        @Override
+        public void clearStatistics() {}
+    }
+
+    /**
+     * 在目标分区中执行消息对应的 addEntity()
+     */
+    private static class DeliverTarget extends EntityTarget<LinkedComponent> {
+        private final Message msg;
+
+        DeliverTarget(Message msg) {
+            super(msg.destination, "addEntity");
+            this.msg = msg;
+        }
+
+        @Override
+        public void process() {
+            msg.processed = true;
+            entity.addEntity(msg.entity);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package cn.softeng;
+
+import lombok.Getter;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多次独立重复实验的汇总结果
+ * 每次重复实验的统计数据先按相同的时间网格采样(取每个网格时刻之前最后一次记录的值)，
+ * 再在各次重复实验之间求均值和置信区间(学生t分布)
+ * @date: 10/18/2026 5:30 PM
+ */
+public class ReplicationResult {
+
+    /**
+     * 重复实验的次数
+     */
+    @Getter
+    private final int replications;
+
+    /**
+     * 置信水平，例如 0.95
+     */
+    @Getter
+    private final double confidenceLevel;
+
+    /**
+     * 时间网格
+     */
+    private final double[] times;
+
+    /**
+     * 组件标识 -> (属性 -> 汇总序列)
+     */
+    private final LinkedHashMap<String, LinkedHashMap<String, Series>> series;
+
+    ReplicationResult(int replications, double confidenceLevel, double[] times,
+                      LinkedHashMap<String, LinkedHashMap<String, Series>> series) {
+        this.replications = replications;
+        this.confidenceLevel = confidenceLevel;
+        this.times = times;
+        this.series = series;
+    }
+
+    /**
+     * 返回时间网格，与各汇总序列中的数据一一对应
+     * @return
+     */
+    public double[] getTimes() {
+        return times.clone();
+    }
+
+    /**
+     * 返回所有被汇总的组件标识
+     * @return
+     */
+    public List<String> getComponentNames() {
+        return new ArrayList<>(series.keySet());
+    }
+
+    /**
+     * 获取指定组件、指定属性的汇总序列
+     * @param identifier 组件的标识符
+     * @param attr 属性，如 DesSim.NumberAdded
+     * @return
+     */
+    public Series getSeries(String identifier, String attr) {
+        Map<String, Series> attrs = series.get(identifier);
+        if (attrs == null) {
+            throw new InvalidParameterException("组件 " + identifier + " 不存在");
+        }
+        Series ret = attrs.get(attr);
+        if (ret == null) {
+            throw new InvalidParameterException("attr 不存在");
+        }
+        return ret;
+    }
+
+    /**
+     * 一个属性在各网格时刻上的均值与置信区间半宽
+     */
+    public static class Series {
+        private final double[] mean;
+        private final double[] halfWidth;
+
+        Series(double[] mean, double[] halfWidth) {
+            this.mean = mean;
+            this.halfWidth = halfWidth;
+        }
+
+        /**
+         * @return 各网格时刻上各次重复实验的均值
+         */
+        public double[] getMean() {
+            return mean.clone();
+        }
+
+        /**
+         * @return 各网格时刻上置信区间的半宽，只有一次重复实验时为 NaN
+         */
+        public double[] getHalfWidth() {
+            return halfWidth.clone();
+        }
+
+        /**
+         * @return 置信区间下界
+         */
+        public double[] getLower() {
+            double[] ret = new double[mean.length];
+            for (int i = 0; i < ret.length; i++) {
+                ret[i] = mean[i] - halfWidth[i];
+            }
+            return ret;
+        }
+
+        /**
+         * @return 置信区间上界
+         */
+        public double[] getUpper() {
+            double[] ret = new double[mean.length];
+            for (int i = 0; i < ret.length; i++) {
+                ret[i] = mean[i] + halfWidth[i];
+            }
+            return ret;
+        }
+    }
+}
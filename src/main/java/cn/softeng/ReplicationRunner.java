@@ -0,0 +1,367 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.Entity;
+import cn.softeng.processflow.LinkedComponent;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 在 ForkJoinPool 上并行运行同一个模型的多次独立重复实验
+ * 每次重复实验使用一个独立的 SimulationContext，由模型构建函数在其中定义组件，并以 Generator 模式运行到指定时刻，
+ * 默认以 inline 模式执行事件，事件直接在 ForkJoin 工作线程上执行，不需要 Process 线程，
+ * 各次重复实验之间不共享任何状态，吞吐量随 CPU 核数近似线性增长
+ * 所有重复实验结束后，按重复实验的编号顺序汇总结果，所以汇总结果与并行度和执行顺序无关
+ * @date: 10/18/2026 5:30 PM
+ */
+@Slf4j
+public class ReplicationRunner {
+
+    /**
+     * 被汇总的属性
+     */
+    private static final String[] ATTRIBUTES = {DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress};
+
+    /**
+     * 未设置采样间隔时，时间网格的分段数
+     */
+    private static final int DEFAULT_SAMPLE_COUNT = 100;
+
+    /**
+     * 模型构建函数
+     */
+    @FunctionalInterface
+    public interface ModelBuilder {
+        /**
+         * 定义模型的所有组件，调用时 context 已绑定到当前线程，直接创建组件即可
+         * @param context 本次重复实验的上下文
+         * @param seed 本次重复实验的随机数种子
+         */
+        void build(SimulationContext context, long seed);
+    }
+
+    private final ModelBuilder builder;
+
+    /**
+     * 时间网格的间隔(秒)，不大于0时为 horizon / 100
+     */
+    @Setter
+    private double sampleInterval = 0;
+
+    /**
+     * 置信水平
+     */
+    @Setter
+    private double confidenceLevel = 0.95;
+
+    /**
+     * 第 i 次重复实验的随机数种子为 baseSeed + i
+     */
+    @Setter
+    private long baseSeed = 0;
+
+    /**
+     * 并行度，即 ForkJoinPool 的工作线程数
+     */
+    @Setter
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 是否以 inline 模式执行事件
+     */
+    @Setter
+    private boolean executeInline = true;
+
+    public ReplicationRunner(ModelBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * 并行运行重复实验，并汇总结果
+     * @param replications 重复实验的次数
+     * @param horizon 每次重复实验运行到的时刻(秒)
+     * @return
+     */
+    public ReplicationResult run(int replications, double horizon) {
+        if (replications < 1) {
+            throw new IllegalArgumentException("replications must be positive: " + replications);
+        }
+        if (!(horizon > 0)) {
+            throw new IllegalArgumentException("horizon must be positive: " + horizon);
+        }
+        if (!(confidenceLevel > 0 && confidenceLevel < 1)) {
+            throw new IllegalArgumentException("confidence level must be in (0, 1): " + confidenceLevel);
+        }
+
+        double interval = sampleInterval > 0 ? sampleInterval : horizon / DEFAULT_SAMPLE_COUNT;
+        int num = (int) Math.floor(horizon / interval + 1e-9) + 1;
+        double[] times = new double[num];
+        for (int i = 0; i < num; i++) {
+            times[i] = i * interval;
+        }
+
+        Sample[] samples = new Sample[replications];
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.invoke(new ReplicationTask(0, replications, horizon, times, samples));
+        } finally {
+            pool.shutdown();
+        }
+        return aggregate(samples, times);
+    }
+
+    /**
+     * 将重复实验的编号区间不断二分，直到只剩一次重复实验
+     */
+    private class ReplicationTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final double horizon;
+        private final double[] times;
+        private final Sample[] samples;
+
+        ReplicationTask(int from, int to, double horizon, double[] times, Sample[] samples) {
+            this.from = from;
+            this.to = to;
+            this.horizon = horizon;
+            this.times = times;
+            this.samples = samples;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                samples[from] = runReplication(from, horizon, times);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ReplicationTask(from, mid, horizon, times, samples),
+                    new ReplicationTask(mid, to, horizon, times, samples));
+        }
+    }
+
+    /**
+     * 在独立的上下文中运行一次重复实验，并按时间网格采样
+     * @param replication 重复实验的编号
+     * @param horizon
+     * @param times 时间网格
+     * @return
+     */
+    private Sample runReplication(int replication, double horizon, double[] times) {
+        SimulationContext context = new SimulationContext("replication-" + replication);
+        context.getEventManager().setExecuteInline(executeInline);
+        long seed = baseSeed + replication;
+        context.run(() -> builder.build(context, seed));
+        context.initModel(DesSim.Type.Generator, 0);
+        // 出错时以 CompletionException 抛出，终止所有重复实验
+        context.resumeAsync(horizon).join();
+        return sample(context, times);
+    }
+
+    /**
+     * 按时间网格对上下文中所有命名组件的统计数据采样
+     */
+    private static Sample sample(SimulationContext context, double[] times) {
+        List<LinkedComponent> components = new ArrayList<>();
+        for (Entity entity : context.getEntities()) {
+            if (entity instanceof LinkedComponent && entity.getName() != null
+                    && context.getNamedEntity(entity.getName()) == entity) {
+                components.add((LinkedComponent) entity);
+            }
+        }
+
+        Sample ret = new Sample(components.size(), times.length);
+        for (int c = 0; c < components.size(); c++) {
+            LinkedComponent component = components.get(c);
+            ret.names[c] = component.getName();
+            List<Double> recorded = component.getTimeList();
+            sampleSteps(recorded, component.getNumAddList(), times, ret.values[c][0]);
+            sampleSteps(recorded, component.getNumProcessedList(), times, ret.values[c][1]);
+            sampleSteps(recorded, component.getNumInProgressList(), times, ret.values[c][2]);
+        }
+        return ret;
+    }
+
+    /**
+     * 统计数据是阶梯函数：网格时刻的值为该时刻之前最后一次记录的值，在第一次记录之前为0
+     */
+    private static void sampleSteps(List<Double> recorded, List<Long> values, double[] times, double[] out) {
+        int k = -1;
+        for (int i = 0; i < times.length; i++) {
+            while (k + 1 < recorded.size() && recorded.get(k + 1) <= times[i]) {
+                k++;
+            }
+            out[i] = k < 0 ? 0 : values.get(k);
+        }
+    }
+
+    /**
+     * 按重复实验的编号顺序汇总，求每个网格时刻上的均值和置信区间半宽
+     */
+    private ReplicationResult aggregate(Sample[] samples, double[] times) {
+        int replications = samples.length;
+        Sample first = samples[0];
+        int points = times.length;
+        double t = replications > 1 ? studentTQuantile(0.5 + confidenceLevel / 2, replications - 1) : Double.NaN;
+
+        LinkedHashMap<String, LinkedHashMap<String, ReplicationResult.Series>> series = new LinkedHashMap<>();
+        for (int c = 0; c < first.names.length; c++) {
+            String name = first.names[c];
+            LinkedHashMap<String, ReplicationResult.Series> attrs = new LinkedHashMap<>();
+            for (int a = 0; a < ATTRIBUTES.length; a++) {
+                // Welford 算法，逐次累加均值和离差平方和
+                double[] mean = new double[points];
+                double[] m2 = new double[points];
+                for (int r = 0; r < replications; r++) {
+                    double[] values = samples[r].find(name)[a];
+                    for (int i = 0; i < points; i++) {
+                        double delta = values[i] - mean[i];
+                        mean[i] += delta / (r + 1);
+                        m2[i] += delta * (values[i] - mean[i]);
+                    }
+                }
+                double[] halfWidth = new double[points];
+                for (int i = 0; i < points; i++) {
+                    halfWidth[i] = replications > 1 ? t * Math.sqrt(m2[i] / (replications - 1) / replications) : Double.NaN;
+                }
+                attrs.put(ATTRIBUTES[a], new ReplicationResult.Series(mean, halfWidth));
+            }
+            series.put(name, attrs);
+        }
+        return new ReplicationResult(replications, confidenceLevel, times, series);
+    }
+
+    /**
+     * 一次重复实验的采样结果
+     */
+    private static class Sample {
+        /**
+         * 组件标识
+         */
+        final String[] names;
+        /**
+         * [组件][属性][网格时刻]
+         */
+        final double[][][] values;
+
+        Sample(int components, int points) {
+            names = new String[components];
+            values = new double[components][ATTRIBUTES.length][points];
+        }
+
+        double[][] find(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return values[i];
+                }
+            }
+            throw new IllegalStateException("component " + name + " is missing from a replication");
+        }
+    }
+
+    // ******************
+    // 学生t分布
+    // ******************
+
+    /**
+     * 学生t分布的分位数，通过对分布函数二分求解
+     * @param p 概率，(0.5, 1)
+     * @param df 自由度
+     * @return
+     */
+    static double studentTQuantile(double p, int df) {
+        double lo = 0;
+        double hi = 1;
+        while (studentTCdf(hi, df) < p) {
+            hi *= 2;
+        }
+        for (int i = 0; i < 100 && hi - lo > 1e-12 * hi; i++) {
+            double mid = (lo + hi) / 2;
+            if (studentTCdf(mid, df) < p) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return (lo + hi) / 2;
+    }
+
+    /**
+     * 学生t分布在 x >= 0 处的分布函数
+     */
+    private static double studentTCdf(double x, int df) {
+        return 1 - 0.5 * regularizedBeta(df / (df + x * x), df / 2.0, 0.5);
+    }
+
+    /**
+     * 正则化不完全贝塔函数 I_x(a, b)，使用连分式展开
+     */
+    private static double regularizedBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaFraction(x, a, b) / a;
+        }
+        return 1 - front * betaFraction(1 - x, b, a) / b;
+    }
+
+    /**
+     * 不完全贝塔函数的连分式(Lentz 算法)
+     */
+    private static double betaFraction(double x, double a, double b) {
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = Math.abs(d) < tiny ? tiny : d;
+        d = 1 / d;
+        double h = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double aa = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + aa * d;
+            d = Math.abs(d) < tiny ? tiny : d;
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            d = 1 / d;
+            h *= d * c;
+            aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + aa * d;
+            d = Math.abs(d) < tiny ? tiny : d;
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            d = 1 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < 1e-15) {
+                break;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 伽马函数的对数(Lanczos 近似)
+     */
+    private static double logGamma(double x) {
+        final double[] coef = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double ser = 1.000000000190015;
+        for (double c : coef) {
+            ser += c / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * ser / x);
+    }
+}
@@ -0,0 +1,390 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
+import cn.softeng.basicsim.Entity;
+import cn.softeng.basicsim.SampleStatisticsTarget;
+import cn.softeng.basicsim.TargetSerializer;
+import cn.softeng.basicsim.StatisticsSampling;
+import cn.softeng.basicsim.TargetSerializers;
+import cn.softeng.basicsim.TimeSeriesStore;
+import cn.softeng.events.Conditional;
+import cn.softeng.events.EventHandle;
+import cn.softeng.events.EventManager;
+import cn.softeng.events.EventSnapshot;
+import cn.softeng.events.ProcessTarget;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 仿真检查点：将一个暂停的仿真上下文的全部运行状态以紧凑的二进制格式保存到文件，之后恢复到同一个或另一个以同样方式构建的模型中，
+ * 用于从同一个预热后的状态出发多次运行不同的后续场景，而不必每次都重新运行预热过程
+ *
+ * 保存的内容：仿真时钟、未来事件列表和条件事件、时间点集合，以及所有实体(包括运行中生成的实体和仍被引用的已终止实体)的运行状态和统计数据。
+ * 模型参数(组件之间的连接、服务时间等)不保存，由恢复的目标上下文中以同样方式构建的模型提供：
+ * 实体按编号、类型和名称与目标上下文中已有的实体对应，对应不上的已有实体被删除，检查点中多出的实体被重新创建
+ *
+ * 事件的执行目标和条件按类型用 TargetSerializer 序列化，每种类型都需要通过 TargetSerializers.register() 注册；
+ * 由 Process 线程等待的事件(waitTicks/waitUntil)无法保存
+ *
+ * 文件格式：文件头(魔数、版本)，上下文状态，已登记的实体，事件，各实体的状态，实体表，类型表，文件尾(实体表的位置、魔数)
+ * 实体表和类型表在保存过程中逐渐增长，所以写在最后，保存时只需顺序写一遍；恢复时先读文件尾和两张表，创建所有实体后再顺序读出其余内容
+ * 文件通过 FileChannel 写出，恢复时映射到内存读取
+ * @date: 10/18/2026 9:30 PM
+ */
+@Slf4j
+public final class SimulationCheckpoint {
+
+    /**
+     * "DSCK"
+     */
+    private static final int MAGIC = 0x4453434B;
+
+    private static final int VERSION = 3;
+
+    /**
+     * 文件尾的长度：实体表的位置(8字节)和魔数(4字节)
+     */
+    private static final int TRAILER_SIZE = 12;
+
+    private SimulationCheckpoint() {}
+
+    /**
+     * 保存上下文的全部运行状态，调度器必须处于暂停状态
+     * @param context
+     * @param file 检查点文件，已存在时被覆盖
+     * @throws IOException
+     */
+    public static void save(SimulationContext context, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(context, channel);
+        }
+        log.debug("{}: saved checkpoint to {} ({} bytes)", context, file, Files.size(file));
+    }
+
+    /**
+     * 将上下文的全部运行状态写入通道，调度器必须处于暂停状态
+     * @param context
+     * @param channel
+     * @throws IOException
+     */
+    static void write(SimulationContext context, WritableByteChannel channel) throws IOException {
+        EventManager em = context.getEventManager();
+        EventSnapshot events = em.captureEvents();
+        try {
+            CheckpointOutput out = new CheckpointOutput(channel);
+            out.writeFixedInt(MAGIC);
+            out.writeVarLong(VERSION);
+
+            DesSim.Type type = context.getDesType();
+            out.writeString(type == null ? null : type.name());
+            out.writeBoolean(context.isFirstInject());
+            StatisticsSampling sampling = context.getActiveSampling();
+            out.writeString(sampling.getMode().name());
+            out.writeDouble(sampling.getInterval());
+            out.writeVarLong(sampling.getMaxPoints());
+            out.writeDouble(context.getSampleSpacing());
+            out.writeLong(events.getTick());
+            out.writeBoolean(events.isRecordStatistics());
+            TimeSeriesStore points = context.getTimePoints();
+            out.writeVarLong(points.size());
+            for (int i = 0; i < points.size(); i++) {
+                out.writeDouble(points.get(i));
+            }
+
+            // 已登记的实体排在实体表的最前面
+            ArrayList<Entity> registered;
+            synchronized (context.getEntities()) {
+                registered = new ArrayList<>(context.getEntities());
+            }
+            out.writeVarLong(registered.size());
+            for (Entity each : registered) {
+                out.writeEntity(each);
+            }
+
+            // 事件按执行顺序排列，刻度写为与前一个事件的差值
+            long last = events.getTick();
+            out.writeVarLong(events.getEventCount());
+            for (int i = 0; i < events.getEventCount(); i++) {
+                out.writeVarLong(events.getEventTick(i) - last);
+                last = events.getEventTick(i);
+                out.writeInt(events.getEventPriority(i));
+                writeTarget(out, events.getEventTarget(i), events.getEventHandle(i));
+            }
+            out.writeVarLong(events.getConditionalCount());
+            for (int i = 0; i < events.getConditionalCount(); i++) {
+                out.writeObject(events.getCondition(i));
+                writeTarget(out, events.getConditionTarget(i), events.getConditionHandle(i));
+            }
+
+            // 写出实体状态的过程中引用的新实体(例如已终止的实体)同样被加入实体表并写出状态
+            for (int i = 0; i < out.getEntityCount(); i++) {
+                out.getEntity(i).writeCheckpoint(out);
+            }
+
+            long tableOffset = out.getPosition();
+            out.writeVarLong(out.getEntityCount());
+            for (int i = 0; i < out.getEntityCount(); i++) {
+                Entity each = out.getEntity(i);
+                out.writeString(each.getClass().getName());
+                out.writeString(each.getName());
+                out.writeLong(each.getEntityNumber());
+            }
+            out.writeVarLong(out.getTypeCount());
+            for (int i = 0; i < out.getTypeCount(); i++) {
+                out.writeString(out.getType(i).getName());
+            }
+            out.writeFixedLong(tableOffset);
+            out.writeFixedInt(MAGIC);
+            out.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeTarget(CheckpointOutput out, ProcessTarget target, EventHandle handle) {
+        out.writeObject(target);
+        if (handle != null && handle != ((TargetSerializer<Object>) TargetSerializers.get(target.getClass())).getHandle(target)) {
+            throw new IllegalStateException("The event handle of " + target.getDescription() + " cannot be saved");
+        }
+        out.writeBoolean(handle != null);
+    }
+
+    /**
+     * 将上下文恢复为检查点保存的状态，上下文中必须已经以保存时同样的方式构建了模型，调度器必须处于暂停状态
+     * @param context
+     * @param file
+     * @throws IOException
+     */
+    public static void restore(SimulationContext context, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + ": checkpoint files larger than 2GB are not supported");
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                read(context, data, false);
+            } catch (IOException e) {
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+        }
+        log.debug("{}: restored checkpoint from {}", context, file);
+    }
+
+    /**
+     * 从缓冲区中读出检查点并恢复上下文，缓冲区的位置不受影响，多个上下文可以同时从同一个缓冲区恢复
+     * @param context
+     * @param data 检查点的全部内容
+     * @param keepExtra 是否保留上下文中检查点没有对应的实体，保留时这些实体保持当前的状态
+     * @return 保留的实体
+     * @throws IOException
+     */
+    static List<Entity> read(SimulationContext context, ByteBuffer data, boolean keepExtra) throws IOException {
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(0);
+        int size = buffer.limit();
+        CheckpointInput in = new CheckpointInput(buffer);
+        if (size < TRAILER_SIZE + 4 || in.readFixedInt() != MAGIC) {
+            throw new IOException("Not a checkpoint");
+        }
+        long version = in.readVarLong();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        int bodyStart = in.getPosition();
+        in.setPosition(size - TRAILER_SIZE);
+        long tableOffset = in.readFixedLong();
+        if (in.readFixedInt() != MAGIC) {
+            throw new IOException("Truncated checkpoint");
+        }
+
+        // 实体表和类型表
+        in.setPosition((int) tableOffset);
+        int num = (int) in.readVarLong();
+        String[] classNames = new String[num];
+        String[] names = new String[num];
+        long[] numbers = new long[num];
+        for (int i = 0; i < num; i++) {
+            classNames[i] = in.readString();
+            names[i] = in.readString();
+            numbers[i] = in.readLong();
+        }
+        int typeNum = (int) in.readVarLong();
+        List<Class<?>> types = new ArrayList<>(typeNum);
+        for (int i = 0; i < typeNum; i++) {
+            types.add(loadClass(in.readString()));
+        }
+        in.setTypes(types);
+
+        ArrayList<Entity> entities = new ArrayList<>(num);
+        ArrayList<Entity> extra = new ArrayList<>();
+        context.run(() -> createEntities(context, classNames, names, numbers, entities, extra));
+        in.setEntities(entities);
+
+        in.setPosition(bodyStart);
+        String type = in.readString();
+        boolean firstInject = in.readBoolean();
+        StatisticsSampling sampling = readSampling(in);
+        double sampleSpacing = in.readDouble();
+        long tick = in.readLong();
+        boolean recordStatistics = in.readBoolean();
+        int pointNum = (int) in.readVarLong();
+        double[] points = new double[pointNum];
+        for (int i = 0; i < pointNum; i++) {
+            points[i] = in.readDouble();
+        }
+
+        int registeredNum = (int) in.readVarLong();
+        ArrayList<Entity> registered = new ArrayList<>(registeredNum);
+        ArrayList<Entity> named = new ArrayList<>(registeredNum);
+        for (int i = 0; i < registeredNum; i++) {
+            Entity each = in.readEntity();
+            registered.add(each);
+            if (each.getName() != null) {
+                named.add(each);
+            }
+        }
+
+        int eventNum = (int) in.readVarLong();
+        long[] ticks = new long[eventNum];
+        int[] priorities = new int[eventNum];
+        ProcessTarget[] targets = new ProcessTarget[eventNum];
+        EventHandle[] handles = new EventHandle[eventNum];
+        long last = tick;
+        for (int i = 0; i < eventNum; i++) {
+            last += in.readVarLong();
+            ticks[i] = last;
+            priorities[i] = in.readInt();
+            targets[i] = in.readObject();
+            handles[i] = readHandle(in, targets[i]);
+        }
+        int condNum = (int) in.readVarLong();
+        Conditional[] conditions = new Conditional[condNum];
+        ProcessTarget[] condTargets = new ProcessTarget[condNum];
+        EventHandle[] condHandles = new EventHandle[condNum];
+        for (int i = 0; i < condNum; i++) {
+            conditions[i] = in.readObject();
+            condTargets[i] = in.readObject();
+            condHandles[i] = readHandle(in, condTargets[i]);
+        }
+
+        context.run(() -> {
+            for (Entity each : entities) {
+                each.readCheckpoint(in);
+            }
+        });
+
+        if (keepExtra) {
+            for (Entity each : extra) {
+                registered.add(each);
+                if (each.getName() != null) {
+                    named.add(each);
+                }
+            }
+        } else {
+            extra.clear();
+        }
+        context.resetEntities(registered);
+        context.resetNamedEntities(named);
+        SampleStatisticsTarget sampler = null;
+        if (sampling.getMode() == StatisticsSampling.Mode.FIXED_INTERVAL) {
+            for (ProcessTarget each : targets) {
+                if (each instanceof SampleStatisticsTarget) {
+                    sampler = (SampleStatisticsTarget) each;
+                }
+            }
+            if (sampler == null) {
+                sampler = new SampleStatisticsTarget(sampling.getInterval());
+            }
+        }
+        context.setCheckpointState(type == null ? null : DesSim.Type.valueOf(type), firstInject, sampling, sampleSpacing,
+                sampler);
+        EventManager em = context.getEventManager();
+        em.restoreEvents(new EventSnapshot(tick, recordStatistics, ticks, priorities, targets, handles,
+                conditions, condTargets, condHandles));
+        context.getTimePoints().clear();
+        for (double each : points) {
+            context.getTimePoints().add(each);
+        }
+        return extra;
+    }
+
+    /**
+     * 按编号、类型和名称复用上下文中已有的实体，其余实体重新创建
+     * 没有对应的已有实体加入 extra
+     */
+    private static void createEntities(SimulationContext context, String[] classNames, String[] names, long[] numbers,
+                                       ArrayList<Entity> entities, ArrayList<Entity> extra) {
+        LinkedHashMap<Long, Entity> existing = new LinkedHashMap<>();
+        synchronized (context.getEntities()) {
+            for (Entity each : context.getEntities()) {
+                existing.put(each.getEntityNumber(), each);
+            }
+        }
+        for (int i = 0; i < classNames.length; i++) {
+            Entity ent = existing.get(numbers[i]);
+            if (ent != null && ent.getClass().getName().equals(classNames[i]) && Objects.equals(ent.getName(), names[i])) {
+                existing.remove(numbers[i]);
+            } else {
+                try {
+                    ent = (Entity) loadClass(classNames[i]).newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot create entity of " + classNames[i], e);
+                }
+                if (names[i] != null) {
+                    ent.setName(names[i]);
+                }
+            }
+            entities.add(ent);
+        }
+        extra.addAll(existing.values());
+    }
+
+    private static StatisticsSampling readSampling(CheckpointInput in) {
+        StatisticsSampling.Mode mode = StatisticsSampling.Mode.valueOf(in.readString());
+        double interval = in.readDouble();
+        int maxPoints = (int) in.readVarLong();
+        switch (mode) {
+            case FIXED_INTERVAL:
+                return StatisticsSampling.fixedInterval(interval);
+            case DOWNSAMPLE:
+                return StatisticsSampling.downsample(maxPoints);
+            case LAST_VALUE:
+                return StatisticsSampling.lastValue();
+            default:
+                return StatisticsSampling.everyAdvance();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EventHandle readHandle(CheckpointInput in, ProcessTarget target) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return ((TargetSerializer<Object>) TargetSerializers.get(target.getClass())).getHandle(target);
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            // 加载时执行类的静态初始化块，完成 TargetSerializer 的注册
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown class in checkpoint: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,752 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.ClearStatisticsTarget;
+import cn.softeng.basicsim.Entity;
+import cn.softeng.basicsim.InitModelTarget;
+import cn.softeng.basicsim.SampleStatisticsTarget;
+import cn.softeng.basicsim.StatisticsCollector;
+import cn.softeng.basicsim.StatisticsSampling;
+import cn.softeng.basicsim.StatisticsSink;
+import cn.softeng.basicsim.TimeSeriesStore;
+import cn.softeng.events.EventManager;
+import cn.softeng.events.ProcessTarget;
+import cn.softeng.processflow.EntityLauncher;
+import cn.softeng.processflow.LinkedComponent;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 仿真上下文：一个相互独立的模型，拥有自己的事件管理器、实体注册表和统计数据
+ * 不同上下文之间不共享任何可变状态，所以一个 JVM 中可以同时运行多个模型，例如每个线程运行一次独立的重复实验
+ *
+ * 新创建的实体登记到"当前上下文"中，当前上下文按以下顺序确定：
+ * <ul>
+ * <li>1 - 当前线程正在执行某个事件管理器的事件时，为该事件管理器所属的上下文
+ * <li>2 - 当前线程通过 bind() 或 run() 绑定的上下文
+ * <li>3 - 默认上下文，DesSim 的静态方法在没有绑定任何上下文时都作用于它
+ * </ul>
+ * @date: 10/18/2026 4:20 PM
+ */
+@Slf4j
+public class SimulationContext {
+
+    /**
+     * 默认上下文，兼容只运行一个模型的调用者
+     */
+    private static final SimulationContext defaultContext = new SimulationContext("DesSim");
+
+    /**
+     * 当前线程绑定的上下文
+     */
+    private static final ThreadLocal<SimulationContext> boundContext = new ThreadLocal<>();
+
+    public final String name;
+
+    /**
+     * 负责调度该模型的事件管理器
+     */
+    @Getter
+    private final EventManager eventManager;
+
+    /**
+     * 该上下文中创建的实体数量，用于生成实体的唯一id
+     */
+    private final AtomicLong entityCount = new AtomicLong(0);
+
+    /**
+     * 该上下文中所有已创建实体的集合
+     */
+    private final ArrayList<Entity> allInstances = new ArrayList<>(100);
+
+    /**
+     * 该上下文中所有命名实体的集合，每一个实体都有一个唯一的名字
+     */
+    private final HashMap<String, Entity> namedEntities = new HashMap<>(100);
+
+    /**
+     * 该上下文中所有收集统计数据的实体，与 allInstances 使用同一把锁
+     */
+    private final ArrayList<StatisticsCollector> collectors = new ArrayList<>();
+
+    /**
+     * 自上次记录之后统计数据改变了的收集器，只由执行该上下文事件的线程访问
+     */
+    private final ArrayList<StatisticsCollector> dirtyCollectors = new ArrayList<>();
+
+    /**
+     * 统计数据的采样策略，下次 initModel() 时生效，为null时使用默认策略
+     */
+    private volatile StatisticsSampling statisticsSampling;
+
+    /**
+     * 当前运行使用的采样策略，initModel() 时确定
+     */
+    private StatisticsSampling activeSampling = StatisticsSampling.everyAdvance();
+
+    /**
+     * 按固定间隔采样时的采样事件，其他采样策略时为null
+     */
+    private SampleStatisticsTarget sampler;
+
+    /**
+     * 接收收集器记录的每一组统计数据，为null时只保存在内存中
+     */
+    @Getter
+    private volatile StatisticsSink statisticsSink;
+
+    /**
+     * 降采样时保留的相邻时刻的最小间隔(秒)，只由执行该上下文事件的线程访问
+     */
+    private double sampleSpacing;
+
+    /**
+     * 选择的仿真模式
+     */
+    @Getter
+    private DesSim.Type desType;
+
+    /**
+     * 是否是第一次注入 (desType 是 Launcher模式下有效)
+     */
+    private boolean firstInject;
+
+    public SimulationContext(String name) {
+        this(name, new EventManager(name));
+    }
+
+    /**
+     * 创建一个使用指定事件管理器的上下文，事件管理器不能再属于其他上下文
+     * @param name
+     * @param eventManager
+     */
+    public SimulationContext(String name, EventManager eventManager) {
+        if (eventManager.getContext() != null) {
+            throw new IllegalArgumentException("EventManager " + eventManager.name + " already belongs to a context");
+        }
+        this.name = name;
+        this.eventManager = eventManager;
+        eventManager.setContext(this);
+    }
+
+    /**
+     * @return 默认上下文
+     */
+    public static SimulationContext getDefault() {
+        return defaultContext;
+    }
+
+    /**
+     * 返回当前上下文，确定顺序见类注释
+     * @return
+     */
+    public static SimulationContext current() {
+        if (EventManager.hasCurrent()) {
+            SimulationContext ret = EventManager.current().getContext();
+            if (ret != null) {
+                return ret;
+            }
+        }
+        SimulationContext ret = boundContext.get();
+        return ret != null ? ret : defaultContext;
+    }
+
+    /**
+     * 将该上下文绑定到当前线程，之后当前线程创建的实体以及调用的 DesSim 静态方法都作用于该上下文
+     */
+    public void bind() {
+        boundContext.set(this);
+    }
+
+    /**
+     * 解除当前线程绑定的上下文
+     */
+    public static void unbind() {
+        boundContext.remove();
+    }
+
+    /**
+     * 在绑定该上下文的情况下执行 r，执行完毕后恢复当前线程原来绑定的上下文
+     * @param r
+     */
+    public void run(Runnable r) {
+        SimulationContext prev = boundContext.get();
+        boundContext.set(this);
+        try {
+            r.run();
+        } finally {
+            if (prev == null) {
+                boundContext.remove();
+            } else {
+                boundContext.set(prev);
+            }
+        }
+    }
+
+    // ******************
+    // 实体注册表
+    // ******************
+
+    /**
+     * 登记新创建的实体，由 Entity 的构造方法调用
+     * @param entity
+     * @return 实体在该上下文中的唯一id
+     */
+    public long addEntity(Entity entity) {
+        synchronized (allInstances) {
+            allInstances.add(entity);
+            if (entity instanceof StatisticsCollector) {
+                collectors.add((StatisticsCollector) entity);
+            }
+        }
+        return entityCount.incrementAndGet();
+    }
+
+    /**
+     * 登记从其他上下文迁移过来的实体，不分配新的id
+     * @param entity
+     * @param name 实体的名字，为空时只加入实体集合
+     */
+    public void adoptEntity(Entity entity, String name) {
+        synchronized (allInstances) {
+            allInstances.add(entity);
+            if (entity instanceof StatisticsCollector) {
+                collectors.add((StatisticsCollector) entity);
+            }
+        }
+        if (name == null) {
+            return;
+        }
+        synchronized (namedEntities) {
+            namedEntities.put(name, entity);
+        }
+    }
+
+    /**
+     * 删除实体，若实体已命名，同时删除它的名字
+     * @param entity
+     * @param name 实体的名字，为空时只从实体集合中删除
+     */
+    public void removeEntity(Entity entity, String name) {
+        synchronized (allInstances) {
+            allInstances.remove(entity);
+            if (entity instanceof StatisticsCollector) {
+                collectors.remove(entity);
+            }
+        }
+        if (name == null) {
+            return;
+        }
+        synchronized (namedEntities) {
+            if (namedEntities.get(name) == entity) {
+                namedEntities.remove(name);
+            }
+        }
+    }
+
+    /**
+     * 更新实体的名字
+     * @param entity
+     * @param oldName
+     * @param newName
+     */
+    public void renameEntity(Entity entity, String oldName, String newName) {
+        synchronized (namedEntities) {
+            namedEntities.remove(oldName);
+            namedEntities.put(newName, entity);
+        }
+    }
+
+    /**
+     * 返回该上下文中所有创建过的实体
+     * @return
+     */
+    public ArrayList<? extends Entity> getEntities() {
+        synchronized (allInstances) {
+            return allInstances;
+        }
+    }
+
+    /**
+     * 根据实体名称，获取指定实体
+     * @param name
+     * @return
+     */
+    public Entity getNamedEntity(String name) {
+        synchronized (namedEntities) {
+            return namedEntities.get(name);
+        }
+    }
+
+    /**
+     * ！慎用，重置实体集合，避免用户不合法输入
+     */
+    public void resetEntities(List<Entity> entities) {
+        synchronized (allInstances) {
+            allInstances.clear();
+            allInstances.addAll(entities);
+            collectors.clear();
+            for (Entity entity : entities) {
+                if (entity instanceof StatisticsCollector) {
+                    collectors.add((StatisticsCollector) entity);
+                }
+            }
+        }
+    }
+
+    /**
+     * ！慎用，重置命名实体集合，避免用户不合法输入
+     */
+    public void resetNamedEntities(List<Entity> entities) {
+        synchronized (namedEntities) {
+            namedEntities.clear();
+            for (Entity entity : entities) {
+                namedEntities.put(entity.getName(), entity);
+            }
+        }
+    }
+
+    // ******************
+    // 统计数据
+    // ******************
+
+    /**
+     * 标记收集器的统计数据已改变，下次记录时调用它的 updateStatistics()
+     * 由收集器在执行该上下文事件的线程中调用，每次记录之前只需要标记一次
+     * @param collector
+     */
+    public void statisticsChanged(StatisticsCollector collector) {
+        dirtyCollectors.add(collector);
+    }
+
+    /**
+     * 设置统计数据的采样策略，在下次 initModel() 时生效
+     * @param sampling 为null时使用默认策略，见 getStatisticsSampling()
+     */
+    public void setStatisticsSampling(StatisticsSampling sampling) {
+        this.statisticsSampling = sampling;
+    }
+
+    /**
+     * 没有设置采样策略时，设置了 StatisticsSink 则只在内存中保留最后的值(完整的序列由 sink 保存)，否则每次时钟推进前采样
+     * @return 下次 initModel() 时使用的采样策略
+     */
+    public StatisticsSampling getStatisticsSampling() {
+        StatisticsSampling ret = statisticsSampling;
+        if (ret != null) {
+            return ret;
+        }
+        return statisticsSink != null ? StatisticsSampling.lastValue() : StatisticsSampling.everyAdvance();
+    }
+
+    /**
+     * 设置接收统计数据的 StatisticsSink(例如 StatisticsRecorder)，组件每次记录统计数据时同时交给它
+     * 必须在调度器没有运行时调用，为null时不再输出；没有设置采样策略时，下次 initModel() 后内存中只保留最后的值
+     * @param sink
+     */
+    public void setStatisticsSink(StatisticsSink sink) {
+        this.statisticsSink = sink;
+    }
+
+    /**
+     * 时钟推进前或暂停时由事件管理器调用，按采样策略将指定时刻加入时钟序列并记录统计数据
+     * @param times 事件管理器的时钟序列
+     * @param time 当前时刻(秒)
+     */
+    public void updateStatistics(TimeSeriesStore times, double time) {
+        switch (activeSampling.getMode()) {
+            case FIXED_INTERVAL:
+                // 由 SampleStatisticsTarget 采样
+                return;
+            case DOWNSAMPLE:
+                addDownsampled(times, time);
+                break;
+            case LAST_VALUE:
+                // 时钟序列只有一个时刻，各收集器在该序号上的记录被覆盖
+                if (times.size() == 0) {
+                    times.add(time);
+                } else if (time != times.get(0)) {
+                    times.setLast(time);
+                }
+                break;
+            default:
+                times.add(time);
+                break;
+        }
+        recordStatistics(times, time);
+    }
+
+    /**
+     * 降采样：与倒数第二个时刻的间隔小于最小间隔时，最后一个时刻改为当前时刻，否则追加当前时刻；
+     * 时刻个数达到上限时，最小间隔加倍(至少为时钟序列跨度的 2/maxPoints)，抽稀时钟序列并重新映射各收集器的统计数据
+     */
+    private void addDownsampled(TimeSeriesStore times, double time) {
+        int size = times.size();
+        if (size > 0 && time == times.get(size - 1)) {
+            return;
+        }
+        if (size >= 2 && time < times.get(size - 2) + sampleSpacing) {
+            times.setLast(time);
+            return;
+        }
+        int maxPoints = activeSampling.getMaxPoints();
+        if (size < maxPoints) {
+            times.add(time);
+            return;
+        }
+        double span = times.get(size - 1) - times.get(0);
+        sampleSpacing = Math.max(sampleSpacing * 2, span / (maxPoints / 2));
+        int[] ordinals = times.thin(sampleSpacing);
+        synchronized (allInstances) {
+            for (int i = 0; i < collectors.size(); i++) {
+                collectors.get(i).remapStatistics(ordinals);
+            }
+        }
+        addDownsampled(times, time);
+    }
+
+    /**
+     * 不论采样策略如何，在指定时刻记录统计数据，只有自上次记录之后标记过的收集器会被记录，
+     * 没有改变的收集器在该时刻的值与上次记录的值相同，读取时补齐
+     * @param times 记录到的时钟序列
+     * @param time 记录的时刻(秒)
+     */
+    public void recordStatistics(TimeSeriesStore times, double time) {
+        // 按下标遍历，记录过程中新标记的收集器同样会被记录
+        for (int i = 0; i < dirtyCollectors.size(); i++) {
+            dirtyCollectors.get(i).updateStatistics(times, time);
+        }
+        dirtyCollectors.clear();
+    }
+
+    /**
+     * 在该上下文的事件管理器的当前时刻记录统计数据，不依赖调用线程，可以在构建模型或测试的线程中调用
+     */
+    public void updateStatistics() {
+        recordStatistics(eventManager.getTimePoints(), eventManager.ticksToSeconds(eventManager.getTicks()));
+    }
+
+    /**
+     * 重置该上下文中所有收集器的统计数据
+     */
+    public void clearStatistics() {
+        synchronized (allInstances) {
+            for (int i = 0; i < collectors.size(); i++) {
+                collectors.get(i).clearStatistics();
+            }
+        }
+        sampleSpacing = 0;
+    }
+
+    // ******************
+    // 模型运行
+    // ******************
+
+    /**
+     * 初始化模型，适用于Generator模式
+     * @param type DES类型: (包括：水平，垂直，单机)
+     */
+    public void initModel(DesSim.Type type, double initTime) {
+        desType = type;
+        // 清空时间管理的状态
+        eventManager.clear();
+        // 时钟从0重新开始，之前记录的统计数据不再有效
+        activeSampling = getStatisticsSampling();
+        clearStatistics();
+        // 预先创建 Process 线程
+        eventManager.prestartProcesses();
+        // 向事件队列中添加初始化模型的事件
+        long waitLength = eventManager.secondsToNearestTick(initTime);
+        eventManager.scheduleProcessExternal(waitLength, 0, false, new InitModelTarget(), null);
+        scheduleSampling(waitLength);
+        // 执行initTime时刻的初始化操作
+        resume(initTime);
+    }
+
+    /**
+     * 初始化模型，适用于Launcher模式
+     * @param type DES类型: (包括：水平，垂直，单机)
+     */
+    public void initModel(DesSim.Type type) {
+        desType = type;
+        firstInject = true;
+        // 清空时间管理的状态
+        eventManager.clear();
+        // 时钟从0重新开始，之前记录的统计数据不再有效
+        activeSampling = getStatisticsSampling();
+        clearStatistics();
+        // 预先创建 Process 线程
+        eventManager.prestartProcesses();
+        // 向事件队列中添加初始化模型的事件
+        eventManager.scheduleProcessExternal(0, 0, false, new InitModelTarget(), null);
+        scheduleSampling(0);
+        resume(0);
+    }
+
+    /**
+     * 按固定间隔采样时，从初始化时刻开始调度采样事件
+     * @param waitLength 初始化时刻(刻度)
+     */
+    private void scheduleSampling(long waitLength) {
+        sampler = null;
+        if (activeSampling.getMode() == StatisticsSampling.Mode.FIXED_INTERVAL) {
+            sampler = new SampleStatisticsTarget(activeSampling.getInterval());
+            eventManager.scheduleProcessExternal(waitLength, SampleStatisticsTarget.PRIORITY, true,
+                    sampler, sampler.getHandle());
+        }
+    }
+
+    /**
+     * 按固定间隔采样时，采样事件在事件队列为空时停止，事件队列中有了新的事件后重新调度：
+     * 调度到最近一次采样时刻之后、不早于当前时刻的第一个采样时刻，采样时刻与停止前在同一个网格上
+     */
+    void restartSampling() {
+        SampleStatisticsTarget target = sampler;
+        if (target == null || target.getHandle().isScheduled() || !eventManager.hasEvent()) {
+            return;
+        }
+        long now = eventManager.getTicks();
+        long next = now;
+        TimeSeriesStore times = eventManager.getTimePoints();
+        if (times.size() > 0) {
+            long interval = Math.max(1, eventManager.secondsToNearestTick(target.getInterval()));
+            long last = eventManager.secondsToNearestTick(times.get(times.size() - 1));
+            next = last + Math.max(1, (now - last + interval - 1) / interval) * interval;
+        }
+        eventManager.scheduleProcessExternal(next - now, SampleStatisticsTarget.PRIORITY, true,
+                target, target.getHandle());
+    }
+
+    /**
+     * Launcher注入实体，调用时必须确保DES调度正在运行，否则会报错
+     * @param scheduleTime
+     * @param num
+     */
+    public void inject(double scheduleTime, int num) {
+        if (desType == DesSim.Type.Generator) {
+            throw new RuntimeException("自动生成实体模式下，不支持 inject !!!");
+        }
+        ProcessTarget target = null;
+        if (firstInject && (scheduleTime - 0.0) > 0.000000001) {
+            target = new ClearStatisticsTarget();
+        }
+        firstInject = false;
+        EntityLauncher launcher = getLauncher();
+        if (launcher != null) {
+            launcher.scheduleAction(eventManager, scheduleTime, num, target);
+        }
+    }
+
+    /**
+     * Launcher批量注入实体，所有触发事件一次性加入事件队列，调用时必须确保DES调度正在运行，否则会报错
+     * @param scheduleTimes 每次注入的时间
+     * @param nums 每次注入的实体数量
+     */
+    public void inject(double[] scheduleTimes, int[] nums) {
+        if (desType == DesSim.Type.Generator) {
+            throw new RuntimeException("自动生成实体模式下，不支持 inject !!!");
+        }
+        if (scheduleTimes.length == 0) {
+            return;
+        }
+        double firstTime = Double.MAX_VALUE;
+        for (double time : scheduleTimes) {
+            firstTime = Math.min(firstTime, time);
+        }
+        ProcessTarget target = null;
+        if (firstInject && (firstTime - 0.0) > 0.000000001) {
+            target = new ClearStatisticsTarget();
+        }
+        firstInject = false;
+        EntityLauncher launcher = getLauncher();
+        if (launcher != null) {
+            launcher.scheduleActions(eventManager, scheduleTimes, nums, target);
+        }
+    }
+
+    /**
+     * @return 该上下文中第一个 EntityLauncher，没有则返回null
+     */
+    private EntityLauncher getLauncher() {
+        synchronized (allInstances) {
+            for (Entity entity : allInstances) {
+                if (entity.getClass() == EntityLauncher.class) {
+                    return (EntityLauncher) entity;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 执行事件直到指定时刻，阻塞到调度器停止
+     * @param time
+     * @throws RuntimeException 执行事件时出现的异常(Error 原样抛出)，调度器已经停止
+     */
+    public void resume(double time) {
+        try {
+            resumeAsync(time).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 异步执行事件直到指定时刻，不阻塞调用线程
+     * @param time
+     * @return 调度器停止时完成的 future，值为停止时的仿真时间(秒)，出错时以该异常完成
+     */
+    public CompletableFuture<Double> resumeAsync(double time) {
+        restartSampling();
+        return eventManager.resumeAsync(time).thenApply(eventManager::ticksToSeconds);
+    }
+
+    /**
+     * 将该上下文的运行状态保存到检查点文件，调度器必须处于暂停状态
+     * @param file
+     * @throws IOException
+     */
+    public void saveCheckpoint(Path file) throws IOException {
+        SimulationCheckpoint.save(this, file);
+    }
+
+    /**
+     * 从检查点文件恢复运行状态，该上下文中必须已经以保存时同样的方式构建了模型，之后调用 resume() 继续运行
+     * @param file
+     * @throws IOException
+     */
+    public void restoreCheckpoint(Path file) throws IOException {
+        SimulationCheckpoint.restore(this, file);
+    }
+
+    boolean isFirstInject() {
+        return firstInject;
+    }
+
+    StatisticsSampling getActiveSampling() {
+        return activeSampling;
+    }
+
+    double getSampleSpacing() {
+        return sampleSpacing;
+    }
+
+    /**
+     * 由 SimulationCheckpoint 恢复仿真模式、注入状态和采样状态，sampler 为恢复的采样事件，保存时已停止则重新创建
+     */
+    void setCheckpointState(DesSim.Type type, boolean firstInject, StatisticsSampling sampling, double spacing,
+                            SampleStatisticsTarget sampler) {
+        this.desType = type;
+        this.firstInject = firstInject;
+        this.activeSampling = sampling;
+        this.sampleSpacing = spacing;
+        this.sampler = sampler;
+    }
+
+    /**
+     * @return 记录统计数据的时钟序列，组件的统计数据按其中的序号保存
+     */
+    public TimeSeriesStore getTimePoints() {
+        return eventManager.getTimePoints();
+    }
+
+    /**
+     * 获取模型的时钟序列
+     * 返回的是只读视图，不复制数据，只在调度器暂停期间有效，见 LinkedComponent.getTimeList()
+     * @return 到目前为止的时钟序列的只读视图
+     */
+    public List<Double> getTimePointList() {
+        return eventManager.getTimePoints().asList();
+    }
+
+    /**
+     * 根据实体标识获取组件
+     * @param identifier 实体标识
+     * @return
+     */
+    public LinkedComponent getEntity(String identifier) {
+        return (LinkedComponent) getNamedEntity(identifier);
+    }
+
+    /**
+     * 事件队列中即将执行的事件的时间
+     * @return
+     */
+    public double nextEventTime() {
+        return eventManager.getNextEventTime();
+    }
+
+    /**
+     * 当前仿真时间
+     * @return
+     */
+    public double currentSimTime() {
+        return eventManager.getCurrentTime();
+    }
+
+    /**
+     * 事件队列中是否有事件
+     * @return
+     */
+    public boolean hasEvent() {
+        return eventManager.hasEvent();
+    }
+
+    /**
+     * 获取指定组件的特定属性
+     * @param identifier 组件的标识符
+     * @param attr 属性
+     * @return
+     */
+    public long getCurrentData(String identifier, String attr) {
+        LinkedComponent linkedComponent = getEntity(identifier);
+        if (attr.equals(DesSim.NumberAdded)) {
+            return linkedComponent.getNumberAdded();
+        } else if (attr.equals(DesSim.NumberInProgress)) {
+            return linkedComponent.getNumberInProgress();
+        } else if (attr.equals(DesSim.NumberProcessed)) {
+            return linkedComponent.getNumberProcessed();
+        }
+        throw new InvalidParameterException("attr 不存在");
+    }
+
+    /**
+     * 选定指定组件，指定属性到目前为止的所有数据
+     * 返回的是只读视图，不复制数据，只在调度器暂停期间有效，见 LinkedComponent.getTimeList()
+     * @param identifier
+     * @param attr
+     * @return 与 getTimePointList() 中该组件第一次记录及之后的时刻一一对应的只读视图
+     */
+    public List<Long> getDataList(String identifier, String attr) {
+        LinkedComponent linkedComponent = getEntity(identifier);
+        if (attr.equals(DesSim.NumberAdded)) {
+            return linkedComponent.getNumAddList();
+        } else if (attr.equals(DesSim.NumberInProgress)) {
+            return linkedComponent.getNumInProgressList();
+        } else if (attr.equals(DesSim.NumberProcessed)) {
+            return linkedComponent.getNumProcessedList();
+        }
+        throw new InvalidParameterException("attr 不存在");
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
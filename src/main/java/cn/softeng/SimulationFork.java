@@ -0,0 +1,171 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.Entity;
+import cn.softeng.basicsim.StartUpTarget;
+import cn.softeng.events.EventManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * 在内存中分叉一个暂停的仿真，用于 what-if 分析：在时刻 T 暂停后，从同一个状态出发尝试多种不同的调整(例如增加一个服务台)，
+ * 各分支互相独立，并行运行在各自的线程上
+ *
+ * 分叉时将上下文的运行状态(未来事件列表、Queue 中的实体、组件的计数器和统计数据等)按 SimulationCheckpoint 的格式编码一次，
+ * 保存在一个只读的内存缓冲区中，所有分支共享这个缓冲区，只在创建分支时解码出各自的对象，分叉本身的开销只与运行状态的大小有关，
+ * 与分支的数量无关；被分叉的上下文不受影响，可以继续运行
+ *
+ * 创建分支时先用模型构建函数构建一个同样的模型，再调用 what-if 函数修改模型，然后恢复分叉时的运行状态；
+ * what-if 函数新建的实体保持初始化后的状态，并在分叉时刻重新启动(startUp)
+ * 调度器的暂停与继续沿用 EventManager 的 pause()/resume() 语义：分叉前调度器必须已经停止，分支创建后处于暂停状态，由 resume() 继续运行
+ * @date: 10/18/2026 10:10 PM
+ */
+@Slf4j
+public class SimulationFork {
+
+    /**
+     * 模型构建函数，调用时上下文已绑定到当前线程，必须与构建被分叉的模型的方式相同
+     */
+    private final Consumer<SimulationContext> builder;
+
+    /**
+     * 分叉时的运行状态，所有分支共享
+     */
+    private final ByteBuffer state;
+
+    private final DesSim.Type desType;
+    private final boolean executeInline;
+    private final double forkTime;
+
+    private SimulationFork(Consumer<SimulationContext> builder, ByteBuffer state, DesSim.Type desType,
+                           boolean executeInline, double forkTime) {
+        this.builder = builder;
+        this.state = state;
+        this.desType = desType;
+        this.executeInline = executeInline;
+        this.forkTime = forkTime;
+    }
+
+    /**
+     * 分叉一个暂停的上下文
+     * @param context 被分叉的上下文，调度器必须处于暂停状态
+     * @param builder 构建该上下文中模型的函数
+     * @return
+     * @throws IllegalStateException 上下文尚未初始化模型，或者调度器正在运行
+     */
+    public static SimulationFork of(SimulationContext context, Consumer<SimulationContext> builder) {
+        if (context.getDesType() == null) {
+            throw new IllegalStateException(context + ": the model has not been initialized");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            SimulationCheckpoint.write(context, Channels.newChannel(bytes));
+        } catch (IOException e) {
+            // 写入内存不会出现 IOException
+            throw new UncheckedIOException(e);
+        }
+        EventManager em = context.getEventManager();
+        SimulationFork ret = new SimulationFork(builder, ByteBuffer.wrap(bytes.toByteArray()).asReadOnlyBuffer(),
+                context.getDesType(), em.isExecuteInline(), context.currentSimTime());
+        log.debug("{}: forked at {}s, state size {} bytes", context, ret.forkTime, ret.state.capacity());
+        return ret;
+    }
+
+    /**
+     * @return 分叉时的仿真时间(秒)
+     */
+    public double getForkTime() {
+        return forkTime;
+    }
+
+    /**
+     * @return 分叉时运行状态编码后的字节数
+     */
+    public int getStateSize() {
+        return state.capacity();
+    }
+
+    /**
+     * 创建一个与分叉时状态完全相同的分支
+     * @param name 分支上下文的名称
+     * @return 处于暂停状态的分支上下文
+     */
+    public SimulationContext branch(String name) {
+        return branch(name, null);
+    }
+
+    /**
+     * 创建一个分支，并用 whatIf 修改分支中的模型
+     * @param name 分支上下文的名称
+     * @param whatIf 修改模型的函数，调用时上下文已绑定到当前线程，可以为null
+     * @return 处于暂停状态的分支上下文
+     */
+    public SimulationContext branch(String name, Consumer<SimulationContext> whatIf) {
+        SimulationContext context = new SimulationContext(name);
+        EventManager em = context.getEventManager();
+        em.setExecuteInline(executeInline);
+        context.run(() -> {
+            builder.accept(context);
+            if (whatIf != null) {
+                whatIf.accept(context);
+            }
+        });
+        if (desType == DesSim.Type.Generator) {
+            context.initModel(desType, 0);
+        } else {
+            context.initModel(desType);
+        }
+
+        List<Entity> added;
+        try {
+            added = SimulationCheckpoint.read(context, state, true);
+        } catch (IOException e) {
+            // 分叉时写出的状态不会损坏
+            throw new IllegalStateException(e);
+        }
+        for (Entity each : added) {
+            em.scheduleProcessExternal(0, 5, true, new StartUpTarget(each), null);
+        }
+        return context;
+    }
+
+    /**
+     * 为每一个 what-if 创建一个分支，并在各自的线程上并行运行到指定时刻
+     * @param whatIfs 分支名称及修改模型的函数，函数可以为null
+     * @param time 运行到的时刻(秒)
+     * @return 分支名称及运行结束后的分支上下文，顺序与 whatIfs 相同
+     */
+    public Map<String, SimulationContext> run(Map<String, Consumer<SimulationContext>> whatIfs, double time) {
+        List<ForkJoinTask<SimulationContext>> tasks = new ArrayList<>(whatIfs.size());
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, whatIfs.size()));
+        try {
+            for (Map.Entry<String, Consumer<SimulationContext>> each : whatIfs.entrySet()) {
+                tasks.add(pool.submit(() -> {
+                    SimulationContext context = branch(each.getKey(), each.getValue());
+                    // 出错时以 CompletionException 抛出
+                    context.resumeAsync(time).join();
+                    return context;
+                }));
+            }
+            Map<String, SimulationContext> ret = new LinkedHashMap<>();
+            int i = 0;
+            for (String name : whatIfs.keySet()) {
+                ret.put(name, tasks.get(i++).join());
+            }
+            return ret;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package cn.softeng;
+
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static cn.softeng.StatisticsRecorder.BLOCK_HEADER_SIZE;
+import static cn.softeng.StatisticsRecorder.HEADER_SIZE;
+import static cn.softeng.StatisticsRecorder.MAGIC;
+import static cn.softeng.StatisticsRecorder.ROW_SIZE;
+import static cn.softeng.StatisticsRecorder.TRAILER_SIZE;
+import static cn.softeng.StatisticsRecorder.VERSION;
+
+/**
+ * 读取 StatisticsRecorder 写出的统计文件：按组件名称和属性查询一段时间内的样本，或者转换为 CSV
+ * 打开时只读出组件名称表和块索引，数据块在查询时映射到内存，只访问与查询时间段相交、且有该组件样本的块
+ * 命令行：StatisticsFile 统计文件 CSV文件
+ * @date: 10/19/2026 4:00 AM
+ */
+public class StatisticsFile implements Closeable {
+
+    /**
+     * 属性的名称，按列的顺序
+     */
+    private static final String[] ATTRIBUTES = {DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress};
+
+    /**
+     * 一个组件的一个属性的样本：每个时刻及改变后的值，某个时刻的值为该时刻及之前最后一个样本的值
+     */
+    @Getter
+    public static final class Series {
+        private final double[] times;
+        private final long[] values;
+
+        Series(double[] times, long[] values) {
+            this.times = times;
+            this.values = values;
+        }
+
+        public int size() {
+            return times.length;
+        }
+
+        /**
+         * @param time
+         * @return 指定时刻的值，即该时刻及之前最后一个样本的值
+         * @throws IllegalArgumentException 指定时刻早于第一个样本
+         */
+        public long valueAt(double time) {
+            int lo = 0;
+            int hi = times.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] <= time) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (hi < 0) {
+                throw new IllegalArgumentException("No sample at or before " + time);
+            }
+            return values[hi];
+        }
+    }
+
+    private final FileChannel channel;
+    private final List<String> names;
+    private final HashMap<String, Integer> ids = new HashMap<>();
+
+    /**
+     * 块索引：位置、行数、最早和最晚时刻
+     */
+    private final long[] blockPositions;
+    private final int[] blockRows;
+    private final double[] blockMinTimes;
+    private final double[] blockMaxTimes;
+    private final long samples;
+
+    /**
+     * 各组件的块列表在文件尾中的位置和长度，每项为块的序号(int)和该组件在块中的第一个时刻(double)，查询时直接从文件尾读取
+     */
+    private static final int POSTING_SIZE = 12;
+    private final MappedByteBuffer footer;
+    private final int[] postingOffsets;
+    private final int[] postingCounts;
+
+    /**
+     * 最近一次映射的块
+     */
+    private MappedByteBuffer block;
+    private int blockIndex = -1;
+
+    /**
+     * @param file 统计文件
+     * @throws IOException 文件不存在、不是统计文件或者没有正常关闭
+     */
+    public StatisticsFile(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException(file + " is not a statistics file");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a statistics file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + ": unsupported statistics file version " + header.getInt(4));
+            }
+            MappedByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE);
+            long footerStart = trailer.getLong(0);
+            if (trailer.getInt(8) != MAGIC || footerStart < HEADER_SIZE || footerStart > size - TRAILER_SIZE) {
+                throw new IOException(file + ": statistics file was not closed properly");
+            }
+            footer = channel.map(FileChannel.MapMode.READ_ONLY, footerStart, size - TRAILER_SIZE - footerStart);
+
+            int nameNum = footer.getInt();
+            ArrayList<String> list = new ArrayList<>(nameNum);
+            for (int i = 0; i < nameNum; i++) {
+                String name = readUTF(footer);
+                ids.put(name, i);
+                list.add(name);
+            }
+            names = Collections.unmodifiableList(list);
+
+            int blockNum = footer.getInt();
+            blockPositions = new long[blockNum];
+            blockRows = new int[blockNum];
+            blockMinTimes = new double[blockNum];
+            blockMaxTimes = new double[blockNum];
+            long total = 0;
+            for (int i = 0; i < blockNum; i++) {
+                blockPositions[i] = footer.getLong();
+                blockRows[i] = footer.getInt();
+                blockMinTimes[i] = footer.getDouble();
+                blockMaxTimes[i] = footer.getDouble();
+                total += blockRows[i];
+            }
+            samples = total;
+
+            postingOffsets = new int[nameNum];
+            postingCounts = new int[nameNum];
+            for (int i = 0; i < nameNum; i++) {
+                postingCounts[i] = footer.getInt();
+                postingOffsets[i] = footer.position();
+                footer.position(footer.position() + postingCounts[i] * POSTING_SIZE);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读出 DataOutput.writeUTF() 写出的字符串，名称中只有 '\0' 与标准 UTF-8 的编码不同
+     */
+    private static String readUTF(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return 出现过的组件名称，按第一次记录的顺序
+     */
+    public List<String> getComponentNames() {
+        return names;
+    }
+
+    /**
+     * @return 样本总数
+     */
+    public long getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * 查询一个组件的一个属性在一段时间内的样本
+     * 第一个样本为 from 时刻的值(该时刻及之前最后一个样本，其时刻可能早于 from)，之后是 (from, to] 内的所有样本
+     * @param component 组件名称
+     * @param attribute DesSim.NumberAdded, DesSim.NumberProcessed 或 DesSim.NumberInProgress
+     * @param from 开始时刻(秒)
+     * @param to 结束时刻(秒)
+     * @return 该组件在 to 之前没有样本时为空
+     * @throws IOException
+     */
+    public Series query(String component, String attribute, double from, double to) throws IOException {
+        Integer id = ids.get(component);
+        if (id == null) {
+            throw new IllegalArgumentException("No statistics for component " + component);
+        }
+        int column = Arrays.asList(ATTRIBUTES).indexOf(attribute);
+        if (column < 0) {
+            throw new IllegalArgumentException("Unknown attribute " + attribute);
+        }
+        if (to < from) {
+            throw new IllegalArgumentException("Invalid time range: " + from + " - " + to);
+        }
+        double[] times = new double[16];
+        long[] values = new long[16];
+        int num = 0;
+
+        // from 时刻的值在该组件第一个时刻不晚于 from 的最后一个块中，只读取这一个块
+        int start = lastPostingAtOrBefore(id, from);
+        if (start >= 0) {
+            int b = postingBlock(id, start);
+            MappedByteBuffer buf = block(b);
+            for (int row = blockRows[b] - 1; row >= 0; row--) {
+                if (idAt(buf, b, row) == id && timeAt(buf, row) <= from) {
+                    times[0] = timeAt(buf, row);
+                    values[0] = valueAt(buf, b, row, column);
+                    num = 1;
+                    break;
+                }
+            }
+        }
+        // 再向后读 (from, to] 内的样本，只读取有该组件样本的块，同一时刻的多个样本只保留最后一个
+        for (int p = Math.max(0, start); p < postingCounts[id]; p++) {
+            int b = postingBlock(id, p);
+            if (blockMinTimes[b] > to) {
+                break;
+            }
+            if (blockMaxTimes[b] <= from) {
+                continue;
+            }
+            MappedByteBuffer buf = block(b);
+            for (int row = 0; row < blockRows[b]; row++) {
+                double time = timeAt(buf, row);
+                if (time <= from || time > to || idAt(buf, b, row) != id) {
+                    continue;
+                }
+                if (num > 0 && times[num - 1] == time) {
+                    num--;
+                }
+                if (num == times.length) {
+                    times = Arrays.copyOf(times, num * 2);
+                    values = Arrays.copyOf(values, num * 2);
+                }
+                times[num] = time;
+                values[num] = valueAt(buf, b, row, column);
+                num++;
+            }
+        }
+        return new Series(Arrays.copyOf(times, num), Arrays.copyOf(values, num));
+    }
+
+    /**
+     * @return 组件的块列表中，该组件在块中的第一个时刻不晚于 time 的最后一项，没有时为-1
+     */
+    private int lastPostingAtOrBefore(int id, double time) {
+        int lo = 0;
+        int hi = postingCounts[id] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (footer.getDouble(postingOffsets[id] + mid * POSTING_SIZE + 4) <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi;
+    }
+
+    private int postingBlock(int id, int index) {
+        return footer.getInt(postingOffsets[id] + index * POSTING_SIZE);
+    }
+
+    private MappedByteBuffer block(int index) throws IOException {
+        if (index != blockIndex) {
+            block = channel.map(FileChannel.MapMode.READ_ONLY, blockPositions[index],
+                    BLOCK_HEADER_SIZE + (long) blockRows[index] * ROW_SIZE);
+            blockIndex = index;
+        }
+        return block;
+    }
+
+    private static double timeAt(ByteBuffer buf, int row) {
+        return buf.getDouble(BLOCK_HEADER_SIZE + row * 8);
+    }
+
+    private int idAt(ByteBuffer buf, int block, int row) {
+        return buf.getInt(BLOCK_HEADER_SIZE + blockRows[block] * 8 + row * 4);
+    }
+
+    private long valueAt(ByteBuffer buf, int block, int row, int column) {
+        int rows = blockRows[block];
+        return buf.getLong(BLOCK_HEADER_SIZE + rows * 12 + column * rows * 8 + row * 8);
+    }
+
+    /**
+     * 按记录的顺序将所有样本写为 CSV：time,component,NumberAdded,NumberProcessed,NumberInProgress
+     * @param csv
+     * @throws IOException
+     */
+    public void toCsv(Path csv) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("time,component");
+            for (String attr : ATTRIBUTES) {
+                out.write(',');
+                out.write(attr);
+            }
+            out.newLine();
+            for (int b = 0; b < blockRows.length; b++) {
+                MappedByteBuffer buf = block(b);
+                for (int row = 0; row < blockRows[b]; row++) {
+                    out.write(Double.toString(timeAt(buf, row)));
+                    out.write(',');
+                    out.write(csvField(names.get(idAt(buf, b, row))));
+                    for (int c = 0; c < ATTRIBUTES.length; c++) {
+                        out.write(',');
+                        out.write(Long.toString(valueAt(buf, b, row, c)));
+                    }
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+        block = null;
+        channel.close();
+    }
+
+    /**
+     * 将统计文件转换为 CSV
+     * @param args 统计文件 CSV文件
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: StatisticsFile <statistics file> <csv file>");
+            System.exit(2);
+        }
+        try (StatisticsFile in = new StatisticsFile(Paths.get(args[0]))) {
+            in.toCsv(Paths.get(args[1]));
+            System.out.println(in.getSampleCount() + " samples written to " + args[1]);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.Entity;
+import cn.softeng.basicsim.StatisticsSink;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * 将组件的统计数据在记录时流式写入文件，文件用 StatisticsFile 按组件和属性查询，或者转换为 CSV
+ * 通过 SimulationContext.setStatisticsSink() 加入上下文，文件中保留所有样本，取代内存中的统计序列：
+ * 没有设置采样策略时，上下文在下次 initModel() 时使用 StatisticsSampling.lastValue()，内存中每个组件只保留最后的值，
+ * getTimePointList() 和 getDataList() 只返回最近一次采样的时刻及其值，内存占用与运行时长无关；
+ * 仍需要内存中的序列时，显式设置其他采样策略，例如 everyAdvance() 或保留有限个时刻的 downsample()
+ *
+ * 文件格式：文件头(魔数、版本、块的最大行数)，若干个数据块，文件尾(组件名称表、块索引、各组件的块列表、索引的位置和魔数)
+ * 组件的块列表按顺序列出有该组件样本的块及该组件在块中的第一个时刻，查询某个时刻的值时只需要读取一个块
+ * 每个数据块按列保存：块头(行数、最早和最晚时刻)，之后依次是时刻(double)、组件编号(int)、
+ * NumberAdded、NumberProcessed、NumberInProgress(long) 五列，每行 36 字节
+ * 数据块先填入一个可重复使用的直接缓冲区，满时通过 FileChannel 写出，内存占用与样本的数量无关
+ * 不是线程安全的，每个上下文使用各自的记录器
+ * @date: 10/19/2026 4:00 AM
+ */
+@Slf4j
+public final class StatisticsRecorder implements StatisticsSink, Closeable {
+
+    /**
+     * "DSST"
+     */
+    static final int MAGIC = 0x44535354;
+    static final int VERSION = 2;
+
+    /**
+     * 文件头的长度：魔数、版本、块的最大行数、保留
+     */
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * 块头的长度：行数(4字节)、保留(4字节)、最早时刻(8字节)、最晚时刻(8字节)
+     */
+    static final int BLOCK_HEADER_SIZE = 24;
+
+    /**
+     * 每行的长度：时刻(8字节)、组件编号(4字节)、三个统计值(各8字节)
+     */
+    static final int ROW_SIZE = 36;
+
+    /**
+     * 文件尾的长度：块索引的位置(8字节)和魔数(4字节)
+     */
+    static final int TRAILER_SIZE = 12;
+
+    private static final int DEFAULT_BLOCK_ROWS = 8192;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int blockRows;
+
+    /**
+     * 当前块，各列在缓冲区中的位置固定，写出未满的块时逐列写出
+     */
+    private final ByteBuffer block;
+    private final int idOffset;
+    private final int valueOffset;
+    private int rows;
+    private double minTime;
+    private double maxTime;
+
+    /**
+     * 组件的编号为其第一次出现的顺序
+     */
+    private final IdentityHashMap<Entity, Integer> ids = new IdentityHashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /**
+     * 各组件的块列表：有该组件样本的块的序号及该组件在块中的第一个时刻
+     */
+    private final ArrayList<Postings> postings = new ArrayList<>();
+
+    /**
+     * 已写出的块的索引：位置、行数、最早和最晚时刻
+     */
+    private final ArrayList<long[]> blocks = new ArrayList<>();
+    private long position = HEADER_SIZE;
+    private long samples;
+    private boolean closed;
+
+    /**
+     * @param file 记录文件，已存在时被覆盖
+     * @throws IOException
+     */
+    public StatisticsRecorder(Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * @param file 记录文件，已存在时被覆盖
+     * @param blockRows 每个数据块的最大行数，决定缓冲区的大小和按时间查询的粒度
+     * @throws IOException
+     */
+    public StatisticsRecorder(Path file, int blockRows) throws IOException {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("block rows must be positive: " + blockRows);
+        }
+        this.file = file;
+        this.blockRows = blockRows;
+        block = ByteBuffer.allocateDirect(BLOCK_HEADER_SIZE + blockRows * ROW_SIZE);
+        idOffset = BLOCK_HEADER_SIZE + blockRows * 8;
+        valueOffset = idOffset + blockRows * 4;
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(blockRows).putInt(0);
+        header.flip();
+        writeFully(header);
+    }
+
+    @Override
+    public void sample(Entity entity, double time, long added, long processed, long inProgress) {
+        if (closed) {
+            throw new IllegalStateException(file + ": statistics recorder is closed");
+        }
+        Integer id = ids.get(entity);
+        if (id == null) {
+            id = names.size();
+            ids.put(entity, id);
+            names.add(entity.getName() != null ? entity.getName() : "#" + entity.getEntityNumber());
+            postings.add(new Postings());
+        }
+        postings.get(id).add(blocks.size(), time);
+        if (rows == 0) {
+            minTime = time;
+        }
+        maxTime = time;
+        block.putDouble(BLOCK_HEADER_SIZE + rows * 8, time);
+        block.putInt(idOffset + rows * 4, id);
+        int pos = valueOffset + rows * 8;
+        block.putLong(pos, added);
+        block.putLong(pos + blockRows * 8, processed);
+        block.putLong(pos + blockRows * 16, inProgress);
+        rows++;
+        samples++;
+        if (rows == blockRows) {
+            try {
+                writeBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return 已记录的样本数
+     */
+    public long getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * 写出当前未满的块
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        if (rows > 0) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * 逐列写出当前块的前 rows 行，块已满时各列正好相连
+     */
+    private void writeBlock() throws IOException {
+        block.putInt(0, rows);
+        block.putInt(4, 0);
+        block.putDouble(8, minTime);
+        block.putDouble(16, maxTime);
+        blocks.add(new long[]{position, rows, Double.doubleToLongBits(minTime), Double.doubleToLongBits(maxTime)});
+        if (rows == blockRows) {
+            block.clear();
+            writeFully(block);
+        } else {
+            writeColumn(0, BLOCK_HEADER_SIZE + rows * 8);
+            writeColumn(idOffset, rows * 4);
+            for (int c = 0; c < 3; c++) {
+                writeColumn(valueOffset + c * blockRows * 8, rows * 8);
+            }
+        }
+        position += BLOCK_HEADER_SIZE + (long) rows * ROW_SIZE;
+        rows = 0;
+    }
+
+    private void writeColumn(int offset, int length) throws IOException {
+        block.limit(offset + length).position(offset);
+        writeFully(block);
+    }
+
+    private void writeFully(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    /**
+     * 写出剩余的样本、组件名称表和块索引，并关闭文件
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            out.writeInt(blocks.size());
+            for (long[] each : blocks) {
+                out.writeLong(each[0]);
+                out.writeInt((int) each[1]);
+                out.writeLong(each[2]);
+                out.writeLong(each[3]);
+            }
+            for (Postings each : postings) {
+                out.writeInt(each.size);
+                for (int i = 0; i < each.size; i++) {
+                    out.writeInt(each.blocks[i]);
+                    out.writeDouble(each.times[i]);
+                }
+            }
+            out.writeLong(position);
+            out.writeInt(MAGIC);
+            out.flush();
+            writeFully(ByteBuffer.wrap(bytes.toByteArray()));
+        } finally {
+            closed = true;
+            channel.close();
+        }
+        log.debug("{}: {} statistics samples in {} blocks", file, samples, blocks.size());
+    }
+
+    /**
+     * 一个组件的块列表，每个块只记录一次
+     */
+    private static final class Postings {
+        private int[] blocks = new int[4];
+        private double[] times = new double[4];
+        private int size;
+
+        void add(int block, double time) {
+            if (size > 0 && blocks[size - 1] == block) {
+                return;
+            }
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            blocks[size] = block;
+            times[size] = time;
+            size++;
+        }
+    }
+}
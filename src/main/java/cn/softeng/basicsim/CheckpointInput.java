@@ -0,0 +1,109 @@
+package cn.softeng.basicsim;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 检查点的二进制输入流，与 CheckpointOutput 的编码一一对应
+ * 实体表和类型表由 SimulationCheckpoint 从文件末尾读出后设置
+ * @date: 10/18/2026 9:30 PM
+ */
+public final class CheckpointInput {
+
+    private final ByteBuffer buffer;
+
+    private List<? extends Entity> entities;
+    private List<Class<?>> types;
+
+    public CheckpointInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    public int readInt() {
+        return (int) readLong();
+    }
+
+    public long readLong() {
+        long val = readVarLong();
+        return (val >>> 1) ^ -(val & 1);
+    }
+
+    public long readVarLong() {
+        long ret = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            ret |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return ret;
+            }
+            shift += 7;
+        }
+    }
+
+    public int readFixedInt() {
+        return buffer.getInt();
+    }
+
+    public long readFixedLong() {
+        return buffer.getLong();
+    }
+
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+
+    public String readString() {
+        int len = (int) readVarLong();
+        if (len == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[len - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读出实体引用
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> T readEntity() {
+        int index = (int) readVarLong();
+        return index == 0 ? null : (T) entities.get(index - 1);
+    }
+
+    /**
+     * 用写出时记录的类型注册的 TargetSerializer 读出对象
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T readObject() {
+        int index = (int) readVarLong();
+        if (index == 0) {
+            return null;
+        }
+        return (T) TargetSerializers.get(types.get(index - 1)).read(this);
+    }
+
+    public int getPosition() {
+        return buffer.position();
+    }
+
+    public void setPosition(int position) {
+        buffer.position(position);
+    }
+
+    public void setEntities(List<? extends Entity> entities) {
+        this.entities = entities;
+    }
+
+    public void setTypes(List<Class<?>> types) {
+        this.types = types;
+    }
+}
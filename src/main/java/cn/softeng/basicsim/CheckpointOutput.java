@@ -0,0 +1,196 @@
+package cn.softeng.basicsim;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * 检查点的二进制输出流，数据先写入缓冲区，缓冲区满时写入通道
+ * 整数使用 zigzag 变长编码，小的正负数都只占一两个字节；
+ * 实体引用写为实体在检查点实体表中的序号，第一次引用某个实体时将其加入实体表；
+ * ProcessTarget 等对象写为类型表中的序号加上该类型的 TargetSerializer 写出的内容
+ * 实体表和类型表由 SimulationCheckpoint 在文件末尾写出
+ * @date: 10/18/2026 9:30 PM
+ */
+public final class CheckpointOutput {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /**
+     * 已经写入通道的字节数
+     */
+    private long flushed;
+
+    private final ArrayList<Entity> entities = new ArrayList<>();
+    private final IdentityHashMap<Entity, Integer> entityIndex = new IdentityHashMap<>();
+    private final ArrayList<Class<?>> types = new ArrayList<>();
+    private final HashMap<Class<?>, Integer> typeIndex = new HashMap<>();
+
+    public CheckpointOutput(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public void writeBoolean(boolean val) {
+        ensure(1);
+        buffer.put(val ? (byte) 1 : (byte) 0);
+    }
+
+    public void writeInt(int val) {
+        writeLong(val);
+    }
+
+    public void writeLong(long val) {
+        writeVarLong((val << 1) ^ (val >> 63));
+    }
+
+    /**
+     * 写出一个不小于0的整数，比 writeLong() 少一位符号位
+     * @param val
+     */
+    public void writeVarLong(long val) {
+        ensure(10);
+        while ((val & ~0x7FL) != 0) {
+            buffer.put((byte) ((val & 0x7F) | 0x80));
+            val >>>= 7;
+        }
+        buffer.put((byte) val);
+    }
+
+    /**
+     * 写出定长(4字节)的整数，用于文件头等需要固定位置的内容
+     * @param val
+     */
+    public void writeFixedInt(int val) {
+        ensure(4);
+        buffer.putInt(val);
+    }
+
+    /**
+     * 写出定长(8字节)的整数
+     * @param val
+     */
+    public void writeFixedLong(long val) {
+        ensure(8);
+        buffer.putLong(val);
+    }
+
+    public void writeDouble(double val) {
+        ensure(8);
+        buffer.putDouble(val);
+    }
+
+    /**
+     * 写出字符串，可以为null
+     * @param str
+     */
+    public void writeString(String str) {
+        if (str == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        int pos = 0;
+        while (pos < bytes.length) {
+            ensure(1);
+            int len = Math.min(buffer.remaining(), bytes.length - pos);
+            buffer.put(bytes, pos, len);
+            pos += len;
+        }
+    }
+
+    /**
+     * 写出实体引用，可以为null
+     * @param entity
+     */
+    public void writeEntity(Entity entity) {
+        if (entity == null) {
+            writeVarLong(0);
+            return;
+        }
+        Integer index = entityIndex.get(entity);
+        if (index == null) {
+            index = entities.size();
+            entities.add(entity);
+            entityIndex.put(entity, index);
+        }
+        writeVarLong(index + 1L);
+    }
+
+    /**
+     * 用对象类型注册的 TargetSerializer 写出对象，可以为null
+     * @param obj
+     */
+    @SuppressWarnings("unchecked")
+    public void writeObject(Object obj) {
+        if (obj == null) {
+            writeVarLong(0);
+            return;
+        }
+        TargetSerializer<Object> serializer = (TargetSerializer<Object>) TargetSerializers.get(obj.getClass());
+        Integer index = typeIndex.get(obj.getClass());
+        if (index == null) {
+            index = types.size();
+            types.add(obj.getClass());
+            typeIndex.put(obj.getClass(), index);
+        }
+        writeVarLong(index + 1L);
+        serializer.write(obj, this);
+    }
+
+    /**
+     * @return 到目前为止写出的字节数
+     */
+    public long getPosition() {
+        return flushed + buffer.position();
+    }
+
+    /**
+     * @return 实体表中的实体数量，写出实体状态的过程中可能继续增加
+     */
+    public int getEntityCount() {
+        return entities.size();
+    }
+
+    public Entity getEntity(int index) {
+        return entities.get(index);
+    }
+
+    public int getTypeCount() {
+        return types.size();
+    }
+
+    public Class<?> getType(int index) {
+        return types.get(index);
+    }
+
+    /**
+     * 将缓冲区中的数据写入通道
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int num) {
+        if (buffer.remaining() >= num) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,13 +1,12 @@
 package cn.softeng.basicsim;
 
+import cn.softeng.SimulationContext;
 import cn.softeng.events.EventHandle;
 import cn.softeng.events.EventManager;
 import cn.softeng.events.ProcessTarget;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 封装创建模拟对象所需的方法和数据的基类。封装基本系统对象以实现离散事件执行
@@ -15,19 +14,9 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class Entity {
     /**
-     * 所有创建的实体数量
+     * 实体所属的仿真上下文，实体集合与命名实体集合都由上下文保存
      */
-    private static AtomicLong entityCount = new AtomicLong(0);
-
-    /**
-     * 所有已创建实体的集合
-     */
-    private static final ArrayList<Entity> allInstances;
-
-    /**
-     * 所有命名实体的集合，每一个实体都有一个唯一的名字
-     */
-    private static final HashMap<String, Entity> namedEntities;
+    private SimulationContext context;
 
     /**
      * 实体名称
@@ -50,16 +39,9 @@ public class Entity {
     static final int FLAG_REGISTERED = 0x0200;  // entity is included in the namedEntities HashMap
     static final int FLAG_RETAINED = 0x0400;  // entity is retained when the model is reset between runs
 
-    static {
-        allInstances = new ArrayList<>(100);
-        namedEntities = new HashMap<>(100);
-    }
-
     public Entity() {
-        entityNumber = entityCount.incrementAndGet();
-        synchronized (allInstances) {
-            allInstances.add(this);
-        }
+        context = SimulationContext.current();
+        entityNumber = context.addEntity(this);
         // 初始化实体状态为空
         flags = 0;
     }
@@ -109,6 +91,14 @@ public class Entity {
         return EventManager.simSeconds();
     }
 
+    /**
+     * 返回实体所属的仿真上下文
+     * @return
+     */
+    public final SimulationContext getContext() {
+        return context;
+    }
+
     /**
      * 返回实体名称
      * @return
@@ -132,26 +122,34 @@ public class Entity {
     }
 
     /**
-     * 返回所有创建过个的实体
+     * 返回当前上下文中所有创建过个的实体
      * @return
      */
     public static ArrayList<? extends Entity> getAll() {
-        synchronized (allInstances) {
-            return allInstances;
+        return SimulationContext.current().getEntities();
+    }
+
+    /**
+     * 将实体迁移到另一个仿真上下文，实体的名称和id保持不变
+     * 用于把同一个模型划分到多个上下文中并行执行，必须在模型运行前调用
+     * @param target
+     */
+    public void moveTo(SimulationContext target) {
+        if (target == context) {
+            return;
         }
+        String name = testFlag(FLAG_GENERATED) ? null : entityName;
+        context.removeEntity(this, name);
+        target.adoptEntity(this, name);
+        context = target;
     }
 
     public void kill() {
-        synchronized (allInstances) {
-            allInstances.remove(this);
-        }
         if (!testFlag(FLAG_GENERATED)) {
-            synchronized (namedEntities) {
-                if (namedEntities.get(entityName) == this) {
-                    namedEntities.remove(entityName);
-                }
-                entityName = null;
-            }
+            context.removeEntity(this, entityName);
+            entityName = null;
+        } else {
+            context.removeEntity(this, null);
         }
         setFlag(FLAG_DEAD);
     }
@@ -186,11 +184,8 @@ public class Entity {
             return;
         }
 
-        synchronized (namedEntities) {
-            namedEntities.remove(entityName);
-            entityName = newName;
-            namedEntities.put(entityName, this);
-        }
+        context.renameEntity(this, entityName, newName);
+        entityName = newName;
     }
 
     // *******************************
@@ -263,42 +258,53 @@ public class Entity {
     }
 
     /**
-     * 更具实体名称，获取指定实体
+     * 更具实体名称，获取当前上下文中的指定实体
      * @param name
      * @return
      */
     public static Entity getNamedEntity(String name) {
-        synchronized (namedEntities) {
-            return namedEntities.get(name);
-        }
+        return SimulationContext.current().getNamedEntity(name);
     }
 
     /**
-     * 重置实体收集的统计数据
+     * 重置实体收集的统计数据，只有实现了 StatisticsCollector 的实体会被上下文调用
      */
     public void clearStatistics() {}
 
     /**
-     * 更新实体的统计数据
+     * 在所属上下文的当前时刻更新实体的统计数据，上下文记录统计数据时调用 StatisticsCollector.updateStatistics(times, time)
      */
     public void updateStatistics() {}
 
+    /**
+     * 将实体的运行状态写入检查点，不包括模型参数(由构建模型的代码设置)
+     * 有运行状态的子类重写该方法，先调用父类的方法，再按固定顺序写出自己的字段
+     * @param out
+     */
+    public void writeCheckpoint(CheckpointOutput out) {
+        out.writeVarLong(flags);
+    }
+
+    /**
+     * 从检查点读出 writeCheckpoint() 写出的运行状态，字段顺序与写出时相同
+     * @param in
+     */
+    public void readCheckpoint(CheckpointInput in) {
+        flags = (int) in.readVarLong();
+    }
+
     /**
      * ！慎用，用于DesSim.initModel 重置实体集合，避免用户不合法输入
      */
     public static void resetAllInstance(List<Entity> entities) {
-        allInstances.clear();
-        allInstances.addAll(entities);
+        SimulationContext.current().resetEntities(entities);
     }
 
     /**
      * ！慎用，用于DesSim.initModel 重置实体集合，避免用户不合法输入
      */
     public static void resetNamedEntities(List<Entity> entities) {
-        namedEntities.clear();
-        for (Entity entity : entities) {
-           namedEntities.put(entity.getName(), entity);
-        }
+        SimulationContext.current().resetNamedEntities(entities);
     }
 
 
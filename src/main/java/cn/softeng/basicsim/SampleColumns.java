@@ -0,0 +1,228 @@
+package cn.softeng.basicsim;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static cn.softeng.basicsim.TimeSeriesStore.CHUNK_BITS;
+import static cn.softeng.basicsim.TimeSeriesStore.CHUNK_MASK;
+import static cn.softeng.basicsim.TimeSeriesStore.CHUNK_SIZE;
+
+/**
+ * 一个组件的统计数据，按列保存在分块的基本类型数组中:
+ * 每一行是一次记录，包括记录时刻在 TimeSeriesStore 中的序号(int)和每一列的值(long)，
+ * 行只在统计值改变时追加，某个时刻的值为该时刻及之前最后一行的值
+ * 每行占用 4 + 8 * 列数 个字节，不创建任何包装对象
+ * 只由执行该模型事件的线程写入
+ * @date: 10/19/2026 2:00 AM
+ */
+public final class SampleColumns {
+
+    /**
+     * 第一块的初始行数，大部分组件只有很少的记录
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int columns;
+    private int[][] ordinals;
+    /**
+     * [列][块][块内下标]
+     */
+    private long[][][] values;
+    private int size;
+
+    /**
+     * @param columns 列数
+     */
+    public SampleColumns(int columns) {
+        this.columns = columns;
+        this.values = new long[columns][][];
+        clear();
+    }
+
+    /**
+     * @return 行数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 返回记录指定时刻的行：序号与最后一行相同时返回最后一行(覆盖该时刻的值)，否则追加一行
+     * @param ordinal 时刻的序号，不能小于最后一行的序号
+     * @return 行号
+     */
+    public int row(int ordinal) {
+        if (size > 0) {
+            int last = getOrdinal(size - 1);
+            if (ordinal == last) {
+                return size - 1;
+            }
+            if (ordinal < last) {
+                throw new IllegalArgumentException("Time point ordinal " + ordinal + " is earlier than the last one " + last);
+            }
+        }
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, ordinals.length * 2);
+            for (int c = 0; c < columns; c++) {
+                values[c] = Arrays.copyOf(values[c], ordinals.length);
+            }
+        }
+        if (ordinals[chunk] == null) {
+            ordinals[chunk] = new int[CHUNK_SIZE];
+            for (int c = 0; c < columns; c++) {
+                values[c][chunk] = new long[CHUNK_SIZE];
+            }
+        } else if (chunk == 0 && size == ordinals[0].length) {
+            int capacity = Math.min(size * 2, CHUNK_SIZE);
+            ordinals[0] = Arrays.copyOf(ordinals[0], capacity);
+            for (int c = 0; c < columns; c++) {
+                values[c][0] = Arrays.copyOf(values[c][0], capacity);
+            }
+        }
+        ordinals[chunk][size & CHUNK_MASK] = ordinal;
+        return size++;
+    }
+
+    public void set(int row, int column, long value) {
+        values[column][row >>> CHUNK_BITS][row & CHUNK_MASK] = value;
+    }
+
+    public long get(int row, int column) {
+        checkRow(row);
+        return values[column][row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    /**
+     * @param row
+     * @return 指定行的时刻序号
+     */
+    public int getOrdinal(int row) {
+        checkRow(row);
+        return ordinals[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        }
+    }
+
+    /**
+     * 二分查找序号不大于指定序号的最后一行
+     * @param ordinal
+     * @return 行号，没有时返回-1
+     */
+    public int floorRow(int ordinal) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getOrdinal(mid) <= ordinal) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi;
+    }
+
+    /**
+     * 时钟序列抽稀后按新序号重新映射所有行，映射到同一序号的多行只保留最后一行(该时刻的值)
+     * 之前返回的视图不再有效
+     * @param ordinals TimeSeriesStore.thin() 返回的原序号到新序号的映射
+     */
+    public void remap(int[] ordinals) {
+        if (size > 0 && getOrdinal(size - 1) >= ordinals.length) {
+            // 记录不属于该时钟序列(例如由另一个事件管理器记录)，已经无法对应到任何时刻
+            clear();
+            return;
+        }
+        int num = 0;
+        for (int row = 0; row < size; row++) {
+            int ordinal = ordinals[getOrdinal(row)];
+            int dest = num > 0 && getOrdinal(num - 1) == ordinal ? num - 1 : num++;
+            this.ordinals[dest >>> CHUNK_BITS][dest & CHUNK_MASK] = ordinal;
+            for (int c = 0; c < columns; c++) {
+                set(dest, c, values[c][row >>> CHUNK_BITS][row & CHUNK_MASK]);
+            }
+        }
+        size = num;
+    }
+
+    /**
+     * 清空所有行，之前返回的视图不再有效
+     */
+    public void clear() {
+        ordinals = new int[1][];
+        ordinals[0] = new int[INITIAL_CAPACITY];
+        for (int c = 0; c < columns; c++) {
+            values[c] = new long[1][];
+            values[c][0] = new long[INITIAL_CAPACITY];
+        }
+        size = 0;
+    }
+
+    /**
+     * 返回某一列在每个时刻的值的只读视图，不复制数据:
+     * 从第一行的时刻开始，到 end 之前的每个序号对应一个元素，值为该序号及之前最后一行的值
+     * @param column 列
+     * @param end 时刻序号的上限(不包含)，通常为 TimeSeriesStore.size()
+     * @return 没有任何行时为空列表
+     */
+    public List<Long> stepView(int column, int end) {
+        if (size == 0) {
+            return new View(column, 0, 0);
+        }
+        int from = getOrdinal(0);
+        return new View(column, from, Math.max(from, end));
+    }
+
+    /**
+     * 按时刻序号补齐的只读视图，顺序读取时每个元素为 O(1)，随机读取时为 O(log n)
+     */
+    private final class View extends AbstractList<Long> implements RandomAccess {
+        private final int column;
+        private final int from;
+        private final int end;
+        /**
+         * 上次读取的行，只用于加速顺序读取，使用前总会检查
+         */
+        private int hint;
+
+        View(int column, int from, int end) {
+            this.column = column;
+            this.from = from;
+            this.end = end;
+        }
+
+        @Override
+        public Long get(int index) {
+            if (index < 0 || index >= end - from) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + (end - from));
+            }
+            int ordinal = from + index;
+            int row = hint;
+            if (!covers(row, ordinal)) {
+                row = covers(row + 1, ordinal) ? row + 1 : floorRow(ordinal);
+                hint = row;
+            }
+            return SampleColumns.this.get(row, column);
+        }
+
+        /**
+         * @return 指定行是否为序号不大于 ordinal 的最后一行
+         */
+        private boolean covers(int row, int ordinal) {
+            return row >= 0 && row < size && getOrdinal(row) <= ordinal
+                    && (row + 1 == size || getOrdinal(row + 1) > ordinal);
+        }
+
+        @Override
+        public int size() {
+            return end - from;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package cn.softeng.basicsim;
+
+import cn.softeng.events.EventHandle;
+import cn.softeng.events.EventManager;
+import cn.softeng.events.ProcessTarget;
+
+/**
+ * 按固定间隔采样统计数据的target，优先级最低，在同一时刻的其他事件之后执行，
+ * 执行后若事件队列中还有其他事件，按相同的间隔再次调度自己，否则停止，不让事件队列一直不为空；
+ * 停止后由 SimulationContext 在下一次 resume() 时(此时事件队列中已有新的事件)按原来的时刻网格重新调度
+ * @date: 10/19/2026 3:00 AM
+ */
+public class SampleStatisticsTarget extends ProcessTarget {
+
+    /**
+     * 事件优先级，数值越大越晚执行
+     */
+    public static final int PRIORITY = Integer.MAX_VALUE;
+
+    /**
+     * 采样间隔(秒)
+     */
+    private final double interval;
+
+    /**
+     * 跟踪已调度的采样事件，没有跟踪事件时采样已停止
+     */
+    private final EventHandle handle = new EventHandle();
+
+    public SampleStatisticsTarget(double interval) {
+        this.interval = interval;
+    }
+
+    public double getInterval() {
+        return interval;
+    }
+
+    public EventHandle getHandle() {
+        return handle;
+    }
+
+    @Override
+    public void process() {
+        EventManager evt = EventManager.current();
+        evt.sampleStatistics();
+        // 执行的事件已经移出事件队列，队列中只剩条件事件时同样停止，条件只能在其他事件执行后满足
+        if (evt.hasEvent()) {
+            EventManager.scheduleSeconds(interval, PRIORITY, true, this, handle);
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Sampling statistics";
+    }
+}
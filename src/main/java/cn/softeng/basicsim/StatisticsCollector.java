@@ -0,0 +1,29 @@
+package cn.softeng.basicsim;
+
+/**
+ * 收集统计数据的实体，创建或迁移时自动登记到所属的仿真上下文
+ * 时钟推进前，上下文只对自上次记录之后标记过的收集器调用 updateStatistics(times, time)，
+ * 收集器在统计的计数器改变时调用 SimulationContext.statisticsChanged() 标记自己，每次记录之前只需要标记一次
+ * 没有实现该接口的实体不参加统计，时钟推进时不会被遍历
+ * @date: 10/19/2026 1:10 AM
+ */
+public interface StatisticsCollector {
+
+    /**
+     * 在指定时刻记录一组统计数据
+     * @param times 记录到的时钟序列，即执行该上下文事件的管理器的时钟序列，不依赖调用线程
+     * @param time 记录的时刻(秒)
+     */
+    void updateStatistics(TimeSeriesStore times, double time);
+
+    /**
+     * 清空记录的统计数据，之后的第一次记录重新开始统计序列
+     */
+    void clearStatistics();
+
+    /**
+     * 时钟序列抽稀后，按新的序号重新映射记录的统计数据
+     * @param ordinals TimeSeriesStore.thin() 返回的原序号到新序号的映射
+     */
+    void remapStatistics(int[] ordinals);
+}
@@ -0,0 +1,96 @@
+package cn.softeng.basicsim;
+
+import lombok.Getter;
+
+/**
+ * 统计数据的采样策略，决定时钟序列中保留哪些时刻，getTimePointList() 和 getDataList() 只返回采样得到的时刻
+ * <ul>
+ *     <li>EVERY_ADVANCE: 每次时钟推进前采样一次(默认)，时钟序列包含每个发生事件的时刻</li>
+ *     <li>FIXED_INTERVAL: 只在初始化时刻及之后每隔固定的仿真时间采样一次，由优先级最低的事件触发，
+ *     事件队列中没有其他事件时该事件不再调度自己，不影响 hasEvent() 和 nextEventTime()，
+ *     有了新的事件后在下一次 resume() 时按同样的时刻网格继续采样</li>
+ *     <li>DOWNSAMPLE: 每次时钟推进时采样，时刻个数达到上限时按时间均匀地抽稀，之后的最小间隔加倍，
+ *     时钟序列最多保留 maxPoints 个时刻，最后一个时刻总是最近一次采样的时刻</li>
+ *     <li>LAST_VALUE: 每次时钟推进时采样，时钟序列只保留最近一次采样的时刻，每个组件只保留最后的值，
+ *     完整的统计序列由 StatisticsSink 保存，内存占用与运行时长无关；设置了 StatisticsSink 且没有指定策略时的默认策略</li>
+ * </ul>
+ * 策略在 initModel() 时生效
+ * @date: 10/19/2026 3:00 AM
+ */
+@Getter
+public final class StatisticsSampling {
+
+    public enum Mode {
+        EVERY_ADVANCE,
+        FIXED_INTERVAL,
+        DOWNSAMPLE,
+        LAST_VALUE
+    }
+
+    private static final StatisticsSampling EVERY_ADVANCE = new StatisticsSampling(Mode.EVERY_ADVANCE, 0, 0);
+    private static final StatisticsSampling LAST_VALUE = new StatisticsSampling(Mode.LAST_VALUE, 0, 0);
+
+    private final Mode mode;
+    /**
+     * 采样间隔(秒)，FIXED_INTERVAL 时有效
+     */
+    private final double interval;
+    /**
+     * 时钟序列保留的最多时刻个数，DOWNSAMPLE 时有效
+     */
+    private final int maxPoints;
+
+    private StatisticsSampling(Mode mode, double interval, int maxPoints) {
+        this.mode = mode;
+        this.interval = interval;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * @return 每次时钟推进前采样
+     */
+    public static StatisticsSampling everyAdvance() {
+        return EVERY_ADVANCE;
+    }
+
+    /**
+     * @param interval 采样间隔(秒)，必须大于0
+     * @return 按固定的仿真时间间隔采样
+     */
+    public static StatisticsSampling fixedInterval(double interval) {
+        if (!(interval > 0) || Double.isInfinite(interval)) {
+            throw new IllegalArgumentException("Sampling interval must be positive: " + interval);
+        }
+        return new StatisticsSampling(Mode.FIXED_INTERVAL, interval, 0);
+    }
+
+    /**
+     * @param maxPoints 时钟序列保留的最多时刻个数，不能小于4
+     * @return 保留有限个时刻的降采样
+     */
+    public static StatisticsSampling downsample(int maxPoints) {
+        if (maxPoints < 4) {
+            throw new IllegalArgumentException("Downsampling needs at least 4 points: " + maxPoints);
+        }
+        return new StatisticsSampling(Mode.DOWNSAMPLE, 0, maxPoints);
+    }
+
+    /**
+     * @return 只保留最近一次采样的值，与 StatisticsSink 一起使用
+     */
+    public static StatisticsSampling lastValue() {
+        return LAST_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case FIXED_INTERVAL:
+                return mode + "(" + interval + ")";
+            case DOWNSAMPLE:
+                return mode + "(" + maxPoints + ")";
+            default:
+                return mode.toString();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package cn.softeng.basicsim;
+
+/**
+ * 接收组件记录的每一组统计数据，例如写入文件(见 StatisticsRecorder)，内存中默认只保留最后的值(见 StatisticsSampling.lastValue())
+ * 收集器只在统计值改变时记录，所以每个组件的样本是一个变化序列，某个时刻的值为该时刻及之前最后一个样本的值；
+ * 同一时刻记录多次时以最后一个样本为准
+ * 在执行事件的线程中调用，同一个上下文中样本的时刻不会减小
+ * @date: 10/19/2026 4:00 AM
+ */
+public interface StatisticsSink {
+
+    /**
+     * 记录一个组件在指定时刻改变后的统计值
+     * @param entity 组件
+     * @param time 时刻(秒)
+     * @param added 接收的实体数
+     * @param processed 处理完的实体数
+     * @param inProgress 正在处理的实体数
+     */
+    void sample(Entity entity, double time, long added, long processed, long inProgress);
+}
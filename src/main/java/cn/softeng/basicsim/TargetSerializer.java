@@ -0,0 +1,25 @@
+package cn.softeng.basicsim;
+
+import cn.softeng.events.EventHandle;
+
+/**
+ * 检查点中 ProcessTarget(以及条件事件的 Conditional)的序列化方式，通过 TargetSerializers.register() 按类型注册
+ * 通常只需写出接收者实体的引用和少量参数，读出时重新创建 target，或者返回接收者持有的 target 实例
+ * @date: 10/18/2026 9:30 PM
+ */
+public interface TargetSerializer<T> {
+
+    void write(T target, CheckpointOutput out);
+
+    T read(CheckpointInput in);
+
+    /**
+     * 返回该 target 所在事件使用的事件句柄，恢复时事件句柄重新指向恢复后的事件，
+     * 事件句柄只能是接收者持有的固定句柄，不使用句柄时返回null
+     * @param target
+     * @return
+     */
+    default EventHandle getHandle(T target) {
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package cn.softeng.basicsim;
+
+import cn.softeng.events.EventHandle;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TargetSerializer 的注册表，每个需要保存到检查点的 ProcessTarget 类型注册一个 TargetSerializer
+ * 组件内部的 target 类在自己的静态初始化块中注册，保存时 target 实例已经存在，恢复时按类名加载该类即完成注册
+ * @date: 10/18/2026 9:30 PM
+ */
+public final class TargetSerializers {
+
+    private static final ConcurrentHashMap<Class<?>, TargetSerializer<?>> serializers = new ConcurrentHashMap<>();
+
+    static {
+        register(StartUpTarget.class, new TargetSerializer<StartUpTarget>() {
+            @Override
+            public void write(StartUpTarget target, CheckpointOutput out) {
+                out.writeEntity(target.entity);
+            }
+
+            @Override
+            public StartUpTarget read(CheckpointInput in) {
+                return new StartUpTarget(in.readEntity());
+            }
+        });
+        register(InitModelTarget.class, new TargetSerializer<InitModelTarget>() {
+            @Override
+            public void write(InitModelTarget target, CheckpointOutput out) {}
+
+            @Override
+            public InitModelTarget read(CheckpointInput in) {
+                return new InitModelTarget();
+            }
+        });
+        register(ClearStatisticsTarget.class, new TargetSerializer<ClearStatisticsTarget>() {
+            @Override
+            public void write(ClearStatisticsTarget target, CheckpointOutput out) {}
+
+            @Override
+            public ClearStatisticsTarget read(CheckpointInput in) {
+                return new ClearStatisticsTarget();
+            }
+        });
+        register(SampleStatisticsTarget.class, new TargetSerializer<SampleStatisticsTarget>() {
+            @Override
+            public void write(SampleStatisticsTarget target, CheckpointOutput out) {
+                out.writeDouble(target.getInterval());
+            }
+
+            @Override
+            public SampleStatisticsTarget read(CheckpointInput in) {
+                return new SampleStatisticsTarget(in.readDouble());
+            }
+
+            @Override
+            public EventHandle getHandle(SampleStatisticsTarget target) {
+                return target.getHandle();
+            }
+        });
+    }
+
+    private TargetSerializers() {}
+
+    /**
+     * 注册指定类型的序列化方式，只对该类型本身有效，不包括它的子类
+     * @param type
+     * @param serializer
+     */
+    public static <T> void register(Class<T> type, TargetSerializer<T> serializer) {
+        serializers.put(type, serializer);
+    }
+
+    /**
+     * 返回指定类型注册的序列化方式
+     * @param type
+     * @return
+     * @throws IllegalStateException 该类型没有注册序列化方式
+     */
+    public static TargetSerializer<?> get(Class<?> type) {
+        TargetSerializer<?> ret = serializers.get(type);
+        if (ret == null) {
+            throw new IllegalStateException("No TargetSerializer registered for " + type.getName());
+        }
+        return ret;
+    }
+}
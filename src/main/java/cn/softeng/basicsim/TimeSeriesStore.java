@@ -0,0 +1,201 @@
+package cn.softeng.basicsim;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 一个模型记录统计数据的时钟序列，按时间递增的顺序保存在分块的 double 数组中
+ * 每个时刻的下标(序号)在清空之前保持不变，组件的统计数据(SampleColumns)只保存序号，不重复保存时刻
+ * 第一块从较小的容量开始成倍增长，之后每次分配一个固定大小的新块，增长时不复制已有的数据
+ * 只由执行该模型事件的线程写入
+ * @date: 10/19/2026 2:00 AM
+ */
+public final class TimeSeriesStore {
+
+    static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    static final int INITIAL_CAPACITY = 64;
+
+    private double[][] chunks = new double[4][];
+    private int size;
+
+    public TimeSeriesStore() {
+        chunks[0] = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * 追加一个时刻，与最后一个时刻相同时不追加
+     * @param time 不能早于最后一个时刻，除非该时刻已在序列中
+     * @return 该时刻的序号
+     */
+    public int add(double time) {
+        if (size > 0) {
+            double last = get(size - 1);
+            if (time == last) {
+                return size - 1;
+            }
+            if (time < last) {
+                int ordinal = indexOf(time);
+                if (ordinal < 0) {
+                    throw new IllegalArgumentException("Time point " + time + " is earlier than the last one " + last);
+                }
+                return ordinal;
+            }
+        }
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new double[CHUNK_SIZE];
+        } else if (chunk == 0 && size == chunks[0].length) {
+            chunks[0] = Arrays.copyOf(chunks[0], Math.min(size * 2, CHUNK_SIZE));
+        }
+        chunks[chunk][size & CHUNK_MASK] = time;
+        return size++;
+    }
+
+    /**
+     * @return 时刻的个数，即下一个时刻的序号
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param ordinal
+     * @return 指定序号的时刻(秒)
+     */
+    public double get(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("ordinal: " + ordinal + ", size: " + size);
+        }
+        return chunks[ordinal >>> CHUNK_BITS][ordinal & CHUNK_MASK];
+    }
+
+    /**
+     * 二分查找指定时刻
+     * @param time
+     * @return 时刻的序号，不存在时返回-1
+     */
+    public int indexOf(double time) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            double value = get(mid);
+            if (value < time) {
+                lo = mid + 1;
+            } else if (value > time) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 将最后一个时刻改为更晚的时刻，该时刻记录的统计数据随之代表新的时刻，用于降采样时让最后一个时刻跟随最近一次采样
+     * @param time 必须晚于最后一个时刻，且早于下一个时刻之前的所有时刻都不变
+     */
+    public void setLast(double time) {
+        if (size == 0 || !(time > get(size - 1))) {
+            throw new IllegalArgumentException("Time point " + time + " must be later than the last one");
+        }
+        int last = size - 1;
+        chunks[last >>> CHUNK_BITS][last & CHUNK_MASK] = time;
+    }
+
+    /**
+     * 按时间均匀地抽稀时钟序列：保留第一个和最后一个时刻，以及与上一个保留的时刻相隔不小于 spacing 的时刻
+     * 之前返回的序号和视图都不再有效
+     * @param spacing 保留的相邻时刻的最小间隔(秒)，最后一个时刻除外
+     * @return 原序号到新序号的映射：原时刻之后第一个保留的时刻的序号，用于重新映射按序号保存的统计数据
+     */
+    public int[] thin(double spacing) {
+        int[] ret = new int[size];
+        if (size == 0) {
+            return ret;
+        }
+        int kept = 0;
+        double lastKept = get(0);
+        ret[0] = 0;
+        for (int i = 1; i < size; i++) {
+            double time = get(i);
+            if (i == size - 1 || time >= lastKept + spacing) {
+                // 保留的时刻前移到新序号，新序号不大于原序号，不会覆盖尚未读取的时刻
+                kept++;
+                chunks[kept >>> CHUNK_BITS][kept & CHUNK_MASK] = time;
+                lastKept = time;
+                ret[i] = -kept - 1;
+            } else {
+                ret[i] = -1;
+            }
+        }
+        // 被删除的时刻映射到之后第一个保留的时刻
+        int next = kept;
+        for (int i = size - 1; i > 0; i--) {
+            if (ret[i] != -1) {
+                next = -ret[i] - 1;
+            }
+            ret[i] = next;
+        }
+        size = kept + 1;
+        return ret;
+    }
+
+    /**
+     * 清空所有时刻，之前返回的序号和视图都不再有效
+     */
+    public void clear() {
+        chunks = new double[4][];
+        chunks[0] = new double[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * @return 所有时刻的只读视图，不复制数据，长度为创建时的时刻个数
+     */
+    public List<Double> asList() {
+        return asList(0);
+    }
+
+    /**
+     * @param from 第一个时刻的序号
+     * @return 从指定序号开始的所有时刻的只读视图，不复制数据，长度在创建时确定
+     */
+    public List<Double> asList(int from) {
+        int end = size;
+        return new View(Math.min(from, end), end);
+    }
+
+    /**
+     * 时钟序列的只读视图
+     */
+    private final class View extends AbstractList<Double> implements RandomAccess {
+        private final int from;
+        private final int end;
+
+        View(int from, int end) {
+            this.from = from;
+            this.end = end;
+        }
+
+        @Override
+        public Double get(int index) {
+            if (index < 0 || index >= end - from) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + (end - from));
+            }
+            return TimeSeriesStore.this.get(from + index);
+        }
+
+        @Override
+        public int size() {
+            return end - from;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package cn.softeng.events;
+
+import java.util.Arrays;
+
+/**
+ * 基于数组的4叉堆实现的未来事件列表
+ * 堆中只保存基本类型：每个堆位置对应 ticks[]/priorities[] 中的排序键和 heap[] 中的结点槽位号，
+ * 结点(EventNode)按槽位号保存在 nodes[] 中并被反复复用，所以插入和删除不会分配新对象
+ * 为了支持按 (调度刻度, 优先级) 查找和删除结点，还维护了一个线性探测的开放寻址哈希表，
+ * 哈希表同样只使用基本类型数组
+ * 与 EventTree 相比：getNextNode() 为 O(1)，插入和删除为 O(log4 n)，且访问的内存是连续的
+ */
+class ArrayHeap implements EventList {
+    /**
+     * 初始容量，必须是2的幂
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * 哈希表中的空位标记
+     */
+    private static final int EMPTY = -1;
+
+    // ****************************
+    // 4叉堆，下标为堆中的位置
+    // ****************************
+
+    /**
+     * 堆中每个位置对应的调度刻度
+     */
+    private long[] ticks;
+    /**
+     * 堆中每个位置对应的优先级
+     */
+    private int[] priorities;
+    /**
+     * 堆中每个位置对应的结点槽位号
+     */
+    private int[] heap;
+    /**
+     * 堆中结点的数量
+     */
+    private int size;
+
+    // ****************************
+    // 结点槽位，下标为槽位号
+    // ****************************
+
+    /**
+     * 槽位号对应的结点，结点在槽位空闲后仍保留，以便复用
+     */
+    private EventNode[] nodes;
+    /**
+     * 槽位号对应的结点在堆中的位置
+     */
+    private int[] heapPos;
+    /**
+     * 空闲槽位栈
+     */
+    private int[] freeSlots;
+    private int freeCount;
+    /**
+     * 已经使用过的槽位数量(高水位)
+     */
+    private int slotCount;
+
+    // ****************************
+    // 哈希表：(调度刻度, 优先级) -> 槽位号
+    // ****************************
+
+    private long[] hashTicks;
+    private int[] hashPriorities;
+    private int[] hashSlots;
+    private int hashMask;
+
+    ArrayHeap() {
+        reset();
+    }
+
+    @Override
+    public final void reset() {
+        ticks = new long[INITIAL_CAPACITY];
+        priorities = new int[INITIAL_CAPACITY];
+        heap = new int[INITIAL_CAPACITY];
+        size = 0;
+
+        nodes = new EventNode[INITIAL_CAPACITY];
+        heapPos = new int[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+        freeCount = 0;
+        slotCount = 0;
+
+        hashTicks = new long[INITIAL_CAPACITY * 2];
+        hashPriorities = new int[INITIAL_CAPACITY * 2];
+        hashSlots = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(hashSlots, EMPTY);
+        hashMask = INITIAL_CAPACITY * 2 - 1;
+    }
+
+    @Override
+    public EventNode getNextNode() {
+        if (size == 0) {
+            return null;
+        }
+        return nodes[heap[0]];
+    }
+
+    @Override
+    public final EventNode createOrFindNode(long schedTick, int priority) {
+        int index = findIndex(schedTick, priority);
+        if (hashSlots[index] != EMPTY) {
+            return nodes[hashSlots[index]]; // Found existing node
+        }
+
+        int slot = allocSlot();
+        EventNode node = nodes[slot];
+        if (node == null) {
+            node = new EventNode(schedTick, priority);
+            nodes[slot] = node;
+        } else {
+            node.schedTick = schedTick;
+            node.priority = priority;
+            node.head = null;
+            node.tail = null;
+        }
+
+        hashTicks[index] = schedTick;
+        hashPriorities[index] = priority;
+        hashSlots[index] = slot;
+
+        if (size == heap.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            priorities = Arrays.copyOf(priorities, size * 2);
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        siftUp(size++, slot, schedTick, priority);
+
+        // 保持哈希表的负载因子不超过 1/2
+        if (size * 2 > hashMask + 1) {
+            rehash((hashMask + 1) * 2);
+        }
+        return node;
+    }
+
+    @Override
+    public final boolean removeNode(long schedTick, int priority) {
+        int index = findIndex(schedTick, priority);
+        int slot = hashSlots[index];
+        if (slot == EMPTY) {
+            return false; // Node not found
+        }
+
+        EventNode node = nodes[slot];
+        // 如果节点所指向的链表仍然有元素，则抛出异常
+        if (node.head != null || node.tail != null) {
+            throw new RuntimeException("Removing non-empy node");
+        }
+
+        hashDelete(index);
+
+        // 用堆中最后一个结点填补被删除结点的位置
+        int pos = heapPos[slot];
+        int last = --size;
+        if (pos != last) {
+            int lastSlot = heap[last];
+            long lastTick = ticks[last];
+            int lastPriority = priorities[last];
+            if (pos > 0 && less(lastTick, lastPriority, ticks[(pos - 1) >> 2], priorities[(pos - 1) >> 2])) {
+                siftUp(pos, lastSlot, lastTick, lastPriority);
+            } else {
+                siftDown(pos, lastSlot, lastTick, lastPriority);
+            }
+        }
+
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    @Override
+    public final void runOnAllNodes(EventNode.Runner runner) {
+        EventNode[] sorted = new EventNode[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = nodes[heap[i]];
+        }
+        Arrays.sort(sorted, EventNode::compareToNode);
+        for (EventNode node : sorted) {
+            runner.runOnNode(node);
+        }
+    }
+
+    /**
+     * 与 EventNode.compare() 的顺序相同：先比较调度刻度，再比较优先级
+     */
+    private static boolean less(long tick1, int priority1, long tick2, int priority2) {
+        return tick1 < tick2 || (tick1 == tick2 && priority1 < priority2);
+    }
+
+    /**
+     * 从 pos 位置开始向上调整，最终把 slot 放到合适的位置
+     */
+    private void siftUp(int pos, int slot, long tick, int priority) {
+        while (pos > 0) {
+            int parent = (pos - 1) >> 2;
+            long parentTick = ticks[parent];
+            int parentPriority = priorities[parent];
+            if (!less(tick, priority, parentTick, parentPriority)) {
+                break;
+            }
+            move(parent, pos);
+            pos = parent;
+        }
+        place(pos, slot, tick, priority);
+    }
+
+    /**
+     * 从 pos 位置开始向下调整，最终把 slot 放到合适的位置
+     */
+    private void siftDown(int pos, int slot, long tick, int priority) {
+        while (true) {
+            int first = (pos << 2) + 1;
+            if (first >= size) {
+                break;
+            }
+            // 找出最多4个孩子中最小的一个
+            int min = first;
+            int end = Math.min(first + 4, size);
+            for (int child = first + 1; child < end; child++) {
+                if (less(ticks[child], priorities[child], ticks[min], priorities[min])) {
+                    min = child;
+                }
+            }
+            if (!less(ticks[min], priorities[min], tick, priority)) {
+                break;
+            }
+            move(min, pos);
+            pos = min;
+        }
+        place(pos, slot, tick, priority);
+    }
+
+    private void move(int from, int to) {
+        ticks[to] = ticks[from];
+        priorities[to] = priorities[from];
+        heap[to] = heap[from];
+        heapPos[heap[to]] = to;
+    }
+
+    private void place(int pos, int slot, long tick, int priority) {
+        ticks[pos] = tick;
+        priorities[pos] = priority;
+        heap[pos] = slot;
+        heapPos[slot] = pos;
+    }
+
+    /**
+     * 获取一个空闲的槽位，必要时扩容
+     */
+    private int allocSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == nodes.length) {
+            nodes = Arrays.copyOf(nodes, slotCount * 2);
+            heapPos = Arrays.copyOf(heapPos, slotCount * 2);
+            freeSlots = Arrays.copyOf(freeSlots, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    // ****************************
+    // 哈希表操作
+    // ****************************
+
+    private static int hash(long tick, int priority) {
+        long h = tick * 0x9E3779B97F4A7C15L + priority * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 返回 (tick, priority) 在哈希表中的位置，若不存在，返回应该插入的空位
+     */
+    private int findIndex(long tick, int priority) {
+        int index = hash(tick, priority) & hashMask;
+        while (hashSlots[index] != EMPTY) {
+            if (hashTicks[index] == tick && hashPriorities[index] == priority) {
+                return index;
+            }
+            index = (index + 1) & hashMask;
+        }
+        return index;
+    }
+
+    /**
+     * 删除哈希表中 index 位置的元素，并将后续探测链上的元素前移(backward shift)，因此不需要墓碑标记
+     */
+    private void hashDelete(int index) {
+        int hole = index;
+        int next = index;
+        while (true) {
+            next = (next + 1) & hashMask;
+            if (hashSlots[next] == EMPTY) {
+                break;
+            }
+            int home = hash(hashTicks[next], hashPriorities[next]) & hashMask;
+            // 若元素的初始位置循环地位于 (hole, next] 之间，则不能移动它
+            boolean stay = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (stay) {
+                continue;
+            }
+            hashTicks[hole] = hashTicks[next];
+            hashPriorities[hole] = hashPriorities[next];
+            hashSlots[hole] = hashSlots[next];
+            hole = next;
+        }
+        hashSlots[hole] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldTicks = hashTicks;
+        int[] oldPriorities = hashPriorities;
+        int[] oldSlots = hashSlots;
+
+        hashTicks = new long[capacity];
+        hashPriorities = new int[capacity];
+        hashSlots = new int[capacity];
+        Arrays.fill(hashSlots, EMPTY);
+        hashMask = capacity - 1;
+
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] == EMPTY) {
+                continue;
+            }
+            int index = findIndex(oldTicks[i], oldPriorities[i]);
+            hashTicks[index] = oldTicks[i];
+            hashPriorities[index] = oldPriorities[i];
+            hashSlots[index] = oldSlots[i];
+        }
+    }
+
+    // ******************
+    // 测试验证相关代码
+    // ******************
+
+    /**
+     * 验证堆序、槽位位置以及哈希表，返回结点数量
+     * @return
+     */
+    final int verify() {
+        for (int pos = 0; pos < size; pos++) {
+            int slot = heap[pos];
+            if (heapPos[slot] != pos) {
+                throw new RuntimeException("Heap position verify failed");
+            }
+            EventNode node = nodes[slot];
+            if (node.schedTick != ticks[pos] || node.priority != priorities[pos]) {
+                throw new RuntimeException("Heap key verify failed");
+            }
+            if (pos > 0 && less(ticks[pos], priorities[pos], ticks[(pos - 1) >> 2], priorities[(pos - 1) >> 2])) {
+                throw new RuntimeException("Heap order verify failed");
+            }
+            if (hashSlots[findIndex(node.schedTick, node.priority)] != slot) {
+                throw new RuntimeException("Heap hash verify failed");
+            }
+        }
+        return size;
+    }
+}
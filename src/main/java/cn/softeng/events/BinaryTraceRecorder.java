@@ -0,0 +1,471 @@
+package cn.softeng.events;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 二进制事件跟踪记录器，可以在生产环境中一直开启，出现问题后从记录文件中查看事件的执行过程
+ *
+ * 每次回调写出一条定长的记录(刻度、优先级、回调类型、ProcessTarget 描述的编号)到预先分配的环形缓冲区中，
+ * 由一个后台线程将缓冲区中的记录写入内存映射的记录文件；事件线程不做任何 I/O，也不分配内存(描述第一次出现时除外)，
+ * 缓冲区满时默认丢弃新的记录并计数，不会阻塞仿真；需要完整记录(例如用于回放比较)时可以设置为等待后台线程写出，
+ * 等待有时间上限，超时后仍然丢弃并计数，见 setLossless()
+ * ProcessTarget 的描述按字符串编号，编号与描述的对应关系按编号顺序写入 "记录文件名.names"，
+ * 同一个 ProcessTarget 对象的描述和编号缓存在一个按对象地址索引的小表中，描述与缓存的相同时不再查找编号；
+ * 描述不一定固定不变(例如 EntityTarget 的描述包含实体当前的名称)，所以每次仍然调用 getDescription() 比较
+ *
+ * 记录文件格式：文件头(魔数、版本、记录长度、文件容量、已写出的记录数、丢弃的记录数)，之后为记录
+ * 文件容量为0时，记录文件随记录的增加而增长，按段映射到内存；否则记录文件是固定容量的环形，只保留最新的记录
+ * 内存占用只有环形缓冲区和一个映射段，与记录的数量无关
+ * @date: 10/18/2026 10:40 PM
+ */
+@Slf4j
+public class BinaryTraceRecorder implements EventTraceListener, Closeable {
+
+    /**
+     * "DSTR"
+     */
+    public static final int MAGIC = 0x44535452;
+    public static final int VERSION = 1;
+
+    /**
+     * 记录的长度：刻度(8字节)、优先级(4字节)、回调类型(4字节)、描述的编号(4字节)
+     */
+    public static final int RECORD_SIZE = 20;
+
+    /**
+     * 文件头的长度
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * 文件头中已写出的记录数和丢弃的记录数的位置
+     */
+    public static final int WRITTEN_OFFSET = 16;
+    public static final int DROPPED_OFFSET = 24;
+
+    /**
+     * 每个映射段的记录数
+     */
+    private static final int SEGMENT_RECORDS = 1 << 20;
+
+    private static final int CACHE_SIZE = 1024;
+
+    /**
+     * 回调类型，按序号写入记录
+     */
+    public enum Kind {
+        Event,
+        Wait,
+        Schedule,
+        ProcessStart,
+        ProcessEnd,
+        Interrupt,
+        Kill,
+        WaitUntil,
+        SchedUntil,
+        ConditionalEval,
+        ConditionalEvalEnded;
+
+        private static final Kind[] VALUES = values();
+
+        public static Kind valueOf(int ordinal) {
+            return VALUES[ordinal];
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final DataOutputStream names;
+
+    /**
+     * 环形缓冲区，只由事件线程写入，由后台线程读出
+     */
+    private final ByteBuffer ring;
+    private final int ringCapacity;
+
+    /**
+     * 已写入环形缓冲区的记录数，由事件线程更新
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 已写入记录文件的记录数，由后台线程更新
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile long dropped;
+
+    /**
+     * 缓冲区满时是否等待后台线程写出，而不是丢弃记录
+     */
+    private volatile boolean lossless;
+
+    /**
+     * 无损模式下缓冲区满时事件线程最多等待的时间(纳秒)
+     */
+    private volatile long losslessTimeoutNanos = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 记录文件的容量(记录数)，为0时不限
+     */
+    private final int fileCapacity;
+
+    private final MappedByteBuffer header;
+    private MappedByteBuffer segment;
+    private long segmentIndex = -1;
+
+    // 以下字段只由事件线程访问(回调都在持有事件管理器的锁时执行)
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final ProcessTarget[] cacheTargets = new ProcessTarget[CACHE_SIZE];
+    private final String[] cacheNames = new String[CACHE_SIZE];
+    private final int[] cacheIds = new int[CACHE_SIZE];
+    private long lastTick;
+
+    /**
+     * 无损模式下等待超时后为true，此后缓冲区满时直接丢弃记录，直到缓冲区中重新有了空间
+     */
+    private boolean stalled;
+
+    /**
+     * 新出现的描述，由后台线程按编号顺序写出
+     */
+    private final ConcurrentLinkedQueue<String> newNames = new ConcurrentLinkedQueue<>();
+
+    private final Thread flusher;
+    private final long flushIntervalNanos;
+    private volatile boolean closed;
+
+    /**
+     * 使用 64K 条记录的环形缓冲区，记录文件不限容量
+     * @param file 记录文件
+     * @throws IOException
+     */
+    public BinaryTraceRecorder(Path file) throws IOException {
+        this(file, 1 << 16, 0, 10);
+    }
+
+    /**
+     * @param file 记录文件，已存在时被覆盖
+     * @param ringCapacity 环形缓冲区的容量(记录数)
+     * @param fileCapacity 记录文件的容量(记录数)，为0时不限
+     * @param flushIntervalMillis 后台线程写出记录的间隔(毫秒)，缓冲区半满时立即写出
+     * @throws IOException
+     */
+    public BinaryTraceRecorder(Path file, int ringCapacity, int fileCapacity, long flushIntervalMillis) throws IOException {
+        if (ringCapacity < 2) {
+            throw new IllegalArgumentException("ring capacity must be at least 2: " + ringCapacity);
+        }
+        if (fileCapacity < 0) {
+            throw new IllegalArgumentException("file capacity must not be negative: " + fileCapacity);
+        }
+        this.file = file;
+        this.ringCapacity = ringCapacity;
+        this.fileCapacity = fileCapacity;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        ring = ByteBuffer.allocateDirect(ringCapacity * RECORD_SIZE);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        names = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(namesFile(file))));
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, RECORD_SIZE);
+        header.putInt(12, fileCapacity);
+
+        flusher = new Thread(this::flushLoop, "dessim-trace-" + file.getFileName());
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * @param file 记录文件
+     * @return 描述文件
+     */
+    public static Path namesFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".names");
+    }
+
+    /**
+     * @return 已记录(写入环形缓冲区)的记录数
+     */
+    public long getRecordCount() {
+        return head.get();
+    }
+
+    /**
+     * @return 因缓冲区满而丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * 设置缓冲区满时是否等待后台线程写出记录，默认丢弃记录
+     * 注意：回调在事件线程持有事件管理器的锁时执行，等待期间整个调度器停顿，
+     * inject()、pause() 以及其他需要该锁的线程都被阻塞，直到后台线程写出记录；
+     * 每次等待最多 setLosslessTimeout() 指定的时间，超时后丢弃记录并计数(记录文件头中的丢弃数，TraceReplay 比较时给出警告)，
+     * 之后缓冲区满时不再等待，直到后台线程写出记录、缓冲区中重新有了空间
+     * @param bool
+     */
+    public void setLossless(boolean bool) {
+        lossless = bool;
+    }
+
+    /**
+     * 设置无损模式下缓冲区满时事件线程最多等待的时间，默认1秒
+     * @param millis 毫秒
+     */
+    public void setLosslessTimeout(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("timeout must not be negative: " + millis);
+        }
+        losslessTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    // ******************
+    // EventTraceListener
+    // ******************
+
+    @Override
+    public void traceEvent(long tick, int priority, ProcessTarget t) {
+        lastTick = tick;
+        record(tick, priority, Kind.Event, t);
+    }
+
+    @Override
+    public void traceWait(long tick, int priority, ProcessTarget t) {
+        record(tick, priority, Kind.Wait, t);
+    }
+
+    @Override
+    public void traceSchedProcess(long tick, int priority, ProcessTarget t) {
+        record(tick, priority, Kind.Schedule, t);
+    }
+
+    @Override
+    public void traceProcessStart(ProcessTarget t) {
+        record(lastTick, -1, Kind.ProcessStart, t);
+    }
+
+    @Override
+    public void traceProcessEnd() {
+        record(lastTick, -1, Kind.ProcessEnd, null);
+    }
+
+    @Override
+    public void traceInterrupt(long tick, int priority, ProcessTarget t) {
+        record(tick, priority, Kind.Interrupt, t);
+    }
+
+    @Override
+    public void traceKill(long tick, int priority, ProcessTarget t) {
+        record(tick, priority, Kind.Kill, t);
+    }
+
+    @Override
+    public void traceWaitUntil() {
+        record(lastTick, -1, Kind.WaitUntil, null);
+    }
+
+    @Override
+    public void traceSchedUntil(ProcessTarget t) {
+        record(lastTick, -1, Kind.SchedUntil, t);
+    }
+
+    @Override
+    public void traceConditionalEval(ProcessTarget t) {
+        record(lastTick, -1, Kind.ConditionalEval, t);
+    }
+
+    /**
+     * 优先级字段记录是否唤醒(1或0)
+     */
+    @Override
+    public void traceConditionalEvalEnded(boolean wakeup, ProcessTarget t) {
+        record(lastTick, wakeup ? 1 : 0, Kind.ConditionalEvalEnded, t);
+    }
+
+    private void record(long tick, int priority, Kind kind, ProcessTarget t) {
+        long seq = head.get();
+        long pending = seq - tail.get();
+        if (pending >= ringCapacity && lossless && !stalled) {
+            long deadline = System.nanoTime() + losslessTimeoutNanos;
+            while (pending >= ringCapacity && !closed) {
+                long wait = deadline - System.nanoTime();
+                if (wait <= 0) {
+                    stalled = true;
+                    break;
+                }
+                LockSupport.unpark(flusher);
+                LockSupport.parkNanos(this, Math.min(wait, 10_000));
+                pending = seq - tail.get();
+            }
+        }
+        if (pending >= ringCapacity || closed) {
+            dropped++;
+            return;
+        }
+        stalled = false;
+        int id = t == null ? -1 : idOf(t);
+        int pos = (int) (seq % ringCapacity) * RECORD_SIZE;
+        ring.putLong(pos, tick);
+        ring.putInt(pos + 8, priority);
+        ring.putInt(pos + 12, kind.ordinal());
+        ring.putInt(pos + 16, id);
+        head.lazySet(seq + 1);
+        if (pending == ringCapacity / 2) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * 返回 ProcessTarget 当前的描述的编号，描述第一次出现时分配新的编号
+     */
+    private int idOf(ProcessTarget t) {
+        int slot = System.identityHashCode(t) & (CACHE_SIZE - 1);
+        String desc = t.getDescription();
+        if (cacheTargets[slot] == t && desc.equals(cacheNames[slot])) {
+            return cacheIds[slot];
+        }
+        Integer id = ids.get(desc);
+        if (id == null) {
+            id = ids.size();
+            ids.put(desc, id);
+            newNames.add(desc);
+        }
+        cacheTargets[slot] = t;
+        cacheNames[slot] = desc;
+        cacheIds[slot] = id;
+        return id;
+    }
+
+    // ******************
+    // 后台写出
+    // ******************
+
+    private void flushLoop() {
+        try {
+            while (!closed) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                drain();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.error("{}: event trace recording stopped", file, e);
+            closed = true;
+        }
+    }
+
+    /**
+     * 将环形缓冲区中的记录和新出现的描述写入文件
+     */
+    private void drain() throws IOException {
+        // 先读出要写出的记录数，再写出描述：事件线程在发布记录之前加入其新的描述，
+        // 所以这些记录中出现的编号都能在描述文件中找到
+        long end = head.get();
+        String name;
+        boolean newName = false;
+        while ((name = newNames.poll()) != null) {
+            names.writeUTF(name);
+            newName = true;
+        }
+        if (newName) {
+            names.flush();
+        }
+
+        long seq = tail.get();
+        if (seq == end) {
+            return;
+        }
+        ByteBuffer src = ring.duplicate();
+        while (seq < end) {
+            long slot = fileCapacity == 0 ? seq : seq % fileCapacity;
+            int num = (int) Math.min(end - seq, ringCapacity - seq % ringCapacity);
+            num = (int) Math.min(num, SEGMENT_RECORDS - slot % SEGMENT_RECORDS);
+            if (fileCapacity != 0) {
+                num = (int) Math.min(num, fileCapacity - slot);
+            }
+            MappedByteBuffer dst = segment(slot / SEGMENT_RECORDS);
+            int from = (int) (seq % ringCapacity) * RECORD_SIZE;
+            src.limit(from + num * RECORD_SIZE).position(from);
+            dst.position((int) (slot % SEGMENT_RECORDS) * RECORD_SIZE);
+            dst.put(src);
+            seq += num;
+            // 每段写完后再释放环形缓冲区中的空间
+            tail.lazySet(seq);
+        }
+        header.putLong(WRITTEN_OFFSET, seq);
+        header.putLong(DROPPED_OFFSET, dropped);
+    }
+
+    private MappedByteBuffer segment(long index) throws IOException {
+        if (index != segmentIndex) {
+            long records = SEGMENT_RECORDS;
+            if (fileCapacity != 0) {
+                records = Math.min(records, fileCapacity - index * SEGMENT_RECORDS);
+            }
+            segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + index * SEGMENT_RECORDS * RECORD_SIZE, records * RECORD_SIZE);
+            segmentIndex = index;
+        }
+        return segment;
+    }
+
+    /**
+     * 停止记录，写出所有剩余的记录，并关闭记录文件
+     * 关闭前应从事件管理器中移除该监听器，或者确保调度器已经停止
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed && !flusher.isAlive()) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            drain();
+            header.putLong(DROPPED_OFFSET, dropped);
+            if (segment != null) {
+                segment.force();
+            }
+            header.force();
+            if (fileCapacity == 0) {
+                // 去掉最后一个映射段中未使用的部分；映射段在被回收之前不会解除映射，
+                // 某些平台(例如 Windows)不允许截断仍被映射的文件，此时保留未使用的部分，读取时以文件头中的记录数为准
+                segment = null;
+                try {
+                    channel.truncate(HEADER_SIZE + tail.get() * RECORD_SIZE);
+                } catch (IOException e) {
+                    log.warn("{}: cannot truncate the unused part of the trace file", file, e);
+                }
+            }
+        } finally {
+            names.close();
+            channel.close();
+        }
+        log.debug("{}: {} trace records written, {} dropped", file, tail.get(), dropped);
+    }
+}
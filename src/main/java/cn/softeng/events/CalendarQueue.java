@@ -0,0 +1,348 @@
+package cn.softeng.events;
+
+import java.util.Arrays;
+
+/**
+ * 日历队列(calendar queue, R. Brown 1988)实现的未来事件列表
+ * 时间轴被切分成宽度为 width 的"天"，第 n 天(n = schedTick / width)的结点放在 buckets[n % buckets.length] 中，
+ * 每个桶是一个按 (调度刻度, 优先级) 升序排列的单链表，所以在结点数量与桶数量相当、桶宽度合适时，
+ * 插入和取出队首结点的均摊复杂度都是 O(1)
+ * 桶链表复用了 EventNode 的 right 字段作为后继指针（与 EventTree 空闲链表复用 left 字段的做法相同），
+ * 链表以 null 结尾
+ */
+class CalendarQueue implements EventList {
+    /**
+     * 桶的最小数量，必须是2的幂
+     */
+    private static final int MIN_BUCKETS = 16;
+    /**
+     * 重新估算桶宽度时，采样队首结点的个数
+     */
+    private static final int WIDTH_SAMPLES = 32;
+
+    /**
+     * 所有的桶，长度为2的幂
+     */
+    private EventNode[] buckets;
+    /**
+     * buckets.length - 1，用于将"天"映射为桶下标
+     */
+    private int mask;
+    /**
+     * 每个桶覆盖的时间刻度数(>= 1)
+     */
+    private long width;
+    /**
+     * 队列中结点的数量
+     */
+    private int size;
+    /**
+     * 所有结点所在"天"的下界，getNextNode() 从这一天开始扫描
+     */
+    private long lastDay;
+    /**
+     * 缓存的最小值结点，为null时需要重新扫描
+     */
+    private EventNode lowest;
+
+    CalendarQueue() {
+        reset();
+    }
+
+    @Override
+    public final void reset() {
+        buckets = new EventNode[MIN_BUCKETS];
+        mask = MIN_BUCKETS - 1;
+        width = 1;
+        size = 0;
+        lastDay = 0;
+        lowest = null;
+        clearFreeList();
+    }
+
+    @Override
+    public EventNode getNextNode() {
+        if (lowest != null) {
+            return lowest;
+        }
+        if (size == 0) {
+            return null;
+        }
+
+        // 从最早的一天开始，依次检查一整"年"(buckets.length 天)内每个桶的首结点
+        long day = lastDay;
+        for (int i = 0; i < buckets.length; i++, day++) {
+            EventNode head = buckets[(int) (day & mask)];
+            if (head != null && head.schedTick / width == day) {
+                lastDay = day;
+                lowest = head;
+                return head;
+            }
+        }
+
+        // 一年之内没有事件，直接比较每个桶的首结点
+        EventNode min = null;
+        for (EventNode head : buckets) {
+            if (head != null && (min == null || head.compareToNode(min) < 0)) {
+                min = head;
+            }
+        }
+        lastDay = min.schedTick / width;
+        lowest = min;
+        return min;
+    }
+
+    @Override
+    public final EventNode createOrFindNode(long schedTick, int priority) {
+        long day = schedTick / width;
+        int index = (int) (day & mask);
+
+        // 在有序的桶链表中查找插入位置
+        EventNode prev = null;
+        EventNode curr = buckets[index];
+        while (curr != null) {
+            int comp = curr.compare(schedTick, priority);
+            if (comp == 0) {
+                return curr; // Found existing node
+            }
+            if (comp > 0) {
+                break;
+            }
+            prev = curr;
+            curr = curr.right;
+        }
+
+        EventNode newNode = getNewNode(schedTick, priority);
+        newNode.right = curr;
+        if (prev == null) {
+            buckets[index] = newNode;
+        } else {
+            prev.right = newNode;
+        }
+        size++;
+
+        if (day < lastDay) {
+            lastDay = day;
+        }
+        if (lowest != null && newNode.compareToNode(lowest) < 0) {
+            lowest = newNode;
+        }
+
+        if (size > 2 * buckets.length) {
+            resize(buckets.length * 2);
+        }
+        return newNode;
+    }
+
+    @Override
+    public final boolean removeNode(long schedTick, int priority) {
+        long day = schedTick / width;
+        int index = (int) (day & mask);
+
+        EventNode prev = null;
+        EventNode curr = buckets[index];
+        while (true) {
+            if (curr == null) {
+                return false; // Node not found
+            }
+            int comp = curr.compare(schedTick, priority);
+            if (comp == 0) {
+                break;
+            }
+            if (comp > 0) {
+                return false; // Node not found
+            }
+            prev = curr;
+            curr = curr.right;
+        }
+
+        // 如果节点所指向的链表仍然有元素，则抛出异常
+        if (curr.head != null || curr.tail != null) {
+            throw new RuntimeException("Removing non-empy node");
+        }
+
+        if (prev == null) {
+            buckets[index] = curr.right;
+        } else {
+            prev.right = curr.right;
+        }
+        size--;
+
+        if (curr == lowest) {
+            // 剩下的结点都大于被删除的最小结点，所以它所在的一天仍然是下界
+            lowest = null;
+            lastDay = day;
+        }
+        reuseNode(curr);
+
+        if (size < buckets.length / 2 && buckets.length > MIN_BUCKETS) {
+            resize(buckets.length / 2);
+        }
+        return true;
+    }
+
+    @Override
+    public final void runOnAllNodes(EventNode.Runner runner) {
+        for (EventNode node : sortedNodes()) {
+            runner.runOnNode(node);
+        }
+    }
+
+    /**
+     * 返回按 (调度刻度, 优先级) 升序排列的所有结点
+     * @return
+     */
+    private EventNode[] sortedNodes() {
+        EventNode[] nodes = new EventNode[size];
+        int pos = 0;
+        for (EventNode head : buckets) {
+            for (EventNode n = head; n != null; n = n.right) {
+                nodes[pos++] = n;
+            }
+        }
+        Arrays.sort(nodes, EventNode::compareToNode);
+        return nodes;
+    }
+
+    /**
+     * 调整桶的数量，并根据队首结点的间隔重新估算桶的宽度
+     * @param newSize 新的桶数量，必须是2的幂
+     */
+    private void resize(int newSize) {
+        EventNode[] nodes = sortedNodes();
+        width = estimateWidth(nodes);
+        buckets = new EventNode[newSize];
+        mask = newSize - 1;
+
+        // 结点已经有序，依次追加到各个桶的末尾即可保持桶内有序
+        EventNode[] tails = new EventNode[newSize];
+        for (EventNode node : nodes) {
+            int index = (int) ((node.schedTick / width) & mask);
+            node.right = null;
+            if (tails[index] == null) {
+                buckets[index] = node;
+            } else {
+                tails[index].right = node;
+            }
+            tails[index] = node;
+        }
+
+        lowest = nodes.length > 0 ? nodes[0] : null;
+        lastDay = nodes.length > 0 ? nodes[0].schedTick / width : 0;
+    }
+
+    /**
+     * 按照 Brown 的建议，取队首若干结点相邻刻度间隔的均值（剔除大于两倍均值的间隔后重新计算）的三倍作为桶宽度
+     * @param nodes 有序的结点
+     * @return 新的桶宽度
+     */
+    private long estimateWidth(EventNode[] nodes) {
+        int n = Math.min(nodes.length, WIDTH_SAMPLES);
+        double sum = 0;
+        int count = 0;
+        for (int i = 1; i < n; i++) {
+            long gap = nodes[i].schedTick - nodes[i - 1].schedTick;
+            if (gap > 0) {
+                sum += gap;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return width;
+        }
+
+        double avg = sum / count;
+        sum = 0;
+        count = 0;
+        for (int i = 1; i < n; i++) {
+            long gap = nodes[i].schedTick - nodes[i - 1].schedTick;
+            if (gap > 0 && gap <= 2 * avg) {
+                sum += gap;
+                count++;
+            }
+        }
+        if (count > 0) {
+            avg = sum / count;
+        }
+        return Math.max(1L, (long) Math.min(3 * avg, Long.MAX_VALUE / 2));
+    }
+
+
+    /**
+     * 可复用空闲节点链表，使用节点的 right 字段串联
+     */
+    private EventNode freeList = null;
+
+    /**
+     * 根据调度刻度和事件优先级创建一个新节点
+     * 在创建是考虑复用空闲节点
+     * @param schedTick
+     * @param priority
+     * @return
+     */
+    private EventNode getNewNode(long schedTick, int priority) {
+        if (freeList == null) {
+            return new EventNode(schedTick, priority);
+        }
+
+        EventNode ret = freeList;
+        freeList = freeList.right;
+
+        ret.schedTick = schedTick;
+        ret.priority = priority;
+        ret.head = null;
+        ret.tail = null;
+        ret.right = null;
+        return ret;
+    }
+
+    /**
+     * 回收空闲的节点
+     * @param node
+     */
+    private void reuseNode(EventNode node) {
+        node.head = null;
+        node.tail = null;
+        node.right = freeList;
+        freeList = node;
+    }
+
+    /**
+     * 清空空闲节点
+     */
+    private void clearFreeList() {
+        freeList = null;
+    }
+
+    // ******************
+    // 测试验证相关代码
+    // ******************
+
+    /**
+     * 验证每个桶内的顺序以及结点所在的桶，返回结点数量
+     * @return
+     */
+    final int verify() {
+        int count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            EventNode prev = null;
+            for (EventNode n = buckets[i]; n != null; n = n.right) {
+                if (((n.schedTick / width) & mask) != i) {
+                    throw new RuntimeException("Calendar queue bucket verify failed");
+                }
+                if (prev != null && prev.compareToNode(n) >= 0) {
+                    throw new RuntimeException("Calendar queue order verify failed");
+                }
+                if (n.schedTick / width < lastDay) {
+                    throw new RuntimeException("Calendar queue lower bound verify failed");
+                }
+                prev = n;
+                count++;
+            }
+        }
+        if (count != size) {
+            throw new RuntimeException("Calendar queue size verify failed");
+        }
+        return count;
+    }
+}
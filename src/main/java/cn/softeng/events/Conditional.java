@@ -19,7 +19,17 @@ package cn.softeng.events;
 /**
  * 条件抽象类，其子类被组合在条件事件中，用于在仿真运行过程中检查某些情况
  * 比如用户暂停仿真运行
+ * 默认情况下，等待中的条件在每次推进仿真时钟前都会被检查(轮询)；
+ * 若子类通过 getDependencies() 声明了它所依赖的状态变量信号，则只在等待开始时和这些信号 signal() 之后才会被检查
  */
 public abstract class Conditional {
 	public abstract boolean evaluate();
+
+	/**
+	 * 返回该条件所依赖的状态变量信号，在条件开始等待时调用一次
+	 * @return 依赖的信号，返回null表示使用轮询的方式检查该条件
+	 */
+	public StateSignal[] getDependencies() {
+		return null;
+	}
 }
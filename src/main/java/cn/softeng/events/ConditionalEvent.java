@@ -21,6 +21,14 @@ package cn.softeng.events;
  */
 final class ConditionalEvent extends BaseEvent {
 	Conditional c;
+	/**
+	 * 条件所依赖的信号，为null时表示轮询的条件
+	 */
+	StateSignal[] dependencies;
+	/**
+	 * 管理该条件事件的事件管理器
+	 */
+	EventManager manager;
 
 	ConditionalEvent(Conditional c, ProcessTarget t, EventHandle hand) {
 		this.target = t;
@@ -0,0 +1,227 @@
+package cn.softeng.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventManager 的运行指标：执行的事件数和每秒事件数、未来事件列表的结点数和事件数(当前值和峰值)、
+ * 条件事件的数量和检查耗时、Process 线程交接(handoff)的延迟、每次 resume 的运行时间
+ *
+ * 指标由执行事件的线程在持有事件管理器的锁时更新(线程交接的延迟由被唤醒的线程记录)，记录时不分配内存；
+ * 所有读取方法都不需要获取事件管理器的锁，可以在任何线程中调用，结果是运行过程中某个时刻的近似值
+ * 耗时的单位都是纳秒
+ * @date: 10/18/2026 11:50 PM
+ */
+public final class EngineMetrics {
+
+    /**
+     * 只由一个线程更新、可以由任何线程读取的计量值，同时记录峰值
+     */
+    public static final class Gauge {
+        private final AtomicLong current = new AtomicLong();
+        private final AtomicLong peak = new AtomicLong();
+
+        void increment() {
+            set(current.get() + 1);
+        }
+
+        void decrement() {
+            current.lazySet(current.get() - 1);
+        }
+
+        void set(long value) {
+            current.lazySet(value);
+            if (value > peak.get()) {
+                peak.lazySet(value);
+            }
+        }
+
+        public long get() {
+            return current.get();
+        }
+
+        public long getPeak() {
+            return peak.get();
+        }
+
+        void reset() {
+            current.set(0);
+            peak.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return get() + " (peak " + getPeak() + ")";
+        }
+    }
+
+    private final StripedCounter executedEvents = new StripedCounter();
+    private final Gauge nodes = new Gauge();
+    private final Gauge events = new Gauge();
+    private final Gauge conditionals = new Gauge();
+    private final LogLinearHistogram conditionalEvaluation = new LogLinearHistogram();
+    private final LogLinearHistogram handoffLatency = new LogLinearHistogram();
+    private final LogLinearHistogram resumeTime = new LogLinearHistogram();
+
+    /**
+     * 已结束的 resume 的运行时间之和
+     */
+    private final StripedCounter runningNanos = new StripedCounter();
+
+    /**
+     * 正在进行的 resume 开始的时间，没有时为0
+     */
+    private final AtomicLong runStart = new AtomicLong();
+
+    EngineMetrics() {}
+
+    // ******************
+    // 记录
+    // ******************
+
+    void eventExecuted() {
+        executedEvents.increment();
+    }
+
+    void nodeAdded() {
+        nodes.increment();
+    }
+
+    void nodeRemoved() {
+        nodes.decrement();
+    }
+
+    void eventAdded() {
+        events.increment();
+    }
+
+    void eventRemoved() {
+        events.decrement();
+    }
+
+    /**
+     * 清空未来事件列表后调用
+     */
+    void eventListCleared() {
+        nodes.set(0);
+        events.set(0);
+    }
+
+    void setConditionalCount(int num) {
+        conditionals.set(num);
+    }
+
+    void conditionalsEvaluated(long nanos) {
+        conditionalEvaluation.record(nanos);
+    }
+
+    void handoff(long nanos) {
+        handoffLatency.record(nanos);
+    }
+
+    void resumeStarted(long nanos) {
+        runStart.set(nanos);
+    }
+
+    void resumeFinished(long nanos) {
+        long start = runStart.getAndSet(0);
+        if (start != 0) {
+            resumeTime.record(nanos - start);
+            runningNanos.add(nanos - start);
+        }
+    }
+
+    // ******************
+    // 读取
+    // ******************
+
+    /**
+     * @return 执行过的事件数
+     */
+    public long getExecutedEvents() {
+        return executedEvents.sum();
+    }
+
+    /**
+     * @return 调度器运行的总时间，包括正在进行的 resume
+     */
+    public long getRunningNanos() {
+        long ret = runningNanos.sum();
+        long start = runStart.get();
+        if (start != 0) {
+            ret += System.nanoTime() - start;
+        }
+        return ret;
+    }
+
+    /**
+     * @return 调度器运行期间平均每秒执行的事件数
+     */
+    public double getEventsPerSecond() {
+        long nanos = getRunningNanos();
+        return nanos == 0 ? 0 : getExecutedEvents() * 1e9 / nanos;
+    }
+
+    /**
+     * @return 未来事件列表中的结点数，每个结点对应一个 (刻度, 优先级)
+     */
+    public Gauge getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return 未来事件列表中的事件数
+     */
+    public Gauge getEvents() {
+        return events;
+    }
+
+    /**
+     * @return 等待中的条件事件数
+     */
+    public Gauge getConditionals() {
+        return conditionals;
+    }
+
+    /**
+     * @return 每次推进时钟前检查所有条件事件的耗时
+     */
+    public LogLinearHistogram getConditionalEvaluation() {
+        return conditionalEvaluation;
+    }
+
+    /**
+     * @return 从唤醒一个 Process 到它的线程开始运行的延迟
+     */
+    public LogLinearHistogram getHandoffLatency() {
+        return handoffLatency;
+    }
+
+    /**
+     * @return 每次 resume 从开始到调度器停止的时间
+     */
+    public LogLinearHistogram getResumeTime() {
+        return resumeTime;
+    }
+
+    /**
+     * 重置累计的指标(事件数、直方图、峰值)，未来事件列表和条件事件的当前值保持不变
+     */
+    public void reset() {
+        executedEvents.reset();
+        runningNanos.reset();
+        nodes.peak.set(nodes.get());
+        events.peak.set(events.get());
+        conditionals.peak.set(conditionals.get());
+        conditionalEvaluation.reset();
+        handoffLatency.reset();
+        resumeTime.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("events=%d (%.0f/s), nodes=%s, pending=%s, conditionals=%s%n"
+                        + "conditional evaluation: %s%nhandoff latency: %s%nresume time: %s",
+                getExecutedEvents(), getEventsPerSecond(), nodes, events, conditionals,
+                conditionalEvaluation, handoffLatency, resumeTime);
+    }
+}
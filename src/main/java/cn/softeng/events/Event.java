@@ -3,7 +3,8 @@ package cn.softeng.events;
 /**
  * @date: 11/4/2020 9:13 AM
  * Holder class for event data used by the event monitor to schedule future events.
- * Event是一个链表结构，当Event发生的tick和priority相等时，他们位于同一个链表中
+ * Event是一个双向链表结构，当Event发生的tick和priority相等时，他们位于同一个链表中，
+ * 通过 EventHandle 删除事件时可以直接找到前驱，删除为 O(1)
  * Event中node字段对应一个红黑树结点，只有链表的头元素需要持有一个红黑树结点的引用
  */
 final class Event extends BaseEvent {
@@ -17,5 +18,10 @@ final class Event extends BaseEvent {
      */
     Event next;
 
+    /**
+     * 链表元素的上一个事件，链表的首元素为null
+     */
+    Event prev;
+
     Event() {}
 }
@@ -24,4 +24,16 @@ public class EventHandle {
         return event != null;
     }
 
+    /**
+     * 返回该handle跟踪的事件的调度刻度，未跟踪事件或跟踪的是条件事件时返回 Long.MAX_VALUE
+     * @return
+     */
+    public final long getScheduledTick() {
+        BaseEvent evt = event;
+        if (evt instanceof Event) {
+            return ((Event) evt).node.schedTick;
+        }
+        return Long.MAX_VALUE;
+    }
+
 }
\ No newline at end of file
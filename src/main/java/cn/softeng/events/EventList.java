@@ -0,0 +1,43 @@
+package cn.softeng.events;
+
+/**
+ * 未来事件列表(future event list)的抽象，EventManager 只通过该接口访问待执行的事件
+ * 列表中的每一个结点(EventNode)对应唯一的 (调度刻度, 优先级)，结点内挂着一条事件链表，
+ * 链表中事件的先后顺序由 EventNode.addEvent() 的 FIFO/LIFO 参数决定
+ * 实现类必须保证 getNextNode() 返回按 EventNode.compare() 排序后的最小结点
+ */
+interface EventList {
+
+    /**
+     * 根据调度刻度和优先级去查询结点，若没有则创建一个
+     * @param schedTick 发生时间
+     * @param priority 优先级
+     * @return 对应的结点
+     */
+    EventNode createOrFindNode(long schedTick, int priority);
+
+    /**
+     * 删除指定的结点，被删除的结点中不能再有事件
+     * @param schedTick 发生时间
+     * @param priority 优先级
+     * @return 若找到并删除了该结点，返回true
+     */
+    boolean removeNode(long schedTick, int priority);
+
+    /**
+     * 获取事件优先队列的队首元素
+     * @return 最小的结点，若列表为空则返回null
+     */
+    EventNode getNextNode();
+
+    /**
+     * 按照 (调度刻度, 优先级) 从小到大的顺序，对每一个结点执行runner
+     * @param runner
+     */
+    void runOnAllNodes(EventNode.Runner runner);
+
+    /**
+     * 清空事件列表
+     */
+    void reset();
+}
@@ -1,6 +1,7 @@
 package cn.softeng.events;
 
-import cn.softeng.basicsim.Entity;
+import cn.softeng.SimulationContext;
+import cn.softeng.basicsim.TimeSeriesStore;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -8,9 +9,12 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The EventManager is responsible for scheduling future events, controlling
@@ -37,13 +41,29 @@ public final class EventManager {
 
     /**
      * 全局同步锁
+     * 使用 ReentrantLock 而不是对象监视器，Process 挂起前会完全释放该锁，虚拟线程挂起时会让出载体线程
      */
-    private final Object lockObject;
+    private final ReentrantLock lockObject;
 
     /**
-     * 事件优先队列：一个红黑树+链表数据结构的实现
+     * 实时模式下，每次重新计算仿真时钟前暂停的时间(20ms)
      */
-    private final EventTree eventTree;
+    private static final long REAL_TIME_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * inline 模式下释放锁后，等待排队的线程取得锁时最多让出 CPU 的次数
+     */
+    private static final int INLINE_HANDOFF_YIELDS = 16;
+
+    /**
+     * 该事件管理器独享的 Process 池
+     */
+    private final ProcessPool processPool;
+
+    /**
+     * 事件优先队列(未来事件列表)，默认为红黑树+链表数据结构的实现
+     */
+    private final EventList eventList;
 
     /**
      * 用于控制调度器是否执行的 flag
@@ -55,6 +75,12 @@ public final class EventManager {
      */
     private final AtomicBoolean isRunning;
 
+    /**
+     * 本次运行的完成信号，调度器停止(到达目标时刻、事件队列为空、pause() 或出错)时完成，
+     * 正常停止时的值为停止时的仿真刻度，出错时以该异常完成
+     */
+    private CompletableFuture<Long> runFuture;
+
     /**
      * 确保EventManager同一时间只有一个processTarget被执行
      */
@@ -65,12 +91,33 @@ public final class EventManager {
      */
     private boolean disableSchedule;
 
+    /**
+     * 若为true, 则不使用 Process 线程，由调用 resume() 的线程直接执行事件循环和所有 ProcessTarget (仅调度事件模式)
+     * 该模式下不能调用 waitTicks/waitUntil 等会阻塞当前线程的方法
+     */
+    private volatile boolean executeInline;
+
+    /**
+     * 以 inline 模式执行事件时，当前线程对应的事件管理器
+     */
+    private static final ThreadLocal<EventManager> inlineManager = new ThreadLocal<>();
+
     /**
      * 条件事件列表，包含内容如: 用户暂停事件(条件事件包含 PauseModelTarget)
      * 请注意：条件放在一个数组中，而不是事件队列中
      */
     private final ArrayList<ConditionalEvent> condEvents;
 
+    /**
+     * 声明了依赖信号(StateSignal)的条件事件，它们不在 condEvents 中，只在被信号标记后才会被检查
+     */
+    private final LinkedHashSet<ConditionalEvent> signalCondEvents;
+
+    /**
+     * 等待下一次检查的信号条件事件(刚开始等待的，或依赖的信号已经 signal() 的)
+     */
+    private final LinkedHashSet<ConditionalEvent> dirtyCondEvents;
+
     /**
      * 仿真时钟的当前刻度
      */
@@ -146,16 +193,47 @@ public final class EventManager {
     private EventTraceListener trcListener;
 
     /**
-     * 收集发生的时间点
+     * 该事件管理器所属的仿真上下文，单独创建的事件管理器不属于任何上下文
+     */
+    private volatile SimulationContext context;
+
+    /**
+     * 记录统计数据的时钟序列，组件的统计数据按其中的序号保存，只由执行事件的线程访问
      */
     @Getter
-    private Set<Double> timePointSet;
+    private final TimeSeriesStore timePoints = new TimeSeriesStore();
 
+    /**
+     * 是否在时钟推进时记录统计数据，关闭时由调用者自行记录(例如乐观并行仿真在提交状态时记录)
+     */
+    @Getter
+    @Setter
+    private volatile boolean statisticsEnabled = true;
+
+    /**
+     * 已执行的事件总数，只在持有 lockObject 时修改
+     */
+    private long executedEventCount;
+
+    /**
+     * 运行指标，可以在不持有 lockObject 时读取
+     */
+    private final EngineMetrics metrics = new EngineMetrics();
 
     public EventManager(String name) {
+        this(name, ListType.RedBlackTree);
+    }
+
+    /**
+     * 创建一个使用指定未来事件列表实现的事件管理器
+     * @param name 名称
+     * @param listType 未来事件列表的实现类型
+     */
+    public EventManager(String name, ListType listType) {
         // Basic initialization
         this.name = name;
-        lockObject = new Object();
+        lockObject = new ReentrantLock();
+        processPool = new ProcessPool();
 
         // Initialize and event lists and timekeeping variables
         currentTick = new AtomicLong(0);
@@ -166,32 +244,55 @@ public final class EventManager {
         // set tick length to 0.000001s = 0.001ms (1000000 tick for 1s = 1000 tick for 1ms)
         setTickLength(1e-6d);
 
-        eventTree = new EventTree();
+        eventList = createEventList(listType);
         condEvents = new ArrayList<>();
-        timePointSet = new LinkedHashSet<>();
+        signalCondEvents = new LinkedHashSet<>();
+        dirtyCondEvents = new LinkedHashSet<>();
 
         isRunning = new AtomicBoolean(false);
+        runFuture = CompletableFuture.completedFuture(0L);
         executeEvents = false;
         processRunning = false;
         disableSchedule = false;
         executeRealTime = false;
+        executeInline = false;
         realTimeFactor = 1;
         rebaseRealTime = true;
         recordStatistics = false;
         setTimeListener(null);
     }
 
+    /**
+     * 根据类型创建未来事件列表
+     * @param listType
+     * @return
+     */
+    static EventList createEventList(ListType listType) {
+        switch (listType) {
+            case CalendarQueue:
+                return new CalendarQueue();
+            case ArrayHeap:
+                return new ArrayHeap();
+            case RedBlackTree:
+            default:
+                return new EventTree();
+        }
+    }
+
     /**
      * 设置时间监听器，通知gui系统仿真时间变化
      * @param l
      */
     public final void setTimeListener(EventTimeListener l) {
-        synchronized (lockObject) {
+        lockObject.lock();
+        try {
             if (l != null) {
                 timelistener = l;
             } else {
                 timelistener = new NoopListener();
             }
+        } finally {
+            lockObject.unlock();
         }
     }
 
@@ -200,8 +301,11 @@ public final class EventManager {
      * @param l
      */
     public final void setTraceListener(EventTraceListener l) {
-        synchronized (lockObject) {
+        lockObject.lock();
+        try {
             trcListener = l;
+        } finally {
+            lockObject.unlock();
         }
     }
 
@@ -209,16 +313,19 @@ public final class EventManager {
      * 清空事件管理器的状态
      */
     public void clear() {
-        synchronized (lockObject) {
+        lockObject.lock();
+        try {
             currentTick.set(0);
             nextTick = 0;
             targetTick = Long.MAX_VALUE;
             rebaseRealTime = true;
             recordStatistics = false;
+            timePoints.clear();
 
-            eventTree.runOnAllNodes(new KillAllEvents());
-            eventTree.reset();
+            eventList.runOnAllNodes(new KillAllEvents());
+            eventList.reset();
             clearFreeList();
+            metrics.eventListCleared();
 
             for (int i = 0; i < condEvents.size(); i++) {
                 condEvents.get(i).target.kill();
@@ -227,6 +334,19 @@ public final class EventManager {
                 }
             }
             condEvents.clear();
+
+            for (ConditionalEvent evt : signalCondEvents) {
+                evt.target.kill();
+                if (evt.handle != null) {
+                    evt.handle.event = null;
+                }
+                unregisterSignals(evt);
+            }
+            signalCondEvents.clear();
+            dirtyCondEvents.clear();
+            updateConditionalCount();
+        } finally {
+            lockObject.unlock();
         }
     }
 
@@ -255,6 +375,7 @@ public final class EventManager {
      * cur执行完毕后，若没有等待cur的nextProcess，则返回true,cur继续获取ProcessTarget执行；若有等待cur执行完毕的nextProcess,唤醒
      * nextProcess,并放回false,将cur返回线程池。
      * cur执行过程中被kill或者出现异常，都会被返回false
+     * 以 inline 模式执行时 cur 为null, target 直接在调用线程中执行
      *
      * @param cur
      * @param t
@@ -266,6 +387,9 @@ public final class EventManager {
             // 如果该事件已经捕获了线程，则这是一个waitTarget，还是让原来的线程执行它
             // 只有 waitTarget的getProcess才不为空
             if (t.getProcess() != null) {
+                if (cur == null) {
+                    throw new ProcessError("A waiting process cannot be resumed when executing events inline");
+                }
                 Process p = t.getProcess();
                 p.setNextProcess(cur);
                 p.wake();
@@ -285,7 +409,7 @@ public final class EventManager {
                 enableSchedule();
             }
             // 如果cur有等待它的nextProcess,则唤醒nextProcess
-            if (cur.hasNext()) {
+            if (cur != null && cur.hasNext()) {
                 cur.wakeNextProcess();
                 return false;
             } else {
@@ -299,7 +423,7 @@ public final class EventManager {
 
             // Tear down any threads waiting for this to finish
             // 说明执行t.process()时出现了异常,删除任何等待此操作完成的线程
-            Process next = cur.forceKillNext();
+            Process next = cur != null ? cur.forceKillNext() : null;
             while (next != null) {
                 next = next.forceKillNext();
             }
@@ -307,6 +431,7 @@ public final class EventManager {
             processRunning = false;
             isRunning.set(false);
             timelistener.handleError(e);
+            runFuture.completeExceptionally(e);
             return false;
         }
     }
@@ -315,11 +440,13 @@ public final class EventManager {
     /**
      * Main event execution method the eventManager, this is the only entrypoint for Process objects taken out of the pool.
      * 主事件的执行方法，这是从线程池取出 Process 对象的唯一入口点
+     * 以 inline 模式执行时, cur 和 t 都为null, 由调用 resume() 的线程执行事件循环
      * @param cur
      * @param t
      */
     final void execute(Process cur, ProcessTarget t) {
-        synchronized (lockObject) {
+        lockObject.lock();
+        try {
             // This occurs in the startProcess or interrupt case where we start
             // a process with a target already assigned
             if (t != null) {
@@ -339,7 +466,7 @@ public final class EventManager {
             // Loop continuously
             while (true) {
                 // 获取优先队列的队首元素
-                EventNode nextNode = eventTree.getNextNode();
+                EventNode nextNode = eventList.getNextNode();
                 if (nextNode == null || currentTick.get() > targetTick) {
                     // 事件队列中所有事件执行完毕，或执行到目标时间
                     executeEvents = false;
@@ -356,6 +483,7 @@ public final class EventManager {
                     processRunning = false;
                     isRunning.set(false);
                     timelistener.timeRunning();
+                    runFuture.complete(currentTick.get());
                     return;
                 }
 
@@ -373,6 +501,8 @@ public final class EventManager {
                     }
 
                     removeEvent(nextEvent);
+                    executedEventCount++;
+                    metrics.eventExecuted();
 
                     // the return from execute target informs whether or not this
                     // thread should grab an new Event, or return to the pool
@@ -383,6 +513,9 @@ public final class EventManager {
                         executeEvents = false;
                     }
                     if (bool) {
+                        if (cur == null) {
+                            yieldLockInline();
+                        }
                         continue;
                     } else {
                         return;
@@ -391,8 +524,8 @@ public final class EventManager {
 
                 // If the next event would require us to advance the time, check the conditonal events
                 // 如果下一个事件时刻大于系统当前时刻，需要推进仿真时间，则检查条件事件
-                if (eventTree.getNextNode().schedTick > nextTick) {
-                    if (condEvents.size() > 0) {
+                if (eventList.getNextNode().schedTick > nextTick) {
+                    if (condEvents.size() > 0 || dirtyCondEvents.size() > 0) {
                         evaluateConditions();
                         if (!executeEvents) {
                             continue;
@@ -402,7 +535,7 @@ public final class EventManager {
                     // If a conditional event was satisfied, we will have a new event at the
                     // beginning of the eventStack for the current tick, go back to the
                     // beginning, otherwise fall through to the time-advance
-                    nextTick = eventTree.getNextNode().schedTick;
+                    nextTick = eventList.getNextNode().schedTick;
                     if (nextTick == currentTick.get()) {
                         continue;
                     }
@@ -431,7 +564,9 @@ public final class EventManager {
                         currentTick.set(realTick);
                         timelistener.tickUpdate(currentTick.get());
                         //Halt the thread for 20ms and then reevaluate the loop
-                        try { lockObject.wait(20); } catch( InterruptedException e ) {}
+                        int holds = releaseLock();
+                        LockSupport.parkNanos(this, REAL_TIME_WAIT_NANOS);
+                        reacquireLock(holds);
                         continue;
                     }
                 }
@@ -454,6 +589,8 @@ public final class EventManager {
                     oneSimTime = false;
                 }
             }
+        } finally {
+            lockObject.unlock();
         }
     }
 
@@ -487,43 +624,158 @@ public final class EventManager {
 
     /**
      * 检查EventManager的所有条件事件列表是否满足
+     * 轮询的条件每次都检查，信号条件只检查被标记过的
      */
     private void evaluateConditions() {
+        long start = System.nanoTime();
         // Protecting the conditional evaluate() callbacks and the traceWaitUntilEnded callback
         disableSchedule();
         try {
-            for (int i = 0; i < condEvents.size();) {
-                ConditionalEvent conditionalEvent = condEvents.get(i);
-                if (trcListener != null) {
-                    trcListener.traceConditionalEval(conditionalEvent.target);
+            // 满足的条件从列表中移除，未满足的条件依次前移(压缩)，避免 ArrayList.remove(i) 的 O(n) 开销
+            int size = condEvents.size();
+            int kept = 0;
+            int i = 0;
+            try {
+                for (; i < size; i++) {
+                    ConditionalEvent conditionalEvent = condEvents.get(i);
+                    if (evaluate(conditionalEvent)) {
+                        scheduleConditional(conditionalEvent);
+                        continue;
+                    }
+                    condEvents.set(kept++, conditionalEvent);
                 }
-                boolean bool = conditionalEvent.c.evaluate();
-                if (trcListener != null) {
-                    trcListener.traceConditionalEvalEnded(bool, conditionalEvent.target);
+            } finally {
+                // 出错时，保留出错的条件以及尚未检查的条件
+                for (; i < size; i++) {
+                    condEvents.set(kept++, condEvents.get(i));
                 }
-                if (bool) {
-                    condEvents.remove(i);
-                    EventNode node = getEventNode(currentTick.get(), 0);
-                    Event evt = getEvent(node, conditionalEvent.target, conditionalEvent.handle);
-
-                    if (evt.handle != null) {
-                        // no need to check the handle.isScheduled as we just unscheduled it above
-                        // and we immediately switch it to this event
-                        evt.handle.event = evt;
+                condEvents.subList(kept, size).clear();
+            }
+
+            if (dirtyCondEvents.size() > 0) {
+                ConditionalEvent[] dirty = dirtyCondEvents.toArray(new ConditionalEvent[0]);
+                dirtyCondEvents.clear();
+                int j = 0;
+                try {
+                    for (; j < dirty.length; j++) {
+                        ConditionalEvent conditionalEvent = dirty[j];
+                        if (evaluate(conditionalEvent)) {
+                            signalCondEvents.remove(conditionalEvent);
+                            unregisterSignals(conditionalEvent);
+                            scheduleConditional(conditionalEvent);
+                        }
+                    }
+                } finally {
+                    // 出错时，出错的条件以及尚未检查的条件仍然保留标记，恢复运行后重新检查
+                    for (; j < dirty.length; j++) {
+                        if (signalCondEvents.contains(dirty[j])) {
+                            dirtyCondEvents.add(dirty[j]);
+                        }
                     }
-                    node.addEvent(evt, true);
-                    continue;
                 }
-                i++;
             }
         } catch (Throwable e) {
             executeEvents = false;
             processRunning = false;
             isRunning.set(false);
             timelistener.handleError(e);
+            runFuture.completeExceptionally(e);
         }
 
         enableSchedule();
+        updateConditionalCount();
+        metrics.conditionalsEvaluated(System.nanoTime() - start);
+    }
+
+    /**
+     * 检查一个条件事件的条件是否满足
+     */
+    private boolean evaluate(ConditionalEvent conditionalEvent) {
+        if (trcListener != null) {
+            trcListener.traceConditionalEval(conditionalEvent.target);
+        }
+        boolean bool = conditionalEvent.c.evaluate();
+        if (trcListener != null) {
+            trcListener.traceConditionalEvalEnded(bool, conditionalEvent.target);
+        }
+        return bool;
+    }
+
+    /**
+     * 条件满足后，在当前时刻调度条件事件的target
+     */
+    private void scheduleConditional(ConditionalEvent conditionalEvent) {
+        EventNode node = getEventNode(currentTick.get(), 0);
+        Event evt = getEvent(node, conditionalEvent.target, conditionalEvent.handle);
+
+        if (evt.handle != null) {
+            // no need to check the handle.isScheduled as we just unscheduled it above
+            // and we immediately switch it to this event
+            evt.handle.event = evt;
+        }
+        node.addEvent(evt, true);
+    }
+
+    /**
+     * 添加一个等待中的条件事件，若条件声明了依赖的信号，则加入信号条件中，并标记为待检查，否则加入轮询列表
+     * Must hold the lockObject when calling this method
+     */
+    private void addConditional(ConditionalEvent evt) {
+        StateSignal[] dependencies = evt.c.getDependencies();
+        if (dependencies == null) {
+            condEvents.add(evt);
+            updateConditionalCount();
+            return;
+        }
+        evt.manager = this;
+        evt.dependencies = dependencies;
+        signalCondEvents.add(evt);
+        dirtyCondEvents.add(evt);
+        for (StateSignal signal : dependencies) {
+            signal.addWaiter(evt);
+        }
+        updateConditionalCount();
+    }
+
+    /**
+     * 删除一个等待中的条件事件
+     * Must hold the lockObject when calling this method
+     */
+    private void removeConditional(ConditionalEvent evt) {
+        if (evt.dependencies == null) {
+            condEvents.remove(evt);
+            updateConditionalCount();
+            return;
+        }
+        signalCondEvents.remove(evt);
+        dirtyCondEvents.remove(evt);
+        unregisterSignals(evt);
+        updateConditionalCount();
+    }
+
+    private void updateConditionalCount() {
+        metrics.setConditionalCount(condEvents.size() + signalCondEvents.size());
+    }
+
+    private void unregisterSignals(ConditionalEvent evt) {
+        for (StateSignal signal : evt.dependencies) {
+            signal.removeWaiter(evt);
+        }
+    }
+
+    /**
+     * 由 StateSignal.signal() 调用，将依赖该信号的条件事件标记为待检查
+     * @param evt
+     */
+    final void markDirty(ConditionalEvent evt) {
+        lockObject.lock();
+        try {
+            if (signalCondEvents.contains(evt)) {
+                dirtyCondEvents.add(evt);
+            }
+        } finally {
+            lockObject.unlock();
+        }
     }
 
     /**
@@ -601,10 +853,10 @@ public final class EventManager {
      * @param priority the priority of the scheduled wakeup event
      * @param fifo break ties with previously scheduled events using FIFO/LIFO ordering
      * @param handle an optional handle to hold onto the scheduled event
-     * @throws ProcessError if called outside of a Process context
+     * @throws ProcessError if called outside of a Process context or when events are executed inline
      */
     public static final void waitTicks(long ticks, int priority, boolean fifo, EventHandle handle) {
-        Process cur = Process.current();
+        Process cur = waitingProcess("waitTicks");
         cur.evt().waitTicks(cur, ticks, priority, fifo, handle);
     }
 
@@ -615,10 +867,10 @@ public final class EventManager {
      * @param priority the priority of the scheduled wakeup event
      * @param fifo break ties with previously scheduled events using FIFO/LIFO ordering
      * @param handle an optional handle to hold onto the scheduled event
-     * @throws ProcessError if called outside of a Process context
+     * @throws ProcessError if called outside of a Process context or when events are executed inline
      */
     public static final void waitSeconds(double secs, int priority, boolean fifo, EventHandle handle) {
-        Process cur = Process.current();
+        Process cur = waitingProcess("waitSeconds");
         long ticks = cur.evt().secondsToNearestTick(secs);
         cur.evt().waitTicks(cur, ticks, priority, fifo, handle);
     }
@@ -660,7 +912,12 @@ public final class EventManager {
      * insert it.
      */
     private EventNode getEventNode(long tick, int prio) {
-        return eventTree.createOrFindNode(tick, prio);
+        EventNode ret = eventList.createOrFindNode(tick, prio);
+        // 结点中没有事件时才被删除，所以空结点一定是新创建的
+        if (ret.head == null) {
+            metrics.nodeAdded();
+        }
+        return ret;
     }
 
     /**
@@ -689,6 +946,7 @@ public final class EventManager {
         ret.node = node;
         ret.target = target;
         ret.handle = handle;
+        metrics.eventAdded();
         return ret;
     }
 
@@ -697,7 +955,7 @@ public final class EventManager {
     }
 
     public static final void waitUntil(Conditional cond, EventHandle handle) {
-        Process cur = Process.current();
+        Process cur = waitingProcess("waitUntil");
         cur.evt().waitUntil(cur, cond, handle);
     }
 
@@ -716,7 +974,7 @@ public final class EventManager {
             }
             handle.event = evt;
         }
-        condEvents.add(evt);
+        addConditional(evt);
         if (trcListener != null) {
             disableSchedule();
             trcListener.traceWaitUntil();
@@ -726,11 +984,10 @@ public final class EventManager {
     }
 
     public static final void scheduleUntil(ProcessTarget t, Conditional cond, EventHandle handle) {
-        Process cur = Process.current();
-        cur.evt().schedUntil(cur, t, cond, handle);
+        current().schedUntil(t, cond, handle);
     }
 
-    private void schedUntil(Process cur, ProcessTarget t, Conditional cond, EventHandle handle) {
+    private void schedUntil(ProcessTarget t, Conditional cond, EventHandle handle) {
         assertCanSchedule();
         ConditionalEvent evt = new ConditionalEvent(cond, t, handle);
         if (handle != null) {
@@ -739,7 +996,7 @@ public final class EventManager {
             }
             handle.event = evt;
         }
-        condEvents.add(evt);
+        addConditional(evt);
         if (trcListener != null) {
             disableSchedule();
             trcListener.traceSchedUntil(t);
@@ -748,10 +1005,43 @@ public final class EventManager {
     }
 
     public static final void startProcess(ProcessTarget t) {
+        EventManager inline = inlineCurrent();
+        if (inline != null) {
+            inline.startInline(t);
+            return;
+        }
         Process cur = Process.current();
         cur.evt().start(cur, t);
     }
 
+    /**
+     * inline 模式下启动一个新的 process: 直接在当前线程中执行target
+     */
+    private void startInline(ProcessTarget t) {
+        assertCanSchedule();
+        if (trcListener != null) {
+            disableSchedule();
+            trcListener.traceProcessStart(t);
+            enableSchedule();
+        }
+        runInline(t);
+    }
+
+    /**
+     * inline 模式下直接执行一个target，其中的异常交由外层的 executeTarget() 处理
+     */
+    private void runInline(ProcessTarget t) {
+        if (t.getProcess() != null) {
+            throw new ProcessError("A waiting process cannot be resumed when executing events inline");
+        }
+        t.process();
+        if (trcListener != null) {
+            disableSchedule();
+            trcListener.traceProcessEnd();
+            enableSchedule();
+        }
+    }
+
     private void start(Process cur, ProcessTarget t) {
         Process newProcess = Process.allocate(this, cur, t);
         // Notify the eventManager that a new process has been started
@@ -773,10 +1063,12 @@ public final class EventManager {
     private void removeEvent(Event evt) {
         EventNode node = evt.node;
         node.removeEvent(evt);
+        metrics.eventRemoved();
         if (node.head == null) {
-            if (!eventTree.removeNode(node.schedTick, node.priority)) {
+            if (!eventList.removeNode(node.schedTick, node.priority)) {
                 throw new ProcessError("Tried to remove an eventnode that could not be found");
             }
+            metrics.nodeRemoved();
         }
 
         // Clear the event to reuse it
@@ -799,7 +1091,7 @@ public final class EventManager {
         if (base instanceof Event) {
             removeEvent((Event)base);
         } else {
-            condEvents.remove(base);
+            removeConditional((ConditionalEvent)base);
         }
         return t;
     }
@@ -810,15 +1102,14 @@ public final class EventManager {
      * @throws ProcessError if called outside of a Process context
      */
     public static final void killEvent(EventHandle handle) {
-        Process cur = Process.current();
-        cur.evt().killEvent(cur, handle);
+        current().kill(handle);
     }
 
     /**
      * Removes an event from the pending list without executing it.
      * 从事件等待列表中删除事件
      */
-    private void killEvent(Process cur, EventHandle handle) {
+    private void kill(EventHandle handle) {
         assertCanSchedule();
 
         // no handle given, or Handle was not scheduled, nothing to do
@@ -852,6 +1143,11 @@ public final class EventManager {
      * @throws ProcessError if called outside of a Process context
      */
     public static final void interruptEvent(EventHandle handle) {
+        EventManager inline = inlineCurrent();
+        if (inline != null) {
+            inline.interruptEvent(null, handle);
+            return;
+        }
         Process cur = Process.current();
         cur.evt().interruptEvent(cur, handle);
     }
@@ -874,6 +1170,11 @@ public final class EventManager {
         }
         ProcessTarget t = rem(handle);
 
+        if (cur == null) {
+            runInline(t);
+            return;
+        }
+
         Process proc = t.getProcess();
         if (proc == null) {
             proc = Process.allocate(this, cur, t);
@@ -910,32 +1211,66 @@ public final class EventManager {
      * onto the inactive thread stack it must be put to sleep to preserve
      * program ordering.
      * <p>
-     * The function takes no parameters, it puts the calling thread to sleep.
-     * This method is NOT static as it requires the use of wait() which cannot
-     * be called from a static context
+     * The function puts the calling thread to sleep until its Process is given
+     * a permit by Process.wake().
+     * This method is NOT static as it releases the global lock of this EventManager
      * <p>
-     * There is a synchronized block of code that will acquire the global lock
-     * and then wait() the current thread.
+     * The caller must hold the global lock, which is fully released while the
+     * current thread is parked and reacquired before returning.
      */
     private void threadWait(Process cur) {
-        // Ensure that the thread owns the global thread lock
+        int holds = releaseLock();
         try {
-            /*
-             * Halt the thread and only wake up by being interrupted.
-             *
-             * The infinite loop is _absolutely_ necessary to prevent
-             * spurious wakeups from waking us early....which causes the
-             * model to get into an inconsistent state causing crashes.
-             */
-            while (true) { lockObject.wait(); }
-        }
-        // Catch the exception when the thread is interrupted
-        catch( InterruptedException e ) {}
+            // The permit handed over by Process.wake() is the only legitimate
+            // wake up, Process.park() absorbs any spurious wake ups
+            cur.park();
+        } finally {
+            reacquireLock(holds);
+        }
         if (cur.shouldDie()) {
             throw new ThreadKilledException("Thread killed");
         }
     }
 
+    /**
+     * 完全释放当前线程持有的全局锁(可能被重入多次)
+     * @return 释放前的重入次数，用于 reacquireLock()
+     */
+    private int releaseLock() {
+        int holds = lockObject.getHoldCount();
+        for (int i = 0; i < holds; i++) {
+            lockObject.unlock();
+        }
+        return holds;
+    }
+
+    /**
+     * 重新获取全局锁，恢复到 releaseLock() 之前的重入次数
+     * @param holds
+     */
+    private void reacquireLock(int holds) {
+        for (int i = 0; i < holds; i++) {
+            lockObject.lock();
+        }
+    }
+
+    /**
+     * inline 模式下每执行完一个事件调用：有其他线程在等待全局锁时(例如 scheduleProcessExternal、markDirty、读取状态)，
+     * 暂时释放锁，让它们在两个事件之间执行，而不是阻塞到本次运行结束
+     * 锁是非公平的，释放后立即重新获取会插队，所以最多让出 INLINE_HANDOFF_YIELDS 次 CPU，直到被唤醒的线程取得锁，
+     * 之后按普通方式获取锁(锁被占用时排在等待的线程之后)，不会一直等到没有线程排队
+     */
+    private void yieldLockInline() {
+        if (!lockObject.hasQueuedThreads()) {
+            return;
+        }
+        int holds = releaseLock();
+        for (int i = 0; i < INLINE_HANDOFF_YIELDS && !lockObject.isLocked() && lockObject.hasQueuedThreads(); i++) {
+            Thread.yield();
+        }
+        reacquireLock(holds);
+    }
+
     /**
      * 有外部调度事件的执行，例如启动仿真
      * @param waitLength
@@ -945,7 +1280,8 @@ public final class EventManager {
      * @param handle
      */
     public void scheduleProcessExternal(long waitLength, int eventPriority, boolean fifo, ProcessTarget t, EventHandle handle) {
-        synchronized (lockObject) {
+        lockObject.lock();
+        try {
             long schedTick = calculateEventTime(waitLength);
             EventNode node = getEventNode(schedTick, eventPriority);
             Event evt = getEvent(node, t, handle);
@@ -964,8 +1300,106 @@ public final class EventManager {
             // During real-time waits an event can be inserted becoming the next event to execute
             // If nextTick is not updated, we can fall through the entire time update code and not
             // execute this event, leading to the state machine becoming broken
-            if (nextTick > eventTree.getNextNode().schedTick) {
-                nextTick = eventTree.getNextNode().schedTick;
+            if (nextTick > eventList.getNextNode().schedTick) {
+                nextTick = eventList.getNextNode().schedTick;
+            }
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * 批量添加外部调度事件，只获取一次锁
+     * 先按 (调度刻度, 优先级) 对这批事件做稳定排序(已经有序时跳过排序)，再一次遍历合并到未来事件列表中：
+     * 每个不同的 (调度刻度, 优先级) 只查找/创建一次结点，同一结点上的事件按它们在数组中的先后顺序依次以 FIFO/LIFO 插入，
+     * 所以执行顺序与逐个调用 scheduleProcessExternal() 完全相同
+     * @param waitLengths 每个事件距当前时刻的等待刻度
+     * @param priorities 每个事件的优先级
+     * @param fifo 与已调度的同一时刻、同一优先级的事件之间按 FIFO 还是 LIFO 排序
+     * @param targets 每个事件的执行目标
+     */
+    public void scheduleProcessExternalBatch(long[] waitLengths, int[] priorities, boolean fifo, ProcessTarget[] targets) {
+        int num = waitLengths.length;
+        if (priorities.length != num || targets.length != num) {
+            throw new ProcessError("Batch arrays must have the same length: " + num + ", "
+                    + priorities.length + ", " + targets.length);
+        }
+        if (num == 0) {
+            return;
+        }
+
+        lockObject.lock();
+        try {
+            long[] schedTicks = new long[num];
+            boolean sorted = true;
+            for (int i = 0; i < num; i++) {
+                schedTicks[i] = calculateEventTime(waitLengths[i]);
+                if (i > 0 && compareKey(schedTicks, priorities, i - 1, i) > 0) {
+                    sorted = false;
+                }
+            }
+            int[] order = new int[num];
+            for (int i = 0; i < num; i++) {
+                order[i] = i;
+            }
+            if (!sorted) {
+                sortKeys(order, new int[num], 0, num, schedTicks, priorities);
+            }
+
+            EventNode node = null;
+            for (int i = 0; i < num; i++) {
+                int idx = order[i];
+                long schedTick = schedTicks[idx];
+                int priority = priorities[idx];
+                if (node == null || node.schedTick != schedTick || node.priority != priority) {
+                    node = getEventNode(schedTick, priority);
+                }
+                node.addEvent(getEvent(node, targets[idx], null), fifo);
+            }
+
+            // During real-time waits an event can be inserted becoming the next event to execute
+            // If nextTick is not updated, we can fall through the entire time update code and not
+            // execute this event, leading to the state machine becoming broken
+            if (nextTick > eventList.getNextNode().schedTick) {
+                nextTick = eventList.getNextNode().schedTick;
+            }
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * 比较批量事件中下标为 i 和 j 的 (调度刻度, 优先级)
+     */
+    private static int compareKey(long[] ticks, int[] priorities, int i, int j) {
+        if (ticks[i] != ticks[j]) {
+            return ticks[i] < ticks[j] ? -1 : 1;
+        }
+        return Integer.compare(priorities[i], priorities[j]);
+    }
+
+    /**
+     * 对下标数组 order[from, to) 按 (调度刻度, 优先级) 做稳定的归并排序
+     * @param buffer 与 order 等长的辅助数组
+     */
+    private static void sortKeys(int[] order, int[] buffer, int from, int to, long[] ticks, int[] priorities) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortKeys(order, buffer, from, mid, ticks, priorities);
+        sortKeys(order, buffer, mid, to, ticks, priorities);
+        if (compareKey(ticks, priorities, order[mid - 1], order[mid]) <= 0) {
+            return; // already in order
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int k = from; k < to; k++) {
+            if (right >= to || (left < mid && compareKey(ticks, priorities, buffer[left], buffer[right]) <= 0)) {
+                order[k] = buffer[left++];
+            } else {
+                order[k] = buffer[right++];
             }
         }
     }
@@ -979,7 +1413,8 @@ public final class EventManager {
      * @param handle
      */
     public void scheduleProcessExternalAndPause(double duration, int eventPriority, boolean fifo, ProcessTarget t, EventHandle handle) {
-        synchronized (lockObject) {
+        lockObject.lock();
+        try {
             long waitLength = secondsToNearestTick(duration);
             long schedTick = calculateEventTime(waitLength);
             EventNode node = getEventNode(schedTick, eventPriority);
@@ -999,10 +1434,12 @@ public final class EventManager {
             // During real-time waits an event can be inserted becoming the next event to execute
             // If nextTick is not updated, we can fall through the entire time update code and not
             // execute this event, leading to the state machine becoming broken
-            if (nextTick > eventTree.getNextNode().schedTick) {
-                nextTick = eventTree.getNextNode().schedTick;
+            if (nextTick > eventList.getNextNode().schedTick) {
+                nextTick = eventList.getNextNode().schedTick;
             }
             pause();
+        } finally {
+            lockObject.unlock();
         }
     }
 
@@ -1017,8 +1454,7 @@ public final class EventManager {
      * @throws ProcessError if called outside of a Process context
      */
     public static final void scheduleTicks(long waitLength, int eventPriority, boolean fifo, ProcessTarget t, EventHandle handle) {
-        Process cur = Process.current();
-        cur.evt().scheduleTicks(cur, waitLength, eventPriority, fifo, t, handle);
+        current().schedTicks(waitLength, eventPriority, fifo, t, handle);
     }
 
     /**
@@ -1033,12 +1469,12 @@ public final class EventManager {
      * @throws ProcessError if called outside of a Process context
      */
     public static final void scheduleSeconds(double secs, int eventPriority, boolean fifo, ProcessTarget t, EventHandle handle) {
-        Process cur = Process.current();
-        long ticks = cur.evt().secondsToNearestTick(secs);
-        cur.evt().scheduleTicks(cur, ticks, eventPriority, fifo, t, handle);
+        EventManager evt = current();
+        long ticks = evt.secondsToNearestTick(secs);
+        evt.schedTicks(ticks, eventPriority, fifo, t, handle);
     }
 
-    private void scheduleTicks(Process cur, long waitLength, int eventPriority, boolean fifo, ProcessTarget t, EventHandle handle) {
+    private void schedTicks(long waitLength, int eventPriority, boolean fifo, ProcessTarget t, EventHandle handle) {
         assertCanSchedule();
         long schedTick = calculateEventTime(waitLength);
         EventNode node = getEventNode(schedTick, eventPriority);
@@ -1075,10 +1511,25 @@ public final class EventManager {
      * in case the eventManager thread has already been paused and needs to
      * resume the event execution loop.  This prevents the model being resumed
      * from an inconsistent state.
+     * 该方法是异步的：启动调度后立即返回，不等待调度器停止，也不报告执行事件时的异常(只交给 EventTimeListener.handleError)；
+     * 需要阻塞到调度器停止并得到异常时使用 resumeAsync(targetTicks).join()。inline 模式下事件在调用线程中执行，返回时调度器已经停止
      * @param targetTicks - clock ticks at which to pause
      */
     public void resume(long targetTicks) {
-        synchronized (lockObject) {
+        resumeAsync(targetTicks);
+    }
+
+    /**
+     * 与 resume() 相同，并返回本次运行的完成信号
+     * 调度器停止(到达目标时刻、事件队列为空、pause() 或出错)时，future 以停止时的仿真刻度完成，出错时以该异常完成；
+     * 若调度器已经在运行，则只更新目标时刻，并返回当前运行的 future
+     * 注意: future 在执行事件的线程中、持有事件管理器的锁时完成，依赖它的回调不能阻塞，需要时请使用 thenRunAsync 等异步方法
+     * @param targetTicks - clock ticks at which to pause
+     * @return 本次运行的完成信号
+     */
+    public CompletableFuture<Long> resumeAsync(long targetTicks) {
+        lockObject.lock();
+        try {
 
             // Ignore the pause time if it has already been reached
             if (currentTick.get() <= targetTicks) {
@@ -1090,15 +1541,156 @@ public final class EventManager {
             rebaseRealTime = true;
             if (executeEvents) {
                 // 仿真重复启动
-                return;
+                return runFuture;
             }
 
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            runFuture = future;
+            metrics.resumeStarted(System.nanoTime());
+            future.whenComplete((tick, e) -> metrics.resumeFinished(System.nanoTime()));
             executeEvents = true;
             isRunning.set(true);
+            if (executeInline) {
+                runEventsInline();
+                return future;
+            }
             Process.processEvents(this);
+            return future;
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * @see #resumeAsync(long)
+     * @param simTime 目标时刻(秒)
+     * @return 本次运行的完成信号，值为停止时的仿真刻度
+     */
+    public CompletableFuture<Long> resumeAsync(double simTime) {
+        return resumeAsync(secondsToNearestTick(simTime));
+    }
+
+    /**
+     * 在当前线程中执行事件循环，直到调度器停止，必须持有 lockObject
+     */
+    private void runEventsInline() {
+        EventManager prev = inlineManager.get();
+        inlineManager.set(this);
+        try {
+            execute(null, null);
+        } finally {
+            if (prev == null) {
+                inlineManager.remove();
+            } else {
+                inlineManager.set(prev);
+            }
+        }
+    }
+
+    /**
+     * 设置是否以 inline 模式(仅调度事件模式)执行事件：不使用 Process 线程，由调用 resume() 的线程直接执行所有事件，
+     * 此时 resume() 会在调度器停止后才返回；运行期间其他线程需要全局锁的调用(scheduleProcessExternal、StateSignal.signal() 等)
+     * 在两个事件之间执行
+     * 适用于从不在 ProcessTarget 中调用 waitTicks/waitUntil 的模型（例如 processflow 中的所有组件）
+     * @param inline
+     */
+    public void setExecuteInline(boolean inline) {
+        lockObject.lock();
+        try {
+            if (isRunning.get()) {
+                throw new ProcessError("Cannot change the execution mode while the EventManager is running");
+            }
+            executeInline = inline;
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    public boolean isExecuteInline() {
+        return executeInline;
+    }
+
+    /**
+     * 设置 Process 的后备线程类型，使用虚拟线程时，大量同时等待(waitTicks/waitUntil)的 Process
+     * 不再各自占用一个操作系统线程和线程栈
+     * @param type
+     * @throws ProcessError 若调度器正在运行，或当前 JVM 不支持虚拟线程
+     */
+    public void setThreadType(ThreadType type) {
+        lockObject.lock();
+        try {
+            if (isRunning.get()) {
+                throw new ProcessError("Cannot change the thread type while the EventManager is running");
+            }
+            if (type == ThreadType.Virtual && !VirtualThreads.isSupported()) {
+                throw new ProcessError("Virtual threads require Java 21 or later, running on Java "
+                        + System.getProperty("java.version"));
+            }
+            processPool.setThreadType(type);
+        } finally {
+            lockObject.unlock();
         }
     }
 
+    public ThreadType getThreadType() {
+        return processPool.getThreadType();
+    }
+
+    final ProcessPool getProcessPool() {
+        return processPool;
+    }
+
+    /**
+     * 设置 Process 池的最小规模，prestartProcesses() 会提前创建这么多个 Process
+     * @param size
+     */
+    public void setMinProcessPoolSize(int size) {
+        processPool.setMinSize(size);
+    }
+
+    public int getMinProcessPoolSize() {
+        return processPool.getMinSize();
+    }
+
+    /**
+     * 提前创建 Process，直到池中的 Process 总数达到最小规模，避免在仿真运行过程中创建线程
+     */
+    public void prestartProcesses() {
+        processPool.prestart();
+    }
+
+    /**
+     * @return Process 池中空闲的 Process 数量
+     */
+    public int getIdleProcessCount() {
+        return processPool.getIdleCount();
+    }
+
+    /**
+     * @return 正在执行或阻塞等待中的 Process 数量
+     */
+    public int getActiveProcessCount() {
+        return processPool.getActiveCount();
+    }
+
+    /**
+     * @return 同时活跃的 Process 数量的峰值，可用于确定池的最小规模
+     */
+    public int getPeakActiveProcessCount() {
+        return processPool.getPeakActiveCount();
+    }
+
+    /**
+     * @return 当前 JVM 是否支持以虚拟线程作为 Process 的后备线程
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * 异步执行事件直到指定时刻，见 resume(long)
+     * @param simTime 目标时刻(秒)
+     */
     public void resume(double simTime) {
         resume(secondsToNearestTick(simTime));
     }
@@ -1114,7 +1706,31 @@ public final class EventManager {
      * @return true if we are in a Process context, false otherwise
      */
     public static final boolean hasCurrent() {
-        return (Thread.currentThread() instanceof Process);
+        return Process.isProcessThread() || inlineManager.get() != null;
+    }
+
+    /**
+     * 返回当前线程以 inline 模式执行的事件管理器，若当前线程不是以 inline 模式执行事件则返回null
+     */
+    private static EventManager inlineCurrent() {
+        if (Process.isProcessThread()) {
+            return null;
+        }
+        return inlineManager.get();
+    }
+
+    /**
+     * 返回会被阻塞的当前 Process，inline 模式下没有可以阻塞的 Process，直接报错
+     * @param method 调用的阻塞方法名，用于错误信息
+     * @throws ProcessError if called outside of a Process context or when executing events inline
+     */
+    private static Process waitingProcess(String method) {
+        EventManager inline = inlineCurrent();
+        if (inline != null) {
+            throw new ProcessError(method + "() blocks the calling process and cannot be used when EventManager "
+                    + inline.name + " executes events inline");
+        }
+        return Process.current();
     }
 
     /**
@@ -1130,6 +1746,10 @@ public final class EventManager {
      * @throws ProcessError if called outside of a Process context
      */
     public static final EventManager current() {
+        EventManager inline = inlineCurrent();
+        if (inline != null) {
+            return inline;
+        }
         return Process.current().evt();
     }
 
@@ -1138,7 +1758,7 @@ public final class EventManager {
      * @throws ProcessError if called outside of a Process context
      */
     public static final long simTicks() {
-        return Process.current().evt().currentTick.get();
+        return current().currentTick.get();
     }
 
     /**
@@ -1146,7 +1766,7 @@ public final class EventManager {
      * @throws ProcessError if called outside of a Process context
      */
     public static final double simSeconds() {
-        return Process.current().evt().getSeconds();
+        return current().getSeconds();
     }
 
     @Deprecated
@@ -1181,7 +1801,7 @@ public final class EventManager {
     public final void getEventDataList(ArrayList<EventData> events) {
         // Unsynchronized for use by the Event Viewer
         EventDataBuilder lb = new EventDataBuilder(events);
-        eventTree.runOnAllNodes(lb);
+        eventList.runOnAllNodes(lb);
     }
 
     private static class EventDataBuilder implements EventNode.Runner {
@@ -1208,6 +1828,9 @@ public final class EventManager {
         for (ConditionalEvent cond : condEvents) {
             events.add(cond.target.getDescription());
         }
+        for (ConditionalEvent cond : signalCondEvents) {
+            events.add(cond.target.getDescription());
+        }
     }
 
     private void disableSchedule() {
@@ -1233,26 +1856,235 @@ public final class EventManager {
      * @return
      */
     public boolean hasEvent() {
-        return eventTree.getNextNode() != null;
+        return eventList.getNextNode() != null;
+    }
+
+    /**
+     * 返回事件队列中下一个事件的调度刻度，没有事件时返回 Long.MAX_VALUE
+     * @return
+     */
+    public long getNextEventTick() {
+        lockObject.lock();
+        try {
+            EventNode next = eventList.getNextNode();
+            return next != null ? next.schedTick : Long.MAX_VALUE;
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * 返回运行指标，读取时不需要获取事件管理器的锁，可以在任何线程中调用
+     * @return
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 返回到目前为止执行过的事件总数
+     * @return
+     */
+    public long getExecutedEventCount() {
+        lockObject.lock();
+        try {
+            return executedEventCount;
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * 删除事件句柄持有的事件，不执行该事件，用于在仿真线程之外(调度器暂停时)撤销外部调度的事件
+     * 若句柄没有持有事件，则什么也不做
+     * @param handle
+     */
+    public void killEventExternal(EventHandle handle) {
+        lockObject.lock();
+        try {
+            if (handle == null || handle.event == null) {
+                return;
+            }
+            rem(handle).kill();
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * 保存当前的仿真时钟、未来事件列表和条件事件，调度器必须处于暂停状态
+     * 捕获了线程的事件(waitTicks/waitUntil 中的 Process)无法保存
+     * @return
+     */
+    public EventSnapshot captureEvents() {
+        lockObject.lock();
+        try {
+            if (isRunning.get()) {
+                throw new ProcessError("Cannot capture the events while the EventManager is running");
+            }
+            SnapshotBuilder builder = new SnapshotBuilder();
+            eventList.runOnAllNodes(builder);
+            int num = builder.targets.size();
+            long[] ticks = new long[num];
+            int[] priorities = new int[num];
+            for (int i = 0; i < num; i++) {
+                ticks[i] = builder.ticks.get(i);
+                priorities[i] = builder.priorities.get(i);
+            }
+
+            ArrayList<ConditionalEvent> conds = new ArrayList<>(condEvents);
+            conds.addAll(signalCondEvents);
+            Conditional[] conditions = new Conditional[conds.size()];
+            ProcessTarget[] condTargets = new ProcessTarget[conds.size()];
+            EventHandle[] condHandles = new EventHandle[conds.size()];
+            for (int i = 0; i < conds.size(); i++) {
+                ConditionalEvent each = conds.get(i);
+                if (each.target.getProcess() != null) {
+                    throw new ProcessError("Cannot capture a waiting process: " + each.target.getDescription());
+                }
+                conditions[i] = each.c;
+                condTargets[i] = each.target;
+                condHandles[i] = each.handle;
+            }
+            return new EventSnapshot(currentTick.get(), recordStatistics, ticks, priorities,
+                    builder.targets.toArray(new ProcessTarget[0]), builder.handles.toArray(new EventHandle[0]),
+                    conditions, condTargets, condHandles);
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * 按执行顺序收集所有事件
+     */
+    private static class SnapshotBuilder implements EventNode.Runner {
+        final ArrayList<Long> ticks = new ArrayList<>();
+        final ArrayList<Integer> priorities = new ArrayList<>();
+        final ArrayList<ProcessTarget> targets = new ArrayList<>();
+        final ArrayList<EventHandle> handles = new ArrayList<>();
+
+        @Override
+        public void runOnNode(EventNode node) {
+            Event evt = node.head;
+            while (evt != null) {
+                if (evt.target.getProcess() != null) {
+                    throw new ProcessError("Cannot capture a waiting process: " + evt.target.getDescription());
+                }
+                ticks.add(node.schedTick);
+                priorities.add(node.priority);
+                targets.add(evt.target);
+                handles.add(evt.handle);
+                evt = evt.next;
+            }
+        }
+    }
+
+    /**
+     * 将仿真时钟、未来事件列表和条件事件恢复为快照时的状态，调度器必须处于暂停状态
+     * 当前所有事件被丢弃(不调用 ProcessTarget.kill())，快照中的事件句柄重新指向恢复后的事件
+     * @param snapshot
+     */
+    public void restoreEvents(EventSnapshot snapshot) {
+        lockObject.lock();
+        try {
+            if (isRunning.get()) {
+                throw new ProcessError("Cannot restore the events while the EventManager is running");
+            }
+            eventList.runOnAllNodes(new DetachAllEvents());
+            eventList.reset();
+            metrics.eventListCleared();
+            for (ConditionalEvent each : condEvents) {
+                if (each.handle != null) {
+                    each.handle.event = null;
+                }
+            }
+            condEvents.clear();
+            for (ConditionalEvent each : signalCondEvents) {
+                if (each.handle != null) {
+                    each.handle.event = null;
+                }
+                unregisterSignals(each);
+            }
+            signalCondEvents.clear();
+            dirtyCondEvents.clear();
+            updateConditionalCount();
+
+            currentTick.set(snapshot.tick);
+            nextTick = snapshot.tick;
+            recordStatistics = snapshot.recordStatistics;
+
+            // 快照中的事件已经按执行顺序排列，依次以 FIFO 方式加入即可
+            EventNode node = null;
+            for (int i = 0; i < snapshot.ticks.length; i++) {
+                if (node == null || node.schedTick != snapshot.ticks[i] || node.priority != snapshot.priorities[i]) {
+                    node = getEventNode(snapshot.ticks[i], snapshot.priorities[i]);
+                }
+                EventHandle handle = snapshot.handles[i];
+                Event evt = getEvent(node, snapshot.targets[i], handle);
+                if (handle != null) {
+                    handle.event = evt;
+                }
+                node.addEvent(evt, true);
+            }
+            for (int i = 0; i < snapshot.conditions.length; i++) {
+                ConditionalEvent evt = new ConditionalEvent(snapshot.conditions[i], snapshot.condTargets[i], snapshot.condHandles[i]);
+                if (evt.handle != null) {
+                    evt.handle.event = evt;
+                }
+                addConditional(evt);
+            }
+        } finally {
+            lockObject.unlock();
+        }
+    }
+
+    /**
+     * 断开所有事件与事件句柄的关联，不调用 ProcessTarget.kill()
+     */
+    private static class DetachAllEvents implements EventNode.Runner {
+        @Override
+        public void runOnNode(EventNode node) {
+            Event each = node.head;
+            while (each != null) {
+                if (each.handle != null) {
+                    each.handle.event = null;
+                    each.handle = null;
+                }
+                each = each.next;
+            }
+        }
     }
 
     /**
      * 更新下一个事件发生时间
      */
     public void updateNextTick() {
-        if (eventTree.getNextNode() != null) {
-            nextTick = eventTree.getNextNode().schedTick;
+        if (eventList.getNextNode() != null) {
+            nextTick = eventList.getNextNode().schedTick;
         }
     }
 
     /**
      * 更新统计数据，当时间推进&
+     * 是否记录当前时刻由所属上下文的采样策略决定
      */
     public void updateStatitics() {
-        for (Entity entity : Entity.getClonesOfIterator(Entity.class)) {
-            entity.updateStatistics();
+        if (!statisticsEnabled) {
+            return;
+        }
+        resolveContext().updateStatistics(timePoints, ticksToSeconds(currentTick.get()));
+    }
+
+    /**
+     * 不论采样策略如何，在当前时刻记录统计数据，由按固定间隔采样的事件调用
+     */
+    public void sampleStatistics() {
+        if (!statisticsEnabled) {
+            return;
         }
-        timePointSet.add(ticksToSeconds(currentTick.get()));
+        double time = ticksToSeconds(currentTick.get());
+        timePoints.add(time);
+        resolveContext().recordStatistics(timePoints, time);
     }
 
     /**
@@ -1260,10 +2092,31 @@ public final class EventManager {
      * (相当于命令模式中的接收者，是真正执行命令操作的功能代码)
      */
     public void clearStatiticsAction() {
-        for (Entity entity : Entity.getClonesOfIterator(Entity.class)) {
-            entity.clearStatistics();
-        }
-        timePointSet.clear();
+        resolveContext().clearStatistics();
+        timePoints.clear();
+    }
+
+    /**
+     * @return 所属的仿真上下文，不属于任何上下文时为调用线程的当前上下文
+     */
+    private SimulationContext resolveContext() {
+        SimulationContext ret = context;
+        return ret != null ? ret : SimulationContext.current();
+    }
+
+    /**
+     * @return 所属的仿真上下文，单独创建的事件管理器返回null
+     */
+    public SimulationContext getContext() {
+        return context;
+    }
+
+    /**
+     * 设置所属的仿真上下文，由 SimulationContext 的构造方法调用
+     * @param context
+     */
+    public void setContext(SimulationContext context) {
+        this.context = context;
     }
 
     /**
@@ -1281,4 +2134,36 @@ public final class EventManager {
     public double getCurrentTime() {
         return ticksToSeconds(currentTick.get());
     }
+
+    /**
+     * 未来事件列表的实现类型，所有实现的事件执行顺序完全相同
+     */
+    public enum ListType {
+        /**
+         * 红黑树 + 链表，插入和删除为 O(log n)
+         */
+        RedBlackTree,
+        /**
+         * 日历队列，待执行事件很多(10^5以上)时插入和删除的均摊复杂度为 O(1)
+         */
+        CalendarQueue,
+        /**
+         * 基于基本类型数组的4叉堆，结点不单独分配对象，取队首为 O(1)
+         */
+        ArrayHeap,
+    }
+
+    /**
+     * Process 的后备线程类型
+     */
+    public enum ThreadType {
+        /**
+         * 平台线程，每个 Process 对应一个操作系统线程
+         */
+        Platform,
+        /**
+         * 虚拟线程(Java 21+)，等待中的 Process 不占用操作系统线程
+         */
+        Virtual,
+    }
 }
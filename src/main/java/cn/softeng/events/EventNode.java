@@ -27,39 +27,43 @@ class EventNode {
             head = e;
             tail = e;
             e.next = null;
+            e.prev = null;
             return;
         }
 
         if (fifo) {
             tail.next = e;
+            e.prev = tail;
             tail = e;
             e.next = null;
         }
         else {
             e.next = head;
+            e.prev = null;
+            head.prev = e;
             head = e;
         }
     }
 
+    /**
+     * 从事件链表中删除事件，通过前驱指针直接断开，不需要遍历链表
+     * @param evt
+     */
     final void removeEvent(Event evt) {
-        // quick case where we are the head event
-        if (this.head == evt) {
-            this.head = evt.next;
-            if (evt.next == null) {
-                this.tail = null;
-            }
+        Event prev = evt.prev;
+        Event next = evt.next;
+        if (prev == null) {
+            this.head = next;
+        } else {
+            prev.next = next;
         }
-        else {
-            Event prev = this.head;
-            while (prev.next != evt) {
-                prev = prev.next;
-            }
-
-            prev.next = evt.next;
-            if (evt.next == null) {
-                this.tail = prev;
-            }
+        if (next == null) {
+            this.tail = prev;
+        } else {
+            next.prev = prev;
         }
+        evt.prev = null;
+        evt.next = null;
     }
 
     final int compareToNode(EventNode other) {
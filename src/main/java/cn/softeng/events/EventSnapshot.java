@@ -0,0 +1,108 @@
+package cn.softeng.events;
+
+/**
+ * 事件管理器在某一时刻的快照：仿真时钟、未来事件列表中所有事件(按执行顺序)以及所有等待中的条件事件
+ * 快照只保存事件的执行目标和事件句柄的引用，恢复时重新建立事件，并将事件句柄重新指向恢复后的事件，
+ * 所以执行目标必须是不可变的(例如 EntityTarget)，其引用的实体状态需要由调用者另外保存
+ * 由 EventManager.captureEvents() 创建，EventManager.restoreEvents() 恢复，
+ * 也可以由检查点文件中读出的内容直接创建(见 SimulationCheckpoint)
+ * @date: 10/18/2026 8:20 PM
+ */
+public final class EventSnapshot {
+
+    /**
+     * 快照时的仿真刻度
+     */
+    final long tick;
+
+    /**
+     * 快照时是否已经开始记录统计数据
+     */
+    final boolean recordStatistics;
+
+    final long[] ticks;
+    final int[] priorities;
+    final ProcessTarget[] targets;
+    final EventHandle[] handles;
+
+    final Conditional[] conditions;
+    final ProcessTarget[] condTargets;
+    final EventHandle[] condHandles;
+
+    /**
+     * @param tick 仿真刻度
+     * @param recordStatistics 是否已经开始记录统计数据
+     * @param ticks 各事件的执行刻度，按执行顺序排列
+     * @param priorities 各事件的优先级
+     * @param targets 各事件的执行目标
+     * @param handles 各事件的事件句柄，可以为null
+     * @param conditions 各条件事件的条件
+     * @param condTargets 各条件事件的执行目标
+     * @param condHandles 各条件事件的事件句柄，可以为null
+     */
+    public EventSnapshot(long tick, boolean recordStatistics, long[] ticks, int[] priorities, ProcessTarget[] targets,
+                  EventHandle[] handles, Conditional[] conditions, ProcessTarget[] condTargets, EventHandle[] condHandles) {
+        this.tick = tick;
+        this.recordStatistics = recordStatistics;
+        this.ticks = ticks;
+        this.priorities = priorities;
+        this.targets = targets;
+        this.handles = handles;
+        this.conditions = conditions;
+        this.condTargets = condTargets;
+        this.condHandles = condHandles;
+    }
+
+    /**
+     * @return 快照时的仿真刻度
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return 快照中未来事件的数量
+     */
+    public int getEventCount() {
+        return ticks.length;
+    }
+
+    /**
+     * @return 快照中条件事件的数量
+     */
+    public int getConditionalCount() {
+        return conditions.length;
+    }
+
+    public boolean isRecordStatistics() {
+        return recordStatistics;
+    }
+
+    public long getEventTick(int i) {
+        return ticks[i];
+    }
+
+    public int getEventPriority(int i) {
+        return priorities[i];
+    }
+
+    public ProcessTarget getEventTarget(int i) {
+        return targets[i];
+    }
+
+    public EventHandle getEventHandle(int i) {
+        return handles[i];
+    }
+
+    public Conditional getCondition(int i) {
+        return conditions[i];
+    }
+
+    public ProcessTarget getConditionTarget(int i) {
+        return condTargets[i];
+    }
+
+    public EventHandle getConditionHandle(int i) {
+        return condHandles[i];
+    }
+}
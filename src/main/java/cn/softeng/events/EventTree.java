@@ -11,7 +11,7 @@ import java.util.Arrays;
  * @author matt.chudleigh
  *
  */
-class EventTree {
+class EventTree implements EventList {
     /**
      * 根结点
      */
@@ -60,7 +60,8 @@ class EventTree {
      * 获取事件优先队列的队首元素（返回红黑树中最小值结点）
      * @return 红黑树中最小结点
      */
-    EventNode getNextNode() {
+    @Override
+    public EventNode getNextNode() {
         if (lowest == null) {
             updateLowest();
         }
@@ -70,7 +71,8 @@ class EventTree {
     /**
      * 重置红黑树
      */
-    final void reset() {
+    @Override
+    public final void reset() {
         root = EventNode.nilNode;
         lowest = null;
         clearFreeList();
@@ -101,7 +103,8 @@ class EventTree {
      * @param priority  优先级
      * @return
      */
-    final EventNode createOrFindNode(long schedTick, int priority) {
+    @Override
+    public final EventNode createOrFindNode(long schedTick, int priority) {
 
         // 若红黑树为空，则新建一个节点作为根节点
         if (root == EventNode.nilNode) {
@@ -229,7 +232,8 @@ class EventTree {
      * @param priority
      * @return
      */
-    final boolean removeNode(long schedTick, int priority) {
+    @Override
+    public final boolean removeNode(long schedTick, int priority) {
         // First find the node to remove
         resetScratch();
         lowest = null;
@@ -415,7 +419,8 @@ class EventTree {
      * 运行整棵树的所有runner
      * @param runner
      */
-    final void runOnAllNodes(EventNode.Runner runner) {
+    @Override
+    public final void runOnAllNodes(EventNode.Runner runner) {
         runOnNode(root, runner);
     }
 
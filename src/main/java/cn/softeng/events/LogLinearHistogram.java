@@ -0,0 +1,126 @@
+package cn.softeng.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定分桶的对数-线性直方图，用于记录耗时等非负的整数值(例如纳秒)
+ * 小于 2^SUB_BITS 的值每个值一个桶；更大的值按2的幂分段，每段再线性地分为 2^SUB_BITS 个桶，
+ * 所以任何值的相对误差都不超过 1/2^SUB_BITS，整个 long 的范围只需要488个桶
+ * 记录时只对一个桶做原子累加，不分配内存，可以由多个线程同时记录；读取时不需要加锁，结果是其中某个时刻的近似值
+ * @date: 10/18/2026 11:50 PM
+ */
+public final class LogLinearHistogram {
+
+    /**
+     * 每个2的幂分段中线性桶的个数为 2^SUB_BITS
+     */
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final StripedCounter count = new StripedCounter();
+    private final StripedCounter sum = new StripedCounter();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值，负值按0记录
+     * @param value
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.getAndIncrement(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        long prev = max.get();
+        while (value > prev && !max.compareAndSet(prev, value)) {
+            prev = max.get();
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * @return 桶中的最小值
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exp = bucket / SUB_COUNT + SUB_BITS - 1;
+        long sub = bucket % SUB_COUNT;
+        return (SUB_COUNT + sub) << (exp - SUB_BITS);
+    }
+
+    /**
+     * @return 桶中的最大值
+     */
+    static long upperBound(int bucket) {
+        return bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long num = count.sum();
+        return num == 0 ? 0 : (double) sum.sum() / num;
+    }
+
+    /**
+     * 返回分位数的近似值，即累计次数达到该比例的桶的中点
+     * @param quantile 0到1之间的比例
+     * @return 没有记录时返回0
+     */
+    public long getPercentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                long lower = lowerBound(i);
+                return Math.min(lower + (upperBound(i) - lower) / 2, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.0f, p50=%d, p99=%d, max=%d",
+                getCount(), getMean(), getPercentile(0.5), getPercentile(0.99), getMax());
+    }
+}
@@ -16,36 +16,57 @@
  */
 package cn.softeng.events;
 
-import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Process is a subclass of Thread that can be managed by the discrete event
+ * Process is a unit of execution that can be managed by the discrete event
  * simulation.
  *
  * This is the basis for all functionality required by startProcess and the
- * discrete event model. Each process creates its own thread to run in. These
- * threads are managed by the eventManager and when a Process has completed
- * running is pooled for reuse.
+ * discrete event model. Each process runs in its own backing thread, which is
+ * either a platform thread or a virtual thread depending on the ThreadType of
+ * the EventManager. These threads are managed by the eventManager and when a
+ * Process has completed running it is returned to the ProcessPool of its
+ * EventManager for reuse.
  *
  * LOCKING: All state in the Process must be updated from a synchronized block
  * using the Process itself as the lock object. Care must be taken to never take
  * the eventManager's lock while holding the Process's lock as this can cause a
  * deadlock with other threads trying to wake you from the threadPool.
+ *
+ * HANDOFF: a Process is blocked by park() and advanced by wake(), which hand
+ * over an explicit permit through LockSupport.park/unpark rather than
+ * Thread.interrupt(), so a context switch does not construct or unwind an
+ * InterruptedException. A waiting virtual thread releases its carrier thread.
  */
-final class Process extends Thread {
-    // Properties required to manage the pool of available Processes
+final class Process implements Runnable {
     /**
-     * storage for all available Processes
+     * The Process running in the current thread, null for threads that are not backing a Process
      */
-    private static final ArrayList<Process> pool;
+    private static final ThreadLocal<Process> currentProcess = new ThreadLocal<>();
+
     /**
-     * Maximum size of Process pool
+     * The thread backing this Process
      */
-    private static final int maxPoolSize = 100;
+    private final Thread thread;
+    /**
+     * The type of the backing thread
+     */
+    private final EventManager.ThreadType type;
+    /**
+     * The pool that created this Process, and which it returns to when idle
+     */
+    private final ProcessPool pool;
+    /**
+     * The wake-up permit, set by wake() and consumed by park()
+     * A permit given before the Process parks is not lost, repeated wake() calls are coalesced
+     */
+    private volatile boolean permit;
+
     /**
-     * Total of all created processes to date (used to name new Processes)
+     * The time of the last wake(), written before the permit is given, used to measure the handoff latency
      */
-    private static int numProcesses = 0;
+    private long wakeNanos;
 
     /**
      * The EventManager that is currently managing this Process
@@ -81,19 +102,40 @@ final class Process extends Thread {
      */
     private boolean activeFlag;
 
-    static {
-        // Initialize the storage for the pooled Processes
-        pool = new ArrayList<>(maxPoolSize);
-    }
+    /**
+     * true if the Process has been removed from its pool and its backing thread should end
+     */
+    private boolean retired;
 
     /**
-     * the Process contstructor only provide name for Process,
+     * the Process contstructor only create the backing thread for Process,
      * the state and content of process is provide by setup(),
      * because these attribute are constantly changing
+     * @param pool the pool that owns this Process
+     * @param type the type of the backing thread
      * @param name
      */
-    private Process(String name) {
-        super(name);
+    Process(ProcessPool pool, EventManager.ThreadType type, String name) {
+        this.pool = pool;
+        this.type = type;
+        if (type == EventManager.ThreadType.Virtual) {
+            thread = VirtualThreads.newThread(this, name);
+        } else {
+            thread = new Thread(this, name);
+            // Idle pooled threads must not keep the JVM alive
+            thread.setDaemon(true);
+        }
+    }
+
+    /**
+     * Start the backing thread, which parks until the Process is woken with work
+     */
+    final void start() {
+        thread.start();
+    }
+
+    final EventManager.ThreadType getType() {
+        return type;
     }
 
     /**
@@ -102,34 +144,44 @@ final class Process extends Thread {
      * @return the currently executing process
      */
     static final Process current() {
-        try {
-            return (Process)Thread.currentThread();
-        } catch (ClassCastException e) {
+        Process cur = currentProcess.get();
+        if (cur == null) {
             throw new ProcessError("Non-process thread called Process.current()");
         }
+        return cur;
+    }
+
+    /**
+     * @return true if the calling thread is backing a Process
+     */
+    static final boolean isProcessThread() {
+        return currentProcess.get() != null;
     }
 
     /**
      * Run method invokes the method on the target with the given arguments.
      * A process loops endlessly after it is created executing the method on the
-     * target set as the entry point.  After completion, it calls endProcess and
-     * will return it to a process pool if space is available, otherwise the resources
-     * including the backing thread will be released.
+     * target set as the entry point.  After completion, it returns itself to
+     * its ProcessPool, unless the pool has retired it, in which case the backing
+     * thread is released.
      *
-     * This method is called by Process.getProcess()
+     * This method is called by the backing thread started in ProcessPool
      */
     @Override
     public void run() {
+        currentProcess.set(this);
         while (true) {
-            // wait in pool. why? -> look Process.getProcess()
-            // the internal of getProcess() calls Process.start(),
-            // starts the thread, pauses in waitInPool(), and
-            // then puts it in the pool for use
-            waitInPool();
+            // A new Process is handed out by its pool before the backing thread has
+            // started, the permit given by wake() makes the handoff safe, so nobody
+            // needs to wait for the thread to register itself
+            park();
 
             // Process has been woken up, execute the method we have been assigned
             ProcessTarget t;
             synchronized (this) {
+                if (retired) {
+                    return;
+                }
                 evt = eventManager;
                 t = target;
                 target = null;
@@ -143,6 +195,9 @@ final class Process extends Thread {
             evt = null;
             hasNext = false;
             setup(null, null, null);
+            if (!pool.release(this)) {
+                return;
+            }
         }
     }
 
@@ -155,20 +210,22 @@ final class Process extends Thread {
     }
 
     /**
-     * Useful to filter pooled threads when staring at stack traces.
+     * Block the calling thread until the permit of this Process is given by wake(),
+     * then consume the permit. Must only be called from the thread backing this Process.
+     * Note: the loop is needed to absorb spurious returns from LockSupport.park(),
+     * all legitimate wake ups are done through the permit.
      */
-    private void waitInPool() {
-        synchronized (pool) {
-            // Add ourselves to the pool and wait to be assigned work
-            pool.add(this);
-            // Set the present process to sleep, and release its lock
-            // (done by pool.wait();)
-            // Note: the try/while(true)/catch construct is needed to avoid
-            // spurious wake ups allowed as of Java 5.  All legitimate wake
-            // ups are done through the InterruptedException.
-            try {
-                while (true) { pool.wait(); }
-            } catch (InterruptedException e) {}
+    final void park() {
+        while (!permit) {
+            LockSupport.park(this);
+            // An interrupt is not a wake up, clear it so that park() keeps blocking
+            Thread.interrupted();
+        }
+        permit = false;
+        // The EventManager is set up before the permit is given, it is null only when the Process is retired
+        EventManager em = eventManager;
+        if (em != null) {
+            em.getMetrics().handoff(System.nanoTime() - wakeNanos);
         }
     }
 
@@ -192,7 +249,7 @@ final class Process extends Thread {
      * @param evt
      */
     static void processEvents(EventManager evt) {
-        Process newProcess = Process.getProcess();
+        Process newProcess = evt.getProcessPool().acquire();
         newProcess.setup(evt, null, null);
         newProcess.wake();
     }
@@ -206,56 +263,31 @@ final class Process extends Thread {
      * @return a new process watiting to be awakened
      */
     static Process allocate(EventManager eventManager, Process next, ProcessTarget target) {
-        Process newProcess = Process.getProcess();
+        Process newProcess = eventManager.getProcessPool().acquire();
         newProcess.setup(eventManager, next, target);
         return newProcess;
     }
 
     /**
-     * Return a process from the pool or create a new one
-     * @return a process which state is cleared or null, wait for setup and wake up
+     * Release the backing thread of an idle Process that has been removed from its pool
      */
-    private static Process getProcess() {
-        while (true) {
-            synchronized (pool) {
-                // If there is an available process in the pool, then use it
-                if (pool.size() > 0) {
-                    return pool.remove(pool.size() - 1);
-                }
-                // If there are no process in the pool, then create a new one and add it to the pool
-                else {
-                    numProcesses++;
-                    Process temp = new Process("processthread-" + numProcesses);
-                    temp.start();
-                    // Note: Thread.start() calls Process.run which adds the new process to the pool
-                    // then continue the while loop to return created process
-                }
-            }
-
-            // Allow the Process.run method to execute so that it can add the
-            // new process to the pool
-            // Note: that the lock on the pool has been dropped, so that the
-            // Process.run method can grab it.
-            try { Thread.sleep(10); } catch (InterruptedException e) {}
+    final void retire() {
+        synchronized (this) {
+            retired = true;
         }
-    }
-
-    /**
-     * We override this method to prevent user code from breaking the event state machine.
-     * If user code explicitly interrupted a Process it would likely run event code
-     * much earlier than intended.
-     */
-    @Override
-    public void interrupt() {
-        new Throwable("AUDIT: direct call of Process.interrupt").printStackTrace();
+        wake();
     }
 
     /**
      * This is the wrapper to allow internal code to advance the state machine by waking
      * a Process.
+     * The backing thread is not exposed, so user code cannot interrupt a Process and
+     * run event code earlier than intended.
      */
     final void wake() {
-        super.interrupt();
+        wakeNanos = System.nanoTime();
+        permit = true;
+        LockSupport.unpark(thread);
     }
 
     synchronized void setNextProcess(Process next) {
@@ -0,0 +1,189 @@
+package cn.softeng.events;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 每个 EventManager 独享的 Process 池
+ * 池中的空闲 Process 按后进先出的顺序复用，池为空时直接创建新的 Process 并立即返回：
+ * 新线程启动后先阻塞在 Process.park() 上，调用者通过 wake() 交给它的许可就像一个一次性的门闩(latch)，
+ * 所以不需要等待新线程把自己登记到池中
+ * 可以配置池的最小规模，通过 prestart() 提前创建线程，避免仿真运行过程中创建线程的开销
+ *
+ * LOCKING: 池的状态由池自身的锁保护，持有池的锁时不能再获取 EventManager 的锁
+ */
+final class ProcessPool {
+    /**
+     * 所有池创建过的 Process 总数，用于给新线程命名
+     */
+    private static final AtomicInteger numProcesses = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 空闲的 Process
+     */
+    private final ArrayList<Process> idle = new ArrayList<>();
+
+    /**
+     * 新创建的 Process 的后备线程类型
+     */
+    private EventManager.ThreadType threadType = EventManager.ThreadType.Platform;
+
+    /**
+     * 池的最小规模，prestart() 会把 Process 总数补足到该值
+     */
+    private int minSize;
+
+    /**
+     * 池中存活的 Process 总数(空闲 + 活跃)
+     */
+    private int total;
+
+    /**
+     * 同时活跃的 Process 数量的峰值
+     */
+    private int peakActive;
+
+    /**
+     * 从池中取出一个空闲的 Process，若没有则创建一个
+     * @return 状态已清空的 Process，等待 setup 和 wake
+     */
+    Process acquire() {
+        lock.lock();
+        try {
+            Process ret;
+            if (!idle.isEmpty()) {
+                ret = idle.remove(idle.size() - 1);
+            } else {
+                ret = newProcess();
+            }
+            peakActive = Math.max(peakActive, total - idle.size());
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将执行完毕的 Process 放回池中，由该 Process 自己的线程调用
+     * @param proc
+     * @return 若 Process 的线程类型与池当前的类型不同，则不放回池中并返回false，由调用线程自行结束
+     */
+    boolean release(Process proc) {
+        lock.lock();
+        try {
+            if (proc.getType() != threadType) {
+                total--;
+                return false;
+            }
+            idle.add(proc);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 预先创建 Process，直到池中的 Process 总数达到最小规模
+     */
+    void prestart() {
+        lock.lock();
+        try {
+            while (total < minSize) {
+                idle.add(newProcess());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 创建并启动一个新的 Process，必须持有池的锁
+     */
+    private Process newProcess() {
+        Process proc = new Process(this, threadType, "processthread-" + numProcesses.incrementAndGet());
+        proc.start();
+        total++;
+        return proc;
+    }
+
+    /**
+     * 设置新创建的 Process 的后备线程类型，已空闲的旧类型 Process 的线程会被释放，
+     * 活跃的旧类型 Process 执行完毕后不再放回池中
+     * @param type
+     */
+    void setThreadType(EventManager.ThreadType type) {
+        lock.lock();
+        try {
+            if (type == threadType) {
+                return;
+            }
+            threadType = type;
+            for (Process proc : idle) {
+                proc.retire();
+            }
+            total -= idle.size();
+            idle.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    EventManager.ThreadType getThreadType() {
+        return threadType;
+    }
+
+    void setMinSize(int size) {
+        if (size < 0) {
+            throw new ProcessError("Process pool size cannot be negative: " + size);
+        }
+        lock.lock();
+        try {
+            minSize = size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return 空闲的 Process 数量
+     */
+    int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 正在执行或阻塞等待中的 Process 数量
+     */
+    int getActiveCount() {
+        lock.lock();
+        try {
+            return total - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 同时活跃的 Process 数量的峰值
+     */
+    int getPeakActiveCount() {
+        lock.lock();
+        try {
+            return peakActive;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package cn.softeng.events;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+/**
+ * 状态变量的变化信号
+ * 模型在修改某个状态变量后调用 signal()，只有通过 Conditional.getDependencies() 声明依赖该信号的条件事件
+ * 才会在下一次推进仿真时钟前被重新检查，而不是像轮询的 Conditional 那样每次推进时钟前都检查一遍
+ * 一个信号可以被多个条件依赖，一个条件也可以依赖多个信号
+ */
+public final class StateSignal {
+
+    private final String name;
+
+    /**
+     * 依赖该信号、仍在等待中的条件事件
+     * LOCKING: 由信号自身的监视器保护，持有该监视器时不能获取事件管理器的锁
+     */
+    private final LinkedHashSet<ConditionalEvent> waiters = new LinkedHashSet<>();
+
+    public StateSignal(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 通知依赖该信号的条件：状态变量已经改变，需要重新检查
+     */
+    public void signal() {
+        ArrayList<ConditionalEvent> list;
+        synchronized (this) {
+            if (waiters.isEmpty()) {
+                return;
+            }
+            list = new ArrayList<>(waiters);
+        }
+        for (ConditionalEvent evt : list) {
+            evt.manager.markDirty(evt);
+        }
+    }
+
+    synchronized void addWaiter(ConditionalEvent evt) {
+        waiters.add(evt);
+    }
+
+    synchronized void removeWaiter(ConditionalEvent evt) {
+        waiters.remove(evt);
+    }
+
+    /**
+     * @return 等待该信号的条件事件数量
+     */
+    public synchronized int getWaiterCount() {
+        return waiters.size();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
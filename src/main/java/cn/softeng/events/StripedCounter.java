@@ -0,0 +1,51 @@
+package cn.softeng.events;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段计数器，各线程按线程id累加到不同的分段，分段之间相隔一个缓存行，减少多个线程同时累加时的竞争
+ * 与 LongAdder 不同，所有分段在创建时分配好，累加时不会分配内存；读取时对所有分段求和，不需要加锁
+ * @date: 10/18/2026 11:50 PM
+ */
+public final class StripedCounter {
+
+    /**
+     * 相邻分段之间的间隔(long的个数)，8个long为64字节，即一个缓存行
+     */
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedCounter() {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+        mask = stripes - 1;
+        cells = new AtomicLongArray(stripes * PAD);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long x) {
+        int index = ((int) Thread.currentThread().getId() & mask) * PAD;
+        cells.getAndAdd(index, x);
+    }
+
+    /**
+     * @return 所有分段的和，与正在进行的累加并发时，结果是其中某个时刻的近似值
+     */
+    public long sum() {
+        long ret = 0;
+        for (int i = 0; i < cells.length(); i += PAD) {
+            ret += cells.get(i);
+        }
+        return ret;
+    }
+
+    public void reset() {
+        for (int i = 0; i < cells.length(); i += PAD) {
+            cells.set(i, 0);
+        }
+    }
+}
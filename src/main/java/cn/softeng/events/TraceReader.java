@@ -0,0 +1,194 @@
+package cn.softeng.events;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * 按顺序读出 BinaryTraceRecorder 的记录文件
+ * 记录文件按段映射到内存，描述文件只在需要时读到所需的编号为止，读取任意长度的记录文件只占用固定的内存(加上出现过的描述)
+ * 固定容量的记录文件从保留的最早一条记录开始读
+ * @date: 10/18/2026 11:20 PM
+ */
+public class TraceReader implements Closeable {
+
+    /**
+     * 每个映射段的记录数
+     */
+    private static final int SEGMENT_RECORDS = 1 << 20;
+
+    private final FileChannel channel;
+    private final DataInputStream namesIn;
+    private final ArrayList<String> names = new ArrayList<>();
+
+    private final int fileCapacity;
+    private final long written;
+    private final long dropped;
+
+    /**
+     * 下一条记录的序号
+     */
+    private long seq;
+
+    private MappedByteBuffer segment;
+    private long segmentIndex = -1;
+
+    private long tick;
+    private int priority;
+    private BinaryTraceRecorder.Kind kind;
+    private int targetId;
+
+    /**
+     * @param file 记录文件，描述文件为同一目录下的 "记录文件名.names"
+     * @throws IOException 文件不存在或者不是记录文件
+     */
+    public TraceReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < BinaryTraceRecorder.HEADER_SIZE) {
+                throw new IOException(file + " is not an event trace");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryTraceRecorder.HEADER_SIZE);
+            if (header.getInt(0) != BinaryTraceRecorder.MAGIC) {
+                throw new IOException(file + " is not an event trace");
+            }
+            if (header.getInt(4) != BinaryTraceRecorder.VERSION || header.getInt(8) != BinaryTraceRecorder.RECORD_SIZE) {
+                throw new IOException(file + ": unsupported event trace version " + header.getInt(4));
+            }
+            fileCapacity = header.getInt(12);
+            written = header.getLong(BinaryTraceRecorder.WRITTEN_OFFSET);
+            dropped = header.getLong(BinaryTraceRecorder.DROPPED_OFFSET);
+            seq = fileCapacity == 0 ? 0 : Math.max(0, written - fileCapacity);
+            namesIn = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(BinaryTraceRecorder.namesFile(file))));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return 记录器写出的记录总数，包括固定容量的记录文件中已被覆盖的记录
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * @return 记录时因缓冲区满而丢弃的记录数，不为0时记录不完整
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * @return 记录文件中第一条记录的序号，固定容量的记录文件中更早的记录已被覆盖
+     */
+    public long getFirstIndex() {
+        return fileCapacity == 0 ? 0 : Math.max(0, written - fileCapacity);
+    }
+
+    /**
+     * 读出下一条记录
+     * @return 没有更多记录时返回false
+     * @throws IOException
+     */
+    public boolean next() throws IOException {
+        if (seq >= written) {
+            return false;
+        }
+        long slot = fileCapacity == 0 ? seq : seq % fileCapacity;
+        MappedByteBuffer buf = segment(slot / SEGMENT_RECORDS);
+        int pos = (int) (slot % SEGMENT_RECORDS) * BinaryTraceRecorder.RECORD_SIZE;
+        tick = buf.getLong(pos);
+        priority = buf.getInt(pos + 8);
+        kind = BinaryTraceRecorder.Kind.valueOf(buf.getInt(pos + 12));
+        targetId = buf.getInt(pos + 16);
+        seq++;
+        return true;
+    }
+
+    private MappedByteBuffer segment(long index) throws IOException {
+        if (index != segmentIndex) {
+            long records = SEGMENT_RECORDS;
+            long total = fileCapacity == 0 ? written : fileCapacity;
+            records = Math.min(records, total - index * SEGMENT_RECORDS);
+            segment = channel.map(FileChannel.MapMode.READ_ONLY,
+                    BinaryTraceRecorder.HEADER_SIZE + index * SEGMENT_RECORDS * BinaryTraceRecorder.RECORD_SIZE,
+                    records * BinaryTraceRecorder.RECORD_SIZE);
+            segmentIndex = index;
+        }
+        return segment;
+    }
+
+    /**
+     * @return 当前记录的序号
+     */
+    public long getIndex() {
+        return seq - 1;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public BinaryTraceRecorder.Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return 当前记录的 ProcessTarget 描述的编号，没有 ProcessTarget 时为-1
+     */
+    public int getTargetId() {
+        return targetId;
+    }
+
+    /**
+     * @return 当前记录的 ProcessTarget 的描述，没有 ProcessTarget 时为null
+     * @throws IOException
+     */
+    public String getDescription() throws IOException {
+        return getName(targetId);
+    }
+
+    /**
+     * 返回指定编号的描述，从描述文件中读到该编号为止
+     * @param id
+     * @return
+     * @throws IOException
+     */
+    public String getName(int id) throws IOException {
+        if (id < 0) {
+            return null;
+        }
+        try {
+            while (names.size() <= id) {
+                names.add(namesIn.readUTF());
+            }
+        } catch (EOFException e) {
+            throw new IOException("Description " + id + " is missing from the event trace", e);
+        }
+        return names.get(id);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            namesIn.close();
+        } finally {
+            channel.close();
+        }
+    }
+}
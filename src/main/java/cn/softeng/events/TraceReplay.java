@@ -0,0 +1,270 @@
+package cn.softeng.events;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * 事件跟踪的回放比较工具，用于证明修改事件调度的代码(例如 EventNode.addEvent 中 FIFO/LIFO 的处理)之后事件的执行顺序没有改变
+ *
+ * 作为 EventTraceListener 加入一次新的运行时，每次回调都与 BinaryTraceRecorder 记录文件中的下一条记录比较
+ * (回调类型、刻度、优先级、ProcessTarget 的描述)，发现第一个不同之处时立即输出，之后不再比较；
+ * 运行结束后调用 finish() 检查记录文件中是否还有多出的记录
+ * diff() 以同样的方式比较两个记录文件
+ * 记录文件按顺序流式读取，不会整体读入内存，可以比较任意长度的记录
+ * @date: 10/18/2026 11:20 PM
+ */
+@Slf4j
+public class TraceReplay implements EventTraceListener, Closeable {
+
+    /**
+     * 一条跟踪记录
+     */
+    @Getter
+    public static final class Record {
+        private final long tick;
+        private final int priority;
+        private final BinaryTraceRecorder.Kind kind;
+        private final String description;
+
+        public Record(long tick, int priority, BinaryTraceRecorder.Kind kind, String description) {
+            this.tick = tick;
+            this.priority = priority;
+            this.kind = kind;
+            this.description = description;
+        }
+
+        boolean matches(Record other) {
+            return tick == other.tick && priority == other.priority && kind == other.kind
+                    && Objects.equals(description, other.description);
+        }
+
+        @Override
+        public String toString() {
+            return kind + "(tick=" + tick + ", priority=" + priority + ", " + description + ")";
+        }
+    }
+
+    /**
+     * 第一个不同之处
+     */
+    @Getter
+    public static final class Divergence {
+        /**
+         * 记录的序号
+         */
+        private final long index;
+        /**
+         * 记录文件中的记录，记录文件已经结束时为null
+         */
+        private final Record expected;
+        /**
+         * 实际的记录，实际运行已经结束时为null
+         */
+        private final Record actual;
+
+        public Divergence(long index, Record expected, Record actual) {
+            this.index = index;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        @Override
+        public String toString() {
+            return "record #" + index + ": expected " + (expected == null ? "end of trace" : expected)
+                    + ", actual " + (actual == null ? "end of run" : actual);
+        }
+    }
+
+    private final TraceReader reader;
+
+    /**
+     * 固定容量的记录文件中被覆盖的记录数，实际运行中的这些记录不参加比较
+     */
+    private long skip;
+
+    private long compared;
+    private long lastTick;
+    private Divergence divergence;
+
+    /**
+     * @param trace BinaryTraceRecorder 的记录文件
+     * @throws IOException
+     */
+    public TraceReplay(Path trace) throws IOException {
+        reader = new TraceReader(trace);
+        if (reader.getDroppedCount() > 0) {
+            log.warn("{}: {} records were dropped while recording, the comparison is only valid up to the first gap",
+                    trace, reader.getDroppedCount());
+        }
+        skip = reader.getFirstIndex();
+    }
+
+    /**
+     * @return 第一个不同之处，没有时为null
+     */
+    public Divergence getDivergence() {
+        return divergence;
+    }
+
+    /**
+     * @return 比较过的相同记录数
+     */
+    public long getMatchedCount() {
+        return compared;
+    }
+
+    /**
+     * 实际运行结束后调用，检查记录文件中是否还有多出的记录
+     * @return 第一个不同之处，没有时为null
+     * @throws IOException
+     */
+    public Divergence finish() throws IOException {
+        if (divergence == null && reader.next()) {
+            report(new Divergence(reader.getIndex(), current(reader), null));
+        }
+        return divergence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 逐条比较两个记录文件
+     * @param expected
+     * @param actual
+     * @return 第一个不同之处，没有时为null
+     * @throws IOException
+     */
+    public static Divergence diff(Path expected, Path actual) throws IOException {
+        try (TraceReader a = new TraceReader(expected); TraceReader b = new TraceReader(actual)) {
+            if (a.getFirstIndex() != b.getFirstIndex()) {
+                throw new IOException("The traces do not start at the same record: "
+                        + a.getFirstIndex() + ", " + b.getFirstIndex());
+            }
+            while (true) {
+                boolean hasA = a.next();
+                boolean hasB = b.next();
+                if (!hasA && !hasB) {
+                    return null;
+                }
+                Record ra = hasA ? current(a) : null;
+                Record rb = hasB ? current(b) : null;
+                if (ra == null || rb == null || !ra.matches(rb)) {
+                    Divergence ret = new Divergence(hasA ? a.getIndex() : b.getIndex(), ra, rb);
+                    log.warn("Event traces diverge at {}", ret);
+                    return ret;
+                }
+            }
+        }
+    }
+
+    private static Record current(TraceReader reader) throws IOException {
+        return new Record(reader.getTick(), reader.getPriority(), reader.getKind(), reader.getDescription());
+    }
+
+    private void report(Divergence d) {
+        divergence = d;
+        log.warn("Event trace diverges at {}", d);
+    }
+
+    // ******************
+    // EventTraceListener
+    // ******************
+
+    /**
+     * 与记录文件中的下一条记录比较，不同时记录第一个不同之处
+     */
+    private void compare(long tick, int priority, BinaryTraceRecorder.Kind kind, ProcessTarget t) {
+        if (divergence != null) {
+            return;
+        }
+        if (skip > 0) {
+            skip--;
+            return;
+        }
+        try {
+            if (!reader.next()) {
+                report(new Divergence(reader.getFirstIndex() + compared, null, actual(tick, priority, kind, t)));
+                return;
+            }
+            if (reader.getTick() != tick || reader.getPriority() != priority || reader.getKind() != kind
+                    || !Objects.equals(reader.getDescription(), t == null ? null : t.getDescription())) {
+                report(new Divergence(reader.getIndex(), current(reader), actual(tick, priority, kind, t)));
+                return;
+            }
+            compared++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Record actual(long tick, int priority, BinaryTraceRecorder.Kind kind, ProcessTarget t) {
+        return new Record(tick, priority, kind, t == null ? null : t.getDescription());
+    }
+
+    // 各回调记录的内容与 BinaryTraceRecorder 相同
+
+    @Override
+    public void traceEvent(long tick, int priority, ProcessTarget t) {
+        lastTick = tick;
+        compare(tick, priority, BinaryTraceRecorder.Kind.Event, t);
+    }
+
+    @Override
+    public void traceWait(long tick, int priority, ProcessTarget t) {
+        compare(tick, priority, BinaryTraceRecorder.Kind.Wait, t);
+    }
+
+    @Override
+    public void traceSchedProcess(long tick, int priority, ProcessTarget t) {
+        compare(tick, priority, BinaryTraceRecorder.Kind.Schedule, t);
+    }
+
+    @Override
+    public void traceProcessStart(ProcessTarget t) {
+        compare(lastTick, -1, BinaryTraceRecorder.Kind.ProcessStart, t);
+    }
+
+    @Override
+    public void traceProcessEnd() {
+        compare(lastTick, -1, BinaryTraceRecorder.Kind.ProcessEnd, null);
+    }
+
+    @Override
+    public void traceInterrupt(long tick, int priority, ProcessTarget t) {
+        compare(tick, priority, BinaryTraceRecorder.Kind.Interrupt, t);
+    }
+
+    @Override
+    public void traceKill(long tick, int priority, ProcessTarget t) {
+        compare(tick, priority, BinaryTraceRecorder.Kind.Kill, t);
+    }
+
+    @Override
+    public void traceWaitUntil() {
+        compare(lastTick, -1, BinaryTraceRecorder.Kind.WaitUntil, null);
+    }
+
+    @Override
+    public void traceSchedUntil(ProcessTarget t) {
+        compare(lastTick, -1, BinaryTraceRecorder.Kind.SchedUntil, t);
+    }
+
+    @Override
+    public void traceConditionalEval(ProcessTarget t) {
+        compare(lastTick, -1, BinaryTraceRecorder.Kind.ConditionalEval, t);
+    }
+
+    @Override
+    public void traceConditionalEvalEnded(boolean wakeup, ProcessTarget t) {
+        compare(lastTick, wakeup ? 1 : 0, BinaryTraceRecorder.Kind.ConditionalEvalEnded, t);
+    }
+}
@@ -0,0 +1,70 @@
+package cn.softeng.events;
+
+import java.lang.reflect.Method;
+
+/**
+ * 创建虚拟线程(Java 21+)的工具类
+ * 工程仍以 Java 8 编译，所以通过反射调用 Thread.ofVirtual().name(name).unstarted(task)，
+ * 在不支持虚拟线程的 JVM 上 isSupported() 返回 false
+ */
+final class VirtualThreads {
+    /**
+     * Thread.ofVirtual()，不支持时为null
+     */
+    private static final Method ofVirtual;
+    /**
+     * Thread.Builder.name(String)
+     */
+    private static final Method name;
+    /**
+     * Thread.Builder.unstarted(Runnable)
+     */
+    private static final Method unstarted;
+
+    static {
+        Method ofVirtualMethod = null;
+        Method nameMethod = null;
+        Method unstartedMethod = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+            nameMethod = builder.getMethod("name", String.class);
+            unstartedMethod = builder.getMethod("unstarted", Runnable.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            ofVirtualMethod = null;
+        }
+        ofVirtual = ofVirtualMethod;
+        name = nameMethod;
+        unstarted = unstartedMethod;
+    }
+
+    private VirtualThreads() {}
+
+    /**
+     * @return 当前 JVM 是否支持虚拟线程
+     */
+    static boolean isSupported() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * 创建一个未启动的虚拟线程
+     * @param task 线程执行的任务
+     * @param threadName 线程名
+     * @return
+     * @throws ProcessError 若当前 JVM 不支持虚拟线程
+     */
+    static Thread newThread(Runnable task, String threadName) {
+        if (!isSupported()) {
+            throw new ProcessError("Virtual threads require Java 21 or later, running on Java "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = ofVirtual.invoke(null);
+            builder = name.invoke(builder, threadName);
+            return (Thread) unstarted.invoke(builder, task);
+        } catch (ReflectiveOperationException e) {
+            throw new ProcessError("Failed to create a virtual thread: " + e);
+        }
+    }
+}
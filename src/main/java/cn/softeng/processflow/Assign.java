@@ -1,5 +1,7 @@
 package cn.softeng.processflow;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
 import lombok.Getter;
 import lombok.Setter;
@@ -16,7 +18,7 @@ public class Assign extends LinkedComponent {
 
     private Map<String, Integer> assignments;
 
-    private Random random = new Random();
+    private StatefulRandom random = new StatefulRandom(new Random().nextLong());
 
     private List<Object> shuffledList = new LinkedList<>();
 
@@ -32,6 +34,14 @@ public class Assign extends LinkedComponent {
         assignments = assign;
     }
 
+    /**
+     * 设置随机数种子，使同一个模型的多次运行可以复现，独立重复实验时每次使用不同的种子
+     * @param seed
+     */
+    public void setSeed(long seed) {
+        random = new StatefulRandom(seed);
+    }
+
     {
         assignments = new HashMap<>();
     }
@@ -101,22 +111,89 @@ public class Assign extends LinkedComponent {
                 }
             }
         }
-        Collections.shuffle(shuffledList);
+        Collections.shuffle(shuffledList, random);
         return (String) shuffledList.remove(0);
     }
 
     @Override
-    public void updateStatistics() {
-        numAddMap.put(getSimTime(), getNumberAdded());
-        numInProgressMap.put(getSimTime(), getNumberInProgress());
-        numProcessedMap.put(getSimTime(), getNumberProcessed());
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeLong(random.state);
+        out.writeVarLong(shuffledList.size());
+        for (Object each : shuffledList) {
+            out.writeString((String) each);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        random.state = in.readLong();
+        shuffledList.clear();
+        int num = (int) in.readVarLong();
+        for (int i = 0; i < num; i++) {
+            shuffledList.add(in.readString());
+        }
+    }
+
+    @Override
+    public ComponentState saveState() {
+        return new AssignState(this);
     }
 
+    @Override
+    public void restoreState(ComponentState state) {
+        super.restoreState(state);
+        random.state = ((AssignState) state).randomState;
+    }
+
+    /**
+     * Assign 的可回滚状态，增加随机数发生器的状态
+     */
+    protected static class AssignState extends ComponentState {
+        private final long randomState;
+
+        protected AssignState(Assign assign) {
+            super(assign);
+            randomState = assign.random.state;
+        }
+    }
+
+    /**
+     * 与 java.util.Random 算法相同(48位线性同余)、产生的随机数序列也相同的随机数发生器，
+     * 内部状态可以直接读取和恢复，用于保存和回滚 Assign 的状态
+     */
+    private static final class StatefulRandom extends Random {
+        private static final long MULTIPLIER = 0x5DEECE66DL;
+        private static final long ADDEND = 0xBL;
+        private static final long MASK = (1L << 48) - 1;
+
+        /**
+         * 不能有初始值，父类的构造方法会先调用 setSeed()
+         */
+        private long state;
+
+        StatefulRandom(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            super.setSeed(seed);
+            state = (seed ^ MULTIPLIER) & MASK;
+        }
+
+        @Override
+        protected int next(int bits) {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            return (int) (state >>> (48 - bits));
+        }
+    }
+
+
     @Override
     public void clearStatistics() {
-        numAddMap.clear();
-        numInProgressMap.clear();
-        numProcessedMap.clear();
+        clearRecordedStatistics();
     }
 
 //    public static void main(String[] args) {
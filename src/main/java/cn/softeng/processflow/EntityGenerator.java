@@ -1,5 +1,7 @@
 package cn.softeng.processflow;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -78,6 +80,7 @@ public class EntityGenerator extends LinkedService {
     public void earlyInit() {
         super.earlyInit();
         numberGenerated = 0;
+        markStateChanged();
     }
 
     @Override
@@ -115,19 +118,44 @@ public class EntityGenerator extends LinkedService {
         return 0;
     }
 
+
     @Override
-    public void updateStatistics() {
-//        log.debug("Generator: {} -> NumAdd: {}, NumberProcessed: {}, NumInProcess: {}", this.getName(), this.getNumberAdded(), this.getNumberProcessed(), this.getNumberInProgress());
-        numAddMap.put(getSimTime(), getNumberAdded());
-        numInProgressMap.put(getSimTime(), getNumberInProgress());
-        numProcessedMap.put(getSimTime(), getNumberProcessed());
+    public void clearStatistics() {
+        clearRecordedStatistics();
     }
 
     @Override
-    public void clearStatistics() {
-        numAddMap.clear();
-        numInProgressMap.clear();
-        numProcessedMap.clear();
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeLong(numberGenerated);
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        numberGenerated = in.readLong();
+    }
+
+    @Override
+    public ComponentState saveState() {
+        return new GeneratorState(this);
     }
 
+    @Override
+    public void restoreState(ComponentState state) {
+        super.restoreState(state);
+        numberGenerated = ((GeneratorState) state).numberGenerated;
+    }
+
+    /**
+     * EntityGenerator 的可回滚状态，增加已生成的实体数
+     */
+    protected static class GeneratorState extends ServiceState {
+        private final long numberGenerated;
+
+        protected GeneratorState(EntityGenerator generator) {
+            super(generator);
+            numberGenerated = generator.numberGenerated;
+        }
+    }
 }
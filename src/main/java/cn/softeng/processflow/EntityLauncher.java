@@ -1,13 +1,19 @@
 package cn.softeng.processflow;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
 import cn.softeng.basicsim.EntityTarget;
+import cn.softeng.basicsim.TargetSerializer;
+import cn.softeng.basicsim.TargetSerializers;
 import cn.softeng.events.EventHandle;
 import cn.softeng.events.EventManager;
 import cn.softeng.events.ProcessTarget;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.HashMap;
+
 /**
  * 实体启动器，用于运行时触发生成实体
  */
@@ -54,6 +60,11 @@ public class EntityLauncher extends LinkedService{
 
     private final EventHandle doActionHandle = new EventHandle();
 
+    /**
+     * 批量调度时，每种生成数量对应的 target，相同数量的触发共用同一个 target
+     */
+    private final HashMap<Integer, ProcessTarget> launchTargets = new HashMap<>();
+
     {
         scheduleTime = Double.MAX_VALUE;
         entitiesPerArrival = 1;
@@ -102,12 +113,76 @@ public class EntityLauncher extends LinkedService{
         eventManager.updateNextTick();
     }
 
+    /**
+     * 批量调度生成实体，所有事件一次性加入事件队列后，立马暂停调度器
+     * 与多次调用 scheduleAction() 不同，每次触发生成的实体数由各自的 target 保存，不会相互覆盖
+     * @param eventManager
+     * @param scheduleTimes 每次触发的时间
+     * @param counts 每次触发生成的实体数
+     * @param clearTarget 若不为空，在最早的触发时间之前清空组件数据
+     */
+    public void scheduleActions(EventManager eventManager, double[] scheduleTimes, int[] counts, ProcessTarget clearTarget) {
+        if (scheduleTimes.length != counts.length) {
+            error("schedule times and counts must have the same length: %d, %d", scheduleTimes.length, counts.length);
+        }
+        if (scheduleTimes.length == 0) {
+            return;
+        }
+
+        double simTime = eventManager.getCurrentTime();
+        int offset = clearTarget != null ? 1 : 0;
+        int num = scheduleTimes.length + offset;
+        long[] waitTicks = new long[num];
+        int[] priorities = new int[num];
+        ProcessTarget[] targets = new ProcessTarget[num];
+
+        double firstTime = Double.MAX_VALUE;
+        for (int i = 0; i < scheduleTimes.length; i++) {
+            if (scheduleTimes[i] < simTime) {
+                error("schedule time %f is less than current time %f", scheduleTimes[i], simTime);
+            }
+            firstTime = Math.min(firstTime, scheduleTimes[i]);
+            waitTicks[i + offset] = eventManager.secondsToNearestTick(scheduleTimes[i] - simTime);
+            // 将该事件优先级设置为最低
+            priorities[i + offset] = 6;
+            targets[i + offset] = getLaunchTarget(counts[i]);
+        }
+        if (clearTarget != null) {
+            // 清空组件数据的事件排在最早一次触发之前
+            waitTicks[0] = eventManager.secondsToNearestTick(firstTime - simTime);
+            priorities[0] = 6;
+            targets[0] = clearTarget;
+        }
+        this.scheduleTime = firstTime;
+
+        eventManager.scheduleProcessExternalBatch(waitTicks, priorities, true, targets);
+        eventManager.pause();
+        // 更新 eventManager 的 nextTick
+        eventManager.updateNextTick();
+    }
+
+    private ProcessTarget getLaunchTarget(int count) {
+        ProcessTarget target = launchTargets.get(count);
+        if (target == null) {
+            target = new LaunchTarget(this, count);
+            launchTargets.put(count, target);
+        }
+        return target;
+    }
+
     /**
      * 生成实体的操作
      * (相当于命令模式中的接收者，是真正执行命令操作的功能代码)
      */
     public void doAction() {
-        int num = (int) entitiesPerArrival;
+        doAction((int) entitiesPerArrival);
+    }
+
+    /**
+     * 生成指定数量的实体
+     * @param num
+     */
+    public void doAction(int num) {
         for (int i = 0; i < num; i++) {
             numberGenerated++;
             Entity proto = prototypeEntity;
@@ -124,6 +199,20 @@ public class EntityLauncher extends LinkedService{
      * 命令模式中的 ConcreteCommand，执行 EntityLauncher 的 doAction() 操作
      */
     private static class DoActionTarget extends EntityTarget<EntityLauncher> {
+        static {
+            TargetSerializers.register(DoActionTarget.class, new TargetSerializer<DoActionTarget>() {
+                @Override
+                public void write(DoActionTarget target, CheckpointOutput out) {
+                    out.writeEntity(target.entity);
+                }
+
+                @Override
+                public DoActionTarget read(CheckpointInput in) {
+                    EntityLauncher launcher = in.readEntity();
+                    return (DoActionTarget) launcher.doActionTarget;
+                }
+            });
+        }
 
         public DoActionTarget(EntityLauncher entity) {
             super(entity, "doAction");
@@ -136,30 +225,67 @@ public class EntityLauncher extends LinkedService{
     }
 
     /**
-     * 正在进行中的实体数量
-     * @return
+     * 批量调度时使用的 target，生成固定数量的实体
      */
+    private static class LaunchTarget extends EntityTarget<EntityLauncher> {
+        static {
+            TargetSerializers.register(LaunchTarget.class, new TargetSerializer<LaunchTarget>() {
+                @Override
+                public void write(LaunchTarget target, CheckpointOutput out) {
+                    out.writeEntity(target.entity);
+                    out.writeInt(target.count);
+                }
+
+                @Override
+                public LaunchTarget read(CheckpointInput in) {
+                    EntityLauncher launcher = in.readEntity();
+                    return (LaunchTarget) launcher.getLaunchTarget(in.readInt());
+                }
+            });
+        }
+
+        private final int count;
+
+        public LaunchTarget(EntityLauncher entity, int count) {
+            super(entity, "doAction");
+            this.count = count;
+        }
+
+        @Override
+        public void process() {
+            entity.doAction(count);
+        }
+    }
+
     @Override
-    public long getNumberInProgress() {
-        return 0;
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeLong(numberGenerated);
+        out.writeDouble(scheduleTime);
+        out.writeDouble(entitiesPerArrival);
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        numberGenerated = in.readLong();
+        scheduleTime = in.readDouble();
+        entitiesPerArrival = in.readDouble();
     }
 
     /**
-     * 更新统计数据
+     * 正在进行中的实体数量
+     * @return
      */
     @Override
-    public void updateStatistics() {
-//        log.debug("Launcher: {} -> NumAdd: {}, NumberProcessed: {}, NumInProcess: {}", this.getName(), this.getNumberAdded(), this.getNumberProcessed(), this.getNumberInProgress());
-        numAddMap.put(getSimTime(), getNumberAdded());
-        numInProgressMap.put(getSimTime(), getNumberInProgress());
-        numProcessedMap.put(getSimTime(), getNumberProcessed());
+    public long getNumberInProgress() {
+        return 0;
     }
 
+
     @Override
     public void clearStatistics() {
-        numAddMap.clear();
-        numInProgressMap.clear();
-        numProcessedMap.clear();
+        clearRecordedStatistics();
     }
 
 }
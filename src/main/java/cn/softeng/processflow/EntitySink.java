@@ -37,19 +37,10 @@ public class EntitySink extends LinkedComponent {
     }
 
 
-    @Override
-    public void updateStatistics() {
-//        log.debug("Sink: {} -> NumAdd: {}, NumberProcessed: {}, NumInProcess: {}", this.getName(), this.getNumberAdded(), this.getNumberProcessed(), this.getNumberInProgress());
-        numAddMap.put(getSimTime(), getNumberAdded());
-        numInProgressMap.put(getSimTime(), getNumberInProgress());
-        numProcessedMap.put(getSimTime(), getNumberProcessed());
-    }
 
     @Override
     public void clearStatistics() {
-        numAddMap.clear();
-        numInProgressMap.clear();
-        numProcessedMap.clear();
+        clearRecordedStatistics();
     }
 
 }
@@ -1,7 +1,16 @@
 package cn.softeng.processflow;
 
+import cn.softeng.SimulationContext;
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
+import cn.softeng.basicsim.SampleColumns;
+import cn.softeng.basicsim.StatisticsCollector;
+import cn.softeng.basicsim.StatisticsSink;
+import cn.softeng.basicsim.TimeSeriesStore;
+import cn.softeng.events.EventManager;
 import cn.softeng.states.StateEntity;
+import lombok.Getter;
 import lombok.Setter;
 
 import java.util.*;
@@ -10,9 +19,10 @@ import java.util.*;
 /**
  * LinkedComponent是用来形成一个组件链，来处理穿过系统实体
  * 其子类有：EntityGenerator, Server, EntitySink ...
+ * 组件是统计数据的收集器：计数器改变时标记自己，时钟推进时只记录改变过的值，读取统计序列时按时钟序列补齐
  * @date: 12/16/2020 8:48 PM
  */
-public class LinkedComponent extends StateEntity {
+public class LinkedComponent extends StateEntity implements StatisticsCollector {
     /**
      * 输出obj的默认值。 通常，obj设置为此对象接收的最后一个实体。
      * 在接收其第一个实体之前，将obj设置为DefaultEntity提供的对象。
@@ -24,6 +34,7 @@ public class LinkedComponent extends StateEntity {
      * 已处理实体要传递的下一个组件
      */
     @Setter
+    @Getter
     protected LinkedComponent nextComponent;
     /**
      * 初始化后，从上游添加的此组件的实体数
@@ -49,10 +60,20 @@ public class LinkedComponent extends StateEntity {
      *
      */
     private double releaseTime = Double.NaN;
+    /**
+     * 状态版本号，组件的可回滚状态每次改变时加1，用于增量保存状态
+     */
+    private long stateVersion;
+    /**
+     * 统计值改变后等待记录时，为标记时所属的上下文，否则为null
+     * 记录上下文而不是布尔值，组件迁移到其他上下文后再次标记时会登记到新的上下文中
+     */
+    private SimulationContext statisticsDirtyIn;
 
     {
         defaultEntity = null;
         nextComponent = null;
+        markStatisticsDirty();
     }
 
     @Override
@@ -64,6 +85,8 @@ public class LinkedComponent extends StateEntity {
         initialNumberProcessed = 0;
         receivedEntity = defaultEntity;
         releaseTime = Double.NaN;
+        stateVersion++;
+        markStatisticsDirty();
     }
 
     /**
@@ -81,6 +104,8 @@ public class LinkedComponent extends StateEntity {
     protected void registerEntity(Entity ent) {
         receivedEntity = ent;
         numberAdded++;
+        stateVersion++;
+        markStatisticsDirty();
     }
 
     /**
@@ -89,6 +114,7 @@ public class LinkedComponent extends StateEntity {
      */
     protected void setReceivedEntity(Entity entity) {
         receivedEntity = entity;
+        stateVersion++;
     }
 
     /**
@@ -97,6 +123,8 @@ public class LinkedComponent extends StateEntity {
      */
     public void sendToNextComponent(Entity entity) {
         numberProcessed++;
+        stateVersion++;
+        markStatisticsDirty();
         releaseTime = this.getSimTime();
         if (nextComponent != null) {
             nextComponent.addEntity(entity);
@@ -108,41 +136,126 @@ public class LinkedComponent extends StateEntity {
      */
     public void incrementNumberProcessed() {
         numberProcessed++;
+        stateVersion++;
+        markStatisticsDirty();
     }
 
     // *****************************
     //  统计相关数据
     // *****************************
 
+    /**
+     * 统计数据的列：numberAdded, numberProcessed, numberInProgress
+     */
+    private static final int ADDED = 0;
+    private static final int PROCESSED = 1;
+    private static final int IN_PROGRESS = 2;
 
-    protected Map<Double, Long> numAddMap = new LinkedHashMap<>();
+    /**
+     * 各统计值改变的时刻(所属上下文时钟序列中的序号)及改变后的值
+     */
+    protected final SampleColumns samples = new SampleColumns(3);
 
-    protected Map<Double, Long> numProcessedMap = new LinkedHashMap<>();
+    /**
+     * 标记统计值已改变，下次时钟推进前记录
+     */
+    protected final void markStatisticsDirty() {
+        SimulationContext context = getContext();
+        if (statisticsDirtyIn != context) {
+            statisticsDirtyIn = context;
+            context.statisticsChanged(this);
+        }
+    }
 
-    protected Map<Double, Long> numInProgressMap = new LinkedHashMap<>();
+    @Override
+    public void updateStatistics(TimeSeriesStore times, double time) {
+        statisticsDirtyIn = null;
+        recordSample(times, time, getNumberAdded(), getNumberProcessed(), getNumberInProgress());
+    }
 
     /**
-     * 返回numAdd各时钟序列所对应的值
-     * @return
+     * 在所属上下文的事件管理器的当前时刻记录一组统计数据，可以在不执行事件的线程中调用
+     */
+    @Override
+    public void updateStatistics() {
+        EventManager em = getContext().getEventManager();
+        updateStatistics(em.getTimePoints(), em.ticksToSeconds(em.getTicks()));
+    }
+
+    /**
+     * 统计值与上次记录的值不同时记录，同一时刻重复记录时覆盖该时刻的值
+     * 时刻的序号小于上次记录的序号时，时钟序列已经重新开始，之前的记录不再有效
+     */
+    private void recordSample(TimeSeriesStore times, double time, long added, long processed, long inProgress) {
+        int ordinal = times.add(time);
+        int last = samples.size() - 1;
+        if (last >= 0 && ordinal < samples.getOrdinal(last)) {
+            samples.clear();
+            last = -1;
+        }
+        if (last >= 0 && added == samples.get(last, ADDED) && processed == samples.get(last, PROCESSED)
+                && inProgress == samples.get(last, IN_PROGRESS)) {
+            return;
+        }
+        int row = samples.row(ordinal);
+        samples.set(row, ADDED, added);
+        samples.set(row, PROCESSED, processed);
+        samples.set(row, IN_PROGRESS, inProgress);
+        StatisticsSink sink = getContext().getStatisticsSink();
+        if (sink != null) {
+            sink.sample(this, time, added, processed, inProgress);
+        }
+    }
+
+    @Override
+    public void remapStatistics(int[] ordinals) {
+        samples.remap(ordinals);
+    }
+
+    /**
+     * 清空记录的统计数据，下次时钟推进前重新开始记录
+     */
+    protected final void clearRecordedStatistics() {
+        samples.clear();
+        markStatisticsDirty();
+    }
+
+    /**
+     * 返回记录统计数据的时钟序列，即所属上下文的时钟序列中第一次记录及之后的部分，与 getNumAddList() 等返回的数据一一对应
+     * 返回的是只读视图，不复制数据：长度在调用时确定，修改操作抛出 UnsupportedOperationException；
+     * 只在调度器暂停期间有效，之后的运行(降采样时会抽稀并重新映射时钟序列)、initModel() 和 clearStatistics()
+     * 会改变其底层数据，需要长期保存时请复制，例如 new ArrayList<>(list)
+     * @return 只读视图
+     */
+    public List<Double> getTimeList() {
+        if (samples.size() == 0) {
+            return Collections.emptyList();
+        }
+        return getContext().getTimePoints().asList(samples.getOrdinal(0));
+    }
+
+    /**
+     * 返回numAdd各时钟序列所对应的值，与 getTimeList() 相同，返回的是暂停期间有效的只读视图
+     * @return 只读视图
      */
     public List<Long> getNumAddList() {
-        return new ArrayList<>(numAddMap.values());
+        return samples.stepView(ADDED, getContext().getTimePoints().size());
     }
 
     /**
-     * 返回numProcess各时钟序列所对应的值
-     * @return
+     * 返回numProcess各时钟序列所对应的值，与 getTimeList() 相同，返回的是暂停期间有效的只读视图
+     * @return 只读视图
      */
     public List<Long> getNumProcessedList() {
-        return new ArrayList<>(numProcessedMap.values());
+        return samples.stepView(PROCESSED, getContext().getTimePoints().size());
     }
 
     /**
-     * 返回numInProcess各时钟序列所对应的值
-     * @return
+     * 返回numInProcess各时钟序列所对应的值，与 getTimeList() 相同，返回的是暂停期间有效的只读视图
+     * @return 只读视图
      */
     public List<Long> getNumInProgressList() {
-        return new ArrayList<>(numInProgressMap.values());
+        return samples.stepView(IN_PROGRESS, getContext().getTimePoints().size());
     }
 
     /**
@@ -176,6 +289,8 @@ public class LinkedComponent extends StateEntity {
         initialNumberProcessed = numberProcessed;
         numberAdded = 0;
         numberProcessed = 0;
+        stateVersion++;
+        clearRecordedStatistics();
     }
 
     /**
@@ -185,4 +300,146 @@ public class LinkedComponent extends StateEntity {
     public Entity getReceivedEntity() {
         return receivedEntity;
     }
+
+    // *****************************
+    //  状态保存与回滚
+    // *****************************
+
+    /**
+     * 返回状态版本号，版本号不变时组件的可回滚状态没有改变
+     * @return
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * 子类改变了 saveState() 保存的字段时调用
+     */
+    protected final void markStateChanged() {
+        stateVersion++;
+    }
+
+    /**
+     * 保存组件当前的可回滚状态(计数器和处理进度)，不包括统计数据和模型参数，
+     * 子类有额外的状态时需要重写该方法，返回 ComponentState 的子类
+     * @return
+     */
+    public ComponentState saveState() {
+        return new ComponentState(this);
+    }
+
+    /**
+     * 将组件恢复为 saveState() 保存的状态
+     * @param state
+     */
+    public void restoreState(ComponentState state) {
+        numberAdded = state.numberAdded;
+        numberProcessed = state.numberProcessed;
+        initialNumberAdded = state.initialNumberAdded;
+        initialNumberProcessed = state.initialNumberProcessed;
+        receivedEntity = state.receivedEntity;
+        releaseTime = state.releaseTime;
+        stateVersion++;
+        markStatisticsDirty();
+    }
+
+    /**
+     * 早于指定状态的修改已经提交，不会再回滚到更早的状态，可以释放增量保存的数据
+     * @param oldest 仍可能被恢复的最早状态，为null时表示不会再回滚
+     */
+    public void commitState(ComponentState oldest) {}
+
+    /**
+     * 以保存的状态记录一组统计数据，用于在状态提交时补记统计数据
+     * @param time 统计时刻(秒)
+     * @param state
+     */
+    public void recordStatistics(double time, ComponentState state) {
+        recordSample(getContext().getTimePoints(), time, state.added, state.processed, state.inProgress);
+    }
+
+    /**
+     * 写出计数器、最近收到的实体以及到目前为止的统计数据
+     * @param out
+     */
+    @Override
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeLong(numberAdded);
+        out.writeLong(numberProcessed);
+        out.writeLong(initialNumberAdded);
+        out.writeLong(initialNumberProcessed);
+        out.writeEntity(receivedEntity);
+        out.writeDouble(releaseTime);
+        writeStatistics(out);
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        numberAdded = in.readLong();
+        numberProcessed = in.readLong();
+        initialNumberAdded = in.readLong();
+        initialNumberProcessed = in.readLong();
+        receivedEntity = in.readEntity();
+        releaseTime = in.readDouble();
+        readStatistics(in);
+        stateVersion++;
+        markStatisticsDirty();
+    }
+
+    /**
+     * 统计数据按行写出：时刻的序号和各列的值，序号对应检查点中保存的时钟序列
+     */
+    private void writeStatistics(CheckpointOutput out) {
+        out.writeVarLong(samples.size());
+        for (int i = 0; i < samples.size(); i++) {
+            out.writeVarLong(samples.getOrdinal(i));
+            out.writeLong(samples.get(i, ADDED));
+            out.writeLong(samples.get(i, PROCESSED));
+            out.writeLong(samples.get(i, IN_PROGRESS));
+        }
+    }
+
+    private void readStatistics(CheckpointInput in) {
+        samples.clear();
+        int num = (int) in.readVarLong();
+        for (int i = 0; i < num; i++) {
+            int row = samples.row((int) in.readVarLong());
+            samples.set(row, ADDED, in.readLong());
+            samples.set(row, PROCESSED, in.readLong());
+            samples.set(row, IN_PROGRESS, in.readLong());
+        }
+    }
+
+    /**
+     * 组件的可回滚状态
+     */
+    public static class ComponentState {
+        private final long numberAdded;
+        private final long numberProcessed;
+        private final long initialNumberAdded;
+        private final long initialNumberProcessed;
+        private final Entity receivedEntity;
+        private final double releaseTime;
+        /**
+         * 保存时的统计值
+         */
+        private final long added;
+        private final long processed;
+        private final long inProgress;
+
+        protected ComponentState(LinkedComponent comp) {
+            numberAdded = comp.numberAdded;
+            numberProcessed = comp.numberProcessed;
+            initialNumberAdded = comp.initialNumberAdded;
+            initialNumberProcessed = comp.initialNumberProcessed;
+            receivedEntity = comp.receivedEntity;
+            releaseTime = comp.releaseTime;
+            added = comp.getNumberAdded();
+            processed = comp.getNumberProcessed();
+            inProgress = comp.getNumberInProgress();
+        }
+    }
 }
@@ -1,7 +1,11 @@
 package cn.softeng.processflow;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
 import cn.softeng.basicsim.EntityTarget;
+import cn.softeng.basicsim.TargetSerializer;
+import cn.softeng.basicsim.TargetSerializers;
 import cn.softeng.events.EventHandle;
 import cn.softeng.events.EventManager;
 import cn.softeng.events.ProcessTarget;
@@ -81,6 +85,7 @@ public class LinkedService extends LinkedComponent implements QueueUser {
             stopWorkTime = this.getSimTime();
         }
         busy = bool;
+        markStateChanged();
     }
 
     protected double getStopWorkTime() {
@@ -169,6 +174,7 @@ public class LinkedService extends LinkedComponent implements QueueUser {
         }
 
         // 调度服务完成
+        markStateChanged();
         startTime = simTime;
         duration = this.getProcessingTime(simTime);
         this.scheduleProcess(duration, 5, endActionTarget, endActionHandle);
@@ -193,6 +199,7 @@ public class LinkedService extends LinkedComponent implements QueueUser {
         if (endActionHandle.isScheduled()) {
             EventManager.killEvent(endActionHandle);
             processKilled = true;
+            markStateChanged();
         }
         // 更新统计数据
         this.setBusy(false);
@@ -203,6 +210,7 @@ public class LinkedService extends LinkedComponent implements QueueUser {
         if (this.isIdle()) {
             if (processKilled) {
                 processKilled = false;
+                markStateChanged();
                 boolean bool = this.updateForStoppage(startTime, stopWorkTime, getSimTime());
                 if (bool) {
                     this.setBusy(true);
@@ -227,6 +235,26 @@ public class LinkedService extends LinkedComponent implements QueueUser {
      * 命令模式中的 ConcreteCommand, 用于执行 LinkedService 的 endAction()
      */
     private static class EndActionTarget extends EntityTarget<LinkedService> {
+        static {
+            TargetSerializers.register(EndActionTarget.class, new TargetSerializer<EndActionTarget>() {
+                @Override
+                public void write(EndActionTarget target, CheckpointOutput out) {
+                    out.writeEntity(target.entity);
+                }
+
+                @Override
+                public EndActionTarget read(CheckpointInput in) {
+                    LinkedService service = in.readEntity();
+                    return (EndActionTarget) service.endActionTarget;
+                }
+
+                @Override
+                public EventHandle getHandle(EndActionTarget target) {
+                    return target.entity.endActionHandle;
+                }
+            });
+        }
+
         EndActionTarget(LinkedService ent) {
             super(ent, "endAction");
         }
@@ -237,6 +265,14 @@ public class LinkedService extends LinkedComponent implements QueueUser {
         }
     }
 
+    /**
+     * 返回正在处理的实体完成处理的时刻(刻度)，没有正在处理的实体时返回 Long.MAX_VALUE
+     * @return
+     */
+    public final long getEndActionTick() {
+        return endActionHandle.getScheduledTick();
+    }
+
     /**
      * 测试 LinkedService 是否可以工作
      * @return
@@ -258,5 +294,59 @@ public class LinkedService extends LinkedComponent implements QueueUser {
         return true;
     }
 
+    @Override
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeBoolean(busy);
+        out.writeDouble(startTime);
+        out.writeDouble(duration);
+        out.writeBoolean(processKilled);
+        out.writeDouble(stopWorkTime);
+    }
 
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        busy = in.readBoolean();
+        startTime = in.readDouble();
+        duration = in.readDouble();
+        processKilled = in.readBoolean();
+        stopWorkTime = in.readDouble();
+    }
+
+    @Override
+    public ComponentState saveState() {
+        return new ServiceState(this);
+    }
+
+    @Override
+    public void restoreState(ComponentState state) {
+        super.restoreState(state);
+        ServiceState st = (ServiceState) state;
+        busy = st.busy;
+        startTime = st.startTime;
+        duration = st.duration;
+        processKilled = st.processKilled;
+        stopWorkTime = st.stopWorkTime;
+    }
+
+    /**
+     * LinkedService 的可回滚状态，正在进行的 endAction 事件由事件管理器的快照保存
+     */
+    protected static class ServiceState extends ComponentState {
+        private final boolean busy;
+        private final double startTime;
+        private final double duration;
+        private final boolean processKilled;
+        private final double stopWorkTime;
+
+        protected ServiceState(LinkedService service) {
+            super(service);
+            busy = service.busy;
+            startTime = service.startTime;
+            duration = service.duration;
+            processKilled = service.processKilled;
+            stopWorkTime = service.stopWorkTime;
+        }
+    }
 }
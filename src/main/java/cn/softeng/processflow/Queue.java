@@ -1,14 +1,20 @@
 package cn.softeng.processflow;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
 import cn.softeng.basicsim.EntityTarget;
+import cn.softeng.basicsim.TargetSerializer;
+import cn.softeng.basicsim.TargetSerializers;
 import cn.softeng.events.EventHandle;
 import cn.softeng.events.EventManager;
 import cn.softeng.events.ProcessTarget;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.TreeSet;
 
@@ -47,6 +53,7 @@ public class Queue extends LinkedComponent {
      * 当实体等待超时后，它将去哪一个组件
      */
     @Setter
+    @Getter
     private LinkedComponent renegeDestination;
 
     /**
@@ -77,6 +84,16 @@ public class Queue extends LinkedComponent {
     private final DoQueueChanged userUpdate = new DoQueueChanged(this);
     private final EventHandle userUpdateHandle = new EventHandle();
 
+    /**
+     * itemSet 的修改日志，用于增量保存队列内容，为null时不记录
+     * 每条记录是一个被加入或移除的 QueueEntry，回滚时按相反的顺序撤销
+     */
+    private ArrayList<QueueChange> journal;
+    /**
+     * journal 中第一条记录的全局序号
+     */
+    private long journalBase;
+
     {
         // 初始化默认优先级
         this.priority = 0;
@@ -118,6 +135,9 @@ public class Queue extends LinkedComponent {
 
         // 清空队列中的实体
         itemSet.clear();
+        if (journal != null) {
+            journal.clear();
+        }
 
         // 清空统计数据
         timeOfLastUpdate = 0.0;
@@ -127,7 +147,13 @@ public class Queue extends LinkedComponent {
         elementSeconds = 0.0;
         numberReneged = 0;
 
-        // 识别使用该Queue的对象
+        findUsers();
+    }
+
+    /**
+     * 识别使用该Queue的对象
+     */
+    private void findUsers() {
         userList.clear();
         for (Entity each : Entity.getClonesOfIterable(Entity.class)) {
             if (each instanceof QueueUser) {
@@ -210,6 +236,26 @@ public class Queue extends LinkedComponent {
      * 命令模式中具体命令的实现
      */
     private static class DoQueueChanged extends ProcessTarget {
+        static {
+            TargetSerializers.register(DoQueueChanged.class, new TargetSerializer<DoQueueChanged>() {
+                @Override
+                public void write(DoQueueChanged target, CheckpointOutput out) {
+                    out.writeEntity(target.queue);
+                }
+
+                @Override
+                public DoQueueChanged read(CheckpointInput in) {
+                    Queue queue = in.readEntity();
+                    return queue.userUpdate;
+                }
+
+                @Override
+                public EventHandle getHandle(DoQueueChanged target) {
+                    return target.queue.userUpdateHandle;
+                }
+            });
+        }
+
         /**
          * 持有相应的接收者对象: 被通知的Queue实例
          */
@@ -263,6 +309,9 @@ public class Queue extends LinkedComponent {
         if (!bool) {
             error("Entity %s is already present in the queue.", entity);
         }
+        if (journal != null) {
+            journal.add(new QueueChange(entry, true));
+        }
 
         // 通知该队列的所有用户
         if (!userUpdateHandle.isScheduled()) {
@@ -293,6 +342,9 @@ public class Queue extends LinkedComponent {
         if (!found) {
             error("Cannot find the entry in itemSet");
         }
+        if (journal != null) {
+            journal.add(new QueueChange(entry, false));
+        }
         this.incrementNumberProcessed();
         return entry.entity;
     }
@@ -327,6 +379,7 @@ public class Queue extends LinkedComponent {
         // 将超时实体从队列中移除，并传送到超时处理组件
         this.remove(entry);
         numberReneged++;
+        markStateChanged();
         renegeDestination.addEntity(entity);
     }
 
@@ -334,6 +387,22 @@ public class Queue extends LinkedComponent {
      * 命令模式中的 ConcreteCommand,执行 Queue 的 renegeAction操作
      */
     private static class RenegeActionTarget extends EntityTarget<Queue> {
+        static {
+            TargetSerializers.register(RenegeActionTarget.class, new TargetSerializer<RenegeActionTarget>() {
+                @Override
+                public void write(RenegeActionTarget target, CheckpointOutput out) {
+                    out.writeEntity(target.entity);
+                    out.writeEntity(target.queuedEntity);
+                }
+
+                @Override
+                public RenegeActionTarget read(CheckpointInput in) {
+                    Queue queue = in.readEntity();
+                    return new RenegeActionTarget(queue, in.readEntity());
+                }
+            });
+        }
+
         private final Entity queuedEntity;
 
         RenegeActionTarget(Queue q, Entity e) {
@@ -406,19 +475,166 @@ public class Queue extends LinkedComponent {
     }
 
 
+
+    @Override
+    public void clearStatistics() {
+        clearRecordedStatistics();
+    }
+
+    // ***************************************************************************
+    // 状态保存与回滚
+    // ***************************************************************************
+
     @Override
-    public void updateStatistics() {
-//        log.debug("Queue : {} -> NumAdd: {}, NumberProcessed: {}, NumInProcess: {}", this.getName(), this.getNumberAdded(), this.getNumberProcessed(), this.getNumberInProgress());
-        numAddMap.put(getSimTime(), getNumberAdded());
-        numInProgressMap.put(getSimTime(), getNumberInProgress());
-        numProcessedMap.put(getSimTime(), getNumberProcessed());
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeVarLong(itemSet.size());
+        for (QueueEntry each : itemSet) {
+            out.writeEntity(each.entity);
+            out.writeLong(each.entryNum);
+            out.writeInt(each.priority);
+            out.writeDouble(each.timeAdded);
+        }
+        out.writeDouble(timeOfLastUpdate);
+        out.writeDouble(startOfStatisticsCollection);
+        out.writeInt(minElements);
+        out.writeInt(maxElements);
+        out.writeDouble(elementSeconds);
+        out.writeLong(numberReneged);
     }
 
+    /**
+     * 恢复队列内容，并重新识别队列的使用者(恢复到新构建的模型时 earlyInit() 还没有执行过)
+     * @param in
+     */
     @Override
-    public void clearStatistics() {
-        numAddMap.clear();
-        numInProgressMap.clear();
-        numProcessedMap.clear();
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        itemSet.clear();
+        int num = (int) in.readVarLong();
+        for (int i = 0; i < num; i++) {
+            Entity entity = in.readEntity();
+            long entryNum = in.readLong();
+            int pri = in.readInt();
+            itemSet.add(new QueueEntry(entity, entryNum, pri, in.readDouble()));
+        }
+        if (journal != null) {
+            journal.clear();
+            journalBase = 0;
+        }
+        timeOfLastUpdate = in.readDouble();
+        startOfStatisticsCollection = in.readDouble();
+        minElements = in.readInt();
+        maxElements = in.readInt();
+        elementSeconds = in.readDouble();
+        numberReneged = in.readLong();
+        findUsers();
+    }
+
+    /**
+     * 设置是否记录 itemSet 的修改日志，记录时 saveState() 只保存日志的位置，不复制队列内容
+     * @param bool
+     */
+    public void setJournaling(boolean bool) {
+        if (bool && journal == null) {
+            journal = new ArrayList<>();
+            journalBase = 0;
+        } else if (!bool) {
+            journal = null;
+        }
+    }
+
+    @Override
+    public ComponentState saveState() {
+        return new QueueState(this);
+    }
+
+    @Override
+    public void restoreState(ComponentState state) {
+        super.restoreState(state);
+        QueueState st = (QueueState) state;
+        if (st.items != null) {
+            itemSet.clear();
+            itemSet.addAll(Arrays.asList(st.items));
+            if (journal != null) {
+                journal.clear();
+                journalBase = st.journalPosition;
+            }
+        } else {
+            if (journal == null || st.journalPosition < journalBase) {
+                throw new IllegalStateException(getName() + ": the queue journal no longer covers the saved state");
+            }
+            // 按相反的顺序撤销保存之后的修改
+            for (int i = journal.size() - 1; i >= st.journalPosition - journalBase; i--) {
+                QueueChange change = journal.get(i);
+                if (change.added) {
+                    itemSet.remove(change.entry);
+                } else {
+                    itemSet.add(change.entry);
+                }
+            }
+            journal.subList((int) (st.journalPosition - journalBase), journal.size()).clear();
+        }
+        timeOfLastUpdate = st.timeOfLastUpdate;
+        startOfStatisticsCollection = st.startOfStatisticsCollection;
+        minElements = st.minElements;
+        maxElements = st.maxElements;
+        elementSeconds = st.elementSeconds;
+        numberReneged = st.numberReneged;
+    }
+
+    @Override
+    public void commitState(ComponentState oldest) {
+        if (journal == null) {
+            return;
+        }
+        long position = oldest != null ? ((QueueState) oldest).journalPosition : journalBase + journal.size();
+        int num = (int) Math.min(journal.size(), Math.max(0, position - journalBase));
+        journal.subList(0, num).clear();
+        journalBase += num;
+    }
+
+    /**
+     * itemSet 的一次修改
+     */
+    private static class QueueChange {
+        final QueueEntry entry;
+        final boolean added;
+
+        QueueChange(QueueEntry entry, boolean added) {
+            this.entry = entry;
+            this.added = added;
+        }
     }
 
+    /**
+     * Queue 的可回滚状态，记录修改日志时只保存日志的位置，否则复制队列中的所有条目
+     */
+    protected static class QueueState extends ComponentState {
+        private final QueueEntry[] items;
+        private final long journalPosition;
+        private final double timeOfLastUpdate;
+        private final double startOfStatisticsCollection;
+        private final int minElements;
+        private final int maxElements;
+        private final double elementSeconds;
+        private final long numberReneged;
+
+        protected QueueState(Queue queue) {
+            super(queue);
+            if (queue.journal != null) {
+                items = null;
+                journalPosition = queue.journalBase + queue.journal.size();
+            } else {
+                items = queue.itemSet.toArray(new QueueEntry[0]);
+                journalPosition = queue.journalBase;
+            }
+            timeOfLastUpdate = queue.timeOfLastUpdate;
+            startOfStatisticsCollection = queue.startOfStatisticsCollection;
+            minElements = queue.minElements;
+            maxElements = queue.maxElements;
+            elementSeconds = queue.elementSeconds;
+            numberReneged = queue.numberReneged;
+        }
+    }
 }
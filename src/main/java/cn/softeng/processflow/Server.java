@@ -1,5 +1,7 @@
 package cn.softeng.processflow;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -85,19 +87,56 @@ public class Server extends LinkedService {
     }
 
 
-    @Override
-    public void updateStatistics() {
-//        log.debug("Server : {} -> NumAdd: {}, NumberProcessed: {}, NumInProcess: {}",this.getName(), this.getNumberAdded(), this.getNumberProcessed(), this.getNumberInProgress());
-        numAddMap.put(getSimTime(), getNumberAdded());
-        numInProgressMap.put(getSimTime(), getNumberInProgress());
-        numProcessedMap.put(getSimTime(), getNumberProcessed());
+    /**
+     * 返回该组件处理一个实体所需的最短时间
+     * @return
+     */
+    public double getMinServiceTime() {
+        double ret = serviceTime;
+        for (Double each : serverTimeChoice.values()) {
+            ret = Math.min(ret, each);
+        }
+        return ret;
     }
 
+
     @Override
     public void clearStatistics() {
-        numAddMap.clear();
-        numInProgressMap.clear();
-        numProcessedMap.clear();
+        clearRecordedStatistics();
+    }
+
+    @Override
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeEntity(servedEntity);
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        servedEntity = in.readEntity();
     }
 
+    @Override
+    public ComponentState saveState() {
+        return new ServerState(this);
+    }
+
+    @Override
+    public void restoreState(ComponentState state) {
+        super.restoreState(state);
+        servedEntity = ((ServerState) state).servedEntity;
+    }
+
+    /**
+     * Server 的可回滚状态，增加正在处理的实体
+     */
+    protected static class ServerState extends ServiceState {
+        private final Entity servedEntity;
+
+        protected ServerState(Server server) {
+            super(server);
+            servedEntity = server.servedEntity;
+        }
+    }
 }
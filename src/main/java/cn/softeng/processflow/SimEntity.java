@@ -1,5 +1,7 @@
 package cn.softeng.processflow;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.states.StateEntity;
 import lombok.Getter;
 import lombok.Setter;
@@ -45,5 +47,58 @@ public class SimEntity extends StateEntity {
         return "None";
     }
 
+    /**
+     * 属性值只支持 String、Integer、Long、Double、Boolean 和 null
+     * @param out
+     */
+    @Override
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeVarLong(attribute.size());
+        for (Map.Entry<String, Object> entry : attribute.entrySet()) {
+            out.writeString(entry.getKey());
+            Object val = entry.getValue();
+            if (val == null) {
+                out.writeVarLong(0);
+            } else if (val instanceof String) {
+                out.writeVarLong(1);
+                out.writeString((String) val);
+            } else if (val instanceof Integer) {
+                out.writeVarLong(2);
+                out.writeInt((Integer) val);
+            } else if (val instanceof Long) {
+                out.writeVarLong(3);
+                out.writeLong((Long) val);
+            } else if (val instanceof Double) {
+                out.writeVarLong(4);
+                out.writeDouble((Double) val);
+            } else if (val instanceof Boolean) {
+                out.writeVarLong(5);
+                out.writeBoolean((Boolean) val);
+            } else {
+                error("attribute %s of type %s cannot be saved", entry.getKey(), val.getClass().getName());
+            }
+        }
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        attribute = new HashMap<>();
+        int num = (int) in.readVarLong();
+        for (int i = 0; i < num; i++) {
+            String key = in.readString();
+            int type = (int) in.readVarLong();
+            switch (type) {
+                case 0: attribute.put(key, null); break;
+                case 1: attribute.put(key, in.readString()); break;
+                case 2: attribute.put(key, in.readInt()); break;
+                case 3: attribute.put(key, in.readLong()); break;
+                case 4: attribute.put(key, in.readDouble()); break;
+                case 5: attribute.put(key, in.readBoolean()); break;
+                default: error("unknown attribute type %d", type);
+            }
+        }
+    }
 
 }
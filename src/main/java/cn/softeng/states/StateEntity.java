@@ -2,6 +2,8 @@ package cn.softeng.states;
 
 import java.util.HashMap;
 
+import cn.softeng.basicsim.CheckpointInput;
+import cn.softeng.basicsim.CheckpointOutput;
 import cn.softeng.basicsim.Entity;
 import cn.softeng.events.EventManager;
 
@@ -84,4 +86,42 @@ public class StateEntity extends Entity {
 
     public void setPresentState() {}
 
+    @Override
+    public void writeCheckpoint(CheckpointOutput out) {
+        super.writeCheckpoint(out);
+        out.writeLong(lastStateCollectionTick);
+        out.writeLong(workingTicks);
+        out.writeVarLong(states.size());
+        for (StateRecord each : states.values()) {
+            out.writeString(each.name);
+            out.writeBoolean(each.working);
+            out.writeLong(each.initTicks);
+            out.writeLong(each.totalTicks);
+            out.writeLong(each.completedCycleTicks);
+            out.writeLong(each.currentCycleTicks);
+            out.writeLong(each.startTick);
+        }
+        out.writeString(presentState == null ? null : presentState.name);
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) {
+        super.readCheckpoint(in);
+        lastStateCollectionTick = in.readLong();
+        workingTicks = in.readLong();
+        states.clear();
+        int num = (int) in.readVarLong();
+        for (int i = 0; i < num; i++) {
+            StateRecord rec = new StateRecord(in.readString().intern(), in.readBoolean());
+            rec.initTicks = in.readLong();
+            rec.totalTicks = in.readLong();
+            rec.completedCycleTicks = in.readLong();
+            rec.currentCycleTicks = in.readLong();
+            rec.startTick = in.readLong();
+            states.put(rec.name, rec);
+        }
+        String present = in.readString();
+        presentState = present == null ? null : states.get(present);
+    }
+
 }
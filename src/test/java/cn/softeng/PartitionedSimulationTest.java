@@ -0,0 +1,224 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.Entity;
+import cn.softeng.processflow.Assign;
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.LinkedComponent;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import cn.softeng.processflow.SimEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 保守并行仿真测试类
+ * @date: 10/18/2026 7:10 PM
+ */
+@Slf4j
+public class PartitionedSimulationTest {
+
+    private static final int STAGES = 4;
+
+    private static final String[] ATTRIBUTES = {DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress};
+
+    /**
+     * 将模型划分为不同数量的分区并行执行，统计结果与顺序执行完全相同
+     */
+    @Test
+    public void test_partitionedRun_sameResultsAsSequential() {
+        SimulationContext sequential = runSequential(PartitionedSimulationTest::buildModel);
+        assertTrue(sequential.getCurrentData("Server" + STAGES, DesSim.NumberProcessed) > 0);
+
+        for (int num = 1; num <= STAGES; num++) {
+            PartitionedSimulation sim = runPartitioned(PartitionedSimulationTest::buildModel, num,
+                    PartitionedSimulation.Mode.Conservative);
+            assertEquals(num, sim.getPartitionCount());
+            assertSameResults(sequential, sim);
+            assertEquals(0, sim.getEfficiencyReport().getRolledBackEvents());
+            log.debug("{} partitions: {} rounds", num, sim.getRoundCount());
+        }
+    }
+
+    /**
+     * 乐观同步的统计结果与顺序执行完全相同
+     */
+    @Test
+    public void test_optimisticRun_sameResultsAsSequential() {
+        SimulationContext sequential = runSequential(PartitionedSimulationTest::buildModel);
+        for (int num = 2; num <= STAGES; num++) {
+            PartitionedSimulation sim = runPartitioned(PartitionedSimulationTest::buildModel, num,
+                    PartitionedSimulation.Mode.Optimistic);
+            assertEquals(num, sim.getPartitionCount());
+            assertSameResults(sequential, sim);
+            PartitionedSimulation.EfficiencyReport report = sim.getEfficiencyReport();
+            assertTrue(report.getCommittedEvents() > 0);
+            log.debug("{}", report);
+        }
+    }
+
+    /**
+     * 违约实体返回上游队列形成前瞻量为零的环，保守同步无法切分，乐观同步可以切分，
+     * 下游分区有自己的实体来源，会领先于上游分区而收到落后消息，回滚后的统计结果仍与顺序执行相同
+     */
+    @Test
+    public void test_optimisticRun_renegeFeedback_sameResultsAsSequential() {
+        SimulationContext sequential = runSequential(PartitionedSimulationTest::buildFeedbackModel);
+        assertTrue(sequential.getCurrentData("Queue2", DesSim.NumberProcessed) > 0);
+
+        PartitionedSimulation conservative = runPartitioned(PartitionedSimulationTest::buildFeedbackModel, 2,
+                PartitionedSimulation.Mode.Conservative);
+        assertEquals(partitionOf(conservative, "Queue1"), partitionOf(conservative, "Queue2"));
+
+        PartitionedSimulation optimistic = runPartitioned(PartitionedSimulationTest::buildFeedbackModel, 2,
+                PartitionedSimulation.Mode.Optimistic);
+        assertTrue(partitionOf(optimistic, "Queue1") != partitionOf(optimistic, "Queue2"));
+        assertSameResults(sequential, optimistic);
+        PartitionedSimulation.EfficiencyReport report = optimistic.getEfficiencyReport();
+        assertTrue(report.getRollbacks() > 0);
+        assertTrue(report.getAntiMessages() > 0);
+        assertEquals(report.getExecutedEvents() - report.getRolledBackEvents(), report.getCommittedEvents());
+        log.debug("{}", report);
+    }
+
+    private static SimulationContext runSequential(Runnable builder) {
+        SimulationContext ret = new SimulationContext("sequential");
+        ret.getEventManager().setExecuteInline(true);
+        ret.run(builder);
+        ret.initModel(DesSim.Type.Generator, 0);
+        ret.resume(200);
+        ret.resume(500);
+        return ret;
+    }
+
+    private static PartitionedSimulation runPartitioned(Runnable builder, int num, PartitionedSimulation.Mode mode) {
+        SimulationContext model = new SimulationContext("model-" + num);
+        model.run(builder);
+        PartitionedSimulation ret = new PartitionedSimulation(model, num, 2, mode);
+        ret.setOptimisticBatch(16);
+        try {
+            ret.initModel(0);
+            ret.resume(200);
+            ret.resume(500);
+        } finally {
+            ret.shutdown();
+        }
+        return ret;
+    }
+
+    private static int partitionOf(PartitionedSimulation sim, String name) {
+        for (int i = 0; i < sim.getPartitionCount(); i++) {
+            if (sim.getPartition(i).getNamedEntity(name) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void assertSameResults(SimulationContext sequential, PartitionedSimulation sim) {
+        assertEquals(sequential.getTimePointList(), sim.getTimePointList());
+        for (Entity each : sequential.getEntities()) {
+            if (!(each instanceof LinkedComponent) || each.getName() == null) {
+                continue;
+            }
+            for (String attr : ATTRIBUTES) {
+                assertEquals(each.getName() + " " + attr, sequential.getDataList(each.getName(), attr),
+                        sim.getDataList(each.getName(), attr));
+            }
+        }
+    }
+
+    /**
+     * EntityGenerator -> Assign -> (Queue -> Server) x 4 -> EntitySink
+     */
+    private static void buildModel() {
+        EntityGenerator generator = new EntityGenerator("EntityGenerator");
+        SimEntity simEntity = new SimEntity("DefaultEntity");
+        Assign assign = new Assign("assign");
+        generator.setFirstArrivalTime(1);
+        generator.setInterArrivalTime(3);
+        generator.setPrototypeEntity(simEntity);
+        generator.setNextComponent(assign);
+
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("red", 1);
+        weights.put("black", 1);
+        assign.addAssignment(weights);
+        assign.setSeed(7);
+
+        LinkedComponent previous = assign;
+        for (int i = 1; i <= STAGES; i++) {
+            Queue queue = new Queue("Queue" + i);
+            Server server = new Server("Server" + i);
+            Map<String, Double> serviceTimes = new HashMap<>();
+            serviceTimes.put("red", 1.0 + i % 2);
+            serviceTimes.put("black", 4.0 - i % 2);
+            server.setServerTimeChoice(serviceTimes);
+            server.setServiceTime(2.5);
+            server.setWaitQueue(queue);
+            previous.setNextComponent(queue);
+            previous = server;
+        }
+        previous.setNextComponent(new EntitySink("EntitySink"));
+    }
+
+    /**
+     * EntityGenerator -> Assign -> Queue1 -> Server1 -> Queue2 -> Server2 -> EntitySink，
+     * EntityGenerator2 -> Queue2，Queue2 中等待超时的实体返回 Queue1
+     */
+    private static void buildFeedbackModel() {
+        EntityGenerator generator = new EntityGenerator("EntityGenerator");
+        SimEntity simEntity = new SimEntity("DefaultEntity");
+        Assign assign = new Assign("assign");
+        Queue queue1 = new Queue("Queue1");
+        Server server1 = new Server("Server1");
+        Queue queue2 = new Queue("Queue2");
+        Server server2 = new Server("Server2");
+        EntitySink sink = new EntitySink("EntitySink");
+        EntityGenerator generator2 = new EntityGenerator("EntityGenerator2");
+        SimEntity simEntity2 = new SimEntity("DefaultEntity2");
+
+        generator.setFirstArrivalTime(1);
+        generator.setInterArrivalTime(3);
+        generator.setPrototypeEntity(simEntity);
+        generator.setNextComponent(assign);
+
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("red", 1);
+        weights.put("black", 1);
+        assign.addAssignment(weights);
+        assign.setSeed(11);
+        assign.setNextComponent(queue1);
+
+        Map<String, Double> fast = new HashMap<>();
+        fast.put("red", 0.7);
+        fast.put("black", 1.9);
+        server1.setServerTimeChoice(fast);
+        server1.setServiceTime(1.3);
+        server1.setWaitQueue(queue1);
+        server1.setNextComponent(queue2);
+
+        queue2.setRenegeCondition(true);
+        queue2.setRenegeTime(4.3);
+        queue2.setRenegeDestination(queue1);
+        Map<String, Double> slow = new HashMap<>();
+        slow.put("red", 2.9);
+        slow.put("black", 4.1);
+        server2.setServerTimeChoice(slow);
+        server2.setServiceTime(3.2);
+        server2.setWaitQueue(queue2);
+        server2.setNextComponent(sink);
+
+        // 到达间隔带有微秒级的尾数，两个实体来源的实体不会在同一时刻到达同一组件
+        generator2.setFirstArrivalTime(0.617);
+        generator2.setInterArrivalTime(5.300013);
+        generator2.setPrototypeEntity(simEntity2);
+        generator2.setNextComponent(queue2);
+    }
+}
@@ -0,0 +1,101 @@
+package cn.softeng;
+
+import cn.softeng.processflow.Assign;
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import cn.softeng.processflow.SimEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 并行重复实验测试类
+ * @date: 10/18/2026 5:50 PM
+ */
+@Slf4j
+public class ReplicationRunnerTest {
+
+    /**
+     * 并行与串行运行的汇总结果应完全相同，确定性组件的置信区间半宽为0，随机组件的置信区间包含均值
+     */
+    @Test
+    public void test_parallelReplications_sameResultAsSerial() {
+        ReplicationRunner runner = new ReplicationRunner(ReplicationRunnerTest::buildModel);
+        runner.setParallelism(1);
+        ReplicationResult serial = runner.run(12, 300);
+        runner.setParallelism(4);
+        ReplicationResult parallel = runner.run(12, 300);
+
+        assertEquals(101, serial.getTimes().length);
+        for (String name : serial.getComponentNames()) {
+            for (String attr : new String[]{DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress}) {
+                assertArrayEquals(serial.getSeries(name, attr).getMean(), parallel.getSeries(name, attr).getMean(), 0);
+                assertArrayEquals(serial.getSeries(name, attr).getHalfWidth(), parallel.getSeries(name, attr).getHalfWidth(), 0);
+            }
+        }
+
+        // Generator 的到达是确定的，各次重复实验完全相同
+        ReplicationResult.Series generated = parallel.getSeries("EntityGenerator", DesSim.NumberAdded);
+        double[] halfWidth = generated.getHalfWidth();
+        for (double each : halfWidth) {
+            assertEquals(0, each, 0);
+        }
+        // 服务时间由 Assign 随机分配的颜色决定，Server1 的处理数量在各次重复实验之间不同
+        ReplicationResult.Series processed = parallel.getSeries("Server1", DesSim.NumberProcessed);
+        double[] width = processed.getHalfWidth();
+        assertTrue(width[width.length - 1] > 0);
+        log.debug("Server1 NumberProcessed mean: {}", Arrays.toString(processed.getMean()));
+        log.debug("Server1 NumberProcessed half width: {}", Arrays.toString(width));
+    }
+
+    /**
+     * 学生t分布的分位数与分布表一致
+     */
+    @Test
+    public void test_studentTQuantile_matchesTable() {
+        assertEquals(12.706, ReplicationRunner.studentTQuantile(0.975, 1), 1e-3);
+        assertEquals(2.262, ReplicationRunner.studentTQuantile(0.975, 9), 1e-3);
+        assertEquals(1.984, ReplicationRunner.studentTQuantile(0.975, 100), 1e-3);
+        assertEquals(2.576, ReplicationRunner.studentTQuantile(0.995, 100000), 1e-2);
+    }
+
+    /**
+     * EntityGenerator -> Assign -> Queue -> Server -> EntitySink
+     */
+    private static void buildModel(SimulationContext context, long seed) {
+        EntityGenerator generator = new EntityGenerator("EntityGenerator");
+        SimEntity simEntity = new SimEntity("DefaultEntity");
+        Assign assign = new Assign("assign");
+        Queue queue = new Queue("Queue1");
+        Server server = new Server("Server1");
+        EntitySink sink = new EntitySink("EntitySink");
+
+        generator.setNextComponent(assign);
+        generator.setFirstArrivalTime(1);
+        generator.setInterArrivalTime(4);
+        generator.setPrototypeEntity(simEntity);
+
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("red", 3);
+        weights.put("black", 7);
+        assign.addAssignment(weights);
+        assign.setSeed(seed);
+        assign.setNextComponent(queue);
+
+        Map<String, Double> serviceTimes = new HashMap<>();
+        serviceTimes.put("red", 2.0);
+        serviceTimes.put("black", 5.0);
+        server.setServerTimeChoice(serviceTimes);
+        server.setWaitQueue(queue);
+        server.setNextComponent(sink);
+    }
+}
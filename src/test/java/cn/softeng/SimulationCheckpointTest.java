@@ -0,0 +1,139 @@
+package cn.softeng;
+
+import cn.softeng.processflow.Assign;
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import cn.softeng.processflow.SimEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 仿真检查点测试类
+ * @date: 10/18/2026 9:30 PM
+ */
+@Slf4j
+public class SimulationCheckpointTest {
+
+    private static final String[] COMPONENTS = {"EntityGenerator", "assign", "Queue1", "Server1", "EntitySink"};
+    private static final String[] ATTRS = {DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress};
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("dessim", ".ckpt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * 从检查点恢复到另一个上下文中新构建的模型后继续运行，结果与不中断运行完全相同
+     */
+    @Test
+    public void test_restoreIntoNewContext_sameResult() throws IOException {
+        SimulationContext original = newModel("original");
+        original.initModel(DesSim.Type.Generator, 0);
+        original.resume(100);
+        original.saveCheckpoint(file);
+        log.debug("checkpoint size: {} bytes", Files.size(file));
+        original.resume(300);
+
+        SimulationContext restored = newModel("restored");
+        restored.initModel(DesSim.Type.Generator, 0);
+        restored.restoreCheckpoint(file);
+        assertEquals(100, restored.currentSimTime(), 0);
+        restored.resume(300);
+
+        assertSameResult(original, restored);
+    }
+
+    /**
+     * 恢复到保存检查点的上下文本身，回到保存时的状态后重新运行
+     */
+    @Test
+    public void test_restoreIntoSameContext_sameResult() throws IOException {
+        SimulationContext context = newModel("rewind");
+        context.initModel(DesSim.Type.Generator, 0);
+        context.resume(150);
+        context.saveCheckpoint(file);
+        context.resume(300);
+        List<List<Long>> expected = collect(context);
+        List<Double> expectedTimes = context.getTimePointList();
+
+        context.restoreCheckpoint(file);
+        assertEquals(150, context.currentSimTime(), 0);
+        context.resume(300);
+        assertEquals(expected, collect(context));
+        assertEquals(expectedTimes, context.getTimePointList());
+    }
+
+    private static void assertSameResult(SimulationContext expected, SimulationContext actual) {
+        List<List<Long>> data = collect(expected);
+        assertTrue(data.get(0).size() > 50);
+        assertEquals(data, collect(actual));
+        assertEquals(expected.getTimePointList(), actual.getTimePointList());
+    }
+
+    private static List<List<Long>> collect(SimulationContext context) {
+        List<List<Long>> ret = new ArrayList<>();
+        for (String name : COMPONENTS) {
+            for (String attr : ATTRS) {
+                ret.add(context.getDataList(name, attr));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * EntityGenerator -> Assign -> Queue -> Server -> EntitySink
+     */
+    private static SimulationContext newModel(String name) {
+        SimulationContext context = new SimulationContext(name);
+        context.run(() -> {
+            EntityGenerator generator = new EntityGenerator("EntityGenerator");
+            SimEntity simEntity = new SimEntity("DefaultEntity");
+            Assign assign = new Assign("assign");
+            Queue queue = new Queue("Queue1");
+            Server server = new Server("Server1");
+            EntitySink sink = new EntitySink("EntitySink");
+
+            generator.setNextComponent(assign);
+            generator.setFirstArrivalTime(1);
+            generator.setInterArrivalTime(3);
+            generator.setPrototypeEntity(simEntity);
+
+            Map<String, Integer> weights = new HashMap<>();
+            weights.put("red", 3);
+            weights.put("black", 7);
+            assign.addAssignment(weights);
+            assign.setSeed(7);
+            assign.setNextComponent(queue);
+
+            Map<String, Double> serviceTimes = new HashMap<>();
+            serviceTimes.put("red", 2.0);
+            serviceTimes.put("black", 4.0);
+            server.setServerTimeChoice(serviceTimes);
+            server.setWaitQueue(queue);
+            server.setNextComponent(sink);
+        });
+        return context;
+    }
+}
@@ -0,0 +1,105 @@
+package cn.softeng;
+
+import cn.softeng.events.ProcessTarget;
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 仿真上下文测试类
+ * @date: 10/18/2026 4:40 PM
+ */
+@Slf4j
+public class SimulationContextTest {
+
+    /**
+     * 多个上下文在不同线程中同时运行同一个模型，彼此的实体和统计数据互不干扰，结果与单独运行时完全相同
+     */
+    @Test
+    public void test_concurrentContexts_sameResultsAsSingleRun() {
+        SimulationContext reference = runModel("reference");
+        assertTrue(reference.getCurrentData("Server1", DesSim.NumberProcessed) > 0);
+
+        int num = 4;
+        List<CompletableFuture<SimulationContext>> futures = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            String name = "replication-" + i;
+            futures.add(CompletableFuture.supplyAsync(() -> runModel(name)));
+        }
+        for (CompletableFuture<SimulationContext> future : futures) {
+            SimulationContext context = future.join();
+            assertEquals(reference.getTimePointList(), context.getTimePointList());
+            assertEquals(reference.getDataList("Server1", DesSim.NumberProcessed),
+                    context.getDataList("Server1", DesSim.NumberProcessed));
+            assertEquals(reference.getDataList("Queue1", DesSim.NumberAdded),
+                    context.getDataList("Queue1", DesSim.NumberAdded));
+            assertEquals(reference.getEntities().size(), context.getEntities().size());
+            assertNotSame(reference.getEntity("Server1"), context.getEntity("Server1"));
+            assertSame(context, context.getEntity("Server1").getContext());
+        }
+        log.debug("{}", reference.getDataList("Server1", DesSim.NumberProcessed));
+    }
+
+    /**
+     * 执行事件出错时，阻塞的 resume() 抛出该异常
+     */
+    @Test
+    public void test_resume_rethrowsEventError() {
+        SimulationContext context = new SimulationContext("resumeError");
+        context.getEventManager().scheduleProcessExternal(5, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                throw new IllegalStateException("model error");
+            }
+
+            @Override
+            public String getDescription() {
+                return "error";
+            }
+        }, null);
+        try {
+            context.resume(100);
+            fail("resume() should rethrow the error");
+        } catch (IllegalStateException e) {
+            assertEquals("model error", e.getMessage());
+        }
+        assertFalse(context.getEventManager().isRunning());
+    }
+
+    /**
+     * 在新的上下文中定义并运行 generator -> queue -> server -> sink 模型
+     */
+    private static SimulationContext runModel(String name) {
+        SimulationContext context = new SimulationContext(name);
+        context.run(() -> {
+            EntityGenerator generator = new EntityGenerator("EntityGenerator");
+            Queue queue = new Queue("Queue1");
+            Server server = new Server("Server1");
+            EntitySink sink = new EntitySink("EntitySink");
+
+            generator.setFirstArrivalTime(1);
+            generator.setInterArrivalTime(2);
+            generator.setNextComponent(queue);
+            server.setWaitQueue(queue);
+            server.setServiceTime(3);
+            server.setNextComponent(sink);
+        });
+        context.initModel(DesSim.Type.Generator, 0);
+        context.resume(500);
+        return context;
+    }
+}
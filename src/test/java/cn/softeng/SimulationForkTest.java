@@ -0,0 +1,108 @@
+package cn.softeng;
+
+import cn.softeng.processflow.Assign;
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import cn.softeng.processflow.SimEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 仿真分叉测试类
+ * @date: 10/18/2026 10:10 PM
+ */
+@Slf4j
+public class SimulationForkTest {
+
+    /**
+     * 不修改模型的分支与被分叉的上下文继续运行的结果完全相同，增加服务台的分支处理了更多实体，队列更短
+     */
+    @Test
+    public void test_forkWhatIfBranches_noError() {
+        SimulationContext original = new SimulationContext("original");
+        original.run(() -> buildModel(original));
+        original.initModel(DesSim.Type.Generator, 0);
+        original.resume(120);
+
+        SimulationFork fork = SimulationFork.of(original, SimulationForkTest::buildModel);
+        assertEquals(120, fork.getForkTime(), 0);
+        original.resume(400);
+
+        Map<String, Consumer<SimulationContext>> whatIfs = new LinkedHashMap<>();
+        whatIfs.put("base", null);
+        whatIfs.put("twoServers", context -> {
+            Server server = new Server("Server2");
+            server.setServiceTime(4.0);
+            server.setWaitQueue((Queue) context.getNamedEntity("Queue1"));
+            server.setNextComponent((EntitySink) context.getNamedEntity("EntitySink"));
+        });
+        Map<String, SimulationContext> branches = fork.run(whatIfs, 400);
+
+        SimulationContext base = branches.get("base");
+        for (String name : new String[]{"EntityGenerator", "Queue1", "Server1", "EntitySink"}) {
+            for (String attr : new String[]{DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress}) {
+                assertEquals(original.getDataList(name, attr), base.getDataList(name, attr));
+            }
+        }
+        assertEquals(original.getTimePointList(), base.getTimePointList());
+
+        SimulationContext twoServers = branches.get("twoServers");
+        assertEquals(400, twoServers.currentSimTime(), 0);
+        long baseDone = base.getCurrentData("EntitySink", DesSim.NumberAdded);
+        long whatIfDone = twoServers.getCurrentData("EntitySink", DesSim.NumberAdded);
+        assertTrue(whatIfDone > baseDone);
+        assertTrue(twoServers.getCurrentData("Server2", DesSim.NumberProcessed) > 0);
+        assertTrue(twoServers.getCurrentData("Queue1", DesSim.NumberInProgress)
+                < base.getCurrentData("Queue1", DesSim.NumberInProgress));
+
+        // 分叉之前两个分支完全相同
+        List<Long> baseQueue = base.getDataList("Queue1", DesSim.NumberInProgress);
+        List<Long> whatIfQueue = twoServers.getDataList("Queue1", DesSim.NumberInProgress);
+        int forkIndex = base.getTimePointList().indexOf(120.0);
+        assertTrue(forkIndex > 0);
+        assertEquals(baseQueue.subList(0, forkIndex + 1), whatIfQueue.subList(0, forkIndex + 1));
+        log.debug("base: {} done, two servers: {} done", baseDone, whatIfDone);
+    }
+
+    /**
+     * EntityGenerator -> Assign -> Queue -> Server -> EntitySink，服务能力略低于到达率，队列不断增长
+     */
+    private static void buildModel(SimulationContext context) {
+        EntityGenerator generator = new EntityGenerator("EntityGenerator");
+        SimEntity simEntity = new SimEntity("DefaultEntity");
+        Assign assign = new Assign("assign");
+        Queue queue = new Queue("Queue1");
+        Server server = new Server("Server1");
+        EntitySink sink = new EntitySink("EntitySink");
+
+        generator.setNextComponent(assign);
+        generator.setFirstArrivalTime(1);
+        generator.setInterArrivalTime(3);
+        generator.setPrototypeEntity(simEntity);
+
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("red", 3);
+        weights.put("black", 7);
+        assign.addAssignment(weights);
+        assign.setSeed(11);
+        assign.setNextComponent(queue);
+
+        Map<String, Double> serviceTimes = new HashMap<>();
+        serviceTimes.put("red", 2.0);
+        serviceTimes.put("black", 4.0);
+        server.setServerTimeChoice(serviceTimes);
+        server.setWaitQueue(queue);
+        server.setNextComponent(sink);
+    }
+}
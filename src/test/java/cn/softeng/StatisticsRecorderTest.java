@@ -0,0 +1,216 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.StatisticsSampling;
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import cn.softeng.processflow.SimEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计数据流式写入文件，按时间段查询的结果与内存中的统计序列相同
+ * @date: 10/19/2026 4:00 AM
+ */
+@Slf4j
+public class StatisticsRecorderTest {
+
+    private static final String[] NAMES = {"EntityGenerator", "Queue1", "Server1", "Queue2", "Server2", "EntitySink"};
+    private static final String[] ATTRS = {DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test_recordAndQuery_noError() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("stats.dss");
+        SimulationContext context = buildModel("recordAndQuery");
+        // 块很小，查询跨越多个块，最后一个块未满
+        StatisticsRecorder recorder = new StatisticsRecorder(file, 64);
+        context.setStatisticsSink(recorder);
+        // 与内存中的完整序列对比
+        context.setStatisticsSampling(StatisticsSampling.everyAdvance());
+        context.initModel(DesSim.Type.Generator, 0);
+        context.resume(1000);
+        recorder.close();
+        log.debug("{} samples, {} time points", recorder.getSampleCount(), context.getTimePointList().size());
+
+        List<Double> times = context.getTimePointList();
+        try (StatisticsFile stats = new StatisticsFile(file)) {
+            assertEquals(recorder.getSampleCount(), stats.getSampleCount());
+            assertTrue(stats.getComponentNames().containsAll(Arrays.asList(NAMES)));
+            for (String name : NAMES) {
+                for (String attr : ATTRS) {
+                    List<Long> expected = context.getDataList(name, attr);
+                    StatisticsFile.Series all = stats.query(name, attr, 0, 1000);
+                    for (int i = 0; i < times.size(); i++) {
+                        assertEquals(name + " " + attr + " at " + times.get(i),
+                                (long) expected.get(i), all.valueAt(times.get(i)));
+                    }
+
+                    // 第一个样本为开始时刻的值，之后都在时间段内
+                    StatisticsFile.Series range = stats.query(name, attr, 500.5, 600);
+                    assertTrue(range.size() > 0);
+                    assertTrue(range.getTimes()[0] <= 500.5);
+                    for (int i = 1; i < range.size(); i++) {
+                        assertTrue(range.getTimes()[i] > 500.5 && range.getTimes()[i] <= 600);
+                    }
+                    for (int i = 0; i < times.size(); i++) {
+                        if (times.get(i) >= 500.5 && times.get(i) <= 600) {
+                            assertEquals((long) expected.get(i), range.valueAt(times.get(i)));
+                        }
+                    }
+                }
+            }
+
+            Path csv = folder.getRoot().toPath().resolve("stats.csv");
+            stats.toCsv(csv);
+            List<String> lines = Files.readAllLines(csv);
+            assertEquals("time,component,NumberAdded,NumberProcessed,NumberInProgress", lines.get(0));
+            assertEquals(stats.getSampleCount() + 1, lines.size());
+        }
+    }
+
+    /**
+     * 降采样时内存中只保留有限个时刻，文件中仍然保留每次时钟推进时的样本
+     */
+    @Test
+    public void test_recordWithDownsampling_noError() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("downsampled.dss");
+        SimulationContext reference = buildModel("recordReference");
+        reference.initModel(DesSim.Type.Generator, 0);
+        reference.resume(1000);
+
+        SimulationContext context = buildModel("recordDownsampled");
+        context.setStatisticsSampling(StatisticsSampling.downsample(32));
+        try (StatisticsRecorder recorder = new StatisticsRecorder(file)) {
+            context.setStatisticsSink(recorder);
+            context.initModel(DesSim.Type.Generator, 0);
+            context.resume(1000);
+        }
+        assertTrue(context.getTimePointList().size() <= 32);
+
+        List<Double> times = reference.getTimePointList();
+        try (StatisticsFile stats = new StatisticsFile(file)) {
+            for (String attr : ATTRS) {
+                List<Long> expected = reference.getDataList("Server2", attr);
+                StatisticsFile.Series all = stats.query("Server2", attr, 0, 1000);
+                for (int i = 0; i < times.size(); i++) {
+                    assertEquals((long) expected.get(i), all.valueAt(times.get(i)));
+                }
+            }
+        }
+    }
+
+    /**
+     * 设置了记录器且没有指定采样策略时，内存中只保留最后的值，文件中保留所有样本
+     */
+    @Test
+    public void test_recordKeepsLastValueInMemory_noError() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("lastValue.dss");
+        SimulationContext reference = buildModel("lastValueReference");
+        reference.initModel(DesSim.Type.Generator, 0);
+        reference.resume(1000);
+
+        SimulationContext context = buildModel("lastValue");
+        try (StatisticsRecorder recorder = new StatisticsRecorder(file)) {
+            context.setStatisticsSink(recorder);
+            context.initModel(DesSim.Type.Generator, 0);
+            context.resume(500);
+            assertEquals(Arrays.asList(500.0), context.getTimePointList());
+            context.resume(1000);
+        }
+        assertEquals(StatisticsSampling.Mode.LAST_VALUE, context.getStatisticsSampling().getMode());
+        assertEquals(Arrays.asList(1000.0), context.getTimePointList());
+
+        List<Double> times = reference.getTimePointList();
+        try (StatisticsFile stats = new StatisticsFile(file)) {
+            for (String name : NAMES) {
+                for (String attr : ATTRS) {
+                    List<Long> expected = reference.getDataList(name, attr);
+                    assertEquals(Arrays.asList(context.getCurrentData(name, attr)), context.getDataList(name, attr));
+                    assertEquals((long) expected.get(expected.size() - 1), context.getCurrentData(name, attr));
+                    StatisticsFile.Series all = stats.query(name, attr, 0, 1000);
+                    for (int i = 0; i < times.size(); i++) {
+                        assertEquals((long) expected.get(i), all.valueAt(times.get(i)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 很少改变的组件：较晚的时间段的开始值来自很早的块
+     */
+    @Test
+    public void test_queryRarelyChangedComponent_noError() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("rare.dss");
+        SimulationContext context = new SimulationContext("rare");
+        SimEntity[] entities = new SimEntity[2];
+        context.run(() -> {
+            entities[0] = new SimEntity("Rare");
+            entities[1] = new SimEntity("Busy");
+        });
+        try (StatisticsRecorder recorder = new StatisticsRecorder(file, 16)) {
+            recorder.sample(entities[0], 1, 7, 3, 4);
+            for (int i = 2; i <= 1000; i++) {
+                recorder.sample(entities[1], i, i, i - 1, 1);
+            }
+            recorder.sample(entities[0], 990, 8, 3, 5);
+        }
+        try (StatisticsFile stats = new StatisticsFile(file)) {
+            StatisticsFile.Series range = stats.query("Rare", DesSim.NumberAdded, 900, 950);
+            assertEquals(1, range.size());
+            assertEquals(1.0, range.getTimes()[0], 0);
+            assertEquals(7, range.valueAt(950));
+
+            range = stats.query("Rare", DesSim.NumberInProgress, 900, 1000);
+            assertEquals(2, range.size());
+            assertEquals(4, range.valueAt(989));
+            assertEquals(5, range.valueAt(990));
+
+            range = stats.query("Busy", DesSim.NumberProcessed, 500.5, 502);
+            assertEquals(3, range.size());
+            assertEquals(499, range.valueAt(500.5));
+            assertEquals(501, range.valueAt(502));
+        }
+    }
+
+    /**
+     * generator -> Queue1 -> Server1 -> Queue2 -> Server2 -> EntitySink，Server2 比到达慢
+     */
+    private static SimulationContext buildModel(String name) {
+        SimulationContext context = new SimulationContext(name);
+        context.run(() -> {
+            EntityGenerator generator = new EntityGenerator("EntityGenerator");
+            generator.setFirstArrivalTime(1);
+            generator.setInterArrivalTime(2);
+            generator.setPrototypeEntity(new SimEntity("DefaultEntity"));
+            Queue queue1 = new Queue("Queue1");
+            Server server1 = new Server("Server1");
+            Queue queue2 = new Queue("Queue2");
+            Server server2 = new Server("Server2");
+            EntitySink sink = new EntitySink("EntitySink");
+            generator.setNextComponent(queue1);
+            server1.setWaitQueue(queue1);
+            server1.setServiceTime(1.5);
+            server1.setNextComponent(queue2);
+            server2.setWaitQueue(queue2);
+            server2.setServiceTime(2.5);
+            server2.setNextComponent(sink);
+        });
+        return context;
+    }
+}
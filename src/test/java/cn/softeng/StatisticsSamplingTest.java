@@ -0,0 +1,163 @@
+package cn.softeng;
+
+import cn.softeng.basicsim.StatisticsSampling;
+import cn.softeng.processflow.EntityGenerator;
+import cn.softeng.processflow.EntityLauncher;
+import cn.softeng.processflow.EntitySink;
+import cn.softeng.processflow.Queue;
+import cn.softeng.processflow.Server;
+import cn.softeng.processflow.SimEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计数据的采样策略：各策略保留的每个时刻的值与每次时钟推进都采样时该时刻的值相同
+ * @date: 10/19/2026 3:00 AM
+ */
+@Slf4j
+public class StatisticsSamplingTest {
+
+    private static final String[] NAMES = {"Queue1", "Server1", "Queue2", "Server2", "EntitySink"};
+    private static final String[] ATTRS = {DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress};
+
+    @Test
+    public void test_fixedIntervalSampling_noError() {
+        SimulationContext reference = runModel("intervalReference", StatisticsSampling.everyAdvance(), 2000);
+        SimulationContext context = runModel("interval", StatisticsSampling.fixedInterval(10), 2000);
+
+        List<Double> times = context.getTimePointList();
+        log.debug("reference points: {}, sampled points: {}", reference.getTimePointList().size(), times.size());
+        // 初始化时刻及之后每10秒一个时刻
+        assertEquals(201, times.size());
+        for (int i = 0; i < times.size(); i++) {
+            assertEquals(i * 10.0, times.get(i), 1e-9);
+        }
+        assertSameValues(reference, context);
+    }
+
+    /**
+     * 按固定间隔采样不改变事件队列：模型执行完所有事件后 hasEvent() 为false，驱动循环能够结束；
+     * 之后注入新的实体，采样在同样的时刻网格上继续
+     */
+    @Test
+    public void test_fixedIntervalDrainsEventList_noError() {
+        SimulationContext context = new SimulationContext("intervalDrain");
+        context.run(() -> {
+            EntityLauncher launcher = new EntityLauncher("EntityLauncher");
+            Queue queue = new Queue("Queue1");
+            Server server = new Server("Server1");
+            EntitySink sink = new EntitySink("EntitySink");
+            launcher.setNextComponent(queue);
+            server.setWaitQueue(queue);
+            server.setServiceTime(1.5);
+            server.setNextComponent(sink);
+        });
+        context.setStatisticsSampling(StatisticsSampling.fixedInterval(10));
+        context.initModel(DesSim.Type.Launcher);
+
+        context.inject(new double[]{0, 1, 2}, new int[]{2, 1, 3});
+        drain(context);
+        assertEquals(6, context.getCurrentData("EntitySink", DesSim.NumberProcessed));
+        assertEquals(Arrays.asList(0.0, 10.0), context.getTimePointList());
+
+        context.inject(new double[]{45}, new int[]{4});
+        drain(context);
+        assertEquals(10, context.getCurrentData("EntitySink", DesSim.NumberProcessed));
+        assertEquals(Arrays.asList(0.0, 10.0, 20.0, 30.0, 40.0, 50.0, 60.0), context.getTimePointList());
+        List<Long> processed = context.getDataList("EntitySink", DesSim.NumberProcessed);
+        assertEquals(Arrays.asList(0L, 6L, 6L, 6L, 6L, 9L, 10L), processed);
+    }
+
+    /**
+     * Launcher 模式的驱动循环：依次执行到下一个事件的时刻，直到事件队列为空
+     */
+    private static void drain(SimulationContext context) {
+        int steps = 0;
+        while (context.hasEvent()) {
+            context.resume(context.nextEventTime());
+            assertTrue("event list never drains", ++steps < 1000);
+        }
+        assertFalse(context.hasEvent());
+    }
+
+    @Test
+    public void test_downsampling_noError() {
+        SimulationContext reference = runModel("downsampleReference", StatisticsSampling.everyAdvance(), 2000);
+        SimulationContext context = runModel("downsample", StatisticsSampling.downsample(64), 2000);
+
+        List<Double> times = context.getTimePointList();
+        log.debug("reference points: {}, sampled points: {}", reference.getTimePointList().size(), times.size());
+        assertTrue(times.size() <= 64);
+        assertTrue(times.size() >= 16);
+        assertEquals(0.0, times.get(0), 0);
+        assertEquals(2000.0, times.get(times.size() - 1), 0);
+        assertSameValues(reference, context);
+
+        // 继续运行，时钟序列的长度仍然有上限，最后一个时刻跟随暂停的时刻
+        context.resume(5000);
+        reference.resume(5000);
+        assertTrue(context.getTimePointList().size() <= 64);
+        assertEquals(5000.0, context.getTimePointList().get(context.getTimePointList().size() - 1), 0);
+        assertSameValues(reference, context);
+    }
+
+    /**
+     * generator -> Queue1 -> Server1 -> Queue2 -> Server2 -> EntitySink，Server2 比到达慢
+     */
+    private static SimulationContext runModel(String name, StatisticsSampling sampling, double until) {
+        SimulationContext context = new SimulationContext(name);
+        context.run(() -> {
+            EntityGenerator generator = new EntityGenerator("EntityGenerator");
+            generator.setFirstArrivalTime(1);
+            generator.setInterArrivalTime(2);
+            generator.setPrototypeEntity(new SimEntity("DefaultEntity"));
+            Queue queue1 = new Queue("Queue1");
+            Server server1 = new Server("Server1");
+            Queue queue2 = new Queue("Queue2");
+            Server server2 = new Server("Server2");
+            EntitySink sink = new EntitySink("EntitySink");
+            generator.setNextComponent(queue1);
+            server1.setWaitQueue(queue1);
+            server1.setServiceTime(1.5);
+            server1.setNextComponent(queue2);
+            server2.setWaitQueue(queue2);
+            server2.setServiceTime(2.5);
+            server2.setNextComponent(sink);
+        });
+        context.setStatisticsSampling(sampling);
+        context.initModel(DesSim.Type.Generator, 0);
+        context.resume(until);
+        return context;
+    }
+
+    /**
+     * 采样得到的每个时刻的值等于参照序列中该时刻及之前最后一个时刻的值
+     */
+    private static void assertSameValues(SimulationContext reference, SimulationContext context) {
+        List<Double> refTimes = reference.getTimePointList();
+        List<Double> times = context.getTimePointList();
+        for (String name : NAMES) {
+            assertEquals(times, context.getEntity(name).getTimeList());
+            for (String attr : ATTRS) {
+                List<Long> refValues = reference.getDataList(name, attr);
+                List<Long> expected = new ArrayList<>();
+                int ref = 0;
+                for (double time : times) {
+                    while (ref + 1 < refTimes.size() && refTimes.get(ref + 1) <= time) {
+                        ref++;
+                    }
+                    expected.add(refValues.get(ref));
+                }
+                assertEquals(name + " " + attr, expected, context.getDataList(name, attr));
+            }
+        }
+    }
+}
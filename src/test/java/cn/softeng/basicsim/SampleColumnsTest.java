@@ -0,0 +1,80 @@
+package cn.softeng.basicsim;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 时钟序列和统计列跨越多个块时，补齐的只读视图与逐个时刻计算的结果相同
+ * @date: 10/19/2026 2:00 AM
+ */
+@Slf4j
+public class SampleColumnsTest {
+
+    @Test
+    public void test_stepViewAcrossChunks_noError() {
+        TimeSeriesStore times = new TimeSeriesStore();
+        SampleColumns samples = new SampleColumns(2);
+        int num = TimeSeriesStore.CHUNK_SIZE * 3 + 17;
+        List<Long> expected = new ArrayList<>();
+        long value = 0;
+        for (int i = 0; i < num; i++) {
+            int ordinal = times.add(i * 0.5);
+            assertEquals(ordinal, times.add(i * 0.5));
+            // 每三个时刻改变一次，且都在第十个时刻之后
+            if (i >= 10 && i % 3 == 0) {
+                value = i;
+                int row = samples.row(ordinal);
+                samples.set(row, 0, value);
+                samples.set(row, 1, -value);
+            }
+            if (i >= 12) {
+                expected.add(value);
+            }
+        }
+        // 同一时刻再次记录时覆盖最后一行
+        int last = samples.row(times.size() - 1);
+        samples.set(last, 0, 7);
+        expected.set(expected.size() - 1, 7L);
+
+        assertEquals(num, times.size());
+        assertEquals(times.size() - 12, times.asList(12).size());
+        assertEquals(6.0, times.asList(12).get(0), 0);
+        assertEquals(100, times.indexOf(50.0));
+        assertEquals(-1, times.indexOf(50.25));
+        assertEquals(100, times.add(50.0));
+
+        List<Long> view = samples.stepView(0, times.size());
+        assertEquals(expected, view);
+        // 随机读取与顺序读取的结果相同
+        for (int i = expected.size() - 1; i >= 0; i -= 97) {
+            assertEquals(expected.get(i), view.get(i));
+        }
+        assertEquals(-12L, (long) samples.stepView(1, times.size()).get(0));
+        assertTrue(samples.size() < num / 2);
+
+        try {
+            view.add(1L);
+            fail("view should be read-only");
+        } catch (UnsupportedOperationException e) {
+            log.debug("read-only view: {}", e.toString());
+        }
+        try {
+            samples.row(0);
+            fail("earlier ordinal should be rejected");
+        } catch (IllegalArgumentException e) {
+            log.debug("earlier ordinal: {}", e.getMessage());
+        }
+
+        samples.clear();
+        times.clear();
+        assertEquals(0, samples.stepView(0, times.size()).size());
+        assertEquals(0, times.asList().size());
+    }
+}
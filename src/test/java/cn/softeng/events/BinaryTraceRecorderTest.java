@@ -0,0 +1,210 @@
+package cn.softeng.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 二进制事件跟踪记录器测试类
+ * @date: 10/18/2026 10:40 PM
+ */
+@Slf4j
+public class BinaryTraceRecorderTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("dessim", ".trace");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(BinaryTraceRecorder.namesFile(file));
+    }
+
+    /**
+     * 记录文件中按执行顺序保存了所有事件，缓冲区远小于记录数时，等待写出而不丢失记录
+     */
+    @Test
+    public void test_recordAllEvents_noError() throws IOException {
+        EventManager evt = new EventManager("TraceTest");
+        evt.setExecuteInline(true);
+        BinaryTraceRecorder recorder = new BinaryTraceRecorder(file, 4096, 0, 1);
+        recorder.setLossless(true);
+        evt.setTraceListener(recorder);
+        evt.scheduleProcessExternal(0, 0, false, new ChainTarget(0, 20000), null);
+        evt.resume(Long.MAX_VALUE);
+        evt.setTraceListener(null);
+        recorder.close();
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        List<String> names = readNames(BinaryTraceRecorder.namesFile(file));
+        assertEquals(BinaryTraceRecorder.MAGIC, data.getInt(0));
+        long written = data.getLong(BinaryTraceRecorder.WRITTEN_OFFSET);
+        assertEquals(recorder.getRecordCount(), written);
+        assertEquals(0, data.getLong(BinaryTraceRecorder.DROPPED_OFFSET));
+        assertEquals(BinaryTraceRecorder.HEADER_SIZE + written * BinaryTraceRecorder.RECORD_SIZE, data.capacity());
+
+        // 外部调度的第一个事件，之后每个事件执行时调度下一个事件
+        int events = 0;
+        for (int i = 0; i < written; i++) {
+            int pos = BinaryTraceRecorder.HEADER_SIZE + i * BinaryTraceRecorder.RECORD_SIZE;
+            BinaryTraceRecorder.Kind kind = BinaryTraceRecorder.Kind.valueOf(data.getInt(pos + 12));
+            if (kind == BinaryTraceRecorder.Kind.Event) {
+                assertEquals(events, data.getLong(pos));
+                assertEquals(events % 3, data.getInt(pos + 8));
+                assertEquals("chain" + events, names.get(data.getInt(pos + 16)));
+                events++;
+            }
+        }
+        assertEquals(20000, events);
+    }
+
+    /**
+     * 固定容量的记录文件只保留最新的记录
+     */
+    @Test
+    public void test_fixedCapacityFile_keepsLatest() throws IOException {
+        EventManager evt = new EventManager("TraceTest");
+        evt.setExecuteInline(true);
+        BinaryTraceRecorder recorder = new BinaryTraceRecorder(file, 256, 1000, 1);
+        recorder.setLossless(true);
+        evt.setTraceListener(recorder);
+        evt.scheduleProcessExternal(0, 0, false, new ChainTarget(0, 3000), null);
+        evt.resume(Long.MAX_VALUE);
+        evt.setTraceListener(null);
+        recorder.close();
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        long written = data.getLong(BinaryTraceRecorder.WRITTEN_OFFSET);
+        long dropped = data.getLong(BinaryTraceRecorder.DROPPED_OFFSET);
+        assertEquals(recorder.getRecordCount(), written);
+        assertEquals(0, dropped);
+
+        // 文件中保留的是最后1000条记录，其中最后一个事件的刻度为2999，最早的事件比它早约1000/2个刻度
+        long lastEvent = -1;
+        long firstEvent = -1;
+        for (long seq = written - 1; seq >= written - 1000; seq--) {
+            int pos = (int) (BinaryTraceRecorder.HEADER_SIZE + (seq % 1000) * BinaryTraceRecorder.RECORD_SIZE);
+            if (data.getInt(pos + 12) == BinaryTraceRecorder.Kind.Event.ordinal()) {
+                if (lastEvent < 0) {
+                    lastEvent = data.getLong(pos);
+                }
+                firstEvent = data.getLong(pos);
+            }
+        }
+        assertEquals(2999, lastEvent);
+        assertTrue(firstEvent > 2000 && firstEvent < 2999);
+    }
+
+    /**
+     * 同一个 target 重复使用，描述改变后记录的是新的描述
+     */
+    @Test
+    public void test_reusedTargetRenamed_recordsCurrentDescription() throws IOException {
+        EventManager evt = new EventManager("TraceTest");
+        evt.setExecuteInline(true);
+        BinaryTraceRecorder recorder = new BinaryTraceRecorder(file, 4096, 0, 1);
+        recorder.setLossless(true);
+        evt.setTraceListener(recorder);
+        evt.scheduleProcessExternal(0, 0, false, new RenameTarget(6), null);
+        evt.resume(Long.MAX_VALUE);
+        evt.setTraceListener(null);
+        recorder.close();
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        List<String> names = readNames(BinaryTraceRecorder.namesFile(file));
+        long written = data.getLong(BinaryTraceRecorder.WRITTEN_OFFSET);
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < written; i++) {
+            int pos = BinaryTraceRecorder.HEADER_SIZE + i * BinaryTraceRecorder.RECORD_SIZE;
+            if (data.getInt(pos + 12) == BinaryTraceRecorder.Kind.Event.ordinal()) {
+                events.add(names.get(data.getInt(pos + 16)));
+            }
+        }
+        assertEquals(Arrays.asList("Entity0.process", "Entity0.process", "Entity1.process",
+                "Entity1.process", "Entity2.process", "Entity2.process"), events);
+    }
+
+    private static List<String> readNames(Path names) throws IOException {
+        List<String> ret = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(names)))) {
+            while (true) {
+                ret.add(in.readUTF());
+            }
+        } catch (EOFException e) {
+            return ret;
+        }
+    }
+
+    /**
+     * 每个事件在下一个刻度调度下一个事件，优先级在 0, 1, 2 之间循环
+     */
+    private static class ChainTarget extends ProcessTarget {
+        final int num;
+        final int total;
+
+        ChainTarget(int num, int total) {
+            this.num = num;
+            this.total = total;
+        }
+
+        @Override
+        public void process() {
+            if (num + 1 < total) {
+                EventManager.scheduleTicks(1, (num + 1) % 3, false, new ChainTarget(num + 1, total), null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "chain" + num;
+        }
+    }
+
+    /**
+     * 与 EntityTarget 一样，描述中包含会改变的名称，每执行两次改名一次后重新调度自己
+     */
+    private static class RenameTarget extends ProcessTarget {
+        int remaining;
+        int executed;
+        String name = "Entity0";
+
+        RenameTarget(int remaining) {
+            this.remaining = remaining;
+        }
+
+        @Override
+        public void process() {
+            executed++;
+            if (executed % 2 == 0) {
+                name = "Entity" + executed / 2;
+            }
+            if (--remaining > 0) {
+                EventManager.scheduleTicks(1, 0, false, this, null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return name + ".process";
+        }
+    }
+}
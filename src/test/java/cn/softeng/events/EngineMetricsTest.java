@@ -0,0 +1,129 @@
+package cn.softeng.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * EventManager 运行指标测试类
+ * @date: 10/18/2026 11:50 PM
+ */
+@Slf4j
+public class EngineMetricsTest {
+
+    /**
+     * 事件数、结点数的当前值和峰值，条件事件，线程交接和 resume 的耗时
+     */
+    @Test
+    public void test_engineMetrics_noError() {
+        EventManager evt = new EventManager("MetricsTest");
+        EngineMetrics metrics = evt.getMetrics();
+        // 100个时刻，每个时刻两个事件
+        for (int i = 0; i < 100; i++) {
+            evt.scheduleProcessExternal(i, 0, false, new CountTarget(), null);
+            evt.scheduleProcessExternal(i, 0, false, new CountTarget(), null);
+        }
+        assertEquals(100, metrics.getNodes().get());
+        assertEquals(200, metrics.getEvents().get());
+
+        AtomicLong flag = new AtomicLong();
+        evt.scheduleProcessExternal(0, 1, false, new WaitTarget(flag), null);
+        evt.scheduleProcessExternal(0, 1, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                EventManager.scheduleUntil(new CountTarget(), new Conditional() {
+                    @Override
+                    public boolean evaluate() {
+                        return flag.get() > 0;
+                    }
+                }, null);
+            }
+
+            @Override
+            public String getDescription() {
+                return "conditional";
+            }
+        }, null);
+        evt.resumeAsync(50L).join();
+        assertEquals(1, metrics.getConditionals().get());
+        evt.resumeAsync(Long.MAX_VALUE).join();
+        log.debug("{}", metrics);
+
+        assertEquals(0, metrics.getNodes().get());
+        assertEquals(0, metrics.getEvents().get());
+        assertEquals(0, metrics.getConditionals().get());
+        assertEquals(1, metrics.getConditionals().getPeak());
+        // 时刻0有优先级0和1两个结点
+        assertEquals(101, metrics.getNodes().getPeak());
+        assertEquals(evt.getExecutedEventCount(), metrics.getExecutedEvents());
+        // 200个事件、2个启动事件、WaitTarget 的60次唤醒，以及条件满足后的事件
+        assertEquals(263, metrics.getExecutedEvents());
+        assertTrue(metrics.getConditionalEvaluation().getCount() > 0);
+        assertTrue(metrics.getHandoffLatency().getCount() >= 60);
+        assertEquals(2, metrics.getResumeTime().getCount());
+        assertTrue(metrics.getEventsPerSecond() > 0);
+    }
+
+    /**
+     * 直方图的分位数的相对误差不超过 1/8
+     */
+    @Test
+    public void test_logLinearHistogram_relativeError() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 100, 12345, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = LogLinearHistogram.bucketOf(value);
+            assertTrue(LogLinearHistogram.lowerBound(bucket) <= value);
+            assertTrue(LogLinearHistogram.upperBound(bucket) >= value);
+            assertTrue(LogLinearHistogram.upperBound(bucket) - LogLinearHistogram.lowerBound(bucket) <= value / 8);
+        }
+
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100000, histogram.getCount());
+        assertEquals(50000.5, histogram.getMean(), 1e-9);
+        assertEquals(100000, histogram.getMax());
+        assertEquals(50000, histogram.getPercentile(0.5), 50000 / 8.0);
+        assertEquals(99000, histogram.getPercentile(0.99), 99000 / 8.0);
+        histogram.reset();
+        assertEquals(0, histogram.getPercentile(0.5));
+    }
+
+    private static class CountTarget extends ProcessTarget {
+        @Override
+        public void process() {}
+
+        @Override
+        public String getDescription() {
+            return "count";
+        }
+    }
+
+    /**
+     * 每次等待1个刻度，共等待60次，之后设置标志
+     */
+    private static class WaitTarget extends ProcessTarget {
+        final AtomicLong flag;
+
+        WaitTarget(AtomicLong flag) {
+            this.flag = flag;
+        }
+
+        @Override
+        public void process() {
+            for (int i = 0; i < 60; i++) {
+                EventManager.waitTicks(1, 0, false, null);
+            }
+            flag.set(1);
+        }
+
+        @Override
+        public String getDescription() {
+            return "wait";
+        }
+    }
+}
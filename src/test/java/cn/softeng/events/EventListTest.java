@@ -0,0 +1,260 @@
+package cn.softeng.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 未来事件列表测试类，验证各个 EventList 实现与 EventTree 的排序语义完全一致
+ * @date: 10/18/2026 9:30 AM
+ */
+@Slf4j
+public class EventListTest {
+
+    /**
+     * 随机插入、弹出队首、删除任意结点，日历队列每一步的队首结点都应该与红黑树相同
+     */
+    @Test
+    public void test_calendarQueue_sameOrderAsEventTree() {
+        EventTree tree = new EventTree();
+        CalendarQueue calendar = new CalendarQueue();
+        compareWithTree(tree, calendar, new Random(20201104L), 200000);
+        calendar.verify();
+    }
+
+    /**
+     * 将 list 与红黑树在同一组随机操作下逐步比较
+     */
+    static void compareWithTree(EventTree tree, EventList list, Random rand, int steps) {
+        long now = 0;
+        List<long[]> pending = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            int op = rand.nextInt(10);
+            if (op < 5 || pending.isEmpty()) {
+                // 插入一个结点，时间间隔包括：同一时刻、短间隔、长间隔、溢出后的最大值
+                long tick;
+                int gapType = rand.nextInt(20);
+                if (gapType == 0) {
+                    tick = now;
+                } else if (gapType == 1) {
+                    tick = Long.MAX_VALUE;
+                } else if (gapType == 2) {
+                    tick = now + rand.nextInt(Integer.MAX_VALUE) * 1000L;
+                } else {
+                    tick = now + rand.nextInt(5000);
+                }
+                int priority = rand.nextInt(6);
+                EventNode t = tree.createOrFindNode(tick, priority);
+                EventNode l = list.createOrFindNode(tick, priority);
+                assertEquals(t.schedTick, l.schedTick);
+                assertEquals(t.priority, l.priority);
+                pending.add(new long[]{tick, priority});
+            } else if (op < 8) {
+                // 弹出队首结点并推进时间
+                EventNode t = tree.getNextNode();
+                EventNode l = list.getNextNode();
+                assertEquals(t.schedTick, l.schedTick);
+                assertEquals(t.priority, l.priority);
+                now = t.schedTick == Long.MAX_VALUE ? now : t.schedTick;
+                long tick = t.schedTick;
+                int priority = t.priority;
+                assertTrue(tree.removeNode(tick, priority));
+                assertTrue(list.removeNode(tick, priority));
+                pending.removeIf(k -> k[0] == tick && k[1] == priority);
+            } else {
+                // 删除一个任意的结点（模拟 killEvent）
+                long[] key = pending.get(rand.nextInt(pending.size()));
+                boolean t = tree.removeNode(key[0], (int) key[1]);
+                boolean l = list.removeNode(key[0], (int) key[1]);
+                assertEquals(t, l);
+                pending.removeIf(k -> k[0] == key[0] && k[1] == key[1]);
+            }
+        }
+
+        // 依次取出剩余的所有结点
+        while (tree.getNextNode() != null) {
+            EventNode t = tree.getNextNode();
+            EventNode l = list.getNextNode();
+            assertEquals(t.schedTick, l.schedTick);
+            assertEquals(t.priority, l.priority);
+            assertTrue(tree.removeNode(t.schedTick, t.priority));
+            assertTrue(list.removeNode(l.schedTick, l.priority));
+        }
+        assertNull(list.getNextNode());
+    }
+
+    /**
+     * 随机插入、弹出队首、删除任意结点，4叉堆每一步的队首结点都应该与红黑树相同
+     */
+    @Test
+    public void test_arrayHeap_sameOrderAsEventTree() {
+        EventTree tree = new EventTree();
+        ArrayHeap heap = new ArrayHeap();
+        compareWithTree(tree, heap, new Random(20201104L), 200000);
+        heap.verify();
+    }
+
+    /**
+     * 重复查询同一个 (刻度, 优先级) 应返回同一个结点
+     */
+    @Test
+    public void test_eventLists_findExistingNode() {
+        CalendarQueue calendar = new CalendarQueue();
+        EventNode first = calendar.createOrFindNode(100, 1);
+        for (int i = 0; i < 1000; i++) {
+            calendar.createOrFindNode(i * 7, i % 3);
+        }
+        assertSame(first, calendar.createOrFindNode(100, 1));
+        assertEquals(1001, calendar.verify());
+
+        ArrayHeap heap = new ArrayHeap();
+        first = heap.createOrFindNode(100, 1);
+        for (int i = 0; i < 1000; i++) {
+            heap.createOrFindNode(i * 7, i % 3);
+        }
+        assertSame(first, heap.createOrFindNode(100, 1));
+        assertEquals(1001, heap.verify());
+    }
+
+    /**
+     * 在同一个结点上随机 FIFO/LIFO 插入事件、删除任意事件，事件链表的顺序和前驱指针应始终与参考链表一致
+     */
+    @Test
+    public void test_eventNode_removeEvent_keepsOrder() {
+        EventNode node = new EventNode(0, 0);
+        LinkedList<Event> expected = new LinkedList<>();
+        Random rand = new Random(11L);
+        for (int i = 0; i < 20000; i++) {
+            if (expected.isEmpty() || rand.nextInt(3) > 0) {
+                Event evt = new Event();
+                boolean fifo = rand.nextBoolean();
+                node.addEvent(evt, fifo);
+                if (fifo) {
+                    expected.addLast(evt);
+                } else {
+                    expected.addFirst(evt);
+                }
+            } else {
+                Event evt = expected.remove(rand.nextInt(expected.size()));
+                node.removeEvent(evt);
+            }
+
+            if (i % 100 == 0) {
+                Event prev = null;
+                Event each = node.head;
+                for (Event evt : expected) {
+                    assertSame(evt, each);
+                    assertSame(prev, each.prev);
+                    prev = each;
+                    each = each.next;
+                }
+                assertNull(each);
+                assertSame(prev, node.tail);
+            }
+        }
+    }
+
+    /**
+     * 同一组外部事件(包括相同时刻、相同优先级下的 FIFO/LIFO)在不同的事件列表实现下，执行顺序应完全相同
+     */
+    @Test
+    public void test_eventManagerListTypes_sameExecutionOrder() throws InterruptedException {
+        List<String> expected = runRandomSchedule(EventManager.ListType.RedBlackTree);
+        for (EventManager.ListType type : EventManager.ListType.values()) {
+            assertEquals(type.toString(), expected, runRandomSchedule(type));
+        }
+        log.debug("executed {} events", expected.size());
+    }
+
+    private static List<String> runRandomSchedule(EventManager.ListType type) throws InterruptedException {
+        EventManager evt = new EventManager("ListTypeTest", type);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Random rand = new Random(7L);
+        for (int i = 0; i < 2000; i++) {
+            long ticks = rand.nextInt(200);
+            int priority = rand.nextInt(3);
+            boolean fifo = rand.nextBoolean();
+            evt.scheduleProcessExternal(ticks, priority, fifo, new RecordTarget("e" + i, order, rand.nextInt(4)), null);
+        }
+        evt.resume(Long.MAX_VALUE);
+        while (evt.isRunning()) {
+            Thread.sleep(1);
+        }
+        return order;
+    }
+
+    /**
+     * 批量调度与逐个调度同一组外部事件(随机时刻、优先级，FIFO 和 LIFO)，执行顺序应完全相同
+     */
+    @Test
+    public void test_scheduleBatch_sameOrderAsSequential() throws InterruptedException {
+        for (boolean fifo : new boolean[]{true, false}) {
+            assertEquals(runSchedule(fifo, false), runSchedule(fifo, true));
+        }
+    }
+
+    private static List<String> runSchedule(boolean fifo, boolean batch) throws InterruptedException {
+        EventManager evt = new EventManager("BatchTest");
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Random rand = new Random(13L);
+        int num = 5000;
+        long[] ticks = new long[num];
+        int[] priorities = new int[num];
+        ProcessTarget[] targets = new ProcessTarget[num];
+        for (int i = 0; i < num; i++) {
+            ticks[i] = rand.nextInt(300);
+            priorities[i] = rand.nextInt(3);
+            targets[i] = new RecordTarget("e" + i, order, rand.nextInt(3));
+        }
+        if (batch) {
+            evt.scheduleProcessExternalBatch(ticks, priorities, fifo, targets);
+        } else {
+            for (int i = 0; i < num; i++) {
+                evt.scheduleProcessExternal(ticks[i], priorities[i], fifo, targets[i], null);
+            }
+        }
+        evt.resume(Long.MAX_VALUE);
+        while (evt.isRunning()) {
+            Thread.sleep(1);
+        }
+        return order;
+    }
+
+    /**
+     * 记录执行顺序的target，执行时还会在当前时刻之后调度若干新事件
+     */
+    private static class RecordTarget extends ProcessTarget {
+        final String name;
+        final List<String> order;
+        final int children;
+
+        RecordTarget(String name, List<String> order, int children) {
+            this.name = name;
+            this.order = order;
+            this.children = children;
+        }
+
+        @Override
+        public void process() {
+            order.add(name);
+            for (int i = 0; i < children; i++) {
+                EventManager.scheduleTicks(i, i % 2, i % 3 == 0, new RecordTarget(name + "." + i, order, children - 1), null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return name;
+        }
+    }
+}
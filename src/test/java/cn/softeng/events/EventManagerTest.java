@@ -1,8 +1,23 @@
 package cn.softeng.events;
 
 import lombok.extern.slf4j.Slf4j;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 
 /**
  * EventManager测试类，主要测试事件调度机制是否正常
@@ -80,5 +95,494 @@ public class EventManagerTest {
         }
     }
 
+    /**
+     * 测试 inline 模式：所有事件都在调用 resume() 的线程中执行，resume() 返回时调度器已经停止
+     */
+    @Test
+    public void test_inlineSchedule_runsOnCallingThread() {
+        EventManager evt = new EventManager("InlineEventManager");
+        evt.setExecuteInline(true);
+        List<Thread> threads = new ArrayList<>();
+        evt.scheduleProcessExternal(0, 0, false, new InlineTestTarget(threads, 10), null);
+        evt.resume(1000);
+
+        assertFalse(evt.isRunning());
+        assertEquals(11, threads.size());
+        for (Thread thread : threads) {
+            assertSame(Thread.currentThread(), thread);
+        }
+        assertEquals(20, evt.getTicks());
+    }
+
+    /**
+     * 测试 inline 模式下调用阻塞方法 waitTicks 会报错，并停止调度
+     */
+    @Test
+    public void test_inlineWait_reportsError() {
+        EventManager evt = new EventManager("InlineEventManager");
+        evt.setExecuteInline(true);
+        List<Throwable> errors = new ArrayList<>();
+        evt.setTimeListener(new EventTimeListener() {
+            @Override
+            public void tickUpdate(long tick) {}
+
+            @Override
+            public void timeRunning() {}
+
+            @Override
+            public void handleError(Throwable t) {
+                errors.add(t);
+            }
+        });
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                EventManager.waitTicks(1, 0, false, null);
+            }
+
+            @Override
+            public String getDescription() {
+                return "inlineWait";
+            }
+        }, null);
+        evt.resume(100);
+
+        assertFalse(evt.isRunning());
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof ProcessError);
+    }
+
+    /**
+     * 测试 inline 模式运行期间，其他线程调用 scheduleProcessExternal 不会阻塞到本次运行结束
+     */
+    @Test
+    public void test_inlineSchedule_acceptsExternalScheduling() throws Exception {
+        EventManager evt = new EventManager("InlineEventManager");
+        evt.setExecuteInline(true);
+        AtomicBoolean scheduled = new AtomicBoolean();
+        List<Long> fired = Collections.synchronizedList(new ArrayList<>());
+        Thread[] external = new Thread[1];
+        ProcessTarget record = new ProcessTarget() {
+            @Override
+            public void process() {
+                fired.add(EventManager.simTicks());
+            }
+
+            @Override
+            public String getDescription() {
+                return "external";
+            }
+        };
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                external[0] = new Thread(() -> {
+                    evt.scheduleProcessExternal(0, 0, false, record, null);
+                    scheduled.set(true);
+                });
+                external[0].start();
+                EventManager.scheduleTicks(1, 0, false, new ChainTarget(scheduled), null);
+            }
+
+            @Override
+            public String getDescription() {
+                return "start";
+            }
+        }, null);
+        evt.resume(Long.MAX_VALUE - 1);
+        external[0].join(10_000);
+
+        assertEquals(1, fired.size());
+        assertTrue(fired.get(0) < ChainTarget.LIMIT);
+        assertTrue(evt.getTicks() < ChainTarget.LIMIT);
+    }
+
+    /**
+     * 每个刻度调度一次自己，直到外部线程完成调度或达到上限
+     */
+    private static class ChainTarget extends ProcessTarget {
+        static final long LIMIT = 5_000_000;
+        final AtomicBoolean scheduled;
+
+        ChainTarget(AtomicBoolean scheduled) {
+            this.scheduled = scheduled;
+        }
+
+        @Override
+        public void process() {
+            if (!scheduled.get() && EventManager.simTicks() < LIMIT) {
+                EventManager.scheduleTicks(1, 0, false, new ChainTarget(scheduled), null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "chain";
+        }
+    }
+
+    /**
+     * 测试 resumeAsync 返回的 future 在调度器到达目标时刻、或事件队列为空而停止时完成，值为停止时的刻度
+     */
+    @Test
+    public void test_resumeAsync_completesWhenStopped() throws Exception {
+        EventManager evt = new EventManager("AsyncEventManager");
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        evt.scheduleProcessExternal(0, 0, false, new InlineTestTarget(threads, 10), null);
+
+        assertEquals(7L, (long) evt.resumeAsync(7L).get(10, TimeUnit.SECONDS));
+        assertFalse(evt.isRunning());
+        assertEquals(4, threads.size());
+
+        assertEquals(20L, (long) evt.resumeAsync(1000L).get(10, TimeUnit.SECONDS));
+        assertFalse(evt.isRunning());
+        assertEquals(11, threads.size());
+    }
+
+    /**
+     * 测试执行事件出错时，resumeAsync 返回的 future 以该异常完成
+     */
+    @Test
+    public void test_resumeAsync_completesExceptionallyOnError() throws Exception {
+        EventManager evt = new EventManager("AsyncEventManager");
+        evt.scheduleProcessExternal(5, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                throw new IllegalStateException("model error");
+            }
+
+            @Override
+            public String getDescription() {
+                return "error";
+            }
+        }, null);
+        try {
+            evt.resumeAsync(100L).get(10, TimeUnit.SECONDS);
+            fail("the future should complete exceptionally");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertFalse(evt.isRunning());
+    }
+
+    /**
+     * 测试声明了依赖信号的条件只在信号 signal() 后被检查，且与轮询的条件在同一时刻被满足
+     */
+    @Test
+    public void test_signalConditional_evaluatedOnlyWhenSignalled() {
+        int[] polling = runCounterConditional(false);
+        int[] signalled = runCounterConditional(true);
+        // 条件满足的时刻相同
+        assertEquals(50, polling[0]);
+        assertEquals(50, signalled[0]);
+        // 开始等待时检查一次，之后每次信号检查一次
+        assertEquals(6, signalled[1]);
+        assertTrue(polling[1] > 50);
+    }
+
+    /**
+     * 每10个刻度计数器加一，每个刻度还有一个无关的事件，等待计数器达到5
+     * @return {条件满足时的刻度, 条件被检查的次数}
+     */
+    private static int[] runCounterConditional(boolean useSignal) {
+        EventManager evt = new EventManager("ConditionalEventManager");
+        evt.setExecuteInline(true);
+        int[] counter = {0};
+        int[] result = {-1, 0};
+        StateSignal signal = new StateSignal("counter");
+        Conditional cond = new Conditional() {
+            @Override
+            public boolean evaluate() {
+                result[1]++;
+                return counter[0] >= 5;
+            }
+
+            @Override
+            public StateSignal[] getDependencies() {
+                return useSignal ? new StateSignal[]{signal} : null;
+            }
+        };
+        ProcessTarget fired = new ProcessTarget() {
+            @Override
+            public void process() {
+                result[0] = (int) EventManager.simTicks();
+            }
+
+            @Override
+            public String getDescription() {
+                return "fired";
+            }
+        };
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                EventManager.scheduleUntil(fired, cond, null);
+            }
+
+            @Override
+            public String getDescription() {
+                return "startWaiting";
+            }
+        }, null);
+        for (int i = 1; i <= 100; i++) {
+            boolean increment = i % 10 == 0;
+            evt.scheduleProcessExternal(i, 1, false, new ProcessTarget() {
+                @Override
+                public void process() {
+                    if (increment) {
+                        counter[0]++;
+                        signal.signal();
+                    }
+                }
+
+                @Override
+                public String getDescription() {
+                    return "tick";
+                }
+            }, null);
+        }
+        evt.resume(1000);
+        assertEquals(0, signal.getWaiterCount());
+        return result;
+    }
+
+    /**
+     * 测试信号条件检查出错后恢复运行，出错时尚未检查的信号条件不会丢失标记
+     */
+    @Test
+    public void test_signalConditional_errorKeepsDirtyMarks() throws Exception {
+        EventManager evt = new EventManager("ConditionalEventManager");
+        evt.setExecuteInline(true);
+        int[] counter = {0};
+        boolean[] failed = {false};
+        List<String> fired = new ArrayList<>();
+        StateSignal signal = new StateSignal("counter");
+        Conditional failing = new Conditional() {
+            @Override
+            public boolean evaluate() {
+                if (counter[0] > 0 && !failed[0]) {
+                    failed[0] = true;
+                    throw new IllegalStateException("condition error");
+                }
+                return counter[0] > 0;
+            }
+
+            @Override
+            public StateSignal[] getDependencies() {
+                return new StateSignal[]{signal};
+            }
+        };
+        Conditional waiting = new Conditional() {
+            @Override
+            public boolean evaluate() {
+                return counter[0] > 0;
+            }
+
+            @Override
+            public StateSignal[] getDependencies() {
+                return new StateSignal[]{signal};
+            }
+        };
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                EventManager.scheduleUntil(new RecordTarget(fired, "failing"), failing, null);
+                EventManager.scheduleUntil(new RecordTarget(fired, "waiting"), waiting, null);
+            }
+
+            @Override
+            public String getDescription() {
+                return "startWaiting";
+            }
+        }, null);
+        evt.scheduleProcessExternal(10, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                counter[0]++;
+                signal.signal();
+            }
+
+            @Override
+            public String getDescription() {
+                return "increment";
+            }
+        }, null);
+        evt.scheduleProcessExternal(100, 0, false, new RecordTarget(fired, "end"), null);
+
+        try {
+            evt.resumeAsync(1000L).get(10, TimeUnit.SECONDS);
+            fail("the future should complete exceptionally");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(10, evt.getTicks());
+        assertTrue(fired.isEmpty());
+
+        // 没有新的信号，两个条件仍然在恢复运行后被检查
+        assertEquals(100L, (long) evt.resumeAsync(1000L).get(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("failing@10", "waiting@10", "end@100"), fired);
+        assertEquals(0, signal.getWaiterCount());
+    }
+
+    /**
+     * 记录执行的时刻
+     */
+    private static class RecordTarget extends ProcessTarget {
+        final List<String> fired;
+        final String name;
+
+        RecordTarget(List<String> fired, String name) {
+            this.fired = fired;
+            this.name = name;
+        }
+
+        @Override
+        public void process() {
+            fired.add(name + "@" + EventManager.simTicks());
+        }
 
+        @Override
+        public String getDescription() {
+            return name;
+        }
+    }
+
+    /**
+     * 用于测试 inline 模式的target，记录执行线程，并在2个刻度后调度下一个target
+     */
+    private static class InlineTestTarget extends ProcessTarget {
+        final List<Thread> threads;
+        final int remaining;
+
+        InlineTestTarget(List<Thread> threads, int remaining) {
+            this.threads = threads;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public void process() {
+            threads.add(Thread.currentThread());
+            if (remaining > 0) {
+                EventManager.scheduleTicks(2, 0, false, new InlineTestTarget(threads, remaining - 1), null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "inlineTest" + remaining;
+        }
+    }
+
+    /**
+     * 测试平台线程下，多个同时等待(waitTicks)的 Process 按等待时长依次被唤醒
+     */
+    @Test
+    public void test_platformThreads_waitTicks_noError() throws InterruptedException {
+        assertEquals(expectedWakeOrder(50), runWaitingProcesses(EventManager.ThreadType.Platform, 50));
+    }
+
+    /**
+     * 测试虚拟线程下，多个同时等待(waitTicks)的 Process 按等待时长依次被唤醒，仅在 Java 21+ 上运行
+     */
+    @Test
+    public void test_virtualThreads_waitTicks_noError() throws InterruptedException {
+        Assume.assumeTrue(EventManager.isVirtualThreadSupported());
+        assertEquals(expectedWakeOrder(50), runWaitingProcesses(EventManager.ThreadType.Virtual, 50));
+    }
+
+    /**
+     * 测试 Process 池的预先创建以及空闲、活跃、峰值统计
+     */
+    @Test
+    public void test_processPool_prestartAndStats_noError() throws InterruptedException {
+        EventManager evt = new EventManager("PoolEventManager");
+        evt.setMinProcessPoolSize(8);
+        evt.prestartProcesses();
+        assertEquals(8, evt.getIdleProcessCount());
+        assertEquals(0, evt.getActiveProcessCount());
+
+        // 20个同时等待的 Process，加上执行事件循环的 Process
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                for (int i = 0; i < 20; i++) {
+                    EventManager.startProcess(new WaitTestTarget(i, 20 - i, order));
+                }
+            }
+
+            @Override
+            public String getDescription() {
+                return "startWaiting";
+            }
+        }, null);
+        evt.resume(Long.MAX_VALUE);
+        while (evt.isRunning()) {
+            Thread.sleep(1);
+        }
+        assertEquals(expectedWakeOrder(20), order);
+        assertEquals(21, evt.getPeakActiveProcessCount());
+        assertEquals(21, evt.getIdleProcessCount() + evt.getActiveProcessCount());
+    }
+
+    private static List<Integer> expectedWakeOrder(int num) {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = num - 1; i >= 0; i--) {
+            expected.add(i);
+        }
+        return expected;
+    }
+
+    /**
+     * 启动 num 个 Process，第 i 个 Process 等待 num - i 个刻度后记录自己的编号
+     */
+    private static List<Integer> runWaitingProcesses(EventManager.ThreadType type, int num) throws InterruptedException {
+        EventManager evt = new EventManager("WaitingEventManager");
+        evt.setThreadType(type);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+            @Override
+            public void process() {
+                for (int i = 0; i < num; i++) {
+                    EventManager.startProcess(new WaitTestTarget(i, num - i, order));
+                }
+            }
+
+            @Override
+            public String getDescription() {
+                return "startWaiting";
+            }
+        }, null);
+        evt.resume(Long.MAX_VALUE);
+        while (evt.isRunning()) {
+            Thread.sleep(1);
+        }
+        return order;
+    }
+
+    /**
+     * 用于测试阻塞等待的target，等待指定的刻度后记录自己的编号
+     */
+    private static class WaitTestTarget extends ProcessTarget {
+        final int num;
+        final long ticks;
+        final List<Integer> order;
+
+        WaitTestTarget(int num, long ticks, List<Integer> order) {
+            this.num = num;
+            this.ticks = ticks;
+            this.order = order;
+        }
+
+        @Override
+        public void process() {
+            EventManager.waitTicks(ticks, 0, false, null);
+            order.add(num);
+        }
+
+        @Override
+        public String getDescription() {
+            return "waitTest" + num;
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package cn.softeng.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 事件跟踪回放比较测试类
+ * @date: 10/18/2026 11:20 PM
+ */
+@Slf4j
+public class TraceReplayTest {
+
+    private final List<Path> files = new ArrayList<>();
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path each : files) {
+            Files.deleteIfExists(each);
+            Files.deleteIfExists(BinaryTraceRecorder.namesFile(each));
+        }
+    }
+
+    /**
+     * 同样的运行与记录完全相同，改变同一时刻同优先级事件的 FIFO/LIFO 顺序后，在第一个被调换的事件处报告不同
+     */
+    @Test
+    public void test_replaySameAndChangedOrder_noError() throws IOException {
+        Path trace = record(false);
+
+        TraceReplay same = new TraceReplay(trace);
+        run(false, same);
+        assertNull(same.finish());
+        assertTrue(same.getMatchedCount() > 1000);
+        same.close();
+
+        TraceReplay changed = new TraceReplay(trace);
+        run(true, changed);
+        TraceReplay.Divergence divergence = changed.finish();
+        changed.close();
+        assertNotNull(divergence);
+        log.debug("{}", divergence);
+        // 第一个时刻的事件由外部调度，顺序相同，之后同一时刻事件的执行顺序相反
+        assertEquals(BinaryTraceRecorder.Kind.Event, divergence.getActual().getKind());
+        assertEquals(10, divergence.getActual().getTick());
+        assertEquals(10, divergence.getExpected().getTick());
+        assertEquals("chain0", divergence.getExpected().getDescription());
+        assertEquals("chain2", divergence.getActual().getDescription());
+    }
+
+    /**
+     * 比较两个记录文件，以及记录文件比实际运行长的情况
+     */
+    @Test
+    public void test_diffTraces_noError() throws IOException {
+        Path a = record(false);
+        Path b = record(false);
+        Path c = record(true);
+        assertNull(TraceReplay.diff(a, b));
+        TraceReplay.Divergence divergence = TraceReplay.diff(a, c);
+        assertNotNull(divergence);
+        assertEquals(BinaryTraceRecorder.Kind.Event, divergence.getExpected().getKind());
+
+        // 实际运行提前结束
+        TraceReplay shorter = new TraceReplay(a);
+        EventManager evt = new EventManager("TraceReplayTest");
+        evt.setExecuteInline(true);
+        evt.setTraceListener(shorter);
+        schedule(evt, false);
+        evt.resume(50);
+        divergence = shorter.finish();
+        shorter.close();
+        assertNotNull(divergence);
+        assertNull(divergence.getActual());
+        assertEquals(shorter.getMatchedCount(), divergence.getIndex());
+    }
+
+    private Path record(boolean fifo) throws IOException {
+        Path file = Files.createTempFile("dessim", ".trace");
+        files.add(file);
+        BinaryTraceRecorder recorder = new BinaryTraceRecorder(file);
+        recorder.setLossless(true);
+        run(fifo, recorder);
+        recorder.close();
+        return file;
+    }
+
+    private static void run(boolean fifo, EventTraceListener listener) {
+        EventManager evt = new EventManager("TraceReplayTest");
+        evt.setExecuteInline(true);
+        evt.setTraceListener(listener);
+        schedule(evt, fifo);
+        evt.resume(Long.MAX_VALUE);
+        evt.setTraceListener(null);
+    }
+
+    /**
+     * 三条事件链，每个事件在10个刻度后以同样的优先级调度下一个事件，所以每个时刻都有三个同优先级的事件
+     */
+    private static void schedule(EventManager evt, boolean fifo) {
+        for (int i = 0; i < 3; i++) {
+            evt.scheduleProcessExternal(0, 0, false, new TieTarget("chain" + i, 200, fifo), null);
+        }
+    }
+
+    private static class TieTarget extends ProcessTarget {
+        final String name;
+        final boolean fifo;
+        int remaining;
+
+        TieTarget(String name, int remaining, boolean fifo) {
+            this.name = name;
+            this.remaining = remaining;
+            this.fifo = fifo;
+        }
+
+        @Override
+        public void process() {
+            if (--remaining > 0) {
+                EventManager.scheduleTicks(10, 0, fifo, this, null);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return name;
+        }
+    }
+}
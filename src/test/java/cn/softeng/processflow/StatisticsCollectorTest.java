@@ -0,0 +1,171 @@
+package cn.softeng.processflow;
+
+import cn.softeng.DesSim;
+import cn.softeng.SimulationContext;
+import cn.softeng.events.EventManager;
+import cn.softeng.events.EventTimeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计数据只在改变时记录，读取时补齐的序列与每个时刻记录所有组件的结果相同
+ * 对照值由时间监听器在每次时钟推进时(即统计数据记录之后)读取所有组件的计数器得到
+ * @date: 10/19/2026 1:10 AM
+ */
+@Slf4j
+public class StatisticsCollectorTest {
+
+    private static final String[] NAMES = {"Source", "Queue1", "Server1", "Queue2", "Server2", "EntitySink"};
+
+    @Test
+    public void test_generatorStatisticsEquivalent_noError() {
+        SimulationContext context = new SimulationContext("generatorStatistics");
+        context.run(() -> buildModel(context, true));
+        Map<Double, long[][]> expected = recordSnapshots(context);
+
+        context.initModel(DesSim.Type.Generator, 0);
+        context.resume(100);
+        expected.put(context.currentSimTime(), snapshot(context));
+        context.resume(250);
+        expected.put(context.currentSimTime(), snapshot(context));
+
+        assertEquivalent(context, expected);
+
+        // 下游组件大部分时刻没有改变，记录的次数远少于时钟序列的长度
+        int points = context.getTimePointList().size();
+        LinkedComponent sink = context.getEntity("EntitySink");
+        log.debug("time points: {}, sink samples: {}", points, sink.samples.size());
+        assertTrue(sink.samples.size() < points / 2);
+    }
+
+    @Test
+    public void test_launcherStatisticsEquivalent_noError() {
+        SimulationContext context = new SimulationContext("launcherStatistics");
+        context.run(() -> buildModel(context, false));
+        Map<Double, long[][]> expected = recordSnapshots(context);
+
+        context.initModel(DesSim.Type.Launcher);
+        // 第一次注入的时刻大于0，注入时清空之前的统计数据
+        context.inject(new double[]{5, 6, 7, 30, 31}, new int[]{2, 1, 3, 4, 1});
+        context.resume(20);
+        expected.put(context.currentSimTime(), snapshot(context));
+        context.inject(new double[]{40}, new int[]{5});
+        context.resume(120);
+        expected.put(context.currentSimTime(), snapshot(context));
+
+        assertEquals(5.0, context.getTimePointList().get(0), 0);
+        assertEquivalent(context, expected);
+    }
+
+    /**
+     * 在不执行事件的线程中记录统计数据，记录到上下文的事件管理器的当前时刻
+     */
+    @Test
+    public void test_updateStatisticsOutsideEvents_noError() {
+        SimulationContext context = new SimulationContext("outsideStatistics");
+        context.run(() -> buildModel(context, true));
+        context.initModel(DesSim.Type.Generator, 0);
+        context.resume(100);
+
+        LinkedComponent sink = context.getEntity("EntitySink");
+        long processed = sink.getNumberProcessed();
+        int points = context.getTimePointList().size();
+        sink.incrementNumberProcessed();
+        context.updateStatistics();
+
+        List<Double> times = context.getTimePointList();
+        assertEquals(points, times.size());
+        assertEquals(100.0, times.get(times.size() - 1), 0);
+        List<Long> values = context.getDataList("EntitySink", DesSim.NumberProcessed);
+        assertEquals(processed + 1, (long) values.get(values.size() - 1));
+    }
+
+    /**
+     * source -> Queue1 -> Server1 -> Queue2 -> Server2 -> EntitySink，Server2 比到达慢，Queue2 不断增长
+     */
+    private static void buildModel(SimulationContext context, boolean generator) {
+        LinkedComponent source;
+        if (generator) {
+            EntityGenerator entityGenerator = new EntityGenerator("Source");
+            entityGenerator.setFirstArrivalTime(1);
+            entityGenerator.setInterArrivalTime(2);
+            entityGenerator.setPrototypeEntity(new SimEntity("DefaultEntity"));
+            source = entityGenerator;
+        } else {
+            source = new EntityLauncher("Source");
+        }
+        Queue queue1 = new Queue("Queue1");
+        Server server1 = new Server("Server1");
+        Queue queue2 = new Queue("Queue2");
+        Server server2 = new Server("Server2");
+        EntitySink sink = new EntitySink("EntitySink");
+
+        source.setNextComponent(queue1);
+        server1.setWaitQueue(queue1);
+        server1.setServiceTime(1.5);
+        server1.setNextComponent(queue2);
+        server2.setWaitQueue(queue2);
+        server2.setServiceTime(2.5);
+        server2.setNextComponent(sink);
+    }
+
+    /**
+     * 每次时钟推进时，以推进前的时刻为键保存所有组件的计数器
+     */
+    private static Map<Double, long[][]> recordSnapshots(SimulationContext context) {
+        Map<Double, long[][]> ret = new HashMap<>();
+        EventManager em = context.getEventManager();
+        em.setTimeListener(new EventTimeListener() {
+            long prevTick;
+
+            @Override
+            public void tickUpdate(long tick) {
+                ret.put(em.ticksToSeconds(prevTick), snapshot(context));
+                prevTick = tick;
+            }
+
+            @Override
+            public void timeRunning() {}
+
+            @Override
+            public void handleError(Throwable t) {}
+        });
+        return ret;
+    }
+
+    private static long[][] snapshot(SimulationContext context) {
+        long[][] ret = new long[NAMES.length][];
+        for (int i = 0; i < NAMES.length; i++) {
+            LinkedComponent comp = context.getEntity(NAMES[i]);
+            ret[i] = new long[]{comp.getNumberAdded(), comp.getNumberProcessed(), comp.getNumberInProgress()};
+        }
+        return ret;
+    }
+
+    private static void assertEquivalent(SimulationContext context, Map<Double, long[][]> expected) {
+        List<Double> times = context.getTimePointList();
+        assertTrue(times.size() > 10);
+        String[] attrs = {DesSim.NumberAdded, DesSim.NumberProcessed, DesSim.NumberInProgress};
+        for (int i = 0; i < NAMES.length; i++) {
+            assertEquals(times, context.getEntity(NAMES[i]).getTimeList());
+            for (int a = 0; a < attrs.length; a++) {
+                List<Long> values = new ArrayList<>();
+                for (double time : times) {
+                    long[][] snapshot = expected.get(time);
+                    assertNotNull("no snapshot at " + time, snapshot);
+                    values.add(snapshot[i][a]);
+                }
+                assertEquals(NAMES[i] + " " + attrs[a], values, context.getDataList(NAMES[i], attrs[a]));
+            }
+        }
+    }
+}